@@ -34,13 +34,13 @@ import static net.visualillusionsent.utils.Verify.notNull;
  * Abstract Properties File
  *
  * @author Jason (darkdiplomat)
- * @version 1.4
+ * @version 1.5
  * @since 1.1.0
  */
 public abstract class AbstractPropertiesFile {
 
-    /* 1.4 @ VIUtils 1.4.1 */
-    private static final float classVersion = 1.4F;
+    /* 1.5 @ VIUtils 1.4.3 */
+    private static final float classVersion = 1.5F;
     protected File propsFile;
     protected String filePath;
     protected ZipFile zip;
@@ -52,6 +52,8 @@ public abstract class AbstractPropertiesFile {
     protected List<String> header;
     protected List<String> footer;
     protected boolean hasChanged;
+    /** Modification stamp, advanced whenever a property value changes or the file is reloaded */
+    protected volatile int modCount;
 
     /**
      * Creates or loads a Properties File
@@ -1524,6 +1526,33 @@ public abstract class AbstractPropertiesFile {
      */
     protected abstract String getInlineComment(String key);
 
+    /**
+     * Gets the map of keys to properties for readers within VIUtils
+     *
+     * @return the properties map; may be {@code null} if nothing was loaded
+     */
+    Map<String, String> backingMap() {
+        return props;
+    }
+
+    /**
+     * Flags the PropertiesFile as changed and advances the modification stamp
+     */
+    protected final void markChanged() {
+        this.hasChanged = true;
+        this.modCount++;
+    }
+
+    /**
+     * Gets the current modification stamp of the PropertiesFile<br>
+     * The stamp changes whenever a property value is set or removed, or the file is reloaded
+     *
+     * @return the modification stamp
+     */
+    public int getModificationStamp() {
+        return modCount;
+    }
+
     /**
      * Gets the File Path of the Properties File
      *
@@ -0,0 +1,413 @@
+/*
+ * This file is part of VIUtils.
+ *
+ * Copyright © 2012-2015 Visual Illusions Entertainment
+ *
+ * VIUtils is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this library.
+ * If not, see http://www.gnu.org/licenses/lgpl.html.
+ */
+package net.visualillusionsent.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Batch Future
+ * <p/>
+ * The pending results of a batch of tasks submitted together with {@link TaskPool#submitAll(java.util.Collection)}.<br>
+ * Rather than queueing each task, a few drainers are queued which take the tasks of the batch in order from a shared counter,
+ * so the whole batch costs a handful of queue insertions.
+ * <p/>
+ * {@link #get()} waits for all of the tasks, {@link #getAny()} waits for the first one to succeed,
+ * and {@link #getCompletedResults()} and {@link #getFailures()} collect the results so far without waiting.
+ * Continuations run once all of the tasks have completed, with the same outcome as {@link #get()}.
+ *
+ * @param <V>
+ *         the result type of the tasks
+ *
+ * @author Jason (darkdiplomat)
+ * @version 1.0
+ * @since 1.4.3
+ */
+public final class BatchFuture<V> implements TaskFuture<List<V>> {
+
+    /* 1.0 @ VIUtils 1.4.3 */
+    private static final float classVersion = 1.0F;
+    /** Stands for a null result, as the results array holds null for tasks not yet complete */
+    private static final Object NULL_RESULT = new Object();
+    private final Callable<?>[] tasks;
+    private final AtomicReferenceArray<Object> results;
+    private final AtomicInteger next = new AtomicInteger();
+    private final AtomicInteger remaining;
+    private final AtomicInteger firstSuccess = new AtomicInteger(-1);
+    private final CountDownLatch allDone;
+    private final CountDownLatch anyDone = new CountDownLatch(1);
+    private final List<Future<?>> drainers = new CopyOnWriteArrayList<Future<?>>();
+    private volatile boolean cancelled;
+    /** Set once the batch completes, by its last task or by cancellation */
+    private final AtomicBoolean completed = new AtomicBoolean();
+    /** The drainers that have not finished or been cancelled */
+    private final AtomicInteger liveDrainers = new AtomicInteger();
+    /** Completed along with the batch, to run its continuations */
+    private final TaskPromise<List<V>> promise = new TaskPromise<List<V>>();
+
+    BatchFuture(Callable<?>[] tasks) {
+        this.tasks = tasks;
+        this.results = new AtomicReferenceArray<Object>(tasks.length);
+        this.remaining = new AtomicInteger(tasks.length);
+        this.allDone = new CountDownLatch(tasks.length == 0 ? 0 : 1);
+        if (tasks.length == 0) {
+            completed.set(true);
+            anyDone.countDown();
+            promise.complete(new ArrayList<V>(0));
+        }
+    }
+
+    /**
+     * Creates a drainer to run the tasks of the batch, which is queued on the executor as is<br>
+     * Once every drainer has finished or been cancelled, such as dropped by a full queue or a shutdown,
+     * the tasks no drainer claimed fail with a {@link CancellationException}, so the batch always completes.
+     */
+    final RunnableFuture<?> newDrainer() {
+        Drainer drainer = new Drainer();
+        liveDrainers.incrementAndGet();
+        drainers.add(drainer);
+        return drainer;
+    }
+
+    private void finished(int index, Object result) {
+        results.set(index, result);
+        if (!(result instanceof Failure) && firstSuccess.compareAndSet(-1, index)) {
+            anyDone.countDown();
+        }
+        if (remaining.decrementAndGet() == 0 && completed.compareAndSet(false, true)) {
+            allDone.countDown();
+            anyDone.countDown(); // Nothing succeeded
+            try {
+                promise.complete(allResults());
+            }
+            catch (ExecutionException eex) {
+                promise.fail(eex.getCause());
+            }
+        }
+    }
+
+    /** Fails the tasks no drainer has claimed */
+    private void failUnclaimed() {
+        int index;
+        while ((index = next.getAndIncrement()) < tasks.length) {
+            finished(index, new Failure(new CancellationException()));
+        }
+    }
+
+    /**
+     * Gets the number of tasks in the batch
+     *
+     * @return the batch size
+     */
+    public final int size() {
+        return tasks.length;
+    }
+
+    /**
+     * Gets the number of tasks that have completed, successfully or not
+     *
+     * @return the completed count
+     */
+    public final int getCompletedCount() {
+        return tasks.length - remaining.get();
+    }
+
+    /**
+     * Cancels the batch, which completes at once, and the tasks of the batch that have not started yet<br>
+     * Tasks already running are left to finish unless interrupted.
+     *
+     * @param mayInterruptIfRunning
+     *         {@code true} to also interrupt the threads running tasks of the batch
+     *
+     * @return {@code false} if the batch had already completed; {@code true} otherwise
+     */
+    @Override
+    public final boolean cancel(boolean mayInterruptIfRunning) {
+        if (!completed.compareAndSet(false, true)) {
+            return false;
+        }
+        cancelled = true;
+        allDone.countDown();
+        anyDone.countDown();
+        promise.cancel(false);
+        failUnclaimed();
+        for (Future<?> drainer : drainers) {
+            drainer.cancel(mayInterruptIfRunning);
+        }
+        return true;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Checks if all of the tasks of the batch have completed
+     *
+     * @return {@code true} if done; {@code false} otherwise
+     */
+    @Override
+    public final boolean isDone() {
+        return allDone.getCount() == 0;
+    }
+
+    /**
+     * Waits for all of the tasks and gets their results, in the order they were submitted
+     *
+     * @return the list of results
+     *
+     * @throws CancellationException
+     *         if the batch was cancelled
+     * @throws ExecutionException
+     *         with the cause of the first failed task, if any task failed
+     * @throws InterruptedException
+     *         if interrupted while waiting
+     */
+    @Override
+    public final List<V> get() throws InterruptedException, ExecutionException {
+        allDone.await();
+        return allResults();
+    }
+
+    /**
+     * Waits up to a timeout for all of the tasks and gets their results, in the order they were submitted
+     *
+     * @param timeout
+     *         the time to wait
+     * @param unit
+     *         the {@link TimeUnit} of the timeout
+     *
+     * @return the list of results
+     *
+     * @throws CancellationException
+     *         if the batch was cancelled
+     * @throws ExecutionException
+     *         with the cause of the first failed task, if any task failed
+     * @throws InterruptedException
+     *         if interrupted while waiting
+     * @throws TimeoutException
+     *         if the tasks did not all complete in time
+     */
+    @Override
+    public final List<V> get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+        if (!allDone.await(timeout, unit)) {
+            throw new TimeoutException();
+        }
+        return allResults();
+    }
+
+    /**
+     * Waits for the first task to succeed and gets its result
+     *
+     * @return the first successful result
+     *
+     * @throws ExecutionException
+     *         with the cause of the first failed task, if every task failed
+     * @throws InterruptedException
+     *         if interrupted while waiting
+     */
+    public final V getAny() throws InterruptedException, ExecutionException {
+        anyDone.await();
+        return anyResult();
+    }
+
+    /**
+     * Waits up to a timeout for the first task to succeed and gets its result
+     *
+     * @param timeout
+     *         the time to wait
+     * @param unit
+     *         the {@link TimeUnit} of the timeout
+     *
+     * @return the first successful result
+     *
+     * @throws ExecutionException
+     *         with the cause of the first failed task, if every task failed
+     * @throws InterruptedException
+     *         if interrupted while waiting
+     * @throws TimeoutException
+     *         if no task succeeded in time
+     */
+    public final V getAny(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+        if (!anyDone.await(timeout, unit)) {
+            throw new TimeoutException();
+        }
+        return anyResult();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final <R> TaskFuture<R> thenApply(Function<? super List<V>, ? extends R> function) {
+        return promise.thenApply(function);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final <R> TaskFuture<R> thenCompose(Function<? super List<V>, ? extends TaskFuture<R>> function) {
+        return promise.thenCompose(function);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final TaskFuture<List<V>> whenComplete(Completion<? super List<V>> completion) {
+        return promise.whenComplete(completion);
+    }
+
+    /**
+     * Gets the results of the tasks that have succeeded so far, in the order they were submitted
+     *
+     * @return the list of successful results
+     */
+    @SuppressWarnings("unchecked")
+    public final List<V> getCompletedResults() {
+        List<V> completed = new ArrayList<V>();
+        for (int index = 0; index < tasks.length; index++) {
+            Object result = results.get(index);
+            if (result != null && !(result instanceof Failure)) {
+                completed.add(result == NULL_RESULT ? null : (V)result);
+            }
+        }
+        return completed;
+    }
+
+    /**
+     * Gets the exceptions thrown by the tasks that have failed so far, in the order they were submitted
+     *
+     * @return the list of failures
+     */
+    public final List<Throwable> getFailures() {
+        List<Throwable> failures = new ArrayList<Throwable>();
+        for (int index = 0; index < tasks.length; index++) {
+            Object result = results.get(index);
+            if (result instanceof Failure) {
+                failures.add(((Failure)result).thrown);
+            }
+        }
+        return failures;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<V> allResults() throws ExecutionException {
+        if (cancelled) {
+            throw new CancellationException();
+        }
+        List<V> all = new ArrayList<V>(tasks.length);
+        for (int index = 0; index < tasks.length; index++) {
+            Object result = results.get(index);
+            if (result instanceof Failure) {
+                throw new ExecutionException(((Failure)result).thrown);
+            }
+            all.add(result == NULL_RESULT ? null : (V)result);
+        }
+        return all;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V anyResult() throws ExecutionException {
+        int index = firstSuccess.get();
+        if (index >= 0) {
+            Object result = results.get(index);
+            return result == NULL_RESULT ? null : (V)result;
+        }
+        List<Throwable> failures = getFailures();
+        if (failures.isEmpty()) {
+            throw new ExecutionException("Empty batch", null);
+        }
+        throw new ExecutionException(failures.get(0));
+    }
+
+    /**
+     * Returns a string representation of the {@code BatchFuture} as {@code BatchFuture[Size=%d, Completed=%d, Cancelled=%b]}
+     *
+     * @return string representation of the {@code BatchFuture}
+     */
+    @Override
+    public final String toString() {
+        return String.format("BatchFuture[Size=%d, Completed=%d, Cancelled=%b]", size(), getCompletedCount(), cancelled);
+    }
+
+    /**
+     * Gets this class's version number
+     *
+     * @return the class version
+     */
+    public static float getClassVersion() {
+        return classVersion;
+    }
+
+    /** Runs tasks of the batch until none are left */
+    private void drain() {
+        int index;
+        while (!cancelled && (index = next.getAndIncrement()) < tasks.length) {
+            Object result;
+            try {
+                result = tasks[index].call();
+                if (result == null) {
+                    result = NULL_RESULT;
+                }
+            }
+            catch (Throwable thrown) {
+                result = new Failure(thrown);
+            }
+            finished(index, result);
+        }
+    }
+
+    /** A queued drainer, which fails the unclaimed tasks if it is the last to finish or be cancelled */
+    private final class Drainer extends FutureTask<Object> {
+
+        Drainer() {
+            super(new Runnable() {
+                public void run() {
+                    drain();
+                }
+            }, null);
+        }
+
+        @Override
+        protected final void done() {
+            if (liveDrainers.decrementAndGet() == 0) {
+                failUnclaimed();
+            }
+        }
+    }
+
+    /** The exception thrown by a task */
+    private static final class Failure {
+        final Throwable thrown;
+
+        Failure(Throwable thrown) {
+            this.thrown = thrown;
+        }
+    }
+}
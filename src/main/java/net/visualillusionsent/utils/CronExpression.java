@@ -0,0 +1,338 @@
+/*
+ * This file is part of VIUtils.
+ *
+ * Copyright © 2012-2015 Visual Illusions Entertainment
+ *
+ * VIUtils is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this library.
+ * If not, see http://www.gnu.org/licenses/lgpl.html.
+ */
+package net.visualillusionsent.utils;
+
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.TimeZone;
+
+import static net.visualillusionsent.utils.Verify.notEmpty;
+import static net.visualillusionsent.utils.Verify.notNull;
+
+/**
+ * Cron Expression
+ * <p/>
+ * A schedule in the five field cron format {@code minute hour day-of-month month day-of-week}, read in a {@link TimeZone}.<br>
+ * Each field is {@code *}, a value, a range {@code a-b} or a list of them separated by commas, and each may take a step
+ * such as {@code *}{@code /15}. Months and days of the week may be given by their first three letters, and Sunday is {@code 0} or {@code 7}.
+ * The macros {@code @yearly}, {@code @annually}, {@code @monthly}, {@code @weekly}, {@code @daily}, {@code @midnight}
+ * and {@code @hourly} are also accepted. As in classic cron, when both day fields are restricted a day matching either fires.
+ * <p/>
+ * Fields are parsed once into bit masks, so finding the next fire time is a short walk over the wall clock fields of the zone.
+ * A time skipped when clocks go forward fires at the same wall time in the new offset, such as 02:30 firing at 03:30,
+ * and a time repeated when clocks go back fires once.
+ * <p/>
+ * {@link TaskPool#scheduleCron(Runnable, CronExpression)} runs a task on the scheduler at each fire time.
+ *
+ * @author Jason (darkdiplomat)
+ * @version 1.0
+ * @since 1.4.3
+ */
+public final class CronExpression {
+
+    /* 1.0 @ VIUtils 1.4.3 */
+    private static final float classVersion = 1.0F;
+    private static final String[] MONTHS = {"JAN", "FEB", "MAR", "APR", "MAY", "JUN", "JUL", "AUG", "SEP", "OCT", "NOV", "DEC"};
+    private static final String[] DAYS = {"SUN", "MON", "TUE", "WED", "THU", "FRI", "SAT"};
+    /** The month offsets of Sakamoto's day of the week method */
+    private static final int[] MONTH_OFFSETS = {0, 3, 2, 5, 0, 3, 5, 1, 4, 6, 2, 4};
+    /** How many years ahead to look for a fire time, enough to reach the next February 29th */
+    private static final int SEARCH_YEARS = 9;
+    private final String expression;
+    private final TimeZone zone;
+    private final long minutes;
+    private final long hours;
+    private final long daysOfMonth;
+    private final long months;
+    private final long daysOfWeek;
+    /** Whether either day field is {@code *}, in which case both must match rather than either */
+    private final boolean anyDay;
+
+    private CronExpression(String expression, TimeZone zone) {
+        this.expression = expression;
+        this.zone = (TimeZone)zone.clone();
+        String[] fields = expand(expression.trim()).split("\\s+");
+        if (fields.length != 5) {
+            throw new IllegalArgumentException("Cron expression must have 5 fields: " + expression);
+        }
+        this.minutes = parseField(fields[0], 0, 59, null, expression);
+        this.hours = parseField(fields[1], 0, 23, null, expression);
+        this.daysOfMonth = parseField(fields[2], 1, 31, null, expression);
+        this.months = parseField(fields[3], 1, 12, MONTHS, expression);
+        long dow = parseField(fields[4], 0, 7, DAYS, expression);
+        this.daysOfWeek = (dow | dow >>> 7) & 0x7F; // 7 is also Sunday
+        this.anyDay = fields[2].startsWith("*") || fields[4].startsWith("*");
+        if (anyDay && !fields[2].startsWith("*") && !hasDayInMonths()) {
+            throw new IllegalArgumentException("Cron expression never fires: " + expression);
+        }
+    }
+
+    /**
+     * Parses a cron expression read in the default {@link TimeZone}
+     *
+     * @param expression
+     *         the cron expression
+     *
+     * @return the parsed CronExpression
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code expression} is null
+     * @throws java.lang.IllegalArgumentException
+     *         if {@code expression} is empty, malformed or never fires
+     */
+    public static CronExpression parse(String expression) {
+        return parse(expression, TimeZone.getDefault());
+    }
+
+    /**
+     * Parses a cron expression read in a {@link TimeZone}
+     *
+     * @param expression
+     *         the cron expression
+     * @param zone
+     *         the {@link TimeZone} to read the expression in, or {@code null} for the default TimeZone
+     *
+     * @return the parsed CronExpression
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code expression} is null
+     * @throws java.lang.IllegalArgumentException
+     *         if {@code expression} is empty, malformed or never fires
+     */
+    public static CronExpression parse(String expression, TimeZone zone) {
+        notNull(expression, "String expression");
+        notEmpty(expression, "String expression");
+        return new CronExpression(expression, zone != null ? zone : TimeZone.getDefault());
+    }
+
+    private static String expand(String expression) {
+        if (!expression.startsWith("@")) {
+            return expression;
+        }
+        String macro = expression.toLowerCase();
+        if (macro.equals("@yearly") || macro.equals("@annually")) {
+            return "0 0 1 1 *";
+        }
+        if (macro.equals("@monthly")) {
+            return "0 0 1 * *";
+        }
+        if (macro.equals("@weekly")) {
+            return "0 0 * * 0";
+        }
+        if (macro.equals("@daily") || macro.equals("@midnight")) {
+            return "0 0 * * *";
+        }
+        if (macro.equals("@hourly")) {
+            return "0 * * * *";
+        }
+        throw new IllegalArgumentException("Unknown cron macro: " + expression);
+    }
+
+    private static long parseField(String field, int min, int max, String[] names, String expression) {
+        long mask = 0;
+        for (String part : field.split(",")) {
+            int step = 1;
+            int slash = part.indexOf('/');
+            if (slash >= 0) {
+                step = parseValue(part.substring(slash + 1), 1, max, null, expression);
+                part = part.substring(0, slash);
+            }
+            int from;
+            int to;
+            if (part.equals("*")) {
+                from = min;
+                to = max;
+            }
+            else {
+                int dash = part.indexOf('-');
+                from = parseValue(dash < 0 ? part : part.substring(0, dash), min, max, names, expression);
+                to = dash < 0 ? (slash >= 0 ? max : from) : parseValue(part.substring(dash + 1), min, max, names, expression);
+                if (to < from) {
+                    throw new IllegalArgumentException("Cron range " + part + " is backwards in: " + expression);
+                }
+            }
+            for (int value = from; value <= to; value += step) {
+                mask |= 1L << value;
+            }
+        }
+        return mask;
+    }
+
+    private static int parseValue(String value, int min, int max, String[] names, String expression) {
+        if (names != null) {
+            for (int index = 0; index < names.length; index++) {
+                if (names[index].equalsIgnoreCase(value)) {
+                    return index + (min == 0 ? 0 : 1);
+                }
+            }
+        }
+        int parsed;
+        try {
+            parsed = Integer.parseInt(value);
+        }
+        catch (NumberFormatException nfex) {
+            throw new IllegalArgumentException("Invalid cron value '" + value + "' in: " + expression);
+        }
+        if (parsed < min || parsed > max) {
+            throw new IllegalArgumentException("Cron value " + parsed + " is not within " + min + "-" + max + " in: " + expression);
+        }
+        return parsed;
+    }
+
+    /** Checks if a restricted day of the month falls within one of the months */
+    private boolean hasDayInMonths() {
+        for (int month = 1; month <= 12; month++) {
+            if ((months & 1L << month) != 0 && Long.numberOfTrailingZeros(daysOfMonth) <= (month == 2 ? 29 : daysIn(2001, month))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the first time the expression fires after a time
+     *
+     * @param after
+     *         the time in milliseconds since the epoch to search from, which is never returned itself
+     *
+     * @return the next fire time in milliseconds since the epoch
+     */
+    public final long getNextFireTime(long after) {
+        Calendar calendar = new GregorianCalendar(zone);
+        calendar.setTimeInMillis(after);
+        int year = calendar.get(Calendar.YEAR);
+        int month = calendar.get(Calendar.MONTH) + 1;
+        int day = calendar.get(Calendar.DAY_OF_MONTH);
+        int hour = calendar.get(Calendar.HOUR_OF_DAY);
+        int minute = calendar.get(Calendar.MINUTE) + 1; // Whole minutes only, and never the time searched from
+        int lastYear = year + SEARCH_YEARS;
+        while (year <= lastYear) {
+            if (minute > 59) {
+                minute = 0;
+                hour++;
+            }
+            if (hour > 23) {
+                hour = 0;
+                day++;
+            }
+            if (day > daysIn(year, month)) {
+                day = 1;
+                month++;
+            }
+            if (month > 12) {
+                month = 1;
+                year++;
+                continue;
+            }
+            if ((months & 1L << month) == 0) {
+                month++;
+                day = 1;
+                hour = minute = 0;
+                continue;
+            }
+            if (!matchesDay(year, month, day)) {
+                day++;
+                hour = minute = 0;
+                continue;
+            }
+            long laterHours = hours & -1L << hour;
+            if (laterHours == 0) {
+                day++;
+                hour = minute = 0;
+                continue;
+            }
+            if (Long.numberOfTrailingZeros(laterHours) != hour) {
+                hour = Long.numberOfTrailingZeros(laterHours);
+                minute = 0;
+            }
+            long laterMinutes = minutes & -1L << minute;
+            if (laterMinutes == 0) {
+                hour++;
+                minute = 0;
+                continue;
+            }
+            minute = Long.numberOfTrailingZeros(laterMinutes);
+            calendar.clear();
+            calendar.set(year, month - 1, day, hour, minute); // Lenient, so a time skipped by the zone moves forward
+            long time = calendar.getTimeInMillis();
+            if (time > after) {
+                return time;
+            }
+            minute++; // Resolved to before the search time when clocks went back, so it already fired
+        }
+        throw new IllegalStateException("Cron expression has no fire time within " + SEARCH_YEARS + " years: " + expression);
+    }
+
+    private boolean matchesDay(int year, int month, int day) {
+        boolean dayOfMonth = (daysOfMonth & 1L << day) != 0;
+        boolean dayOfWeek = (daysOfWeek & 1L << dayOfWeek(year, month, day)) != 0;
+        return anyDay ? dayOfMonth && dayOfWeek : dayOfMonth || dayOfWeek;
+    }
+
+    private static int daysIn(int year, int month) {
+        if (month == 2) {
+            return year % 4 == 0 && (year % 100 != 0 || year % 400 == 0) ? 29 : 28;
+        }
+        return month == 4 || month == 6 || month == 9 || month == 11 ? 30 : 31;
+    }
+
+    /** Sakamoto's method, with Sunday as 0 */
+    private static int dayOfWeek(int year, int month, int day) {
+        if (month < 3) {
+            year--;
+        }
+        return (year + year / 4 - year / 100 + year / 400 + MONTH_OFFSETS[month - 1] + day) % 7;
+    }
+
+    /**
+     * Gets the expression as it was given
+     *
+     * @return the cron expression
+     */
+    public final String getExpression() {
+        return expression;
+    }
+
+    /**
+     * Gets the {@link TimeZone} the expression is read in
+     *
+     * @return a copy of the TimeZone
+     */
+    public final TimeZone getTimeZone() {
+        return (TimeZone)zone.clone();
+    }
+
+    /**
+     * Returns a string representation of the {@code CronExpression} as {@code CronExpression[Expression=%s, TimeZone=%s]}
+     *
+     * @return string representation of the {@code CronExpression}
+     */
+    @Override
+    public final String toString() {
+        return String.format("CronExpression[Expression=%s, TimeZone=%s]", expression, zone.getID());
+    }
+
+    /**
+     * Gets this class's version number
+     *
+     * @return the class version
+     */
+    public static float getClassVersion() {
+        return classVersion;
+    }
+}
@@ -0,0 +1,294 @@
+/*
+ * This file is part of VIUtils.
+ *
+ * Copyright © 2012-2015 Visual Illusions Entertainment
+ *
+ * VIUtils is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this library.
+ * If not, see http://www.gnu.org/licenses/lgpl.html.
+ */
+package net.visualillusionsent.utils;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static net.visualillusionsent.utils.Verify.notNull;
+
+/**
+ * Keyed Serial Executor
+ * <p/>
+ * Runs the tasks submitted for each key one at a time, in the order they were submitted,
+ * while tasks of different keys run in parallel on a {@link TaskPool}.<br>
+ * Per-entity updates stay ordered without locks: each key with pending tasks has a lock free queue
+ * and at most one drainer queued on the pool, which runs a turn of up to {@value #TURN} tasks before
+ * queueing itself again so busy keys can't starve the others. A key that runs out of tasks is released,
+ * so idle keys hold no memory.
+ * <p/>
+ * Drainers are plain tasks of the pool, so a pool using {@link TaskPool.Backpressure#DROP_OLDEST} could drop
+ * one and stall its key; serial executors are best used with pools applying another policy.
+ *
+ * @author Jason (darkdiplomat)
+ * @version 1.0
+ * @since 1.4.3
+ */
+public final class KeyedSerialExecutor {
+
+    /* 1.0 @ VIUtils 1.4.3 */
+    private static final float classVersion = 1.0F;
+    /** The most tasks a drainer runs before letting other keys have a turn */
+    private static final int TURN = 64;
+    /** The pending count of a released queue, which accepts no more tasks */
+    private static final int RELEASED = -1;
+    private final TaskPool pool;
+    private final TaskLane lane;
+    private final ConcurrentHashMap<Object, SerialQueue> queues = new ConcurrentHashMap<Object, SerialQueue>();
+
+    /** Creates a KeyedSerialExecutor running tasks on the default pool of the {@link TaskManager} */
+    public KeyedSerialExecutor() {
+        this(TaskManager.getDefaultPool(), null);
+    }
+
+    /**
+     * Creates a KeyedSerialExecutor running tasks with the immediate tasks of a {@link TaskPool}
+     *
+     * @param pool
+     *         the {@link TaskPool} to run tasks on
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code pool} is null
+     */
+    public KeyedSerialExecutor(TaskPool pool) {
+        this(pool, null);
+    }
+
+    /**
+     * Creates a KeyedSerialExecutor running tasks in a {@link TaskLane} of a {@link TaskPool}
+     *
+     * @param pool
+     *         the {@link TaskPool} to run tasks on
+     * @param lane
+     *         the {@link TaskLane} to run tasks in, or {@code null} to run them with the immediate tasks
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code pool} is null
+     */
+    public KeyedSerialExecutor(TaskPool pool, TaskLane lane) {
+        notNull(pool, "TaskPool pool");
+        this.pool = pool;
+        this.lane = lane;
+    }
+
+    /**
+     * Executes a {@link Runnable} task after the tasks already submitted for its key
+     *
+     * @param key
+     *         the key to order the task by, such as the entity it updates
+     * @param task
+     *         the {@link Runnable} task to execute
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code key} or {@code task} is null
+     * @throws RejectedExecutionException
+     *         if the pool has been shut down
+     */
+    public final void execute(Object key, Runnable task) throws RejectedExecutionException {
+        notNull(key, "Object key");
+        notNull(task, "Runnable task");
+        enqueue(key, pool.metered(task));
+    }
+
+    /**
+     * Submits a {@link Runnable} task to be executed after the tasks already submitted for its key
+     *
+     * @param key
+     *         the key to order the task by, such as the entity it updates
+     * @param task
+     *         the {@link Runnable} task to execute
+     *
+     * @return a {@link TaskFuture} representing pending completion of the task
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code key} or {@code task} is null
+     * @throws RejectedExecutionException
+     *         if the pool has been shut down
+     */
+    public final TaskFuture<?> submit(Object key, Runnable task) throws RejectedExecutionException {
+        notNull(key, "Object key");
+        notNull(task, "Runnable task");
+        TaskPromise<Object> promise = new TaskPromise<Object>(pool.metered(task), null);
+        enqueue(key, promise);
+        return promise;
+    }
+
+    /**
+     * Submits a {@link Callable} task to be executed after the tasks already submitted for its key
+     *
+     * @param key
+     *         the key to order the task by, such as the entity it updates
+     * @param task
+     *         the {@link Callable} task to execute
+     *
+     * @return a {@link TaskFuture} representing pending completion of the task
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code key} or {@code task} is null
+     * @throws RejectedExecutionException
+     *         if the pool has been shut down
+     */
+    public final <V> TaskFuture<V> submit(Object key, Callable<V> task) throws RejectedExecutionException {
+        notNull(key, "Object key");
+        notNull(task, "Callable task");
+        TaskPromise<V> promise = new TaskPromise<V>(pool.metered(task));
+        enqueue(key, promise);
+        return promise;
+    }
+
+    private void enqueue(Object key, Runnable task) {
+        while (true) {
+            SerialQueue queue = queues.get(key);
+            if (queue == null) {
+                queue = new SerialQueue(key);
+                SerialQueue existing = queues.putIfAbsent(key, queue);
+                if (existing != null) {
+                    queue = existing;
+                }
+            }
+            int pending = queue.reserve();
+            if (pending == RELEASED) {
+                queues.remove(key, queue); // Help the drainer that released it
+                continue;
+            }
+            queue.tasks.add(task);
+            if (pending == 0) { // Only the submission that wakes the queue starts its drainer
+                queue.start();
+            }
+            return;
+        }
+    }
+
+    /**
+     * Gets the number of keys with tasks pending or running
+     *
+     * @return the active key count
+     */
+    public final int getKeyCount() {
+        return queues.size();
+    }
+
+    /**
+     * Gets the number of tasks pending or running for a key
+     *
+     * @param key
+     *         the key to check
+     *
+     * @return the pending task count of the key
+     */
+    public final int getPendingCount(Object key) {
+        SerialQueue queue = queues.get(key);
+        return queue == null ? 0 : Math.max(queue.pending.get(), 0);
+    }
+
+    /**
+     * Returns a string representation of the {@code KeyedSerialExecutor} as {@code KeyedSerialExecutor[Pool=%s, Lane=%s, Keys=%d]}
+     *
+     * @return string representation of the {@code KeyedSerialExecutor}
+     */
+    @Override
+    public final String toString() {
+        return String.format("KeyedSerialExecutor[Pool=%s, Lane=%s, Keys=%d]", pool.getName(), lane, getKeyCount());
+    }
+
+    /**
+     * Gets this class's version number
+     *
+     * @return the class version
+     */
+    public static float getClassVersion() {
+        return classVersion;
+    }
+
+    /** The tasks of one key, drained by at most one thread at a time */
+    private final class SerialQueue implements Runnable {
+        private final Object key;
+        private final ConcurrentLinkedQueue<Runnable> tasks = new ConcurrentLinkedQueue<Runnable>();
+        /** Tasks reserved but not yet finished, or {@link #RELEASED} */
+        private final AtomicInteger pending = new AtomicInteger();
+
+        SerialQueue(Object key) {
+            this.key = key;
+        }
+
+        /** Reserves a place for a task, returning the pending count before it or {@link #RELEASED} */
+        final int reserve() {
+            while (true) {
+                int current = pending.get();
+                if (current == RELEASED || pending.compareAndSet(current, current + 1)) {
+                    return current;
+                }
+            }
+        }
+
+        final void start() {
+            try {
+                pool.dispatch(lane, this);
+            }
+            catch (RejectedExecutionException rex) {
+                abandon();
+                throw rex;
+            }
+        }
+
+        /** Releases the queue when the pool won't run its drainer, cancelling the tasks left in it */
+        private void abandon() {
+            pending.set(RELEASED);
+            queues.remove(key, this);
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                if (task instanceof Future) {
+                    ((Future<?>)task).cancel(false);
+                }
+            }
+        }
+
+        @Override
+        public final void run() {
+            for (int turn = 0; turn < TURN; turn++) {
+                Runnable task = tasks.poll();
+                while (task == null) { // Reserved, but the submitter hasn't added it yet
+                    Thread.yield();
+                    task = tasks.poll();
+                }
+                try {
+                    task.run();
+                }
+                catch (Throwable thrown) {
+                    (task instanceof Task ? (Task)task : new Task(task)).printError(thrown); // Keep draining the key
+                }
+                if (pending.decrementAndGet() == 0) {
+                    if (pending.compareAndSet(0, RELEASED)) {
+                        queues.remove(key, this); // Idle, so release the key
+                    }
+                    return; // Otherwise the submission that took it from zero started a new drainer
+                }
+            }
+            try {
+                pool.dispatch(lane, this); // Let other keys have a turn
+            }
+            catch (RejectedExecutionException rex) {
+                abandon();
+            }
+        }
+    }
+}
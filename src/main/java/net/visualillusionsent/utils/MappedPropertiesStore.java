@@ -0,0 +1,1682 @@
+/*
+ * This file is part of VIUtils.
+ *
+ * Copyright © 2012-2015 Visual Illusions Entertainment
+ *
+ * VIUtils is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this library.
+ * If not, see http://www.gnu.org/licenses/lgpl.html.
+ */
+package net.visualillusionsent.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.zip.CRC32;
+
+import static net.visualillusionsent.utils.Verify.notEmpty;
+import static net.visualillusionsent.utils.Verify.notEmptyNoTrim;
+import static net.visualillusionsent.utils.Verify.notNull;
+
+/**
+ * Memory-Mapped Properties Store
+ * <p/>
+ * A persistent key/value store with the same typed getters and setters as {@link PropertiesFile},
+ * for data that has outgrown a text file.<br>
+ * Properties are appended to a memory-mapped log file and found through an in-memory index of the key to its latest record,
+ * so reading or writing a property does not depend on the number of keys stored.
+ * Each record carries a checksum and the index is rebuilt on load by replaying the log,
+ * stopping at the first incomplete or damaged record left behind by a crash.
+ * Once replaced and removed records make up most of the log it is compacted by rewriting only the live records,
+ * on the {@link TaskManager} so the write that crossed the threshold does not wait on the disk.
+ * If one fails, the next waits until twice as many bytes are dead rather than running on every write.
+ * A compaction interrupted by a crash is finished or discarded the next time the store is opened.
+ * <p/>
+ * Writes are in the mapped memory as soon as a setter returns and are flushed to disk by {@link #save()},
+ * or on every write if the store was opened with {@code syncWrites}.<br>
+ * Comments, inline comments, the header and the footer are not stored; comments given to setters are ignored.
+ * The log is limited to 2GB by the size of a single mapping.
+ * All operations are synchronized on the store.
+ *
+ * @author Jason (darkdiplomat)
+ * @version 1.0
+ * @since 1.4.3
+ */
+public final class MappedPropertiesStore extends AbstractPropertiesFile {
+
+    /* 1.0 @ VIUtils 1.4.3 */
+    private static final float classVersion = 1.0F;
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    private static final int MAGIC = 0x56495053; // VIPS
+    private static final int FORMAT = 1;
+    /** Magic and format version */
+    private static final int HEADER_SIZE = 8;
+    /** Body length and checksum preceding each record body */
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 2;
+    private static final int INITIAL_SIZE = 1 << 20;
+    private static final int MIN_COMPACT_SIZE = 1 << 20;
+    private final boolean syncWrites;
+    private final LinkedHashMap<String, Integer> index = new LinkedHashMap<String, Integer>();
+    private final CRC32 crc = new CRC32();
+    private RandomAccessFile raf;
+    private FileChannel channel;
+    private MappedByteBuffer map;
+    /** The end of the log, where the next record is written */
+    private int position;
+    /** Bytes taken by records that have been replaced or removed */
+    private int deadBytes;
+    /** Whether a write has queued a compaction that has not run yet */
+    private boolean compactQueued;
+    /** Dead bytes needed before a compaction is queued again after one failed, doubling with each failure */
+    private int compactBackoff;
+    private boolean closed;
+
+    /**
+     * Creates or loads a Memory-Mapped Properties Store, flushing writes on {@link #save()}
+     *
+     * @param filePath
+     *         the path to the store file
+     *
+     * @throws PropertiesFileException
+     *         if the file could not be opened or is not a store file
+     */
+    public MappedPropertiesStore(String filePath) {
+        this(filePath, false);
+    }
+
+    /**
+     * Creates or loads a Memory-Mapped Properties Store
+     *
+     * @param filePath
+     *         the path to the store file
+     * @param syncWrites
+     *         {@code true} to flush every write to disk before the setter returns; {@code false} to flush on {@link #save()}
+     *
+     * @throws PropertiesFileException
+     *         if the file could not be opened or is not a store file
+     */
+    public MappedPropertiesStore(String filePath, boolean syncWrites) {
+        super(filePath);
+        this.syncWrites = syncWrites;
+        File parent = propsFile.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new PropertiesFileException("Failed to make directory path for FilePath: ".concat(filePath));
+        }
+        open();
+    }
+
+    /** Maps the file and replays the log to rebuild the index */
+    private void open() {
+        recover();
+        try {
+            raf = new RandomAccessFile(propsFile, "rw");
+            channel = raf.getChannel();
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new PropertiesFileException(String.format("Store '%s' is larger than 2GB", filePath));
+            }
+            map = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(INITIAL_SIZE, size));
+        }
+        catch (IOException ioe) {
+            UtilsLogger.severe(String.format("An IOException occurred in File: '%s'", filePath), ioe);
+            throw new PropertiesFileException("file.err.ioe", filePath);
+        }
+        if (map.getInt(0) == 0) { // New store
+            map.putInt(0, MAGIC);
+            map.putInt(4, FORMAT);
+        }
+        else if (map.getInt(0) != MAGIC || map.getInt(4) != FORMAT) {
+            unmap();
+            throw new PropertiesFileException(String.format("File '%s' is not a properties store", filePath));
+        }
+        replay();
+    }
+
+    /** Rebuilds the index from the log, truncating at the first record that is incomplete or fails its checksum */
+    private void replay() {
+        index.clear();
+        deadBytes = 0;
+        int offset = HEADER_SIZE;
+        int capacity = map.capacity();
+        while (offset + RECORD_HEADER_SIZE <= capacity) {
+            int length = map.getInt(offset);
+            if (length <= 0 || length > capacity - offset - RECORD_HEADER_SIZE) {
+                break;
+            }
+            byte[] body = new byte[length];
+            map.position(offset + RECORD_HEADER_SIZE);
+            map.get(body);
+            crc.reset();
+            crc.update(body);
+            if ((int) crc.getValue() != map.getInt(offset + 4)) {
+                break;
+            }
+            ByteBuffer record = ByteBuffer.wrap(body);
+            byte type = record.get();
+            byte[] keyBytes = new byte[record.getInt()];
+            record.get(keyBytes);
+            String key = new String(keyBytes, UTF8);
+            Integer previous = type == PUT ? index.put(key, offset) : index.remove(key);
+            if (previous != null) {
+                deadBytes += recordSize(previous);
+            }
+            if (type == REMOVE) {
+                deadBytes += RECORD_HEADER_SIZE + length;
+            }
+            offset += RECORD_HEADER_SIZE + length;
+        }
+        position = offset;
+        // Clear anything left of a torn write so it can not be mistaken for a record later
+        for (int clear = position; clear < capacity && clear < position + RECORD_HEADER_SIZE; clear++) {
+            map.put(clear, (byte) 0);
+        }
+    }
+
+    /** Gets the full size of the record at the offset */
+    private int recordSize(int offset) {
+        return RECORD_HEADER_SIZE + map.getInt(offset);
+    }
+
+    /** Reads the value of the record at the offset */
+    private String readValue(int offset) {
+        int keyLength = map.getInt(offset + RECORD_HEADER_SIZE + 1);
+        int valueOffset = offset + RECORD_HEADER_SIZE + 1 + 4 + keyLength;
+        byte[] value = new byte[map.getInt(valueOffset)];
+        map.position(valueOffset + 4);
+        map.get(value);
+        return new String(value, UTF8);
+    }
+
+    /** Appends a record to the log */
+    private int append(byte type, byte[] key, byte[] value) {
+        ByteBuffer body = ByteBuffer.allocate(1 + 4 + key.length + (value != null ? 4 + value.length : 0));
+        body.put(type).putInt(key.length).put(key);
+        if (value != null) {
+            body.putInt(value.length).put(value);
+        }
+        int length = body.capacity();
+        crc.reset();
+        crc.update(body.array());
+        ensureCapacity((long) position + RECORD_HEADER_SIZE + length + RECORD_HEADER_SIZE);
+        int offset = position;
+        map.position(offset + RECORD_HEADER_SIZE);
+        map.put(body.array());
+        map.putInt(map.position(), 0); // End of log marker
+        map.putInt(offset + 4, (int) crc.getValue());
+        map.putInt(offset, length); // Written last, the record only counts once it is complete
+        position = offset + RECORD_HEADER_SIZE + length;
+        if (syncWrites) {
+            map.force();
+        }
+        return offset;
+    }
+
+    /** Grows the mapping to fit the required size */
+    private void ensureCapacity(long required) {
+        if (required <= map.capacity()) {
+            return;
+        }
+        if (required > Integer.MAX_VALUE) {
+            throw new PropertiesFileException(String.format("Store '%s' can not grow past 2GB", filePath));
+        }
+        long size = map.capacity();
+        while (size < required) {
+            size *= 2;
+        }
+        try {
+            map.force();
+            map = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.min(size, Integer.MAX_VALUE));
+        }
+        catch (IOException ioe) {
+            UtilsLogger.severe(String.format("An IOException occurred in File: '%s'", filePath), ioe);
+            throw new PropertiesFileException("file.err.ioe", filePath);
+        }
+    }
+
+    /** Reads the current value of a key */
+    private synchronized String read(String key) {
+        Integer offset = index.get(key);
+        return offset == null ? null : readValue(offset);
+    }
+
+    /** Writes a new value for a key */
+    private synchronized void write(String key, String value) {
+        notNull(key, "String key");
+        notEmpty(key, "String key");
+
+        Integer previous = index.get(key);
+        if (previous != null && value.equals(readValue(previous))) {
+            return;
+        }
+        index.put(key, append(PUT, key.getBytes(UTF8), value.getBytes(UTF8)));
+        if (previous != null) {
+            deadBytes += recordSize(previous);
+        }
+        this.markChanged();
+        compactIfNeeded();
+    }
+
+    /** Gets the value of a key, validating the key */
+    private String lookup(String key) {
+        notNull(key, "String key");
+        notEmpty(key, "String key");
+
+        return read(key);
+    }
+
+    /** Gets the value of a key, validating the key and requiring it to exist */
+    private String require(String key) {
+        String value = lookup(key);
+        if (value == null) {
+            throw new UnknownPropertyException("key.missing", key);
+        }
+        return value;
+    }
+
+    /** Queues a compaction once dead records take up more than half of the log */
+    private void compactIfNeeded() {
+        if (compactQueued || !isCompactDue()) {
+            return;
+        }
+        compactQueued = true;
+        try {
+            TaskManager.executeTask(new Runnable() {
+                public void run() {
+                    compactQueued();
+                }
+            });
+        }
+        catch (RejectedExecutionException rex) {
+            compactQueued = false; // The log keeps growing until a write can queue one again
+        }
+    }
+
+    private boolean isCompactDue() {
+        return position > MIN_COMPACT_SIZE && deadBytes > position / 2 && deadBytes > compactBackoff;
+    }
+
+    private synchronized void compactQueued() {
+        compactQueued = false;
+        if (closed || !isCompactDue()) {
+            return;
+        }
+        try {
+            compact();
+        }
+        catch (PropertiesFileException pfe) { // The store keeps using its old log, and waits for it to grow before trying again
+            compactBackoff = (int) Math.min(Integer.MAX_VALUE, deadBytes * 2L);
+            UtilsLogger.warning(String.format("Failed to compact store '%s', retrying once %d bytes are dead", filePath, compactBackoff));
+        }
+    }
+
+    /** Gets the file the compacted log is written to before it replaces the store */
+    private File compactFile() {
+        return new File(propsFile.getPath().concat(".compact"));
+    }
+
+    /**
+     * Rewrites the log with only the live records<br>
+     * The compacted log is written beside the store, flushed to disk, and then moved over it.
+     * Its magic number is written last, so an interrupted compaction is never mistaken for a complete log.
+     *
+     * @throws PropertiesFileException
+     *         if the compacted log could not be written or moved
+     */
+    public final synchronized void compact() {
+        File compacted = compactFile();
+        RandomAccessFile out = null;
+        try {
+            out = new RandomAccessFile(compacted, "rw");
+            out.setLength(0);
+            FileChannel outChannel = out.getChannel();
+            ByteBuffer head = ByteBuffer.allocate(HEADER_SIZE);
+            head.putInt(0).putInt(FORMAT).flip();
+            outChannel.write(head);
+            for (Integer offset : index.values()) {
+                ByteBuffer record = map.duplicate();
+                record.position(offset).limit(offset + recordSize(offset));
+                outChannel.write(record);
+            }
+            outChannel.force(true);
+            head.clear();
+            head.putInt(MAGIC).flip();
+            outChannel.write(head, 0);
+            outChannel.force(true);
+        }
+        catch (IOException ioe) {
+            UtilsLogger.severe(String.format("An IOException occurred in File: '%s'", compacted.getPath()), ioe);
+            throw new PropertiesFileException("file.err.ioe", compacted.getPath());
+        }
+        finally {
+            if (out != null) {
+                try {
+                    out.close();
+                }
+                catch (IOException e) {
+                    //do nothing
+                }
+            }
+        }
+        unmap();
+        boolean moved = compacted.renameTo(propsFile) || (propsFile.delete() && compacted.renameTo(propsFile));
+        boolean recovered = !moved && !propsFile.exists() && recover(); // Copied in if the store was deleted but the move failed
+        open(); // Otherwise the old log is kept
+        if (!moved && !recovered) {
+            throw new PropertiesFileException("file.err.write", filePath);
+        }
+        compactBackoff = 0;
+    }
+
+    /**
+     * Finishes or discards a compaction interrupted by a crash<br>
+     * While the store file exists it holds the live log, and a leftover compacted log is stale.
+     * Without it, a complete compacted log is copied in as the store.
+     *
+     * @return {@code true} if a compacted log was copied in; {@code false} otherwise
+     */
+    private boolean recover() {
+        File compacted = compactFile();
+        if (!compacted.exists()) {
+            return false;
+        }
+        if (propsFile.exists()) {
+            if (!compacted.delete()) {
+                UtilsLogger.warning(String.format("Failed to delete stale compacted log '%s'", compacted.getPath()));
+            }
+            return false;
+        }
+        if (!isComplete(compacted)) { // Kept aside, as it is all that is left of the store
+            File damaged = new File(compacted.getPath().concat(".damaged"));
+            UtilsLogger.severe(String.format("Store '%s' is missing and its compacted log is damaged, moved to '%s'", filePath, damaged.getPath()));
+            if (!compacted.renameTo(damaged)) {
+                throw new PropertiesFileException("file.err.write", damaged.getPath());
+            }
+            return false;
+        }
+        RandomAccessFile in = null;
+        RandomAccessFile out = null;
+        try {
+            in = new RandomAccessFile(compacted, "r");
+            out = new RandomAccessFile(propsFile, "rw");
+            FileChannel inChannel = in.getChannel();
+            long copied = 0;
+            while (copied < inChannel.size()) {
+                copied += inChannel.transferTo(copied, inChannel.size() - copied, out.getChannel());
+            }
+            out.getChannel().force(true);
+        }
+        catch (IOException ioe) {
+            UtilsLogger.severe(String.format("An IOException occurred in File: '%s'", filePath), ioe);
+            propsFile.delete(); // Left to the next attempt, rather than opened as a partial log
+            throw new PropertiesFileException("file.err.ioe", filePath);
+        }
+        finally {
+            closeQuietly(in);
+            closeQuietly(out);
+        }
+        compacted.delete();
+        return true;
+    }
+
+    /** Checks that a log file has its magic number and ends exactly after a run of records that pass their checksums */
+    private static boolean isComplete(File log) {
+        RandomAccessFile in = null;
+        try {
+            in = new RandomAccessFile(log, "r");
+            long length = in.length();
+            if (length < HEADER_SIZE || in.readInt() != MAGIC || in.readInt() != FORMAT) {
+                return false;
+            }
+            CRC32 check = new CRC32();
+            long offset = HEADER_SIZE;
+            while (offset < length) {
+                if (offset + RECORD_HEADER_SIZE > length) {
+                    return false;
+                }
+                int bodyLength = in.readInt();
+                int checksum = in.readInt();
+                if (bodyLength <= 0 || bodyLength > length - offset - RECORD_HEADER_SIZE) {
+                    return false;
+                }
+                byte[] body = new byte[bodyLength];
+                in.readFully(body);
+                check.reset();
+                check.update(body);
+                if ((int) check.getValue() != checksum) {
+                    return false;
+                }
+                offset += RECORD_HEADER_SIZE + bodyLength;
+            }
+            return true;
+        }
+        catch (IOException ioe) {
+            return false;
+        }
+        finally {
+            closeQuietly(in);
+        }
+    }
+
+    private static void closeQuietly(RandomAccessFile file) {
+        if (file != null) {
+            try {
+                file.close();
+            }
+            catch (IOException e) {
+                //do nothing
+            }
+        }
+    }
+
+    /**
+     * Flushes the store and closes the file<br>
+     * The store should not be used after being closed
+     */
+    public final synchronized void close() {
+        closed = true;
+        unmap();
+    }
+
+    /** Flushes the mapping and closes the file */
+    private void unmap() {
+        if (map != null) {
+            map.force();
+        }
+        closeQuietly(raf);
+    }
+
+    /**
+     * Gets the number of properties in the store
+     *
+     * @return the number of keys
+     */
+    public final synchronized int size() {
+        return index.size();
+    }
+
+    /**
+     * Gets the length of the log, including records that have been replaced or removed
+     *
+     * @return the log length in bytes
+     */
+    public final synchronized int getLogLength() {
+        return position;
+    }
+
+    /**
+     * Unsupported Operation with MappedPropertiesStores, the store is loaded from its log
+     *
+     * @throws UnsupportedOperationException
+     *         Not supported with Mapped Properties Stores
+     */
+    @Override
+    protected final void load(InputStream inStream) {
+        throw new UnsupportedOperationException("MappedPropertiesStores are loaded from their log");
+    }
+
+    /**
+     * {@inheritDoc}<br>
+     * The index is rebuilt by replaying the log
+     */
+    @Override
+    public final synchronized void reload() {
+        replay();
+        this.hasChanged = false;
+        this.modCount++;
+    }
+
+    /**
+     * {@inheritDoc}<br>
+     * Flushes written records to disk
+     */
+    @Override
+    public final void save() {
+        this.save(false);
+    }
+
+    /**
+     * {@inheritDoc}<br>
+     * Flushes written records to disk
+     */
+    @Override
+    public final void forceSave() {
+        this.save(true);
+    }
+
+    /**
+     * {@inheritDoc}<br>
+     * Flushes written records to disk
+     */
+    @Override
+    protected final synchronized void save(boolean force) {
+        if (!hasChanged && !force) {
+            return;
+        }
+        map.force();
+        this.hasChanged = false;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code key} is null
+     * @throws java.lang.IllegalArgumentException
+     *         if {@code key}  is empty
+     */
+    @Override
+    public final boolean containsKey(String key) {
+        notNull(key, "String key");
+        notEmpty(key, "String key");
+
+        synchronized (this) {
+            return index.containsKey(key);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws java.lang.NullPointerException
+     *         if a {@code key} is null
+     * @throws java.lang.IllegalArgumentException
+     *         if a {@code key} is empty
+     */
+    @Override
+    public final boolean containsKeys(String... keys) {
+        boolean contains = true;
+        for (String key : keys) {
+            contains &= containsKey(key);
+        }
+        return contains;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code key} is null
+     * @throws java.lang.IllegalArgumentException
+     *         if {@code key} is empty
+     */
+    @Override
+    public final synchronized void removeKey(String key) {
+        notNull(key, "String key");
+        notEmpty(key, "String key");
+
+        Integer previous = index.remove(key);
+        if (previous != null) {
+            int offset = append(REMOVE, key.getBytes(UTF8), null);
+            deadBytes += recordSize(previous) + recordSize(offset);
+            this.markChanged();
+            compactIfNeeded();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws java.lang.NullPointerException
+     *         if a {@code key} is null
+     * @throws java.lang.IllegalArgumentException
+     *         if a {@code key} is empty
+     */
+    @Override
+    public final void removeKeys(String... keys) {
+        notNull(keys, "String... keys");
+        notEmpty(keys, "String... keys");
+
+        for (String key : keys) {
+            removeKey(key);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final String getString(String key) {
+        return require(key);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final String getString(String key, String def) {
+        notNull(def, "String def");
+
+        String value = lookup(key);
+        if (value != null) {
+            return value;
+        }
+        write(key, def);
+        return def;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setString(String key, String value) {
+        notNull(value, "String value");
+
+        write(key, value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setString(String key, String value, String... comments) {
+        notNull(value, "String value");
+
+        write(key, value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final String[] getStringArray(String key) {
+        return getStringArray(key, ",");
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final String[] getStringArray(String key, String[] def) {
+        return getStringArray(key, ",", def);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setStringArray(String key, String[] value) {
+        setStringArray(key, ",", value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setStringArray(String key, String[] value, String... comments) {
+        setStringArray(key, ",", value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final String[] getStringArray(String key, String delimiter) {
+        notNull(delimiter, "String delimiter");
+        notEmptyNoTrim(delimiter, "String delimiter");
+
+        return StringUtils.trimElements(require(key).split(delimiter));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final String[] getStringArray(String key, String delimiter, String[] def) {
+        notNull(def, "String[] def");
+
+        String value = lookup(key);
+        if (value != null) {
+            return StringUtils.trimElements(value.split(delimiter));
+        }
+        write(key, StringUtils.joinString(def, delimiter, 0));
+        return def;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setStringArray(String key, String delimiter, String[] value) {
+        notNull(value, "String[] value");
+        notNull(delimiter, "String delimiter");
+        notEmptyNoTrim(delimiter, "String delimiter");
+
+        write(key, StringUtils.joinString(value, delimiter, 0));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setStringArray(String key, String delimiter, String[] value, String... comments) {
+        notNull(value, "String[] value");
+        notNull(delimiter, "String delimiter");
+        notEmptyNoTrim(delimiter, "String delimiter");
+
+        write(key, StringUtils.joinString(value, delimiter, 0));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final byte getByte(String key) {
+        String value = require(key);
+        try {
+            return Byte.decode(value);
+        }
+        catch (NumberFormatException nfe) {
+            throw new NumberFormatException(Verify.parse("prop.nan", key));
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final byte getByte(String key, byte def) {
+        String value = lookup(key);
+        if (value != null) {
+            try {
+                return Byte.decode(value);
+            }
+            catch (NumberFormatException nfex) {
+                // Continue with default
+            }
+        }
+        write(key, String.valueOf(def));
+        return def;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setByte(String key, byte value) {
+        write(key, String.valueOf(value));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setByte(String key, byte value, String... comments) {
+        write(key, String.valueOf(value));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final byte[] getByteArray(String key) {
+        return getByteArray(key, ",");
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final byte[] getByteArray(String key, byte[] def) {
+        return getByteArray(key, ",", def);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setByteArray(String key, byte[] value) {
+        setByteArray(key, ",", value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setByteArray(String key, byte[] value, String... comments) {
+        setByteArray(key, ",", value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final byte[] getByteArray(String key, String delimiter) {
+        return StringUtils.stringToByteArray(require(key), delimiter);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final byte[] getByteArray(String key, String delimiter, byte[] def) {
+        notNull(def, "byte[] def");
+
+        String value = lookup(key);
+        if (value != null) {
+            try {
+                return StringUtils.stringToByteArray(value, delimiter);
+            }
+            catch (NumberFormatException nfex) {
+                // Continue with default
+            }
+        }
+        write(key, StringUtils.byteArrayToString(def, delimiter));
+        return def;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setByteArray(String key, String delimiter, byte[] value) {
+        notNull(value, "byte[] value");
+        notNull(delimiter, "String delimiter");
+        notEmptyNoTrim(delimiter, "String delimiter");
+
+        write(key, StringUtils.byteArrayToString(value, delimiter));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setByteArray(String key, String delimiter, byte[] value, String... comments) {
+        notNull(value, "byte[] value");
+        notNull(delimiter, "String delimiter");
+        notEmptyNoTrim(delimiter, "String delimiter");
+
+        write(key, StringUtils.byteArrayToString(value, delimiter));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final short getShort(String key) {
+        String value = require(key);
+        try {
+            return Short.decode(value);
+        }
+        catch (NumberFormatException nfe) {
+            throw new NumberFormatException(Verify.parse("prop.nan", key));
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final short getShort(String key, short def) {
+        String value = lookup(key);
+        if (value != null) {
+            try {
+                return Short.decode(value);
+            }
+            catch (NumberFormatException nfex) {
+                // Continue with default
+            }
+        }
+        write(key, String.valueOf(def));
+        return def;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setShort(String key, short value) {
+        write(key, String.valueOf(value));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setShort(String key, short value, String... comments) {
+        write(key, String.valueOf(value));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final short[] getShortArray(String key) {
+        return getShortArray(key, ",");
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final short[] getShortArray(String key, short[] def) {
+        return getShortArray(key, ",", def);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setShortArray(String key, short[] value) {
+        setShortArray(key, ",", value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setShortArray(String key, short[] value, String... comments) {
+        setShortArray(key, ",", value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final short[] getShortArray(String key, String delimiter) {
+        return StringUtils.stringToShortArray(require(key), delimiter);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final short[] getShortArray(String key, String delimiter, short[] def) {
+        notNull(def, "short[] def");
+
+        String value = lookup(key);
+        if (value != null) {
+            try {
+                return StringUtils.stringToShortArray(value, delimiter);
+            }
+            catch (NumberFormatException nfex) {
+                // Continue with default
+            }
+        }
+        write(key, StringUtils.shortArrayToString(def, delimiter));
+        return def;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setShortArray(String key, String delimiter, short[] value) {
+        notNull(value, "short[] value");
+        notNull(delimiter, "String delimiter");
+        notEmptyNoTrim(delimiter, "String delimiter");
+
+        write(key, StringUtils.shortArrayToString(value, delimiter));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setShortArray(String key, String delimiter, short[] value, String... comments) {
+        notNull(value, "short[] value");
+        notNull(delimiter, "String delimiter");
+        notEmptyNoTrim(delimiter, "String delimiter");
+
+        write(key, StringUtils.shortArrayToString(value, delimiter));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final int getInt(String key) {
+        String value = require(key);
+        try {
+            return Integer.decode(value);
+        }
+        catch (NumberFormatException nfe) {
+            throw new NumberFormatException(Verify.parse("prop.nan", key));
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final int getInt(String key, int def) {
+        String value = lookup(key);
+        if (value != null) {
+            try {
+                return Integer.decode(value);
+            }
+            catch (NumberFormatException nfex) {
+                // Continue with default
+            }
+        }
+        write(key, String.valueOf(def));
+        return def;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setInt(String key, int value) {
+        write(key, String.valueOf(value));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setInt(String key, int value, String... comments) {
+        write(key, String.valueOf(value));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final int[] getIntArray(String key) {
+        return getIntArray(key, ",");
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final int[] getIntArray(String key, int[] def) {
+        return getIntArray(key, ",", def);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setIntArray(String key, int[] value) {
+        setIntArray(key, ",", value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setIntArray(String key, int[] value, String... comments) {
+        setIntArray(key, ",", value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final int[] getIntArray(String key, String delimiter) {
+        return StringUtils.stringToIntArray(require(key), delimiter);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final int[] getIntArray(String key, String delimiter, int[] def) {
+        notNull(def, "int[] def");
+
+        String value = lookup(key);
+        if (value != null) {
+            try {
+                return StringUtils.stringToIntArray(value, delimiter);
+            }
+            catch (NumberFormatException nfex) {
+                // Continue with default
+            }
+        }
+        write(key, StringUtils.intArrayToString(def, delimiter));
+        return def;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setIntArray(String key, String delimiter, int[] value) {
+        notNull(value, "int[] value");
+        notNull(delimiter, "String delimiter");
+        notEmptyNoTrim(delimiter, "String delimiter");
+
+        write(key, StringUtils.intArrayToString(value, delimiter));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setIntArray(String key, String delimiter, int[] value, String... comments) {
+        notNull(value, "int[] value");
+        notNull(delimiter, "String delimiter");
+        notEmptyNoTrim(delimiter, "String delimiter");
+
+        write(key, StringUtils.intArrayToString(value, delimiter));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final long getLong(String key) {
+        String value = require(key);
+        try {
+            return Long.decode(value);
+        }
+        catch (NumberFormatException nfe) {
+            throw new NumberFormatException(Verify.parse("prop.nan", key));
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final long getLong(String key, long def) {
+        String value = lookup(key);
+        if (value != null) {
+            try {
+                return Long.decode(value);
+            }
+            catch (NumberFormatException nfex) {
+                // Continue with default
+            }
+        }
+        write(key, String.valueOf(def));
+        return def;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setLong(String key, long value) {
+        write(key, String.valueOf(value));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setLong(String key, long value, String... comments) {
+        write(key, String.valueOf(value));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final long[] getLongArray(String key) {
+        return getLongArray(key, ",");
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final long[] getLongArray(String key, long[] def) {
+        return getLongArray(key, ",", def);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setLongArray(String key, long[] value) {
+        setLongArray(key, ",", value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setLongArray(String key, long[] value, String... comments) {
+        setLongArray(key, ",", value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final long[] getLongArray(String key, String delimiter) {
+        return StringUtils.stringToLongArray(require(key), delimiter);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final long[] getLongArray(String key, String delimiter, long[] def) {
+        notNull(def, "long[] def");
+
+        String value = lookup(key);
+        if (value != null) {
+            try {
+                return StringUtils.stringToLongArray(value, delimiter);
+            }
+            catch (NumberFormatException nfex) {
+                // Continue with default
+            }
+        }
+        write(key, StringUtils.longArrayToString(def, delimiter));
+        return def;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setLongArray(String key, String delimiter, long[] value) {
+        notNull(value, "long[] value");
+        notNull(delimiter, "String delimiter");
+        notEmptyNoTrim(delimiter, "String delimiter");
+
+        write(key, StringUtils.longArrayToString(value, delimiter));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setLongArray(String key, String delimiter, long[] value, String... comments) {
+        notNull(value, "long[] value");
+        notNull(delimiter, "String delimiter");
+        notEmptyNoTrim(delimiter, "String delimiter");
+
+        write(key, StringUtils.longArrayToString(value, delimiter));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final float getFloat(String key) {
+        String value = require(key);
+        try {
+            return Float.parseFloat(value);
+        }
+        catch (NumberFormatException nfe) {
+            throw new NumberFormatException(Verify.parse("prop.nan", key));
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final float getFloat(String key, float def) {
+        String value = lookup(key);
+        if (value != null) {
+            try {
+                return Float.parseFloat(value);
+            }
+            catch (NumberFormatException nfex) {
+                // Continue with default
+            }
+        }
+        write(key, String.valueOf(def));
+        return def;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setFloat(String key, float value) {
+        write(key, String.valueOf(value));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setFloat(String key, float value, String... comments) {
+        write(key, String.valueOf(value));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final float[] getFloatArray(String key) {
+        return getFloatArray(key, ",");
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final float[] getFloatArray(String key, float[] def) {
+        return getFloatArray(key, ",", def);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setFloatArray(String key, float[] value) {
+        setFloatArray(key, ",", value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setFloatArray(String key, float[] value, String... comments) {
+        setFloatArray(key, ",", value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final float[] getFloatArray(String key, String delimiter) {
+        return StringUtils.stringToFloatArray(require(key), delimiter);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final float[] getFloatArray(String key, String delimiter, float[] def) {
+        notNull(def, "float[] def");
+
+        String value = lookup(key);
+        if (value != null) {
+            try {
+                return StringUtils.stringToFloatArray(value, delimiter);
+            }
+            catch (NumberFormatException nfex) {
+                // Continue with default
+            }
+        }
+        write(key, StringUtils.floatArrayToString(def, delimiter));
+        return def;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setFloatArray(String key, String delimiter, float[] value) {
+        notNull(value, "float[] value");
+        notNull(delimiter, "String delimiter");
+        notEmptyNoTrim(delimiter, "String delimiter");
+
+        write(key, StringUtils.floatArrayToString(value, delimiter));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setFloatArray(String key, String delimiter, float[] value, String... comments) {
+        notNull(value, "float[] value");
+        notNull(delimiter, "String delimiter");
+        notEmptyNoTrim(delimiter, "String delimiter");
+
+        write(key, StringUtils.floatArrayToString(value, delimiter));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final double getDouble(String key) {
+        String value = require(key);
+        try {
+            return Double.parseDouble(value);
+        }
+        catch (NumberFormatException nfe) {
+            throw new NumberFormatException(Verify.parse("prop.nan", key));
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final double getDouble(String key, double def) {
+        String value = lookup(key);
+        if (value != null) {
+            try {
+                return Double.parseDouble(value);
+            }
+            catch (NumberFormatException nfex) {
+                // Continue with default
+            }
+        }
+        write(key, String.valueOf(def));
+        return def;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setDouble(String key, double value) {
+        write(key, String.valueOf(value));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setDouble(String key, double value, String... comments) {
+        write(key, String.valueOf(value));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final double[] getDoubleArray(String key) {
+        return getDoubleArray(key, ",");
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final double[] getDoubleArray(String key, double[] def) {
+        return getDoubleArray(key, ",", def);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setDoubleArray(String key, double[] value) {
+        setDoubleArray(key, ",", value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setDoubleArray(String key, double[] value, String... comments) {
+        setDoubleArray(key, ",", value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final double[] getDoubleArray(String key, String delimiter) {
+        return StringUtils.stringToDoubleArray(require(key), delimiter);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final double[] getDoubleArray(String key, String delimiter, double[] def) {
+        notNull(def, "double[] def");
+
+        String value = lookup(key);
+        if (value != null) {
+            try {
+                return StringUtils.stringToDoubleArray(value, delimiter);
+            }
+            catch (NumberFormatException nfex) {
+                // Continue with default
+            }
+        }
+        write(key, StringUtils.doubleArrayToString(def, delimiter));
+        return def;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setDoubleArray(String key, String delimiter, double[] value) {
+        notNull(value, "double[] value");
+        notNull(delimiter, "String delimiter");
+        notEmptyNoTrim(delimiter, "String delimiter");
+
+        write(key, StringUtils.doubleArrayToString(value, delimiter));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setDoubleArray(String key, String delimiter, double[] value, String... comments) {
+        notNull(value, "double[] value");
+        notNull(delimiter, "String delimiter");
+        notEmptyNoTrim(delimiter, "String delimiter");
+
+        write(key, StringUtils.doubleArrayToString(value, delimiter));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final boolean getBoolean(String key) {
+        return BooleanUtils.parseBoolean(require(key));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final boolean getBoolean(String key, boolean def) {
+        String value = lookup(key);
+        if (value != null) {
+            return BooleanUtils.parseBoolean(value);
+        }
+        write(key, String.valueOf(def));
+        return def;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setBoolean(String key, boolean value) {
+        write(key, String.valueOf(value));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setBoolean(String key, boolean value, String... comments) {
+        write(key, String.valueOf(value));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final boolean[] getBooleanArray(String key) {
+        return getBooleanArray(key, ",");
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final boolean[] getBooleanArray(String key, boolean[] def) {
+        return getBooleanArray(key, ",", def);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setBooleanArray(String key, boolean[] value) {
+        setBooleanArray(key, ",", value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setBooleanArray(String key, boolean[] value, String... comments) {
+        setBooleanArray(key, ",", value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final boolean[] getBooleanArray(String key, String delimiter) {
+        return StringUtils.stringToBooleanArray(require(key), delimiter);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final boolean[] getBooleanArray(String key, String delimiter, boolean[] def) {
+        notNull(def, "boolean[] def");
+
+        String value = lookup(key);
+        if (value != null) {
+            return StringUtils.stringToBooleanArray(value, delimiter);
+        }
+        write(key, StringUtils.booleanArrayToString(def, delimiter));
+        return def;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setBooleanArray(String key, String delimiter, boolean[] value) {
+        notNull(value, "boolean[] value");
+        notNull(delimiter, "String delimiter");
+        notEmptyNoTrim(delimiter, "String delimiter");
+
+        write(key, StringUtils.booleanArrayToString(value, delimiter));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setBooleanArray(String key, String delimiter, boolean[] value, String... comments) {
+        notNull(value, "boolean[] value");
+        notNull(delimiter, "String delimiter");
+        notEmptyNoTrim(delimiter, "String delimiter");
+
+        write(key, StringUtils.booleanArrayToString(value, delimiter));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final char getCharacter(String key) {
+        return require(key).trim().charAt(0);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final char getCharacter(String key, char def) {
+        String value = lookup(key);
+        if (value != null) {
+            return value.trim().charAt(0);
+        }
+        write(key, String.valueOf(def));
+        return def;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setCharacter(String key, char value) {
+        write(key, String.valueOf(value));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setCharacter(String key, char value, String... comments) {
+        write(key, String.valueOf(value));
+    }
+
+    /**
+     * {@inheritDoc}<br>
+     * NOTE: The map is a copy of the whole store and may be expensive for large stores
+     */
+    @Override
+    public final synchronized Map<String, String> getPropertiesMap() {
+        LinkedHashMap<String, String> all = new LinkedHashMap<String, String>();
+        for (Map.Entry<String, Integer> entry : index.entrySet()) {
+            all.put(entry.getKey(), readValue(entry.getValue()));
+        }
+        return Collections.unmodifiableMap(all);
+    }
+
+    @Override
+    final Map<String, String> backingMap() {
+        return getPropertiesMap();
+    }
+
+    /**
+     * Unsupported Operation with MappedPropertiesStores
+     *
+     * @throws UnsupportedOperationException
+     *         Comments are not stored by Mapped Properties Stores
+     */
+    @Override
+    protected final void addComment(String key, String... comments) {
+        throw new UnsupportedOperationException("Comments are not stored by a MappedPropertiesStore");
+    }
+
+    /**
+     * Unsupported Operation with MappedPropertiesStores
+     *
+     * @throws UnsupportedOperationException
+     *         Comments are not stored by Mapped Properties Stores
+     */
+    @Override
+    protected final void setComments(String key, String... comments) {
+        throw new UnsupportedOperationException("Comments are not stored by a MappedPropertiesStore");
+    }
+
+    /**
+     * Comments are not stored by MappedPropertiesStores
+     *
+     * @return {@code null}
+     */
+    @Override
+    public final String[] getComments(String key) {
+        return null;
+    }
+
+    /**
+     * Comments are not stored by MappedPropertiesStores
+     *
+     * @return {@code null}
+     */
+    @Override
+    public final List<String> getCommentsAsList(String key) {
+        return null;
+    }
+
+    /** Comments are not stored by MappedPropertiesStores, does nothing */
+    @Override
+    public final void removeComment(String key, String comment) {
+    }
+
+    /** Comments are not stored by MappedPropertiesStores, does nothing */
+    @Override
+    public final void removeAllCommentsFromKey(String key) {
+    }
+
+    /** Comments are not stored by MappedPropertiesStores, does nothing */
+    @Override
+    public final void removeAllCommentsFromFile() {
+    }
+
+    /**
+     * Unsupported Operation with MappedPropertiesStores
+     *
+     * @throws UnsupportedOperationException
+     *         Headers are not stored by Mapped Properties Stores
+     */
+    @Override
+    protected final void addHeaderLines(String... lines) {
+        throw new UnsupportedOperationException("Headers are not stored by a MappedPropertiesStore");
+    }
+
+    /**
+     * Headers are not stored by MappedPropertiesStores
+     *
+     * @return an empty list
+     */
+    @Override
+    public final LinkedList<String> getHeaderLines() {
+        return new LinkedList<String>();
+    }
+
+    /** Headers are not stored by MappedPropertiesStores, does nothing */
+    @Override
+    public final void clearHeader() {
+    }
+
+    /**
+     * Unsupported Operation with MappedPropertiesStores
+     *
+     * @throws UnsupportedOperationException
+     *         Footers are not stored by Mapped Properties Stores
+     */
+    @Override
+    protected final void addFooterLines(String... lines) {
+        throw new UnsupportedOperationException("Footers are not stored by a MappedPropertiesStore");
+    }
+
+    /**
+     * Footers are not stored by MappedPropertiesStores
+     *
+     * @return an empty list
+     */
+    @Override
+    public final LinkedList<String> getFooterLines() {
+        return new LinkedList<String>();
+    }
+
+    /** Footers are not stored by MappedPropertiesStores, does nothing */
+    @Override
+    public final void clearFooter() {
+    }
+
+    /**
+     * Inline comments are not stored by MappedPropertiesStores
+     *
+     * @return {@code null}
+     */
+    @Override
+    public final String getInlineComment(String key) {
+        return null;
+    }
+
+    /**
+     * Returns a string representation of the {@code MappedPropertiesStore} as {@code MappedPropertiesStore[FilePath=%s]}
+     *
+     * @return string representation of the {@code MappedPropertiesStore}
+     *
+     * @see Object#toString()
+     */
+    @Override
+    public final String toString() {
+        return String.format("MappedPropertiesStore[FilePath=%s]", propsFile.getAbsolutePath());
+    }
+
+    /**
+     * Gets this class's version number
+     *
+     * @return the class version
+     */
+    public static float getClassVersion() {
+        return classVersion;
+    }
+}
@@ -0,0 +1,361 @@
+/*
+ * This file is part of VIUtils.
+ *
+ * Copyright © 2012-2015 Visual Illusions Entertainment
+ *
+ * VIUtils is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this library.
+ * If not, see http://www.gnu.org/licenses/lgpl.html.
+ */
+package net.visualillusionsent.utils;
+
+import java.util.Arrays;
+
+import static net.visualillusionsent.utils.Verify.notNull;
+
+/**
+ * Primitive Property Map
+ * <p/>
+ * A read-only map of property keys to primitive values, filled by the bulk readers of {@link PropertiesFile}.<br>
+ * Keys and values are kept in parallel arrays in file order, with an open addressing table for lookups,
+ * so values are never boxed. Entries may be walked by position with {@link #keyAt(int)} and the typed {@code valueAt} methods.
+ *
+ * @author Jason (darkdiplomat)
+ * @version 1.0
+ * @since 1.4.3
+ */
+public abstract class PrimitivePropertyMap {
+
+    /* 1.0 @ VIUtils 1.4.3 */
+    private static final float classVersion = 1.0F;
+    String[] keys = new String[8];
+    /** Positions of the keys plus one, by hash; zero marks an empty slot */
+    private int[] table = new int[16];
+    int size;
+
+    PrimitivePropertyMap() {
+    }
+
+    /**
+     * Gets the number of entries in the map
+     *
+     * @return the number of entries
+     */
+    public final int size() {
+        return size;
+    }
+
+    /**
+     * Checks if the map has no entries
+     *
+     * @return {@code true} if empty; {@code false} otherwise
+     */
+    public final boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Checks if the map contains a key
+     *
+     * @param key
+     *         the key to check
+     *
+     * @return {@code true} if the map contains the key; {@code false} otherwise
+     */
+    public final boolean containsKey(String key) {
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * Gets the key at a position
+     *
+     * @param position
+     *         the position of the entry, from zero to {@code size() - 1}
+     *
+     * @return the key
+     *
+     * @throws java.lang.IndexOutOfBoundsException
+     *         if the position is out of range
+     */
+    public final String keyAt(int position) {
+        checkPosition(position);
+        return keys[position];
+    }
+
+    /**
+     * Gets a copy of the keys in file order
+     *
+     * @return the keys
+     */
+    public final String[] keys() {
+        return Arrays.copyOf(keys, size);
+    }
+
+    /**
+     * Gets the position of a key
+     *
+     * @param key
+     *         the key to find
+     *
+     * @return the position of the key or {@code -1} if not found
+     */
+    public final int indexOf(String key) {
+        notNull(key, "String key");
+
+        int mask = table.length - 1;
+        for (int slot = spread(key.hashCode()) & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[table[slot] - 1].equals(key)) {
+                return table[slot] - 1;
+            }
+        }
+        return -1;
+    }
+
+    /** Adds a key and returns its position for the value to be stored at */
+    final int add(String key) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            grow(size * 2);
+        }
+        keys[size] = key;
+        if ((size + 1) * 2 > table.length) {
+            rehash(table.length * 2);
+        }
+        insert(key, size);
+        return size++;
+    }
+
+    /** Grows the value array to the new capacity */
+    abstract void grow(int capacity);
+
+    private void insert(String key, int position) {
+        int mask = table.length - 1;
+        int slot = spread(key.hashCode()) & mask;
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = position + 1;
+    }
+
+    private void rehash(int capacity) {
+        table = new int[capacity];
+        for (int position = 0; position < size; position++) {
+            insert(keys[position], position);
+        }
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    final void checkPosition(int position) {
+        if (position < 0 || position >= size) {
+            throw new IndexOutOfBoundsException(Verify.parse("map.pos.range", String.valueOf(position)));
+        }
+    }
+
+    final int require(String key) {
+        int position = indexOf(key);
+        if (position < 0) {
+            throw new UnknownPropertyException("key.missing", key);
+        }
+        return position;
+    }
+
+    /**
+     * Gets this class's version number
+     *
+     * @return the class version
+     */
+    public static float getClassVersion() {
+        return classVersion;
+    }
+
+    /** Map of keys to long values */
+    public static final class LongMap extends PrimitivePropertyMap {
+        private long[] values = new long[8];
+
+        LongMap() {
+        }
+
+        @Override
+        final void grow(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+
+        final void put(String key, long value) {
+            values[add(key)] = value;
+        }
+
+        /**
+         * Gets the value for a key
+         *
+         * @param key
+         *         the key to get the value for
+         *
+         * @return the value
+         *
+         * @throws UnknownPropertyException
+         *         if the key is not in the map
+         */
+        public final long get(String key) {
+            return values[require(key)];
+        }
+
+        /**
+         * Gets the value for a key or returns the default specified
+         *
+         * @param key
+         *         the key to get the value for
+         * @param def
+         *         the value to return if the key is not in the map
+         *
+         * @return the value
+         */
+        public final long get(String key, long def) {
+            int position = indexOf(key);
+            return position < 0 ? def : values[position];
+        }
+
+        /**
+         * Gets the value at a position
+         *
+         * @param position
+         *         the position of the entry, from zero to {@code size() - 1}
+         *
+         * @return the value
+         */
+        public final long valueAt(int position) {
+            checkPosition(position);
+            return values[position];
+        }
+    }
+
+    /** Map of keys to double values */
+    public static final class DoubleMap extends PrimitivePropertyMap {
+        private double[] values = new double[8];
+
+        DoubleMap() {
+        }
+
+        @Override
+        final void grow(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+
+        final void put(String key, double value) {
+            values[add(key)] = value;
+        }
+
+        /**
+         * Gets the value for a key
+         *
+         * @param key
+         *         the key to get the value for
+         *
+         * @return the value
+         *
+         * @throws UnknownPropertyException
+         *         if the key is not in the map
+         */
+        public final double get(String key) {
+            return values[require(key)];
+        }
+
+        /**
+         * Gets the value for a key or returns the default specified
+         *
+         * @param key
+         *         the key to get the value for
+         * @param def
+         *         the value to return if the key is not in the map
+         *
+         * @return the value
+         */
+        public final double get(String key, double def) {
+            int position = indexOf(key);
+            return position < 0 ? def : values[position];
+        }
+
+        /**
+         * Gets the value at a position
+         *
+         * @param position
+         *         the position of the entry, from zero to {@code size() - 1}
+         *
+         * @return the value
+         */
+        public final double valueAt(int position) {
+            checkPosition(position);
+            return values[position];
+        }
+    }
+
+    /** Map of keys to boolean values */
+    public static final class BooleanMap extends PrimitivePropertyMap {
+        private boolean[] values = new boolean[8];
+
+        BooleanMap() {
+        }
+
+        @Override
+        final void grow(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+
+        final void put(String key, boolean value) {
+            values[add(key)] = value;
+        }
+
+        /**
+         * Gets the value for a key
+         *
+         * @param key
+         *         the key to get the value for
+         *
+         * @return the value
+         *
+         * @throws UnknownPropertyException
+         *         if the key is not in the map
+         */
+        public final boolean get(String key) {
+            return values[require(key)];
+        }
+
+        /**
+         * Gets the value for a key or returns the default specified
+         *
+         * @param key
+         *         the key to get the value for
+         * @param def
+         *         the value to return if the key is not in the map
+         *
+         * @return the value
+         */
+        public final boolean get(String key, boolean def) {
+            int position = indexOf(key);
+            return position < 0 ? def : values[position];
+        }
+
+        /**
+         * Gets the value at a position
+         *
+         * @param position
+         *         the position of the entry, from zero to {@code size() - 1}
+         *
+         * @return the value
+         */
+        public final boolean valueAt(int position) {
+            checkPosition(position);
+            return values[position];
+        }
+    }
+}
@@ -0,0 +1,399 @@
+/*
+ * This file is part of VIUtils.
+ *
+ * Copyright © 2012-2015 Visual Illusions Entertainment
+ *
+ * VIUtils is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this library.
+ * If not, see http://www.gnu.org/licenses/lgpl.html.
+ */
+package net.visualillusionsent.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static net.visualillusionsent.utils.Verify.notNull;
+
+/**
+ * Properties File Difference
+ * <p/>
+ * Computes the changes between two {@link AbstractPropertiesFile}s.<br>
+ * Keys are walked in file order and looked up directly in the backing maps of the other file,
+ * so a comparison is linear in the number of keys and does not copy either file.
+ * Property values, attached comments and inline comments are compared, as are the header and footer lines.
+ * When either file keeps no comments of its own, such as a {@link ShardedPropertiesFile} or {@link MappedPropertiesStore},
+ * only values are compared: comments, headers and footers never show as changed, and applying the changes leaves them as they are.
+ *
+ * @author Jason (darkdiplomat)
+ * @version 1.0
+ * @since 1.4.3
+ */
+public final class PropertiesDiff {
+
+    /* 1.0 @ VIUtils 1.4.3 */
+    private static final float classVersion = 1.0F;
+    private final List<Change> changes;
+    private final boolean headerChanged;
+    private final boolean footerChanged;
+
+    private PropertiesDiff(List<Change> changes, boolean headerChanged, boolean footerChanged) {
+        this.changes = Collections.unmodifiableList(changes);
+        this.headerChanged = headerChanged;
+        this.footerChanged = footerChanged;
+    }
+
+    /**
+     * Computes the changes required to turn one PropertiesFile into another
+     *
+     * @param from
+     *         the original PropertiesFile
+     * @param to
+     *         the changed PropertiesFile
+     *
+     * @return the {@code PropertiesDiff} of the two files
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code from} or {@code to} is null
+     */
+    public static PropertiesDiff compare(AbstractPropertiesFile from, AbstractPropertiesFile to) {
+        notNull(from, "AbstractPropertiesFile from");
+        notNull(to, "AbstractPropertiesFile to");
+
+        Map<String, String> fromProps = from.backingMap();
+        Map<String, String> toProps = to.backingMap();
+        boolean commented = from.comments != null && to.comments != null; // Otherwise one side has nothing to compare the comments with
+        List<Change> changes = new ArrayList<Change>();
+
+        if (fromProps != null) {
+            for (Map.Entry<String, String> entry : fromProps.entrySet()) {
+                String key = entry.getKey();
+                String newValue = toProps != null ? toProps.get(key) : null;
+                if (newValue == null) {
+                    changes.add(new Change(Type.REMOVED, key, entry.getValue(), null, commentsOf(from, key), null, inlineOf(from, key), null, commented));
+                    continue;
+                }
+                List<String> oldComments = commented ? commentsOf(from, key) : null;
+                List<String> newComments = commented ? commentsOf(to, key) : null;
+                String oldInline = commented ? inlineOf(from, key) : null;
+                String newInline = commented ? inlineOf(to, key) : null;
+                if (!entry.getValue().equals(newValue) || !equal(oldComments, newComments) || !equal(oldInline, newInline)) {
+                    changes.add(new Change(Type.MODIFIED, key, entry.getValue(), newValue, oldComments, newComments, oldInline, newInline, commented));
+                }
+            }
+        }
+        if (toProps != null) {
+            for (Map.Entry<String, String> entry : toProps.entrySet()) {
+                String key = entry.getKey();
+                if (fromProps == null || !fromProps.containsKey(key)) {
+                    changes.add(new Change(Type.ADDED, key, null, entry.getValue(), null, commentsOf(to, key), null, inlineOf(to, key), commented));
+                }
+            }
+        }
+        return new PropertiesDiff(changes, commented && !equal(from.header, to.header), commented && !equal(from.footer, to.footer));
+    }
+
+    /**
+     * Gets all the changes, removed and modified keys in the order of the original file followed by added keys
+     *
+     * @return unmodifiable list of changes
+     */
+    public final List<Change> getChanges() {
+        return changes;
+    }
+
+    /**
+     * Gets the changes for keys that were added
+     *
+     * @return list of added keys
+     */
+    public final List<Change> getAdded() {
+        return filter(Type.ADDED);
+    }
+
+    /**
+     * Gets the changes for keys that were removed
+     *
+     * @return list of removed keys
+     */
+    public final List<Change> getRemoved() {
+        return filter(Type.REMOVED);
+    }
+
+    /**
+     * Gets the changes for keys whose value or comments were modified
+     *
+     * @return list of modified keys
+     */
+    public final List<Change> getModified() {
+        return filter(Type.MODIFIED);
+    }
+
+    /**
+     * Checks if the header lines differ
+     *
+     * @return {@code true} if the header changed; {@code false} otherwise
+     */
+    public final boolean isHeaderChanged() {
+        return headerChanged;
+    }
+
+    /**
+     * Checks if the footer lines differ
+     *
+     * @return {@code true} if the footer changed; {@code false} otherwise
+     */
+    public final boolean isFooterChanged() {
+        return footerChanged;
+    }
+
+    /**
+     * Checks if the two files were identical
+     *
+     * @return {@code true} if there are no changes; {@code false} otherwise
+     */
+    public final boolean isEmpty() {
+        return changes.isEmpty() && !headerChanged && !footerChanged;
+    }
+
+    /**
+     * Applies the key changes of this diff to a {@link PropertiesFile}<br>
+     * NOTE: This will not save the properties file.
+     *
+     * @param target
+     *         the PropertiesFile to apply the changes to
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code target} is null
+     */
+    public final void applyTo(PropertiesFile target) {
+        notNull(target, "PropertiesFile target");
+
+        for (Change change : changes) {
+            change.applyTo(target);
+        }
+    }
+
+    private List<Change> filter(Type type) {
+        List<Change> filtered = new ArrayList<Change>();
+        for (Change change : changes) {
+            if (change.type == type) {
+                filtered.add(change);
+            }
+        }
+        return filtered;
+    }
+
+    private static List<String> commentsOf(AbstractPropertiesFile file, String key) {
+        if (file.comments == null) {
+            return null;
+        }
+        List<String> found = file.comments.get(key);
+        return found == null || found.isEmpty() ? null : found;
+    }
+
+    private static String inlineOf(AbstractPropertiesFile file, String key) {
+        return file.inlineCom == null ? null : file.inlineCom.get(key);
+    }
+
+    static boolean equal(Object one, Object two) {
+        return one == null ? two == null : one.equals(two);
+    }
+
+    /**
+     * Returns a string representation of the {@code PropertiesDiff} as {@code PropertiesDiff[Changes=%d, Header=%b, Footer=%b]}
+     *
+     * @return string representation of the {@code PropertiesDiff}
+     */
+    @Override
+    public final String toString() {
+        return String.format("PropertiesDiff[Changes=%d, Header=%b, Footer=%b]", changes.size(), headerChanged, footerChanged);
+    }
+
+    /**
+     * Gets this class's version number
+     *
+     * @return the class version
+     */
+    public static float getClassVersion() {
+        return classVersion;
+    }
+
+    /** The type of change made to a key */
+    public enum Type {
+        ADDED, //
+        REMOVED, //
+        MODIFIED, //
+    }
+
+    /** A single key change between two PropertiesFiles */
+    public static final class Change {
+        private final Type type;
+        private final String key;
+        private final String oldValue;
+        private final String newValue;
+        private final List<String> oldComments;
+        private final List<String> newComments;
+        private final String oldInline;
+        private final String newInline;
+        /** Whether both files kept comments, so the comments of the key were compared */
+        private final boolean commented;
+
+        Change(Type type, String key, String oldValue, String newValue, List<String> oldComments, List<String> newComments, String oldInline, String newInline, boolean commented) {
+            this.type = type;
+            this.key = key;
+            this.oldValue = oldValue;
+            this.newValue = newValue;
+            this.oldComments = oldComments == null ? null : Collections.unmodifiableList(new ArrayList<String>(oldComments));
+            this.newComments = newComments == null ? null : Collections.unmodifiableList(new ArrayList<String>(newComments));
+            this.oldInline = oldInline;
+            this.newInline = newInline;
+            this.commented = commented;
+        }
+
+        /**
+         * Gets the type of change
+         *
+         * @return the change type
+         */
+        public final Type getType() {
+            return type;
+        }
+
+        /**
+         * Gets the key that changed
+         *
+         * @return the key
+         */
+        public final String getKey() {
+            return key;
+        }
+
+        /**
+         * Gets the value before the change
+         *
+         * @return the old value or {@code null} if the key was added
+         */
+        public final String getOldValue() {
+            return oldValue;
+        }
+
+        /**
+         * Gets the value after the change
+         *
+         * @return the new value or {@code null} if the key was removed
+         */
+        public final String getNewValue() {
+            return newValue;
+        }
+
+        /**
+         * Gets the comments attached to the key before the change
+         *
+         * @return the old comments or {@code null} if there were none
+         */
+        public final List<String> getOldComments() {
+            return oldComments;
+        }
+
+        /**
+         * Gets the comments attached to the key after the change
+         *
+         * @return the new comments or {@code null} if there are none
+         */
+        public final List<String> getNewComments() {
+            return newComments;
+        }
+
+        /**
+         * Gets the inline comment of the key before the change
+         *
+         * @return the old inline comment or {@code null} if there was none
+         */
+        public final String getOldInlineComment() {
+            return oldInline;
+        }
+
+        /**
+         * Gets the inline comment of the key after the change
+         *
+         * @return the new inline comment or {@code null} if there is none
+         */
+        public final String getNewInlineComment() {
+            return newInline;
+        }
+
+        /**
+         * Checks if the value of the key changed
+         *
+         * @return {@code true} if the value changed; {@code false} if only comments changed
+         */
+        public final boolean isValueChanged() {
+            return !equal(oldValue, newValue);
+        }
+
+        /**
+         * Checks if the comments or inline comment of the key changed
+         *
+         * @return {@code true} if the comments changed; {@code false} otherwise
+         */
+        public final boolean isCommentChanged() {
+            return !equal(oldComments, newComments) || !equal(oldInline, newInline);
+        }
+
+        /**
+         * Checks if another change has the same outcome as this change
+         *
+         * @param other
+         *         the change to check
+         *
+         * @return {@code true} if both changes leave the key with the same value and comments; {@code false} otherwise<br>
+         * Only values are checked if either change was made against a file that keeps no comments
+         */
+        public final boolean hasSameOutcome(Change other) {
+            if (!commented || !other.commented) {
+                return equal(newValue, other.newValue);
+            }
+            return equal(newValue, other.newValue) && equal(newComments, other.newComments) && equal(newInline, other.newInline);
+        }
+
+        final void applyTo(PropertiesFile target) {
+            if (type == Type.REMOVED) {
+                target.removeKey(key);
+                target.inlineCom.remove(key);
+                return;
+            }
+            target.setString(key, newValue);
+            if (type == Type.MODIFIED && !commented) {
+                return; // The comments were not compared, so the target keeps its own
+            }
+            target.setComments(key, newComments == null ? null : newComments.toArray(new String[newComments.size()]));
+            if (newInline == null) {
+                target.inlineCom.remove(key);
+            }
+            else {
+                target.inlineCom.put(key, newInline);
+            }
+            target.markChanged(); // Comment changes need saving as well
+        }
+
+        /**
+         * Returns a string representation of the {@code Change} as {@code Change[Type=%s, Key=%s, Old=%s, New=%s]}
+         *
+         * @return string representation of the {@code Change}
+         */
+        @Override
+        public final String toString() {
+            return String.format("Change[Type=%s, Key=%s, Old=%s, New=%s]", type, key, oldValue, newValue);
+        }
+    }
+}
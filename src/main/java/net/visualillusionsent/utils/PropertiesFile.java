@@ -49,13 +49,13 @@ import static net.visualillusionsent.utils.Verify.notNull;
  * If #! is needed as a property it can be escaped with \ ie: \#\!
  *
  * @author Jason (darkdiplomat)
- * @version 1.6
+ * @version 1.7
  * @since 1.0.0
  */
 public final class PropertiesFile extends AbstractPropertiesFile {
 
-    /* 1.6 @ VIUtils 1.4.1 */
-    private static final float classVersion = 1.6F;
+    /* 1.7 @ VIUtils 1.4.3 */
+    private static final float classVersion = 1.7F;
 
     /**
      * {@inheritDoc}
@@ -261,6 +261,7 @@ public final class PropertiesFile extends AbstractPropertiesFile {
             }
         }
         this.hasChanged = false;
+        this.modCount++;
     }
 
     /**
@@ -384,7 +385,7 @@ public final class PropertiesFile extends AbstractPropertiesFile {
             if (comments.containsKey(key)) {
                 comments.remove(key);
             }
-            this.hasChanged = true;
+            this.markChanged();
         }
     }
 
@@ -407,7 +408,7 @@ public final class PropertiesFile extends AbstractPropertiesFile {
                 if (comments.containsKey(key)) {
                     comments.remove(key);
                 }
-                this.hasChanged = true;
+                this.markChanged();
             }
         }
     }
@@ -490,7 +491,7 @@ public final class PropertiesFile extends AbstractPropertiesFile {
         }
         props.put(key, value);
         addComment(key, comment);
-        this.hasChanged = true;
+        this.markChanged();
     }
 
     /**
@@ -627,7 +628,7 @@ public final class PropertiesFile extends AbstractPropertiesFile {
         }
         props.put(key, joinedValue);
         addComment(key, comment);
-        this.hasChanged = true;
+        this.markChanged();
     }
 
     /**
@@ -715,7 +716,7 @@ public final class PropertiesFile extends AbstractPropertiesFile {
         numberCache.put(key, value);
         props.put(key, strVal);
         addComment(key, comment);
-        this.hasChanged = true;
+        this.markChanged();
     }
 
     /**
@@ -852,7 +853,7 @@ public final class PropertiesFile extends AbstractPropertiesFile {
         }
         props.put(key, strValue);
         addComment(key, comment);
-        this.hasChanged = true;
+        this.markChanged();
     }
 
     /**
@@ -940,7 +941,7 @@ public final class PropertiesFile extends AbstractPropertiesFile {
         numberCache.put(key, value);
         props.put(key, strValue);
         addComment(key, comment);
-        this.hasChanged = true;
+        this.markChanged();
     }
 
     /**
@@ -1077,7 +1078,7 @@ public final class PropertiesFile extends AbstractPropertiesFile {
         }
         props.put(key, strValue);
         addComment(key, comment);
-        this.hasChanged = true;
+        this.markChanged();
     }
 
     /**
@@ -1165,7 +1166,7 @@ public final class PropertiesFile extends AbstractPropertiesFile {
         numberCache.put(key, value);
         props.put(key, strValue);
         addComment(key, comment);
-        this.hasChanged = true;
+        this.markChanged();
     }
 
     /**
@@ -1302,7 +1303,7 @@ public final class PropertiesFile extends AbstractPropertiesFile {
         }
         props.put(key, strValue);
         addComment(key, comment);
-        this.hasChanged = true;
+        this.markChanged();
     }
 
     /**
@@ -1390,7 +1391,7 @@ public final class PropertiesFile extends AbstractPropertiesFile {
         numberCache.put(key, value);
         props.put(key, strValue);
         addComment(key, comment);
-        this.hasChanged = true;
+        this.markChanged();
     }
 
     /**
@@ -1527,7 +1528,7 @@ public final class PropertiesFile extends AbstractPropertiesFile {
         }
         props.put(key, strValue);
         addComment(key, comment);
-        this.hasChanged = true;
+        this.markChanged();
     }
 
     /**
@@ -1614,7 +1615,7 @@ public final class PropertiesFile extends AbstractPropertiesFile {
         numberCache.put(key, value);
         props.put(key, strValue);
         addComment(key, comment);
-        this.hasChanged = true;
+        this.markChanged();
     }
 
     /**
@@ -1751,7 +1752,7 @@ public final class PropertiesFile extends AbstractPropertiesFile {
         }
         props.put(key, strValue);
         addComment(key, comment);
-        this.hasChanged = true;
+        this.markChanged();
     }
 
     /**
@@ -1838,7 +1839,7 @@ public final class PropertiesFile extends AbstractPropertiesFile {
         numberCache.put(key, value);
         props.put(key, strValue);
         addComment(key, comment);
-        this.hasChanged = true;
+        this.markChanged();
     }
 
     /**
@@ -1975,7 +1976,7 @@ public final class PropertiesFile extends AbstractPropertiesFile {
         }
         props.put(key, strValue);
         addComment(key, comment);
-        this.hasChanged = true;
+        this.markChanged();
     }
 
     /**
@@ -2050,7 +2051,7 @@ public final class PropertiesFile extends AbstractPropertiesFile {
         booleanCache.put(key, value);
         props.put(key, strValue);
         addComment(key, comment);
-        this.hasChanged = true;
+        this.markChanged();
     }
 
     /**
@@ -2177,7 +2178,7 @@ public final class PropertiesFile extends AbstractPropertiesFile {
         }
         props.put(key, strValue);
         addComment(key, comment);
-        this.hasChanged = true;
+        this.markChanged();
     }
 
     /**
@@ -2246,7 +2247,7 @@ public final class PropertiesFile extends AbstractPropertiesFile {
         }
         props.put(key, strValue);
         addComment(key, comment);
-        this.hasChanged = true;
+        this.markChanged();
     }
 
     /** {@inheritDoc} */
@@ -2400,6 +2401,337 @@ public final class PropertiesFile extends AbstractPropertiesFile {
         return inlineCom.get(key);
     }
 
+    /**
+     * Gets a {@link PropertyHandle} for a {@link String} property<br>
+     * The handle caches the parsed value until the PropertiesFile is changed or reloaded.
+     * If the key is not found, the default is set the same as {@link #getString(String, String)}
+     *
+     * @param key
+     *         the key of the property
+     * @param def
+     *         the default value to use if key is not found
+     *
+     * @return the property handle
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code key} or {@code def} is null
+     * @throws java.lang.IllegalArgumentException
+     *         if {@code key} is empty
+     */
+    public final PropertyHandle.StringHandle stringHandle(String key, String def) {
+        notNull(key, "String key");
+        notNull(def, "String def");
+        notEmpty(key, "String key");
+
+        return new PropertyHandle.StringHandle(this, key, def);
+    }
+
+    /**
+     * Gets a {@link PropertyHandle} for an int property<br>
+     * The handle caches the parsed value until the PropertiesFile is changed or reloaded.
+     * If the key is not found, the default is set the same as {@link #getInt(String, int)}
+     *
+     * @param key
+     *         the key of the property
+     * @param def
+     *         the default value to use if key is not found
+     *
+     * @return the property handle
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code key} is null
+     * @throws java.lang.IllegalArgumentException
+     *         if {@code key} is empty
+     */
+    public final PropertyHandle.IntHandle intHandle(String key, int def) {
+        notNull(key, "String key");
+        notEmpty(key, "String key");
+
+        return new PropertyHandle.IntHandle(this, key, def);
+    }
+
+    /**
+     * Gets a {@link PropertyHandle} for a long property<br>
+     * The handle caches the parsed value until the PropertiesFile is changed or reloaded.
+     * If the key is not found, the default is set the same as {@link #getLong(String, long)}
+     *
+     * @param key
+     *         the key of the property
+     * @param def
+     *         the default value to use if key is not found
+     *
+     * @return the property handle
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code key} is null
+     * @throws java.lang.IllegalArgumentException
+     *         if {@code key} is empty
+     */
+    public final PropertyHandle.LongHandle longHandle(String key, long def) {
+        notNull(key, "String key");
+        notEmpty(key, "String key");
+
+        return new PropertyHandle.LongHandle(this, key, def);
+    }
+
+    /**
+     * Gets a {@link PropertyHandle} for a float property<br>
+     * The handle caches the parsed value until the PropertiesFile is changed or reloaded.
+     * If the key is not found, the default is set the same as {@link #getFloat(String, float)}
+     *
+     * @param key
+     *         the key of the property
+     * @param def
+     *         the default value to use if key is not found
+     *
+     * @return the property handle
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code key} is null
+     * @throws java.lang.IllegalArgumentException
+     *         if {@code key} is empty
+     */
+    public final PropertyHandle.FloatHandle floatHandle(String key, float def) {
+        notNull(key, "String key");
+        notEmpty(key, "String key");
+
+        return new PropertyHandle.FloatHandle(this, key, def);
+    }
+
+    /**
+     * Gets a {@link PropertyHandle} for a double property<br>
+     * The handle caches the parsed value until the PropertiesFile is changed or reloaded.
+     * If the key is not found, the default is set the same as {@link #getDouble(String, double)}
+     *
+     * @param key
+     *         the key of the property
+     * @param def
+     *         the default value to use if key is not found
+     *
+     * @return the property handle
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code key} is null
+     * @throws java.lang.IllegalArgumentException
+     *         if {@code key} is empty
+     */
+    public final PropertyHandle.DoubleHandle doubleHandle(String key, double def) {
+        notNull(key, "String key");
+        notEmpty(key, "String key");
+
+        return new PropertyHandle.DoubleHandle(this, key, def);
+    }
+
+    /**
+     * Gets a {@link PropertyHandle} for a boolean property<br>
+     * The handle caches the parsed value until the PropertiesFile is changed or reloaded.
+     * If the key is not found, the default is set the same as {@link #getBoolean(String, boolean)}
+     *
+     * @param key
+     *         the key of the property
+     * @param def
+     *         the default value to use if key is not found
+     *
+     * @return the property handle
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code key} is null
+     * @throws java.lang.IllegalArgumentException
+     *         if {@code key} is empty
+     */
+    public final PropertyHandle.BooleanHandle booleanHandle(String key, boolean def) {
+        notNull(key, "String key");
+        notEmpty(key, "String key");
+
+        return new PropertyHandle.BooleanHandle(this, key, def);
+    }
+
+    /**
+     * Reads every property whose key starts with the prefix as longs, in a single pass over the properties
+     *
+     * @param prefix
+     *         the key prefix to read
+     *
+     * @return map of the full keys to values
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code prefix} is null
+     * @throws java.lang.NumberFormatException
+     *         if a value is not a number or out of range
+     */
+    public final PrimitivePropertyMap.LongMap getLongsWithPrefix(String prefix) {
+        return getLongsWithPrefix(prefix, false);
+    }
+
+    /**
+     * Reads every property whose key starts with the prefix as longs, in a single pass over the properties
+     *
+     * @param prefix
+     *         the key prefix to read
+     * @param stripPrefix
+     *         {@code true} to remove the prefix from the keys of the returned map; {@code false} to keep the full keys
+     *
+     * @return map of keys to values
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code prefix} is null
+     * @throws java.lang.NumberFormatException
+     *         if a value is not a number or out of range
+     */
+    public final PrimitivePropertyMap.LongMap getLongsWithPrefix(String prefix, boolean stripPrefix) {
+        notNull(prefix, "String prefix");
+
+        PrimitivePropertyMap.LongMap values = new PrimitivePropertyMap.LongMap();
+        for (Map.Entry<String, String> entry : props.entrySet()) {
+            String key = entry.getKey();
+            if (key.startsWith(prefix)) {
+                String value = entry.getValue();
+                try {
+                    values.put(stripPrefix ? key.substring(prefix.length()) : key, decodeLong(value));
+                }
+                catch (NumberFormatException nfe) {
+                    throw new NumberFormatException(Verify.parse("prop.nan", key));
+                }
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Reads every property whose key starts with the prefix as doubles, in a single pass over the properties
+     *
+     * @param prefix
+     *         the key prefix to read
+     *
+     * @return map of the full keys to values
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code prefix} is null
+     * @throws java.lang.NumberFormatException
+     *         if a value is not a number
+     */
+    public final PrimitivePropertyMap.DoubleMap getDoublesWithPrefix(String prefix) {
+        return getDoublesWithPrefix(prefix, false);
+    }
+
+    /**
+     * Reads every property whose key starts with the prefix as doubles, in a single pass over the properties
+     *
+     * @param prefix
+     *         the key prefix to read
+     * @param stripPrefix
+     *         {@code true} to remove the prefix from the keys of the returned map; {@code false} to keep the full keys
+     *
+     * @return map of keys to values
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code prefix} is null
+     * @throws java.lang.NumberFormatException
+     *         if a value is not a number
+     */
+    public final PrimitivePropertyMap.DoubleMap getDoublesWithPrefix(String prefix, boolean stripPrefix) {
+        notNull(prefix, "String prefix");
+
+        PrimitivePropertyMap.DoubleMap values = new PrimitivePropertyMap.DoubleMap();
+        for (Map.Entry<String, String> entry : props.entrySet()) {
+            String key = entry.getKey();
+            if (key.startsWith(prefix)) {
+                String value = entry.getValue();
+                try {
+                    values.put(stripPrefix ? key.substring(prefix.length()) : key, Double.parseDouble(value));
+                }
+                catch (NumberFormatException nfe) {
+                    throw new NumberFormatException(Verify.parse("prop.nan", key));
+                }
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Reads every property whose key starts with the prefix as booleans, in a single pass over the properties
+     *
+     * @param prefix
+     *         the key prefix to read
+     *
+     * @return map of the full keys to values
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code prefix} is null
+     */
+    public final PrimitivePropertyMap.BooleanMap getBooleansWithPrefix(String prefix) {
+        return getBooleansWithPrefix(prefix, false);
+    }
+
+    /**
+     * Reads every property whose key starts with the prefix as booleans, in a single pass over the properties
+     *
+     * @param prefix
+     *         the key prefix to read
+     * @param stripPrefix
+     *         {@code true} to remove the prefix from the keys of the returned map; {@code false} to keep the full keys
+     *
+     * @return map of keys to values
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code prefix} is null
+     */
+    public final PrimitivePropertyMap.BooleanMap getBooleansWithPrefix(String prefix, boolean stripPrefix) {
+        notNull(prefix, "String prefix");
+
+        PrimitivePropertyMap.BooleanMap values = new PrimitivePropertyMap.BooleanMap();
+        for (Map.Entry<String, String> entry : props.entrySet()) {
+            String key = entry.getKey();
+            if (key.startsWith(prefix)) {
+                String value = entry.getValue();
+                values.put(stripPrefix ? key.substring(prefix.length()) : key, BooleanUtils.parseBoolean(value));
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Decodes a long the same as {@link Long#decode(String)} without boxing the result
+     *
+     * @param value
+     *         the value to decode
+     *
+     * @return the decoded long
+     *
+     * @throws java.lang.NumberFormatException
+     *         if the value is not a number or out of range
+     */
+    private static long decodeLong(String value) {
+        int index = 0;
+        int radix = 10;
+        boolean negative = false;
+        if (value.isEmpty()) {
+            throw new NumberFormatException("Zero length string");
+        }
+        char first = value.charAt(0);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            index++;
+        }
+        if (value.startsWith("0x", index) || value.startsWith("0X", index)) {
+            radix = 16;
+            index += 2;
+        }
+        else if (value.startsWith("#", index)) {
+            radix = 16;
+            index++;
+        }
+        else if (value.startsWith("0", index) && value.length() > index + 1) {
+            radix = 8;
+            index++;
+        }
+        if (value.startsWith("-", index) || value.startsWith("+", index)) {
+            throw new NumberFormatException("Sign character in wrong position");
+        }
+        String digits = value.substring(index);
+        return Long.parseLong(negative ? "-".concat(digits) : digits, radix);
+    }
+
     /**
      * Checks is an {@link Object} is equal to the {@code PropertiesFile}
      *
@@ -0,0 +1,198 @@
+/*
+ * This file is part of VIUtils.
+ *
+ * Copyright © 2012-2015 Visual Illusions Entertainment
+ *
+ * VIUtils is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this library.
+ * If not, see http://www.gnu.org/licenses/lgpl.html.
+ */
+package net.visualillusionsent.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+import static net.visualillusionsent.utils.Verify.notNull;
+
+/**
+ * Properties File Three-Way Merge
+ * <p/>
+ * Merges the changes made between a base {@link AbstractPropertiesFile} and an updated copy of it
+ * into a locally edited {@link PropertiesFile}, built on {@link PropertiesDiff}.<br>
+ * Keys changed on only one side are taken from that side. Keys changed on both sides to the same outcome are left as is.
+ * Keys changed on both sides differently are reported as {@link Conflict}s and resolved by the {@link Resolution} given.
+ * The header and footer are taken from the updated copy only if the local file left them untouched.
+ * A base or updated copy that keeps no comments, such as a {@link ShardedPropertiesFile} or {@link MappedPropertiesStore},
+ * only merges values, as its {@link PropertiesDiff} compares nothing else; the comments, header and footer of the local file are kept.
+ *
+ * @author Jason (darkdiplomat)
+ * @version 1.0
+ * @since 1.4.3
+ */
+public final class PropertiesMerge {
+
+    /* 1.0 @ VIUtils 1.4.3 */
+    private static final float classVersion = 1.0F;
+
+    /** This class should never be constructed */
+    private PropertiesMerge() {
+    }
+
+    /**
+     * Merges the changes from {@code base} to {@code theirs} into {@code ours}, keeping our side of any conflicts<br>
+     * NOTE: This will not save the properties file.
+     *
+     * @param base
+     *         the common ancestor of both files
+     * @param theirs
+     *         the updated copy of the base file
+     * @param ours
+     *         the locally edited copy of the base file, which receives the merged changes
+     *
+     * @return the list of conflicts found; empty if the merge was clean
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code base}, {@code theirs} or {@code ours} is null
+     */
+    public static List<Conflict> merge(AbstractPropertiesFile base, AbstractPropertiesFile theirs, PropertiesFile ours) {
+        return merge(base, theirs, ours, Resolution.KEEP_OURS);
+    }
+
+    /**
+     * Merges the changes from {@code base} to {@code theirs} into {@code ours}<br>
+     * NOTE: This will not save the properties file.
+     *
+     * @param base
+     *         the common ancestor of both files
+     * @param theirs
+     *         the updated copy of the base file
+     * @param ours
+     *         the locally edited copy of the base file, which receives the merged changes
+     * @param resolution
+     *         how to resolve conflicting changes
+     *
+     * @return the list of conflicts found; empty if the merge was clean
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code base}, {@code theirs}, {@code ours} or {@code resolution} is null
+     */
+    public static List<Conflict> merge(AbstractPropertiesFile base, AbstractPropertiesFile theirs, PropertiesFile ours, Resolution resolution) {
+        notNull(base, "AbstractPropertiesFile base");
+        notNull(theirs, "AbstractPropertiesFile theirs");
+        notNull(ours, "PropertiesFile ours");
+        notNull(resolution, "Resolution resolution");
+
+        PropertiesDiff ourDiff = PropertiesDiff.compare(base, ours);
+        PropertiesDiff theirDiff = PropertiesDiff.compare(base, theirs);
+
+        HashMap<String, PropertiesDiff.Change> ourChanges = new HashMap<String, PropertiesDiff.Change>();
+        for (PropertiesDiff.Change change : ourDiff.getChanges()) {
+            ourChanges.put(change.getKey(), change);
+        }
+
+        List<Conflict> conflicts = new ArrayList<Conflict>();
+        for (PropertiesDiff.Change theirChange : theirDiff.getChanges()) {
+            PropertiesDiff.Change ourChange = ourChanges.get(theirChange.getKey());
+            if (ourChange == null) {
+                theirChange.applyTo(ours);
+            }
+            else if (!ourChange.hasSameOutcome(theirChange)) {
+                conflicts.add(new Conflict(ourChange, theirChange));
+                if (resolution == Resolution.TAKE_THEIRS) {
+                    theirChange.applyTo(ours);
+                }
+            }
+        }
+
+        if (theirDiff.isHeaderChanged() && !ourDiff.isHeaderChanged()) {
+            ours.header.clear();
+            if (theirs.header != null) {
+                ours.header.addAll(theirs.header);
+            }
+            ours.markChanged();
+        }
+        if (theirDiff.isFooterChanged() && !ourDiff.isFooterChanged()) {
+            ours.footer.clear();
+            if (theirs.footer != null) {
+                ours.footer.addAll(theirs.footer);
+            }
+            ours.markChanged();
+        }
+        return Collections.unmodifiableList(conflicts);
+    }
+
+    /**
+     * Gets this class's version number
+     *
+     * @return the class version
+     */
+    public static float getClassVersion() {
+        return classVersion;
+    }
+
+    /** How conflicting changes are resolved */
+    public enum Resolution {
+        /** Leaves the local change in place */
+        KEEP_OURS, //
+        /** Replaces the local change with the updated copy's change */
+        TAKE_THEIRS, //
+    }
+
+    /** A key that was changed differently on both sides of a merge */
+    public static final class Conflict {
+        private final PropertiesDiff.Change ours;
+        private final PropertiesDiff.Change theirs;
+
+        Conflict(PropertiesDiff.Change ours, PropertiesDiff.Change theirs) {
+            this.ours = ours;
+            this.theirs = theirs;
+        }
+
+        /**
+         * Gets the conflicting key
+         *
+         * @return the key
+         */
+        public final String getKey() {
+            return ours.getKey();
+        }
+
+        /**
+         * Gets the local change
+         *
+         * @return our change
+         */
+        public final PropertiesDiff.Change getOurs() {
+            return ours;
+        }
+
+        /**
+         * Gets the updated copy's change
+         *
+         * @return their change
+         */
+        public final PropertiesDiff.Change getTheirs() {
+            return theirs;
+        }
+
+        /**
+         * Returns a string representation of the {@code Conflict} as {@code Conflict[Key=%s, Ours=%s, Theirs=%s]}
+         *
+         * @return string representation of the {@code Conflict}
+         */
+        @Override
+        public final String toString() {
+            return String.format("Conflict[Key=%s, Ours=%s, Theirs=%s]", getKey(), ours.getNewValue(), theirs.getNewValue());
+        }
+    }
+}
@@ -0,0 +1,279 @@
+/*
+ * This file is part of VIUtils.
+ *
+ * Copyright © 2012-2015 Visual Illusions Entertainment
+ *
+ * VIUtils is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this library.
+ * If not, see http://www.gnu.org/licenses/lgpl.html.
+ */
+package net.visualillusionsent.utils;
+
+/**
+ * Property Handle
+ * <p/>
+ * A typed handle to a single property of a {@link PropertiesFile}.<br>
+ * The parsed value is held by the handle along with the modification stamp of the PropertiesFile at the time it was read.
+ * Reading the value only checks the stamp until the PropertiesFile is changed through one of its setters,
+ * a key removal or {@link PropertiesFile#reload()}, at which point the value is parsed again.
+ * Checking the stamp is the one volatile read of the modification count; the value and its stamp are read from an immutable snapshot.
+ * <p/>
+ * The default of a missing key is set in the PropertiesFile once, when the handle is created.
+ * If the key is removed later, the handle reads the default without setting it again, so reading never changes the PropertiesFile.
+ * <p/>
+ * Handles share the threading rules of the PropertiesFile they are obtained from.
+ *
+ * @param <T>
+ *         the type of the property value
+ *
+ * @author Jason (darkdiplomat)
+ * @version 1.0
+ * @since 1.4.3
+ */
+public abstract class PropertyHandle<T> {
+
+    /* 1.0 @ VIUtils 1.4.3 */
+    private static final float classVersion = 1.0F;
+    final PropertiesFile file;
+    final String key;
+    /** Not volatile: the final fields of a Snapshot make it safe to read without locking, and a stale one only forces a refresh */
+    private Snapshot<T> snapshot;
+
+    PropertyHandle(PropertiesFile file, String key) {
+        this.file = file;
+        this.key = key;
+    }
+
+    /**
+     * Gets the key of the property this handle reads
+     *
+     * @return the property key
+     */
+    public final String getKey() {
+        return key;
+    }
+
+    /**
+     * Gets the {@link PropertiesFile} this handle reads from
+     *
+     * @return the backing PropertiesFile
+     */
+    public final PropertiesFile getPropertiesFile() {
+        return file;
+    }
+
+    /**
+     * Checks whether the cached value still reflects the PropertiesFile
+     *
+     * @return {@code true} if no changes have been made since the value was read; {@code false} otherwise
+     */
+    public final boolean isCurrent() {
+        int current = file.modCount;
+        Snapshot<T> seen = snapshot;
+        return seen != null && seen.stamp == current;
+    }
+
+    /**
+     * Gets the value of the property
+     *
+     * @return the property value
+     */
+    public final T get() {
+        int current = file.modCount;
+        Snapshot<T> seen = snapshot;
+        if (seen == null || seen.stamp != current) {
+            seen = refresh();
+        }
+        return seen.value;
+    }
+
+    /** Reads the value from the PropertiesFile along with the stamp it was read at */
+    private synchronized Snapshot<T> refresh() {
+        int current = file.modCount; // Taken first so a change during the read forces another refresh
+        Snapshot<T> fresh = new Snapshot<T>(current, load());
+        snapshot = fresh;
+        return fresh;
+    }
+
+    /** Parses the value from the PropertiesFile, without setting the default if the key is missing */
+    abstract T load();
+
+    /**
+     * Returns a string representation of the {@code PropertyHandle} as {@code PropertyHandle[Key=%s, Value=%s]}
+     *
+     * @return string representation of the {@code PropertyHandle}
+     */
+    @Override
+    public final String toString() {
+        return String.format("PropertyHandle[Key=%s, Value=%s]", key, get());
+    }
+
+    /** A value and the modCount it was read at */
+    private static final class Snapshot<T> {
+        private final int stamp;
+        private final T value;
+
+        Snapshot(int stamp, T value) {
+            this.stamp = stamp;
+            this.value = value;
+        }
+    }
+
+    /** Handle to a {@link String} property */
+    public static final class StringHandle extends PropertyHandle<String> {
+        private final String def;
+
+        StringHandle(PropertiesFile file, String key, String def) {
+            super(file, key);
+            this.def = def;
+            file.getString(key, def); // Sets the default if the key is missing
+        }
+
+        @Override
+        final String load() {
+            return file.containsKey(key) ? file.getString(key) : def;
+        }
+    }
+
+    /** Handle to an int property */
+    public static final class IntHandle extends PropertyHandle<Integer> {
+        private final int def;
+
+        IntHandle(PropertiesFile file, String key, int def) {
+            super(file, key);
+            this.def = def;
+            file.getInt(key, def); // Sets the default if the key is missing
+        }
+
+        @Override
+        final Integer load() {
+            return file.containsKey(key) ? file.getInt(key) : def;
+        }
+
+        /**
+         * Gets the value of the property as an int
+         *
+         * @return the property value
+         */
+        public final int getInt() {
+            return get();
+        }
+    }
+
+    /** Handle to a long property */
+    public static final class LongHandle extends PropertyHandle<Long> {
+        private final long def;
+
+        LongHandle(PropertiesFile file, String key, long def) {
+            super(file, key);
+            this.def = def;
+            file.getLong(key, def); // Sets the default if the key is missing
+        }
+
+        @Override
+        final Long load() {
+            return file.containsKey(key) ? file.getLong(key) : def;
+        }
+
+        /**
+         * Gets the value of the property as a long
+         *
+         * @return the property value
+         */
+        public final long getLong() {
+            return get();
+        }
+    }
+
+    /** Handle to a float property */
+    public static final class FloatHandle extends PropertyHandle<Float> {
+        private final float def;
+
+        FloatHandle(PropertiesFile file, String key, float def) {
+            super(file, key);
+            this.def = def;
+            file.getFloat(key, def); // Sets the default if the key is missing
+        }
+
+        @Override
+        final Float load() {
+            return file.containsKey(key) ? file.getFloat(key) : def;
+        }
+
+        /**
+         * Gets the value of the property as a float
+         *
+         * @return the property value
+         */
+        public final float getFloat() {
+            return get();
+        }
+    }
+
+    /** Handle to a double property */
+    public static final class DoubleHandle extends PropertyHandle<Double> {
+        private final double def;
+
+        DoubleHandle(PropertiesFile file, String key, double def) {
+            super(file, key);
+            this.def = def;
+            file.getDouble(key, def); // Sets the default if the key is missing
+        }
+
+        @Override
+        final Double load() {
+            return file.containsKey(key) ? file.getDouble(key) : def;
+        }
+
+        /**
+         * Gets the value of the property as a double
+         *
+         * @return the property value
+         */
+        public final double getDouble() {
+            return get();
+        }
+    }
+
+    /** Handle to a boolean property */
+    public static final class BooleanHandle extends PropertyHandle<Boolean> {
+        private final boolean def;
+
+        BooleanHandle(PropertiesFile file, String key, boolean def) {
+            super(file, key);
+            this.def = def;
+            file.getBoolean(key, def); // Sets the default if the key is missing
+        }
+
+        @Override
+        final Boolean load() {
+            return file.containsKey(key) ? file.getBoolean(key) : def;
+        }
+
+        /**
+         * Gets the value of the property as a boolean
+         *
+         * @return the property value
+         */
+        public final boolean getBoolean() {
+            return get();
+        }
+    }
+
+    /**
+     * Gets this class's version number
+     *
+     * @return the class version
+     */
+    public static float getClassVersion() {
+        return classVersion;
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * This file is part of VIUtils.
+ *
+ * Copyright © 2012-2015 Visual Illusions Entertainment
+ *
+ * VIUtils is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this library.
+ * If not, see http://www.gnu.org/licenses/lgpl.html.
+ */
+package net.visualillusionsent.utils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rate Handle
+ * <p/>
+ * The handle of a task scheduled at a fixed rate with {@link TaskPool#scheduleAtRate(Runnable, long, long, TimeUnit, TaskPool.Overrun)},
+ * which measures how late each tick starts.<br>
+ * The lag of a tick is the time between its deadline and the moment it started running.
+ *
+ * @author Jason (darkdiplomat)
+ * @version 1.0
+ * @since 1.4.3
+ */
+public interface RateHandle extends TaskHandle<Object> {
+
+    /**
+     * Gets the number of ticks that have run
+     *
+     * @return the tick count
+     */
+    long getTickCount();
+
+    /**
+     * Gets the number of ticks that ran past the deadline of the next tick
+     *
+     * @return the overrun count
+     */
+    long getOverrunCount();
+
+    /**
+     * Gets the number of ticks skipped by the {@link TaskPool.Overrun#SKIP} policy
+     *
+     * @return the skipped count
+     */
+    long getSkippedCount();
+
+    /**
+     * Gets the lag of the latest tick
+     *
+     * @param unit
+     *         the {@link TimeUnit} to get the lag in
+     *
+     * @return the latest lag
+     */
+    long getLastLag(TimeUnit unit);
+
+    /**
+     * Gets the largest lag of any tick
+     *
+     * @param unit
+     *         the {@link TimeUnit} to get the lag in
+     *
+     * @return the largest lag
+     */
+    long getMaxLag(TimeUnit unit);
+
+    /**
+     * Gets the average lag of the ticks
+     *
+     * @param unit
+     *         the {@link TimeUnit} to get the lag in
+     *
+     * @return the average lag
+     */
+    long getAverageLag(TimeUnit unit);
+}
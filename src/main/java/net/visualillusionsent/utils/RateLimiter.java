@@ -0,0 +1,212 @@
+/*
+ * This file is part of VIUtils.
+ *
+ * Copyright © 2012-2015 Visual Illusions Entertainment
+ *
+ * VIUtils is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this library.
+ * If not, see http://www.gnu.org/licenses/lgpl.html.
+ */
+package net.visualillusionsent.utils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static net.visualillusionsent.utils.Verify.notNegativeOrZero;
+import static net.visualillusionsent.utils.Verify.notNull;
+
+/**
+ * Rate Limiter
+ * <p/>
+ * Limits how often permits are handed out, either as a token bucket allowing bursts or as a leaky bucket spacing them evenly.<br>
+ * Both are kept as the theoretical arrival time of the next permit in a single {@link AtomicLong}, which is advanced
+ * by compare and set, so the limiter is lock free and never blocks. A token bucket of burst {@code n} allows
+ * the next permit up to {@code n - 1} intervals before its theoretical arrival time; a leaky bucket is a token bucket of burst 1.
+ * <p/>
+ * {@link TaskPool#submitTask(RateLimiter, Runnable)} gates submissions with a limiter, deferring tasks over the rate
+ * through the scheduler instead of holding a thread.
+ *
+ * @author Jason (darkdiplomat)
+ * @version 1.0
+ * @since 1.4.3
+ */
+public final class RateLimiter {
+
+    /* 1.0 @ VIUtils 1.4.3 */
+    private static final float classVersion = 1.0F;
+    /** The time between permits at the steady rate */
+    private final long intervalNanos;
+    /** How far ahead of its theoretical arrival a permit may be handed out */
+    private final long toleranceNanos;
+    private final int burst;
+    private final AtomicLong arrival;
+
+    private RateLimiter(long permits, long per, TimeUnit unit, int burst) {
+        notNegativeOrZero(permits, "long permits");
+        notNegativeOrZero(per, "long per");
+        notNull(unit, "TimeUnit unit");
+        notNegativeOrZero(burst, "int burst");
+        this.intervalNanos = Math.max(unit.toNanos(per) / permits, 1);
+        this.toleranceNanos = intervalNanos * (burst - 1);
+        this.burst = burst;
+        this.arrival = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * Creates a token bucket limiter, which hands out up to {@code burst} permits at once and refills at the rate
+     *
+     * @param permits
+     *         the number of permits per period
+     * @param per
+     *         the period
+     * @param unit
+     *         the {@link TimeUnit} of the period
+     * @param burst
+     *         the most permits handed out at once, the size of the bucket
+     *
+     * @return the new RateLimiter
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code unit} is null
+     * @throws java.lang.IllegalArgumentException
+     *         if {@code permits}, {@code per} or {@code burst} is equal to or less than zero
+     */
+    public static RateLimiter tokenBucket(long permits, long per, TimeUnit unit, int burst) {
+        return new RateLimiter(permits, per, unit, burst);
+    }
+
+    /**
+     * Creates a leaky bucket limiter, which hands out permits evenly spaced at the rate
+     *
+     * @param permits
+     *         the number of permits per period
+     * @param per
+     *         the period
+     * @param unit
+     *         the {@link TimeUnit} of the period
+     *
+     * @return the new RateLimiter
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code unit} is null
+     * @throws java.lang.IllegalArgumentException
+     *         if {@code permits} or {@code per} is equal to or less than zero
+     */
+    public static RateLimiter leakyBucket(long permits, long per, TimeUnit unit) {
+        return new RateLimiter(permits, per, unit, 1);
+    }
+
+    /**
+     * Takes a permit if one is available now
+     *
+     * @return {@code true} if a permit was taken; {@code false} if over the rate
+     */
+    public final boolean tryAcquire() {
+        while (true) {
+            long now = System.nanoTime();
+            long next = arrival.get();
+            if (next - toleranceNanos - now > 0) {
+                return false;
+            }
+            if (arrival.compareAndSet(next, Math.max(next - now, 0) + now + intervalNanos)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Reserves the next permit, which may be in the future
+     *
+     * @param unit
+     *         the {@link TimeUnit} to get the wait in
+     *
+     * @return how long to wait before using the permit, {@code 0} if it can be used now
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code unit} is null
+     */
+    public final long reserve(TimeUnit unit) {
+        notNull(unit, "TimeUnit unit");
+        return unit.convert(reserveNanos(), NANOSECONDS);
+    }
+
+    final long reserveNanos() {
+        while (true) {
+            long now = System.nanoTime();
+            long next = arrival.get();
+            long wait = Math.max(next - toleranceNanos - now, 0);
+            if (arrival.compareAndSet(next, Math.max(next - now, 0) + now + intervalNanos)) {
+                return wait;
+            }
+        }
+    }
+
+    /**
+     * Gets how long until a permit is available, without taking one
+     *
+     * @param unit
+     *         the {@link TimeUnit} to get the wait in
+     *
+     * @return the wait, {@code 0} if a permit is available now
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code unit} is null
+     */
+    public final long getWait(TimeUnit unit) {
+        notNull(unit, "TimeUnit unit");
+        return unit.convert(Math.max(arrival.get() - toleranceNanos - System.nanoTime(), 0), NANOSECONDS);
+    }
+
+    /**
+     * Gets the most permits handed out at once
+     *
+     * @return the burst size, {@code 1} for a leaky bucket
+     */
+    public final int getBurst() {
+        return burst;
+    }
+
+    /**
+     * Gets the time between permits at the steady rate
+     *
+     * @param unit
+     *         the {@link TimeUnit} to get the interval in
+     *
+     * @return the interval
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code unit} is null
+     */
+    public final long getInterval(TimeUnit unit) {
+        notNull(unit, "TimeUnit unit");
+        return unit.convert(intervalNanos, NANOSECONDS);
+    }
+
+    /**
+     * Returns a string representation of the {@code RateLimiter} as {@code RateLimiter[Interval=%dns, Burst=%d]}
+     *
+     * @return string representation of the {@code RateLimiter}
+     */
+    @Override
+    public final String toString() {
+        return String.format("RateLimiter[Interval=%dns, Burst=%d]", intervalNanos, burst);
+    }
+
+    /**
+     * Gets this class's version number
+     *
+     * @return the class version
+     */
+    public static float getClassVersion() {
+        return classVersion;
+    }
+}
@@ -0,0 +1,998 @@
+/*
+ * This file is part of VIUtils.
+ *
+ * Copyright © 2012-2015 Visual Illusions Entertainment
+ *
+ * VIUtils is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this library.
+ * If not, see http://www.gnu.org/licenses/lgpl.html.
+ */
+package net.visualillusionsent.utils;
+
+import java.io.File;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import static net.visualillusionsent.utils.Verify.notEmpty;
+import static net.visualillusionsent.utils.Verify.notNegativeOrZero;
+import static net.visualillusionsent.utils.Verify.notNull;
+
+/**
+ * Sharded Properties File
+ * <p/>
+ * Spreads the keys of a large properties store across a number of {@link PropertiesFile} shards kept in one directory.<br>
+ * Each key is hashed to a single shard, so setting a property only marks that shard as changed
+ * and {@link #save()} only rewrites the shards that changed.
+ * The number of shards is recorded in a {@code shards.cfg} file in the directory, which also holds the header and footer lines.
+ * <p/>
+ * Key order is only kept within a shard, and comments stay with the key in its shard.
+ *
+ * @author Jason (darkdiplomat)
+ * @version 1.0
+ * @since 1.4.3
+ */
+public final class ShardedPropertiesFile extends AbstractPropertiesFile {
+
+    /* 1.0 @ VIUtils 1.4.3 */
+    private static final float classVersion = 1.0F;
+    /** The number of shards used when a new directory is created without a count */
+    public static final int DEFAULT_SHARD_COUNT = 16;
+    private final PropertiesFile meta;
+    private final PropertiesFile[] shards;
+
+    /**
+     * Creates or loads a Sharded Properties File, using the shard count stored in the directory
+     * or {@link #DEFAULT_SHARD_COUNT} if the directory is new
+     *
+     * @param dirPath
+     *         the path to the directory holding the shards
+     *
+     * @throws PropertiesFileException
+     *         if the path is a file, the directory could not be created or a shard could not be read
+     */
+    public ShardedPropertiesFile(String dirPath) {
+        this(dirPath, 0);
+    }
+
+    /**
+     * Creates or loads a Sharded Properties File
+     *
+     * @param dirPath
+     *         the path to the directory holding the shards
+     * @param shardCount
+     *         the number of shards to spread keys across, or {@code 0} to use the shard count stored in the directory
+     *         or {@link #DEFAULT_SHARD_COUNT} if the directory is new
+     *
+     * @throws java.lang.IllegalArgumentException
+     *         if {@code shardCount} is negative
+     * @throws PropertiesFileException
+     *         if the path is a file, the directory could not be created, the directory was created with a different shard count
+     *         or a shard could not be read
+     */
+    public ShardedPropertiesFile(String dirPath, int shardCount) {
+        super(dirPath);
+        if (propsFile.exists() && !propsFile.isDirectory()) {
+            throw new PropertiesFileException("dir.err.file", filePath);
+        }
+        if (!propsFile.exists() && !propsFile.mkdirs()) {
+            throw new PropertiesFileException("Failed to make directory path for FilePath: ".concat(filePath));
+        }
+        this.meta = new PropertiesFile(new File(propsFile, "shards.cfg").getPath());
+        if (shardCount == 0) {
+            shardCount = meta.getInt("shards", DEFAULT_SHARD_COUNT);
+        }
+        notNegativeOrZero(shardCount, "int shardCount");
+        if (meta.getInt("shards", shardCount) != shardCount) {
+            throw new PropertiesFileException(String.format("Directory '%s' holds %d shards, not %d", filePath, meta.getInt("shards"), shardCount));
+        }
+        meta.save();
+
+        this.shards = new PropertiesFile[shardCount];
+        for (int index = 0; index < shardCount; index++) {
+            shards[index] = new PropertiesFile(new File(propsFile, String.format("shard_%03d.cfg", index)).getPath());
+        }
+    }
+
+    /**
+     * Gets the shard the key is stored in
+     *
+     * @param key
+     *         the key to get the shard for
+     *
+     * @return the shard for the key
+     */
+    private PropertiesFile shardFor(String key) {
+        notNull(key, "String key");
+
+        return shards[(key.hashCode() & 0x7FFFFFFF) % shards.length];
+    }
+
+    /**
+     * Gets the number of shards the keys are spread across
+     *
+     * @return the shard count
+     */
+    public final int getShardCount() {
+        return shards.length;
+    }
+
+    /**
+     * Gets the number of shards with unsaved changes
+     *
+     * @return the number of changed shards
+     */
+    public final int getChangedShardCount() {
+        int changed = 0;
+        for (PropertiesFile shard : shards) {
+            if (shard.hasChanged) {
+                changed++;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * {@inheritDoc}<br>
+     * The stamp is combined from the stamps of every shard
+     */
+    @Override
+    public final int getModificationStamp() {
+        int stamp = modCount;
+        for (PropertiesFile shard : shards) {
+            stamp += shard.modCount;
+        }
+        return stamp;
+    }
+
+    /**
+     * Unsupported Operation with ShardedPropertiesFiles, each shard is loaded by itself
+     *
+     * @throws UnsupportedOperationException
+     *         Not supported with Sharded Properties Files
+     */
+    @Override
+    protected final void load(InputStream inStream) {
+        throw new UnsupportedOperationException("ShardedPropertiesFiles are loaded by shard");
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws PropertiesFileException
+     *         if an exception occurs while reading a shard
+     */
+    @Override
+    public final void reload() {
+        meta.reload();
+        for (PropertiesFile shard : shards) {
+            if (shard.propsFile.exists()) {
+                shard.reload();
+            }
+        }
+        this.hasChanged = false;
+        this.modCount++;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws PropertiesFileException
+     *         if an exception occurs while writing a shard
+     */
+    @Override
+    public final void save() {
+        this.save(false);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws PropertiesFileException
+     *         if an exception occurs while writing a shard
+     */
+    @Override
+    public final void forceSave() {
+        this.save(true);
+    }
+
+    /**
+     * {@inheritDoc}<br>
+     * Only shards with changes are written unless {@code force} is {@code true}
+     *
+     * @throws PropertiesFileException
+     *         if an exception occurs while writing a shard
+     */
+    @Override
+    protected final void save(boolean force) {
+        meta.save(force);
+        for (PropertiesFile shard : shards) {
+            shard.save(force);
+        }
+        this.hasChanged = false;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws java.lang.NullPointerException
+     *         if a {@code key} is null
+     * @throws java.lang.IllegalArgumentException
+     *         if a {@code key} is empty
+     */
+    @Override
+    public final boolean containsKeys(String... keys) {
+        boolean contains = true;
+        for (String key : keys) {
+            contains &= containsKey(key);
+        }
+        return contains;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws java.lang.NullPointerException
+     *         if a {@code key} is null
+     * @throws java.lang.IllegalArgumentException
+     *         if a {@code key} is empty
+     */
+    @Override
+    public final void removeKeys(String... keys) {
+        notNull(keys, "String... keys");
+        notEmpty(keys, "String... keys");
+
+        for (String key : keys) {
+            removeKey(key);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final boolean containsKey(String key) {
+        return shardFor(key).containsKey(key);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void removeKey(String key) {
+        shardFor(key).removeKey(key);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final String getString(String key) {
+        return shardFor(key).getString(key);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final String getString(String key, String value) {
+        return shardFor(key).getString(key, value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setString(String key, String value) {
+        shardFor(key).setString(key, value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setString(String key, String value, String... comments) {
+        shardFor(key).setString(key, value, comments);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final String[] getStringArray(String key) {
+        return shardFor(key).getStringArray(key);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final String[] getStringArray(String key, String[] value) {
+        return shardFor(key).getStringArray(key, value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setStringArray(String key, String[] value) {
+        shardFor(key).setStringArray(key, value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setStringArray(String key, String[] value, String... comments) {
+        shardFor(key).setStringArray(key, value, comments);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final String[] getStringArray(String key, String delimiter) {
+        return shardFor(key).getStringArray(key, delimiter);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final String[] getStringArray(String key, String delimiter, String[] value) {
+        return shardFor(key).getStringArray(key, delimiter, value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setStringArray(String key, String delimiter, String[] value) {
+        shardFor(key).setStringArray(key, delimiter, value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setStringArray(String key, String delimiter, String[] value, String... comments) {
+        shardFor(key).setStringArray(key, delimiter, value, comments);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final byte getByte(String key) {
+        return shardFor(key).getByte(key);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final byte getByte(String key, byte value) {
+        return shardFor(key).getByte(key, value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setByte(String key, byte value) {
+        shardFor(key).setByte(key, value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setByte(String key, byte value, String... comments) {
+        shardFor(key).setByte(key, value, comments);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final byte[] getByteArray(String key) {
+        return shardFor(key).getByteArray(key);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final byte[] getByteArray(String key, byte[] value) {
+        return shardFor(key).getByteArray(key, value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setByteArray(String key, byte[] value) {
+        shardFor(key).setByteArray(key, value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setByteArray(String key, byte[] value, String... comments) {
+        shardFor(key).setByteArray(key, value, comments);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final byte[] getByteArray(String key, String delimiter) {
+        return shardFor(key).getByteArray(key, delimiter);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final byte[] getByteArray(String key, String delimiter, byte[] value) {
+        return shardFor(key).getByteArray(key, delimiter, value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setByteArray(String key, String delimiter, byte[] value) {
+        shardFor(key).setByteArray(key, delimiter, value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setByteArray(String key, String delimiter, byte[] value, String... comments) {
+        shardFor(key).setByteArray(key, delimiter, value, comments);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final short getShort(String key) {
+        return shardFor(key).getShort(key);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final short getShort(String key, short value) {
+        return shardFor(key).getShort(key, value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setShort(String key, short value) {
+        shardFor(key).setShort(key, value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setShort(String key, short value, String... comments) {
+        shardFor(key).setShort(key, value, comments);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final short[] getShortArray(String key) {
+        return shardFor(key).getShortArray(key);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final short[] getShortArray(String key, short[] value) {
+        return shardFor(key).getShortArray(key, value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setShortArray(String key, short[] value) {
+        shardFor(key).setShortArray(key, value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setShortArray(String key, short[] value, String... comments) {
+        shardFor(key).setShortArray(key, value, comments);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final short[] getShortArray(String key, String delimiter) {
+        return shardFor(key).getShortArray(key, delimiter);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final short[] getShortArray(String key, String delimiter, short[] value) {
+        return shardFor(key).getShortArray(key, delimiter, value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setShortArray(String key, String delimiter, short[] value) {
+        shardFor(key).setShortArray(key, delimiter, value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setShortArray(String key, String delimiter, short[] value, String... comments) {
+        shardFor(key).setShortArray(key, delimiter, value, comments);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final int getInt(String key) {
+        return shardFor(key).getInt(key);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final int getInt(String key, int value) {
+        return shardFor(key).getInt(key, value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setInt(String key, int value) {
+        shardFor(key).setInt(key, value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setInt(String key, int value, String... comments) {
+        shardFor(key).setInt(key, value, comments);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final int[] getIntArray(String key) {
+        return shardFor(key).getIntArray(key);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final int[] getIntArray(String key, int[] value) {
+        return shardFor(key).getIntArray(key, value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setIntArray(String key, int[] value) {
+        shardFor(key).setIntArray(key, value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setIntArray(String key, int[] value, String... comments) {
+        shardFor(key).setIntArray(key, value, comments);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final int[] getIntArray(String key, String delimiter) {
+        return shardFor(key).getIntArray(key, delimiter);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final int[] getIntArray(String key, String delimiter, int[] value) {
+        return shardFor(key).getIntArray(key, delimiter, value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setIntArray(String key, String delimiter, int[] value) {
+        shardFor(key).setIntArray(key, delimiter, value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setIntArray(String key, String delimiter, int[] value, String... comments) {
+        shardFor(key).setIntArray(key, delimiter, value, comments);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final long getLong(String key) {
+        return shardFor(key).getLong(key);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final long getLong(String key, long value) {
+        return shardFor(key).getLong(key, value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setLong(String key, long value) {
+        shardFor(key).setLong(key, value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setLong(String key, long value, String... comments) {
+        shardFor(key).setLong(key, value, comments);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final long[] getLongArray(String key) {
+        return shardFor(key).getLongArray(key);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final long[] getLongArray(String key, long[] value) {
+        return shardFor(key).getLongArray(key, value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setLongArray(String key, long[] value) {
+        shardFor(key).setLongArray(key, value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setLongArray(String key, long[] value, String... comments) {
+        shardFor(key).setLongArray(key, value, comments);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final long[] getLongArray(String key, String delimiter) {
+        return shardFor(key).getLongArray(key, delimiter);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final long[] getLongArray(String key, String delimiter, long[] value) {
+        return shardFor(key).getLongArray(key, delimiter, value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setLongArray(String key, String delimiter, long[] value) {
+        shardFor(key).setLongArray(key, delimiter, value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setLongArray(String key, String delimiter, long[] value, String... comments) {
+        shardFor(key).setLongArray(key, delimiter, value, comments);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final float getFloat(String key) {
+        return shardFor(key).getFloat(key);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final float getFloat(String key, float value) {
+        return shardFor(key).getFloat(key, value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setFloat(String key, float value) {
+        shardFor(key).setFloat(key, value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setFloat(String key, float value, String... comments) {
+        shardFor(key).setFloat(key, value, comments);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final float[] getFloatArray(String key) {
+        return shardFor(key).getFloatArray(key);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final float[] getFloatArray(String key, float[] value) {
+        return shardFor(key).getFloatArray(key, value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setFloatArray(String key, float[] value) {
+        shardFor(key).setFloatArray(key, value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setFloatArray(String key, float[] value, String... comments) {
+        shardFor(key).setFloatArray(key, value, comments);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final float[] getFloatArray(String key, String delimiter) {
+        return shardFor(key).getFloatArray(key, delimiter);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final float[] getFloatArray(String key, String delimiter, float[] value) {
+        return shardFor(key).getFloatArray(key, delimiter, value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setFloatArray(String key, String delimiter, float[] value) {
+        shardFor(key).setFloatArray(key, delimiter, value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setFloatArray(String key, String delimiter, float[] value, String... comments) {
+        shardFor(key).setFloatArray(key, delimiter, value, comments);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final double getDouble(String key) {
+        return shardFor(key).getDouble(key);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final double getDouble(String key, double value) {
+        return shardFor(key).getDouble(key, value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setDouble(String key, double value) {
+        shardFor(key).setDouble(key, value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setDouble(String key, double value, String... comments) {
+        shardFor(key).setDouble(key, value, comments);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final double[] getDoubleArray(String key) {
+        return shardFor(key).getDoubleArray(key);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final double[] getDoubleArray(String key, double[] value) {
+        return shardFor(key).getDoubleArray(key, value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setDoubleArray(String key, double[] value) {
+        shardFor(key).setDoubleArray(key, value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setDoubleArray(String key, double[] value, String... comments) {
+        shardFor(key).setDoubleArray(key, value, comments);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final double[] getDoubleArray(String key, String delimiter) {
+        return shardFor(key).getDoubleArray(key, delimiter);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final double[] getDoubleArray(String key, String delimiter, double[] value) {
+        return shardFor(key).getDoubleArray(key, delimiter, value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setDoubleArray(String key, String delimiter, double[] value) {
+        shardFor(key).setDoubleArray(key, delimiter, value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setDoubleArray(String key, String delimiter, double[] value, String... comments) {
+        shardFor(key).setDoubleArray(key, delimiter, value, comments);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final boolean getBoolean(String key) {
+        return shardFor(key).getBoolean(key);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final boolean getBoolean(String key, boolean value) {
+        return shardFor(key).getBoolean(key, value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setBoolean(String key, boolean value) {
+        shardFor(key).setBoolean(key, value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setBoolean(String key, boolean value, String... comments) {
+        shardFor(key).setBoolean(key, value, comments);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final boolean[] getBooleanArray(String key) {
+        return shardFor(key).getBooleanArray(key);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final boolean[] getBooleanArray(String key, boolean[] value) {
+        return shardFor(key).getBooleanArray(key, value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setBooleanArray(String key, boolean[] value) {
+        shardFor(key).setBooleanArray(key, value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setBooleanArray(String key, boolean[] value, String... comments) {
+        shardFor(key).setBooleanArray(key, value, comments);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final boolean[] getBooleanArray(String key, String delimiter) {
+        return shardFor(key).getBooleanArray(key, delimiter);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final boolean[] getBooleanArray(String key, String delimiter, boolean[] value) {
+        return shardFor(key).getBooleanArray(key, delimiter, value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setBooleanArray(String key, String delimiter, boolean[] value) {
+        shardFor(key).setBooleanArray(key, delimiter, value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setBooleanArray(String key, String delimiter, boolean[] value, String... comments) {
+        shardFor(key).setBooleanArray(key, delimiter, value, comments);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final char getCharacter(String key) {
+        return shardFor(key).getCharacter(key);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final char getCharacter(String key, char value) {
+        return shardFor(key).getCharacter(key, value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setCharacter(String key, char value) {
+        shardFor(key).setCharacter(key, value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setCharacter(String key, char value, String... comments) {
+        shardFor(key).setCharacter(key, value, comments);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void addComment(String key, String... comments) {
+        shardFor(key).addComment(key, comments);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setComments(String key, String... comments) {
+        shardFor(key).setComments(key, comments);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final String[] getComments(String key) {
+        return shardFor(key).getComments(key);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final List<String> getCommentsAsList(String key) {
+        return shardFor(key).getCommentsAsList(key);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void removeComment(String key, String comment) {
+        shardFor(key).removeComment(key, comment);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void removeAllCommentsFromKey(String key) {
+        shardFor(key).removeAllCommentsFromKey(key);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final String getInlineComment(String key) {
+        return shardFor(key).getInlineComment(key);
+    }
+
+    /**
+     * {@inheritDoc}<br>
+     * NOTE: The map is a copy of every shard and may be expensive for large stores
+     */
+    @Override
+    public final Map<String, String> getPropertiesMap() {
+        LinkedHashMap<String, String> all = new LinkedHashMap<String, String>();
+        for (PropertiesFile shard : shards) {
+            all.putAll(shard.props);
+        }
+        return Collections.unmodifiableMap(all);
+    }
+
+    @Override
+    final Map<String, String> backingMap() {
+        return getPropertiesMap();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void removeAllCommentsFromFile() {
+        meta.removeAllCommentsFromFile();
+        for (PropertiesFile shard : shards) {
+            shard.removeAllCommentsFromFile();
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void addHeaderLines(String... lines) {
+        meta.addHeaderLines(lines);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final LinkedList<String> getHeaderLines() {
+        return meta.getHeaderLines();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void clearHeader() {
+        meta.clearHeader();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void addFooterLines(String... lines) {
+        meta.addFooterLines(lines);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final LinkedList<String> getFooterLines() {
+        return meta.getFooterLines();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void clearFooter() {
+        meta.clearFooter();
+    }
+
+    /**
+     * Returns a string representation of the {@code ShardedPropertiesFile} as {@code ShardedPropertiesFile[Directory=%s, Shards=%d]}
+     *
+     * @return string representation of the {@code ShardedPropertiesFile}
+     *
+     * @see Object#toString()
+     */
+    @Override
+    public final String toString() {
+        return String.format("ShardedPropertiesFile[Directory=%s, Shards=%d]", propsFile.getAbsolutePath(), shards.length);
+    }
+
+    /**
+     * Gets this class's version number
+     *
+     * @return the class version
+     */
+    public static float getClassVersion() {
+        return classVersion;
+    }
+}
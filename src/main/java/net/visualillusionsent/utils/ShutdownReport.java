@@ -0,0 +1,126 @@
+/*
+ * This file is part of VIUtils.
+ *
+ * Copyright © 2012-2015 Visual Illusions Entertainment
+ *
+ * VIUtils is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this library.
+ * If not, see http://www.gnu.org/licenses/lgpl.html.
+ */
+package net.visualillusionsent.utils;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static net.visualillusionsent.utils.Verify.notNull;
+
+/**
+ * Shutdown Report
+ * <p/>
+ * What happened to the work of a {@link TaskPool} shut down with {@link TaskPool#shutdown(long, TimeUnit, TaskPool.ShutdownPolicy)}
+ * or {@link TaskPool#shutdownNow()}.<br>
+ * Dropped tasks were never started. Those that are {@link java.util.concurrent.Future}s, such as the tasks of {@code submitTask},
+ * are cancelled before the report is returned, so their continuations run and nothing is left waiting on them.
+ * Running a dropped task that is not a Future, such as one given to {@code executeTask}, still runs the task that was submitted.
+ *
+ * @author Jason (darkdiplomat)
+ * @version 1.0
+ * @since 1.4.3
+ */
+public final class ShutdownReport {
+
+    /* 1.0 @ VIUtils 1.4.3 */
+    private static final float classVersion = 1.0F;
+    private final List<Runnable> dropped;
+    private final boolean terminated;
+    private final boolean forced;
+    private final long elapsedNanos;
+
+    ShutdownReport(List<Runnable> dropped, boolean terminated, boolean forced, long elapsedNanos) {
+        this.dropped = Collections.unmodifiableList(dropped);
+        this.terminated = terminated;
+        this.forced = forced;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Gets the tasks that were dropped without being started
+     *
+     * @return an unmodifiable List of the dropped tasks
+     */
+    public final List<Runnable> getDropped() {
+        return dropped;
+    }
+
+    /**
+     * Gets the number of tasks that were dropped without being started
+     *
+     * @return the dropped count
+     */
+    public final int getDroppedCount() {
+        return dropped.size();
+    }
+
+    /**
+     * Checks if every thread of the pool had finished when the shutdown returned
+     *
+     * @return {@code true} if terminated; {@code false} if tasks were still running
+     */
+    public final boolean isTerminated() {
+        return terminated;
+    }
+
+    /**
+     * Checks if the running tasks of the pool were interrupted, by {@link TaskPool#shutdownNow()} or because the timeout passed
+     *
+     * @return {@code true} if forced; {@code false} if the pool shut down gracefully
+     */
+    public final boolean isForced() {
+        return forced;
+    }
+
+    /**
+     * Gets how long the shutdown took
+     *
+     * @param unit
+     *         the {@link TimeUnit} to get the time in
+     *
+     * @return the elapsed time
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code unit} is null
+     */
+    public final long getElapsed(TimeUnit unit) {
+        notNull(unit, "TimeUnit unit");
+        return unit.convert(elapsedNanos, NANOSECONDS);
+    }
+
+    /**
+     * Returns a string representation of the {@code ShutdownReport} as {@code ShutdownReport[Dropped=%d, Terminated=%b, Forced=%b, Elapsed=%dms]}
+     *
+     * @return string representation of the {@code ShutdownReport}
+     */
+    @Override
+    public final String toString() {
+        return String.format("ShutdownReport[Dropped=%d, Terminated=%b, Forced=%b, Elapsed=%dms]", dropped.size(), terminated, forced, NANOSECONDS.toMillis(elapsedNanos));
+    }
+
+    /**
+     * Gets this class's version number
+     *
+     * @return the class version
+     */
+    public static float getClassVersion() {
+        return classVersion;
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * This file is part of VIUtils.
+ *
+ * Copyright © 2012-2015 Visual Illusions Entertainment
+ *
+ * VIUtils is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this library.
+ * If not, see http://www.gnu.org/licenses/lgpl.html.
+ */
+package net.visualillusionsent.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Work Stealing Executor
+ * <p/>
+ * Runs the immediate tasks of a {@link TaskPool} on a ForkJoinPool, keeping the tasks that have not started so they can be taken back.<br>
+ * A ForkJoinPool can't give up its queued tasks and only cancels them on {@code shutdownNow}, which would leave the futures of the
+ * submitted tasks pending forever. Each task is queued in a wrapper instead, which skips the task once a shutdown has claimed it.
+ *
+ * @author Jason (darkdiplomat)
+ */
+final class StealingExecutor extends AbstractExecutorService {
+
+    private final ExecutorService pool;
+    private final Set<Queued> queued = Collections.newSetFromMap(new ConcurrentHashMap<Queued, Boolean>());
+
+    StealingExecutor(ExecutorService pool) {
+        this.pool = pool;
+    }
+
+    /** Gets the ForkJoinPool running the tasks */
+    final ExecutorService getPool() {
+        return pool;
+    }
+
+    /** Takes the tasks that have not started, which are then skipped by the ForkJoinPool */
+    final void drainTo(List<Runnable> tasks) {
+        for (Queued task : queued) {
+            if (queued.remove(task)) {
+                tasks.add(task.task);
+            }
+        }
+    }
+
+    @Override
+    public final void execute(Runnable task) {
+        if (task == null) {
+            throw new NullPointerException();
+        }
+        Queued wrapped = new Queued(task);
+        queued.add(wrapped);
+        try {
+            pool.execute(wrapped);
+        }
+        catch (RejectedExecutionException rex) {
+            queued.remove(wrapped);
+            throw rex;
+        }
+    }
+
+    @Override
+    public final void shutdown() {
+        pool.shutdown();
+    }
+
+    @Override
+    public final List<Runnable> shutdownNow() {
+        pool.shutdownNow();
+        List<Runnable> dropped = new ArrayList<Runnable>();
+        drainTo(dropped);
+        return dropped;
+    }
+
+    @Override
+    public final boolean isShutdown() {
+        return pool.isShutdown();
+    }
+
+    @Override
+    public final boolean isTerminated() {
+        return pool.isTerminated();
+    }
+
+    @Override
+    public final boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return pool.awaitTermination(timeout, unit);
+    }
+
+    /** A queued task, run only if it was not claimed by a shutdown first */
+    private final class Queued implements Runnable {
+        private final Runnable task;
+
+        Queued(Runnable task) {
+            this.task = task;
+        }
+
+        @Override
+        public final void run() {
+            if (queued.remove(this)) {
+                task.run();
+            }
+        }
+    }
+}
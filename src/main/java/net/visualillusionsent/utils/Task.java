@@ -21,14 +21,22 @@ import java.util.concurrent.Callable;
 import java.util.logging.Logger;
 
 /**
- * Wrapper used to combine {@link Runnable} and {@link Callable} objects given to the TaskManager
+ * Wrapper used to combine {@link Runnable} and {@link Callable} objects given to the TaskManager<br>
+ * The wrapper is what gets scheduled, so the pool can recognize its tracked tasks when they are decorated,
+ * and it records the {@link TaskMetrics} of the task when the pool keeps them.
  *
  * @author Jason (darkdiplomat)
  */
-final class Task {
+final class Task implements Runnable, Callable<Object> {
 
     /* The Runnable/Callable task */
     private final Object task;
+    /* Whether the pool tracks the task until it completes */
+    private boolean tracked;
+    /* The metrics to record the task in, null if not metered */
+    private TaskMetrics metrics;
+    /* The System.nanoTime the task is due to run at */
+    private volatile long dueNanos;
 
     /**
      * Constructs a new Task from a {@link Runnable}
@@ -61,6 +69,74 @@ final class Task {
         UtilsLogger.severe("Exception in Task: " + task.toString(), thrown);
     }
 
+    /** Marks the task as tracked by the pool until it completes */
+    final Task tracked() {
+        this.tracked = true;
+        return this;
+    }
+
+    final boolean isTracked() {
+        return tracked;
+    }
+
+    /** Records the task in the metrics, as due to run after the delay from now */
+    final Task metered(TaskMetrics metrics, long delayNanos) {
+        this.metrics = metrics;
+        this.dueNanos = System.nanoTime() + delayNanos;
+        return this;
+    }
+
+    /** Sets when the next run of a continued task was due */
+    final void setDue(long dueNanos) {
+        this.dueNanos = dueNanos;
+    }
+
+    final boolean isMetered() {
+        return metrics != null;
+    }
+
+    @Override
+    public final void run() {
+        if (metrics == null) {
+            ((Runnable)task).run();
+            return;
+        }
+        try {
+            call();
+        }
+        catch (RuntimeException rex) {
+            throw rex;
+        }
+        catch (Exception ex) { // Runnables can't throw checked exceptions
+            throw new RuntimeException(ex);
+        }
+    }
+
+    @Override
+    public final Object call() throws Exception {
+        if (metrics == null) {
+            return invoke();
+        }
+        TaskMetrics.RunningTask running = metrics.started(task.getClass(), dueNanos);
+        boolean failed = true;
+        try {
+            Object result = invoke();
+            failed = false;
+            return result;
+        }
+        finally {
+            metrics.finished(running, failed);
+        }
+    }
+
+    private Object invoke() throws Exception {
+        if (task instanceof Callable) {
+            return ((Callable<?>)task).call();
+        }
+        ((Runnable)task).run();
+        return null;
+    }
+
     @Override
     public final boolean equals(Object obj) {
         if (obj instanceof Task) {
@@ -0,0 +1,345 @@
+/*
+ * This file is part of VIUtils.
+ *
+ * Copyright © 2012-2015 Visual Illusions Entertainment
+ *
+ * VIUtils is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this library.
+ * If not, see http://www.gnu.org/licenses/lgpl.html.
+ */
+package net.visualillusionsent.utils;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Task Autoscaler
+ * <p/>
+ * Sizes the executor of the immediate tasks of a {@link TaskPool} to its load, within bounds.<br>
+ * Once per sample interval the autoscaler reads the mean queue wait and the throughput of the tasks that finished since the last sample
+ * from the pool's {@link TaskMetrics}, along with the length of the executor's queue. While tasks wait longer than the target, or sit queued with none starting,
+ * the executor grows by half its size. A growth that does not raise throughput is undone, and growth is held off
+ * for a while, since more threads can't help when the work is bound by something else. After several samples in a row
+ * of short waits and an empty queue, the executor shrinks by one thread.
+ * <p/>
+ * Autoscalers are set up with {@link TaskPool.Builder#autoscale(int, int, long, long, TimeUnit)}, run on a daemon thread of their own
+ * and are registered with the platform MBeanServer as {@code net.visualillusionsent.utils:type=TaskPool,name=<pool name>,component=Autoscaler}.
+ *
+ * @author Jason (darkdiplomat)
+ * @version 1.0
+ * @since 1.4.3
+ */
+public final class TaskAutoscaler implements TaskAutoscalerMBean {
+
+    /* 1.0 @ VIUtils 1.4.3 */
+    private static final float classVersion = 1.0F;
+    /** The samples in a row of short waits and an empty queue before shrinking by one thread */
+    private static final int CALM_SAMPLES = 3;
+    /** The samples to hold off growing after a growth that did not raise throughput */
+    private static final int HOLD_SAMPLES = 5;
+    /** How much a growth must raise throughput by to be kept */
+    private static final double GAIN = 1.05;
+    private final ExecutorService executor;
+    private final TaskMetrics metrics;
+    private final int minSize;
+    private final int maxSize;
+    private final long targetWaitNanos;
+    private final long intervalNanos;
+    /** ForkJoinPool.setParallelism and its queue counts, looked up to keep Java 6 support; null for ThreadPoolExecutors */
+    private final Method setParallelism;
+    private final Method queuedSubmissions;
+    private final Method queuedTasks;
+    private volatile int size;
+    private volatile long grows;
+    private volatile long shrinks;
+    private volatile long reverts;
+    private volatile long lastWaitNanos;
+    private volatile double lastThroughput;
+    private volatile Decision lastDecision = Decision.HOLD;
+    /* Only touched by the sampling thread */
+    private long lastCount;
+    private long lastTotal;
+    private long lastSampleNanos;
+    private int calm;
+    private int hold;
+    /** The size before the latest growth, or 0 if the latest sample did not grow */
+    private int grownFrom;
+    private double throughputBefore;
+
+    private TaskAutoscaler(ExecutorService executor, TaskMetrics metrics, int minSize, int maxSize, long targetWaitNanos, long intervalNanos, Method[] forkJoin) {
+        this.executor = executor;
+        this.metrics = metrics;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.targetWaitNanos = targetWaitNanos;
+        this.intervalNanos = intervalNanos;
+        this.setParallelism = forkJoin[0];
+        this.queuedSubmissions = forkJoin[1];
+        this.queuedTasks = forkJoin[2];
+    }
+
+    /** Creates an autoscaler for an executor, or returns null if the executor can't be resized on this runtime */
+    static TaskAutoscaler create(ExecutorService executor, TaskMetrics metrics, int minSize, int maxSize, long targetWaitNanos, long intervalNanos) {
+        Method[] forkJoin = new Method[3];
+        int current;
+        if (executor instanceof ThreadPoolExecutor) {
+            current = ((ThreadPoolExecutor)executor).getCorePoolSize();
+        }
+        else {
+            try { // ForkJoinPool can only change its parallelism on Java 19+
+                Class<?> forkJoinPool = executor.getClass();
+                forkJoin[0] = forkJoinPool.getMethod("setParallelism", int.class);
+                forkJoin[1] = forkJoinPool.getMethod("getQueuedSubmissionCount");
+                forkJoin[2] = forkJoinPool.getMethod("getQueuedTaskCount");
+                current = (Integer)forkJoinPool.getMethod("getParallelism").invoke(executor);
+            }
+            catch (Exception ex) {
+                return null;
+            }
+        }
+        TaskAutoscaler autoscaler = new TaskAutoscaler(executor, metrics, minSize, maxSize, targetWaitNanos, intervalNanos, forkJoin);
+        autoscaler.resize(Math.max(minSize, Math.min(maxSize, current)));
+        return autoscaler;
+    }
+
+    /** Gets the sampling loop, run by the pool on a daemon thread until interrupted */
+    final Runnable sampler() {
+        return new Runnable() {
+            public void run() {
+                long[] totals = metrics.getWaitTotals();
+                lastCount = totals[0];
+                lastTotal = totals[1];
+                lastSampleNanos = System.nanoTime();
+                while (!Thread.currentThread().isInterrupted()) {
+                    try {
+                        NANOSECONDS.sleep(intervalNanos);
+                    }
+                    catch (InterruptedException iex) {
+                        return; // The pool was shut down
+                    }
+                    try {
+                        sample();
+                    }
+                    catch (RuntimeException rex) { // Keep sampling
+                        UtilsLogger.warning("TaskAutoscaler failed to sample", rex);
+                    }
+                }
+            }
+        };
+    }
+
+    private void sample() {
+        long now = System.nanoTime();
+        long[] totals = metrics.getWaitTotals();
+        long finished = totals[0] - lastCount;
+        long waited = totals[1] - lastTotal;
+        long elapsed = Math.max(now - lastSampleNanos, 1);
+        lastCount = totals[0];
+        lastTotal = totals[1];
+        lastSampleNanos = now;
+        if (finished < 0) {
+            return; // The metrics were reset
+        }
+        long wait = finished > 0 ? waited / finished : 0;
+        double throughput = finished * 1e9D / elapsed;
+        long queued = getQueued();
+        lastWaitNanos = wait;
+        lastThroughput = throughput;
+        boolean backlog = wait > targetWaitNanos || (finished == 0 && queued > 0);
+        Decision decision = Decision.HOLD;
+        if (grownFrom > 0) { // Judge the latest growth by the throughput it brought
+            if (backlog && throughput < throughputBefore * GAIN) {
+                resize(grownFrom);
+                reverts++;
+                hold = HOLD_SAMPLES;
+                decision = Decision.REVERT;
+            }
+            grownFrom = 0;
+        }
+        if (decision == Decision.HOLD) {
+            if (hold > 0) {
+                hold--;
+            }
+            if (backlog && size < maxSize && hold == 0) {
+                grownFrom = size;
+                throughputBefore = throughput;
+                resize(Math.min(maxSize, size + Math.max(1, size / 2)));
+                grows++;
+                calm = 0;
+                decision = Decision.GROW;
+            }
+            else if (!backlog && wait < targetWaitNanos / 2 && queued == 0 && size > minSize) {
+                if (++calm >= CALM_SAMPLES) {
+                    resize(size - 1);
+                    shrinks++;
+                    calm = 0;
+                    decision = Decision.SHRINK;
+                }
+            }
+            else {
+                calm = 0;
+            }
+        }
+        lastDecision = decision;
+    }
+
+    private long getQueued() {
+        if (executor instanceof ThreadPoolExecutor) {
+            return ((ThreadPoolExecutor)executor).getQueue().size();
+        }
+        try {
+            return (Integer)queuedSubmissions.invoke(executor) + (Long)queuedTasks.invoke(executor);
+        }
+        catch (Exception ex) {
+            return 0;
+        }
+    }
+
+    private void resize(int newSize) {
+        if (executor instanceof ScheduledThreadPoolExecutor) {
+            ((ThreadPoolExecutor)executor).setCorePoolSize(newSize); // The scheduler only ever uses its core threads
+        }
+        else if (executor instanceof ThreadPoolExecutor) {
+            ThreadPoolExecutor pool = (ThreadPoolExecutor)executor;
+            if (newSize > pool.getMaximumPoolSize()) { // The core size may never be above the max size
+                pool.setMaximumPoolSize(newSize);
+                pool.setCorePoolSize(newSize);
+            }
+            else {
+                pool.setCorePoolSize(newSize);
+                pool.setMaximumPoolSize(newSize);
+            }
+        }
+        else {
+            try {
+                setParallelism.invoke(executor, newSize);
+            }
+            catch (Exception ex) {
+                return; // Keep the size it has
+            }
+        }
+        size = newSize;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final int getSize() {
+        return size;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final int getMinSize() {
+        return minSize;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final int getMaxSize() {
+        return maxSize;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final long getGrowCount() {
+        return grows;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final long getShrinkCount() {
+        return shrinks;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final long getRevertCount() {
+        return reverts;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final long getLastWaitMillis() {
+        return NANOSECONDS.toMillis(lastWaitNanos);
+    }
+
+    /**
+     * Gets the mean queue wait of the tasks that finished in the latest sample
+     *
+     * @param unit
+     *         the {@link TimeUnit} to get the wait in
+     *
+     * @return the latest wait
+     */
+    public final long getLastWait(TimeUnit unit) {
+        return unit.convert(lastWaitNanos, NANOSECONDS);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final double getLastThroughput() {
+        return lastThroughput;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final String getLastDecision() {
+        return lastDecision.name();
+    }
+
+    /**
+     * Gets the target queue wait the autoscaler sizes the executor for
+     *
+     * @param unit
+     *         the {@link TimeUnit} to get the target in
+     *
+     * @return the target wait
+     */
+    public final long getTargetWait(TimeUnit unit) {
+        return unit.convert(targetWaitNanos, NANOSECONDS);
+    }
+
+    /**
+     * Returns a string representation of the {@code TaskAutoscaler} as {@code TaskAutoscaler[Size=%d, Min=%d, Max=%d, Wait=%dms, Decision=%s]}
+     *
+     * @return string representation of the {@code TaskAutoscaler}
+     */
+    @Override
+    public final String toString() {
+        return String.format("TaskAutoscaler[Size=%d, Min=%d, Max=%d, Wait=%dms, Decision=%s]", size, minSize, maxSize, NANOSECONDS.toMillis(lastWaitNanos), lastDecision);
+    }
+
+    /**
+     * Gets this class's version number
+     *
+     * @return the class version
+     */
+    public static float getClassVersion() {
+        return classVersion;
+    }
+
+    /** What the autoscaler did at a sample */
+    public enum Decision {
+        /** Grew the executor, as tasks waited longer than the target */
+        GROW, //
+        /** Shrank the executor by one thread, as it was idle enough for several samples */
+        SHRINK, //
+        /** Undid the latest growth, as it did not raise throughput */
+        REVERT, //
+        /** Kept the size */
+        HOLD
+    }
+}
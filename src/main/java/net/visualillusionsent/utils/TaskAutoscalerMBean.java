@@ -0,0 +1,91 @@
+/*
+ * This file is part of VIUtils.
+ *
+ * Copyright © 2012-2015 Visual Illusions Entertainment
+ *
+ * VIUtils is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this library.
+ * If not, see http://www.gnu.org/licenses/lgpl.html.
+ */
+package net.visualillusionsent.utils;
+
+/**
+ * Management interface of {@link TaskAutoscaler} for JMX
+ *
+ * @author Jason (darkdiplomat)
+ * @version 1.0
+ * @since 1.4.3
+ */
+public interface TaskAutoscalerMBean {
+
+    /**
+     * Gets the number of threads the executor is sized to
+     *
+     * @return the current size
+     */
+    int getSize();
+
+    /**
+     * Gets the fewest threads the executor is sized to
+     *
+     * @return the minimum size
+     */
+    int getMinSize();
+
+    /**
+     * Gets the most threads the executor is sized to
+     *
+     * @return the maximum size
+     */
+    int getMaxSize();
+
+    /**
+     * Gets the number of times the executor was grown
+     *
+     * @return the grow count
+     */
+    long getGrowCount();
+
+    /**
+     * Gets the number of times the executor was shrunk
+     *
+     * @return the shrink count
+     */
+    long getShrinkCount();
+
+    /**
+     * Gets the number of times a growth was undone because throughput did not improve
+     *
+     * @return the revert count
+     */
+    long getRevertCount();
+
+    /**
+     * Gets the mean queue wait of the tasks that finished in the latest sample
+     *
+     * @return the latest wait in milliseconds
+     */
+    long getLastWaitMillis();
+
+    /**
+     * Gets the number of tasks finished per second in the latest sample
+     *
+     * @return the latest throughput
+     */
+    double getLastThroughput();
+
+    /**
+     * Gets the decision made at the latest sample
+     *
+     * @return the name of the latest {@link TaskAutoscaler.Decision}
+     */
+    String getLastDecision();
+}
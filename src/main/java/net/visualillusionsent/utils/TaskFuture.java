@@ -0,0 +1,127 @@
+/*
+ * This file is part of VIUtils.
+ *
+ * Copyright © 2012-2015 Visual Illusions Entertainment
+ *
+ * VIUtils is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this library.
+ * If not, see http://www.gnu.org/licenses/lgpl.html.
+ */
+package net.visualillusionsent.utils;
+
+import java.util.concurrent.Future;
+
+/**
+ * Task Future
+ * <p/>
+ * The pending result of a task submitted to a {@link TaskPool} or the {@link TaskManager},
+ * which can run continuations when the task completes instead of a thread blocking on {@link #get()}.<br>
+ * Continuations run on the thread that completes the task, or on the calling thread if the task has already completed,
+ * so they should be short; longer work is best submitted to a pool from the continuation.
+ * <p/>
+ * A task that throws completes its continuations with the exception, and a cancelled task completes them
+ * with a {@link java.util.concurrent.CancellationException}. Cancelling a continuation's future does not cancel the task.
+ *
+ * @param <V>
+ *         the result type of the task
+ *
+ * @author Jason (darkdiplomat)
+ * @version 1.0
+ * @since 1.4.3
+ */
+public interface TaskFuture<V> extends Future<V> {
+
+    /**
+     * Applies a function to the result of the task once it succeeds
+     *
+     * @param function
+     *         the {@link Function} to apply to the result
+     *
+     * @return a TaskFuture of the function's result, which fails if the task or the function fails
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code function} is null
+     */
+    <R> TaskFuture<R> thenApply(Function<? super V, ? extends R> function);
+
+    /**
+     * Starts another asynchronous step with the result of the task once it succeeds
+     *
+     * @param function
+     *         the {@link Function} returning the TaskFuture of the next step
+     *
+     * @return a TaskFuture of the next step's result, which fails if the task, the function or the next step fails
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code function} is null
+     */
+    <R> TaskFuture<R> thenCompose(Function<? super V, ? extends TaskFuture<R>> function);
+
+    /**
+     * Runs a {@link Completion} once the task completes, whether it succeeded or not
+     *
+     * @param completion
+     *         the {@link Completion} to run
+     *
+     * @return a TaskFuture with the result of the task, which fails if the completion throws after the task succeeded
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code completion} is null
+     */
+    TaskFuture<V> whenComplete(Completion<? super V> completion);
+
+    /**
+     * A function applied to the result of a task
+     *
+     * @param <T>
+     *         the result type of the task
+     * @param <R>
+     *         the type returned by the function
+     */
+    interface Function<T, R> {
+
+        /**
+         * Applies the function
+         *
+         * @param value
+         *         the result of the task
+         *
+         * @return the function result
+         *
+         * @throws Exception
+         *         to fail the future of the function
+         */
+        R apply(T value) throws Exception;
+    }
+
+    /**
+     * A callback run when a task completes
+     *
+     * @param <V>
+     *         the result type of the task
+     */
+    interface Completion<V> {
+
+        /**
+         * Called when the task completes
+         *
+         * @param result
+         *         the result of the task, or {@code null} if it failed
+         * @param failure
+         *         the exception the task threw, a {@link java.util.concurrent.CancellationException} if it was cancelled,
+         *         or {@code null} if it succeeded
+         *
+         * @throws Exception
+         *         to fail the future returned by {@link #whenComplete(Completion)}
+         */
+        void completed(V result, Throwable failure) throws Exception;
+    }
+}
@@ -0,0 +1,387 @@
+/*
+ * This file is part of VIUtils.
+ *
+ * Copyright © 2012-2015 Visual Illusions Entertainment
+ *
+ * VIUtils is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this library.
+ * If not, see http://www.gnu.org/licenses/lgpl.html.
+ */
+package net.visualillusionsent.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static net.visualillusionsent.utils.Verify.notEmpty;
+import static net.visualillusionsent.utils.Verify.notNull;
+
+/**
+ * Task Graph
+ * <p/>
+ * A set of named tasks that depend on each other, submitted together with {@link TaskPool#submitGraph(TaskGraph)}.<br>
+ * Each task starts as soon as the tasks it depends on have succeeded, so tasks that don't depend on each other run in parallel
+ * and no thread waits on another task. Dependencies may name tasks added later, and are checked for unknown names
+ * and cycles when the graph is submitted.
+ * <p/>
+ * The future of a submitted graph completes once every task has run or been skipped, with the results of the tasks
+ * by name in the order they were added. A task that fails skips every task depending on it, directly or not,
+ * while the tasks not depending on it still run, and the graph's future fails with the first failure.
+ * Cancelling the graph's future skips the tasks that have not started.
+ * <p/>
+ * Graphs are built by one thread, but may be submitted any number of times; each submission runs the tasks added so far.
+ *
+ * @author Jason (darkdiplomat)
+ * @version 1.0
+ * @since 1.4.3
+ */
+public final class TaskGraph {
+
+    /* 1.0 @ VIUtils 1.4.3 */
+    private static final float classVersion = 1.0F;
+    /* The states of a task in a submission */
+    private static final int WAITING = 0, STARTED = 1, SKIPPED = 2;
+    private final Map<String, Node> nodes = new LinkedHashMap<String, Node>();
+
+    /**
+     * Adds a {@link Runnable} task, whose result is {@code null}
+     *
+     * @param name
+     *         the name of the task
+     * @param task
+     *         the {@link Runnable} task to execute
+     * @param dependsOn
+     *         the names of the tasks that must succeed before this task starts
+     *
+     * @return this TaskGraph
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code name}, {@code task} or any of the dependencies is null
+     * @throws java.lang.IllegalArgumentException
+     *         if {@code name} is empty or the graph already has a task with that name
+     */
+    public final TaskGraph addTask(String name, Runnable task, String... dependsOn) {
+        notNull(task, "Runnable task");
+        return add(name, task, null, dependsOn);
+    }
+
+    /**
+     * Adds a {@link Callable} task
+     *
+     * @param name
+     *         the name of the task
+     * @param task
+     *         the {@link Callable} task to execute
+     * @param dependsOn
+     *         the names of the tasks that must succeed before this task starts
+     *
+     * @return this TaskGraph
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code name}, {@code task} or any of the dependencies is null
+     * @throws java.lang.IllegalArgumentException
+     *         if {@code name} is empty or the graph already has a task with that name
+     */
+    public final TaskGraph addTask(String name, Callable<?> task, String... dependsOn) {
+        notNull(task, "Callable task");
+        return add(name, null, task, dependsOn);
+    }
+
+    private TaskGraph add(String name, Runnable runnable, Callable<?> callable, String[] dependsOn) {
+        notNull(name, "String name");
+        notEmpty(name, "String name");
+        notNull(dependsOn, "String[] dependsOn");
+        for (String dependency : dependsOn) {
+            notNull(dependency, "String dependency");
+        }
+        if (nodes.containsKey(name)) {
+            throw new IllegalArgumentException("Task graph already has a task named: " + name);
+        }
+        nodes.put(name, new Node(name, runnable, callable, dependsOn.clone()));
+        return this;
+    }
+
+    /**
+     * Checks if the graph has a task
+     *
+     * @param name
+     *         the name of the task
+     *
+     * @return {@code true} if the graph has a task with the name; {@code false} otherwise
+     */
+    public final boolean hasTask(String name) {
+        return nodes.containsKey(name);
+    }
+
+    /**
+     * Gets the names of the tasks, in the order they were added
+     *
+     * @return an unmodifiable List of the task names
+     */
+    public final List<String> getTaskNames() {
+        return Collections.unmodifiableList(new ArrayList<String>(nodes.keySet()));
+    }
+
+    /**
+     * Gets the names of the tasks a task depends on
+     *
+     * @param name
+     *         the name of the task
+     *
+     * @return an unmodifiable List of the dependencies, or {@code null} if the graph has no task with the name
+     */
+    public final List<String> getDependencies(String name) {
+        Node node = nodes.get(name);
+        return node == null ? null : Collections.unmodifiableList(Arrays.asList(node.dependsOn));
+    }
+
+    /**
+     * Gets the number of tasks
+     *
+     * @return the task count
+     */
+    public final int getTaskCount() {
+        return nodes.size();
+    }
+
+    /** Starts a run of the graph on a pool, running its tasks with the immediate tasks if {@code lane} is null */
+    final TaskFuture<Map<String, Object>> submit(TaskPool pool, TaskLane lane) {
+        if (pool.isShutdown()) {
+            throw new RejectedExecutionException("TaskPool: " + pool.getName() + " has been shut down");
+        }
+        Run run = new Run(pool, lane);
+        run.start();
+        return run.promise;
+    }
+
+    /**
+     * Returns a string representation of the {@code TaskGraph} as {@code TaskGraph[Tasks=%s]},
+     * each task followed by the tasks it depends on
+     *
+     * @return string representation of the {@code TaskGraph}
+     */
+    @Override
+    public final String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (Node node : nodes.values()) {
+            if (builder.length() > 0) {
+                builder.append(", ");
+            }
+            builder.append(node.name);
+            if (node.dependsOn.length > 0) {
+                builder.append(" <- ").append(Arrays.toString(node.dependsOn));
+            }
+        }
+        return String.format("TaskGraph[Tasks={%s}]", builder);
+    }
+
+    /**
+     * Gets this class's version number
+     *
+     * @return the class version
+     */
+    public static float getClassVersion() {
+        return classVersion;
+    }
+
+    private static final class Node {
+        private final String name;
+        /** The task, either a Runnable or a Callable */
+        private final Runnable runnable;
+        private final Callable<?> callable;
+        private final String[] dependsOn;
+
+        Node(String name, Runnable runnable, Callable<?> callable, String[] dependsOn) {
+            this.name = name;
+            this.runnable = runnable;
+            this.callable = callable;
+            this.dependsOn = dependsOn;
+        }
+
+        /** Submits the task to a pool, with the immediate tasks if {@code lane} is null */
+        final TaskFuture<?> submit(TaskPool pool, TaskLane lane) {
+            if (runnable != null) {
+                return lane == null ? pool.submitTask(runnable) : pool.submitTask(lane, runnable);
+            }
+            return lane == null ? pool.submitTask(callable) : pool.submitTask(lane, callable);
+        }
+    }
+
+    /** One submission of the graph, with the tasks indexed in the order they were added */
+    private final class Run {
+        private final TaskPool pool;
+        private final TaskLane lane;
+        private final Node[] tasks;
+        /** The indexes of the tasks depending on each task */
+        private final int[][] dependents;
+        /** The number of dependencies each task is still waiting on */
+        private final AtomicIntegerArray waiting;
+        private final AtomicIntegerArray states;
+        private final AtomicReferenceArray<Object> results;
+        /** The tasks that have not run or been skipped yet */
+        private final AtomicInteger remaining;
+        private final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        private final TaskPromise<Map<String, Object>> promise = new TaskPromise<Map<String, Object>>();
+
+        Run(TaskPool pool, TaskLane lane) {
+            this.pool = pool;
+            this.lane = lane;
+            this.tasks = nodes.values().toArray(new Node[nodes.size()]);
+            Map<String, Integer> indexes = new HashMap<String, Integer>();
+            for (int index = 0; index < tasks.length; index++) {
+                indexes.put(tasks[index].name, index);
+            }
+            int[] dependentCounts = new int[tasks.length];
+            int[] dependencyCounts = new int[tasks.length];
+            for (int index = 0; index < tasks.length; index++) {
+                for (String dependency : tasks[index].dependsOn) {
+                    Integer depended = indexes.get(dependency);
+                    if (depended == null) {
+                        throw new IllegalArgumentException("Task " + tasks[index].name + " depends on unknown task: " + dependency);
+                    }
+                    dependentCounts[depended]++;
+                    dependencyCounts[index]++;
+                }
+            }
+            this.dependents = new int[tasks.length][];
+            for (int index = 0; index < tasks.length; index++) {
+                dependents[index] = new int[dependentCounts[index]];
+                dependentCounts[index] = 0;
+            }
+            for (int index = 0; index < tasks.length; index++) {
+                for (String dependency : tasks[index].dependsOn) {
+                    int depended = indexes.get(dependency);
+                    dependents[depended][dependentCounts[depended]++] = index;
+                }
+            }
+            checkAcyclic(dependencyCounts.clone());
+            this.waiting = new AtomicIntegerArray(dependencyCounts);
+            this.states = new AtomicIntegerArray(tasks.length);
+            this.results = new AtomicReferenceArray<Object>(tasks.length);
+            this.remaining = new AtomicInteger(tasks.length);
+        }
+
+        /** Sorts the tasks topologically, which only reaches every task if there are no cycles */
+        private void checkAcyclic(int[] dependencyCounts) {
+            int[] ready = new int[tasks.length];
+            int readyCount = 0;
+            for (int index = 0; index < tasks.length; index++) {
+                if (dependencyCounts[index] == 0) {
+                    ready[readyCount++] = index;
+                }
+            }
+            for (int next = 0; next < readyCount; next++) {
+                for (int dependent : dependents[ready[next]]) {
+                    if (--dependencyCounts[dependent] == 0) {
+                        ready[readyCount++] = dependent;
+                    }
+                }
+            }
+            if (readyCount < tasks.length) {
+                List<String> cyclic = new ArrayList<String>();
+                for (int index = 0; index < tasks.length; index++) {
+                    if (dependencyCounts[index] > 0) {
+                        cyclic.add(tasks[index].name);
+                    }
+                }
+                throw new IllegalArgumentException("Task graph has a cycle among: " + cyclic);
+            }
+        }
+
+        final void start() {
+            if (tasks.length == 0) {
+                promise.complete(Collections.<String, Object>emptyMap());
+                return;
+            }
+            for (int index = 0; index < tasks.length; index++) {
+                if (waiting.get(index) == 0) {
+                    launch(index);
+                }
+            }
+        }
+
+        private void launch(final int index) {
+            if (!states.compareAndSet(index, WAITING, STARTED)) {
+                return; // Skipped by a failed dependency
+            }
+            if (promise.isCancelled()) {
+                finished(index, null, new CancellationException());
+                return;
+            }
+            TaskFuture<?> future;
+            try {
+                future = tasks[index].submit(pool, lane);
+            }
+            catch (RejectedExecutionException rex) {
+                finished(index, null, rex);
+                return;
+            }
+            future.whenComplete(new TaskFuture.Completion<Object>() {
+                public void completed(Object result, Throwable thrown) {
+                    finished(index, result, thrown);
+                }
+            });
+        }
+
+        private void finished(int index, Object result, Throwable thrown) {
+            if (thrown == null) {
+                results.set(index, result);
+                for (int dependent : dependents[index]) {
+                    if (waiting.decrementAndGet(dependent) == 0) {
+                        launch(dependent);
+                    }
+                }
+            }
+            else {
+                failure.compareAndSet(null, thrown);
+                for (int dependent : dependents[index]) {
+                    skip(dependent);
+                }
+            }
+            settle();
+        }
+
+        private void skip(int index) {
+            if (states.compareAndSet(index, WAITING, SKIPPED)) {
+                for (int dependent : dependents[index]) {
+                    skip(dependent);
+                }
+                settle();
+            }
+        }
+
+        private void settle() {
+            if (remaining.decrementAndGet() > 0) {
+                return;
+            }
+            if (failure.get() != null) {
+                promise.fail(failure.get());
+                return;
+            }
+            Map<String, Object> byName = new LinkedHashMap<String, Object>();
+            for (int index = 0; index < tasks.length; index++) {
+                byName.put(tasks[index].name, results.get(index));
+            }
+            promise.complete(Collections.unmodifiableMap(byName));
+        }
+    }
+}
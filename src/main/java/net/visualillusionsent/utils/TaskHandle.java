@@ -0,0 +1,45 @@
+/*
+ * This file is part of VIUtils.
+ *
+ * Copyright © 2012-2015 Visual Illusions Entertainment
+ *
+ * VIUtils is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this library.
+ * If not, see http://www.gnu.org/licenses/lgpl.html.
+ */
+package net.visualillusionsent.utils;
+
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Task Handle
+ * <p/>
+ * The handle of a delayed or continued task scheduled with a {@link TaskPool} or the {@link TaskManager}.<br>
+ * Each schedule call returns its own handle, even when the same task is scheduled more than once,
+ * and handles are equal only to themselves. Cancelling a handle takes constant time and only affects the one scheduling.
+ * Continuations of a continued task run only once it is cancelled or fails.
+ *
+ * @param <V>
+ *         the result type of the task
+ *
+ * @author Jason (darkdiplomat)
+ * @version 1.0
+ * @since 1.4.3
+ */
+public interface TaskHandle<V> extends ScheduledFuture<V>, TaskFuture<V> {
+
+    /**
+     * Gets the id of the handle, unique within the {@link TaskPool} it was scheduled with
+     *
+     * @return the handle id
+     */
+    long getId();
+}
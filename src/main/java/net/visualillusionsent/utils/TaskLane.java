@@ -0,0 +1,65 @@
+/*
+ * This file is part of VIUtils.
+ *
+ * Copyright © 2012-2015 Visual Illusions Entertainment
+ *
+ * VIUtils is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this library.
+ * If not, see http://www.gnu.org/licenses/lgpl.html.
+ */
+package net.visualillusionsent.utils;
+
+/**
+ * Task Lane
+ * <p/>
+ * The lanes a {@link TaskPool} may run immediate tasks in.<br>
+ * Each lane set up with {@link TaskPool.Builder#lane(TaskLane, int)} has its own threads and queue,
+ * so slow blocking work cannot hold up latency sensitive work. Tasks for a lane a pool has not set up
+ * run with the pool's other immediate tasks.
+ *
+ * @author Jason (darkdiplomat)
+ * @version 1.0
+ * @since 1.4.3
+ */
+public enum TaskLane {
+    /** Short tasks that must start quickly */
+    LATENCY(Thread.NORM_PRIORITY + 2), //
+    /** CPU bound tasks */
+    CPU(Thread.NORM_PRIORITY), //
+    /** Tasks that block on disk or network I/O */
+    BLOCKING_IO(Thread.NORM_PRIORITY - 1);
+
+    /* 1.0 @ VIUtils 1.4.3 */
+    private static final float classVersion = 1.0F;
+    private final int priority;
+
+    private TaskLane(int priority) {
+        this.priority = priority;
+    }
+
+    /**
+     * Gets the default priority of the threads of the lane
+     *
+     * @return the thread priority
+     */
+    public final int getDefaultPriority() {
+        return priority;
+    }
+
+    /**
+     * Gets this class's version number
+     *
+     * @return the class version
+     */
+    public static float getClassVersion() {
+        return classVersion;
+    }
+}
@@ -17,15 +17,12 @@
  */
 package net.visualillusionsent.utils;
 
-import java.util.Iterator;
+import java.util.Collection;
+import java.util.Map;
 import java.util.concurrent.Callable;
-import java.util.concurrent.CancellationException;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 import static java.util.concurrent.TimeUnit.HOURS;
@@ -33,36 +30,35 @@ import static java.util.concurrent.TimeUnit.MICROSECONDS;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.MINUTES;
 import static java.util.concurrent.TimeUnit.SECONDS;
-import static net.visualillusionsent.utils.Verify.notNegativeOrZero;
-import static net.visualillusionsent.utils.Verify.notNull;
 
 /**
  * Task Management System
  * <p/>
- * Creates a Thread Pool for handling executing delayed and continuous tasks
+ * Creates a Thread Pool for handling executing delayed and continuous tasks<br>
+ * The static methods run on a default {@link TaskPool} of 8 threads, which runs its immediate tasks on those same threads;
+ * work stealing is opt-in through {@link TaskPool.Builder#workStealing(int)} on pools built for it. The default pool has no {@link TaskLane}s of its own either,
+ * so tasks submitted to a lane run with its immediate tasks; lanes are set up through {@link TaskPool.Builder#lane(TaskLane, int)}
+ * and {@link TaskPool.Builder#virtualLane(TaskLane, int)} on pools built for them.
+ * The threads of the default pool are not daemon threads, so pending and running
+ * tasks keep the JVM alive as they always have.
+ * Threads are only started once there are tasks for them, and idle threads time out.
+ * Subsystems needing their own sized pool
+ * may create one with {@link TaskPool#builder(String)}.
+ * <p/>
+ * The methods that predate {@link TaskPool} keep their {@link Future} and {@link ScheduledFuture} return types,
+ * so code compiled against earlier versions still links. The futures they return are {@link TaskFuture}s and {@link TaskHandle}s,
+ * which the same methods of {@link #getDefaultPool()} return typed.
  *
  * @author Jason (darkdiplomat)
- * @version 1.3
+ * @version 1.4
  * @since 1.0.0
  */
 public final class TaskManager {
 
     /** Class Version */
-    private static final float classVersion = 1.3F; /* VIUtils 1.3.1 | 1.3 */
-    /** The ThreadPool object */
-    private static final ScheduledThreadPoolExecutor threadPool;
-    /** The Map of Tasks */
-    private static final ConcurrentHashMap<Task, ScheduledFuture<?>> tasks;
-
-    static {
-        threadPool = new ScheduledThreadPoolExecutor(8); // Set the max number of core idle threads
-        threadPool.setKeepAliveTime(5, SECONDS); // How long to keep idle threads alive
-        threadPool.allowCoreThreadTimeOut(true); // Allow the core threads to time out
-        threadPool.setContinueExistingPeriodicTasksAfterShutdownPolicy(false); //Don't execute anything after shutdown
-        threadPool.setExecuteExistingDelayedTasksAfterShutdownPolicy(false); //Don't execute anything after shutdown
-        tasks = new ConcurrentHashMap<Task, ScheduledFuture<?>>(); // Create the map for Task tracking
-        scheduleContinuedTaskInMillis(new TaskCleaner(), 10, 10); // Schedule the clean up
-    }
+    private static final float classVersion = 1.4F; /* VIUtils 1.4.3 | 1.4 */
+    /** The default TaskPool */
+    private static final TaskPool defaultPool = TaskPool.builder("TaskManager").coreSize(8).keepAlive(5, SECONDS).build();
 
     /** Constructions disallowed */
     private TaskManager() {
@@ -81,8 +77,7 @@ public final class TaskManager {
      *         for execution because the executor has been shut down.
      */
     public static void executeTask(Runnable task) throws RejectedExecutionException {
-        notNull(task, "Runnable task");
-        threadPool.execute(task); //wrap runnable for exception logging
+        defaultPool.executeTask(task);
     }
 
     /**
@@ -91,7 +86,7 @@ public final class TaskManager {
      * @param task
      *         the {@link Runnable} task to execute
      *
-     * @return a Future representing pending completion of the task
+     * @return a {@link Future} representing pending completion of the task, which is a {@link TaskFuture}
      *
      * @throws java.lang.NullPointerException
      *         if {@code task} is null
@@ -100,8 +95,7 @@ public final class TaskManager {
      *         for execution because the executor has been shut down.
      */
     public static Future<?> submitTask(Runnable task) throws RejectedExecutionException {
-        notNull(task, "Runnable task");
-        return threadPool.submit(task);
+        return defaultPool.submitTask(task);
     }
 
     /**
@@ -110,7 +104,7 @@ public final class TaskManager {
      * @param task
      *         the {@link Callable} task to execute
      *
-     * @return a {@link Future} representing pending completion of the task
+     * @return a {@link Future} representing pending completion of the task, which is a {@link TaskFuture}
      *
      * @throws java.lang.NullPointerException
      *         if {@code task} is null
@@ -119,8 +113,324 @@ public final class TaskManager {
      *         for execution because the executor has been shut down.
      */
     public static <V> Future<V> submitTask(Callable<V> task) throws RejectedExecutionException {
-        notNull(task, "Callable task");
-        return threadPool.submit(task);
+        return defaultPool.submitTask(task);
+    }
+
+    /**
+     * Executes a {@link Runnable} task immediately in a {@link TaskLane}
+     *
+     * @param lane
+     *         the {@link TaskLane} to run the task in
+     * @param task
+     *         the {@link Runnable} task to execute
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code lane} or {@code task} is null
+     * @throws RejectedExecutionException
+     *         at discretion of <tt>RejectedExecutionHandler</tt>, if task cannot be accepted
+     *         for execution because the executor has been shut down.
+     */
+    public static void executeTask(TaskLane lane, Runnable task) throws RejectedExecutionException {
+        defaultPool.executeTask(lane, task);
+    }
+
+    /**
+     * Submits a {@link Runnable} task to be executed in a {@link TaskLane}
+     *
+     * @param lane
+     *         the {@link TaskLane} to run the task in
+     * @param task
+     *         the {@link Runnable} task to execute
+     *
+     * @return a {@link TaskFuture} representing pending completion of the task
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code lane} or {@code task} is null
+     * @throws RejectedExecutionException
+     *         at discretion of <tt>RejectedExecutionHandler</tt>, if task cannot be accepted
+     *         for execution because the executor has been shut down.
+     */
+    public static TaskFuture<?> submitTask(TaskLane lane, Runnable task) throws RejectedExecutionException {
+        return defaultPool.submitTask(lane, task);
+    }
+
+    /**
+     * Submits a {@link Callable} task to be executed in a {@link TaskLane}
+     *
+     * @param lane
+     *         the {@link TaskLane} to run the task in
+     * @param task
+     *         the {@link Callable} task to execute
+     *
+     * @return a {@link TaskFuture} representing pending completion of the task
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code lane} or {@code task} is null
+     * @throws RejectedExecutionException
+     *         at discretion of <tt>RejectedExecutionHandler</tt>, if task cannot be accepted
+     *         for execution because the executor has been shut down.
+     */
+    public static <V> TaskFuture<V> submitTask(TaskLane lane, Callable<V> task) throws RejectedExecutionException {
+        return defaultPool.submitTask(lane, task);
+    }
+
+    /**
+     * Submits a {@link Runnable} task to be executed, interrupting it and failing its future with a
+     * {@link java.util.concurrent.TimeoutException} if it runs longer than the timeout
+     *
+     * @param task
+     *         the {@link Runnable} task to execute
+     * @param timeout
+     *         the longest time the task may run
+     * @param timeUnit
+     *         the {@link TimeUnit} of the timeout
+     *
+     * @return a {@link TaskFuture} representing pending completion of the task
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code task} or {@code timeUnit} is null
+     * @throws java.lang.IllegalArgumentException
+     *         if {@code timeout} is equal to or less than zero
+     * @throws RejectedExecutionException
+     *         at discretion of <tt>RejectedExecutionHandler</tt>, if task cannot be accepted
+     *         for execution because the executor has been shut down.
+     * @see TaskPool#submitTask(Runnable, long, TimeUnit)
+     */
+    public static TaskFuture<?> submitTask(Runnable task, long timeout, TimeUnit timeUnit) throws RejectedExecutionException {
+        return defaultPool.submitTask(task, timeout, timeUnit);
+    }
+
+    /**
+     * Submits a {@link Callable} task to be executed, interrupting it and failing its future with a
+     * {@link java.util.concurrent.TimeoutException} if it runs longer than the timeout
+     *
+     * @param task
+     *         the {@link Callable} task to execute
+     * @param timeout
+     *         the longest time the task may run
+     * @param timeUnit
+     *         the {@link TimeUnit} of the timeout
+     *
+     * @return a {@link TaskFuture} representing pending completion of the task
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code task} or {@code timeUnit} is null
+     * @throws java.lang.IllegalArgumentException
+     *         if {@code timeout} is equal to or less than zero
+     * @throws RejectedExecutionException
+     *         at discretion of <tt>RejectedExecutionHandler</tt>, if task cannot be accepted
+     *         for execution because the executor has been shut down.
+     * @see TaskPool#submitTask(Callable, long, TimeUnit)
+     */
+    public static <V> TaskFuture<V> submitTask(Callable<V> task, long timeout, TimeUnit timeUnit) throws RejectedExecutionException {
+        return defaultPool.submitTask(task, timeout, timeUnit);
+    }
+
+    /**
+     * Submits a {@link Runnable} task to be executed in a {@link TaskLane}, interrupting it and failing its future with a
+     * {@link java.util.concurrent.TimeoutException} if it runs longer than the timeout
+     *
+     * @param lane
+     *         the {@link TaskLane} to run the task in
+     * @param task
+     *         the {@link Runnable} task to execute
+     * @param timeout
+     *         the longest time the task may run
+     * @param timeUnit
+     *         the {@link TimeUnit} of the timeout
+     *
+     * @return a {@link TaskFuture} representing pending completion of the task
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code lane}, {@code task} or {@code timeUnit} is null
+     * @throws java.lang.IllegalArgumentException
+     *         if {@code timeout} is equal to or less than zero
+     * @throws RejectedExecutionException
+     *         at discretion of <tt>RejectedExecutionHandler</tt>, if task cannot be accepted
+     *         for execution because the executor has been shut down.
+     * @see TaskPool#submitTask(TaskLane, Runnable, long, TimeUnit)
+     */
+    public static TaskFuture<?> submitTask(TaskLane lane, Runnable task, long timeout, TimeUnit timeUnit) throws RejectedExecutionException {
+        return defaultPool.submitTask(lane, task, timeout, timeUnit);
+    }
+
+    /**
+     * Submits a {@link Callable} task to be executed in a {@link TaskLane}, interrupting it and failing its future with a
+     * {@link java.util.concurrent.TimeoutException} if it runs longer than the timeout
+     *
+     * @param lane
+     *         the {@link TaskLane} to run the task in
+     * @param task
+     *         the {@link Callable} task to execute
+     * @param timeout
+     *         the longest time the task may run
+     * @param timeUnit
+     *         the {@link TimeUnit} of the timeout
+     *
+     * @return a {@link TaskFuture} representing pending completion of the task
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code lane}, {@code task} or {@code timeUnit} is null
+     * @throws java.lang.IllegalArgumentException
+     *         if {@code timeout} is equal to or less than zero
+     * @throws RejectedExecutionException
+     *         at discretion of <tt>RejectedExecutionHandler</tt>, if task cannot be accepted
+     *         for execution because the executor has been shut down.
+     * @see TaskPool#submitTask(TaskLane, Callable, long, TimeUnit)
+     */
+    public static <V> TaskFuture<V> submitTask(TaskLane lane, Callable<V> task, long timeout, TimeUnit timeUnit) throws RejectedExecutionException {
+        return defaultPool.submitTask(lane, task, timeout, timeUnit);
+    }
+
+    /**
+     * Submits a {@link Runnable} task to be executed once a {@link RateLimiter} hands out a permit for it,
+     * deferring it through the scheduler while over the rate
+     *
+     * @param limiter
+     *         the {@link RateLimiter} gating the task
+     * @param task
+     *         the {@link Runnable} task to execute
+     *
+     * @return a {@link TaskFuture} representing pending completion of the task
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code limiter} or {@code task} is null
+     * @throws RejectedExecutionException
+     *         at discretion of <tt>RejectedExecutionHandler</tt>, if task cannot be accepted
+     *         for execution because the executor has been shut down.
+     * @see TaskPool#submitTask(RateLimiter, Runnable)
+     */
+    public static TaskFuture<?> submitTask(RateLimiter limiter, Runnable task) throws RejectedExecutionException {
+        return defaultPool.submitTask(limiter, task);
+    }
+
+    /**
+     * Submits a {@link Callable} task to be executed once a {@link RateLimiter} hands out a permit for it,
+     * deferring it through the scheduler while over the rate
+     *
+     * @param limiter
+     *         the {@link RateLimiter} gating the task
+     * @param task
+     *         the {@link Callable} task to execute
+     *
+     * @return a {@link TaskFuture} representing pending completion of the task
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code limiter} or {@code task} is null
+     * @throws RejectedExecutionException
+     *         at discretion of <tt>RejectedExecutionHandler</tt>, if task cannot be accepted
+     *         for execution because the executor has been shut down.
+     * @see TaskPool#submitTask(RateLimiter, Callable)
+     */
+    public static <V> TaskFuture<V> submitTask(RateLimiter limiter, Callable<V> task) throws RejectedExecutionException {
+        return defaultPool.submitTask(limiter, task);
+    }
+
+    /**
+     * Submits a {@link Runnable} task to be executed if the pool can accept it without blocking or rejecting it
+     *
+     * @param task
+     *         the {@link Runnable} task to execute
+     *
+     * @return a {@link TaskFuture} representing pending completion of the task, or {@code null} if the pool is saturated or shut down
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code task} is null
+     * @see TaskPool#trySubmit(Runnable)
+     */
+    public static TaskFuture<?> trySubmit(Runnable task) {
+        return defaultPool.trySubmit(task);
+    }
+
+    /**
+     * Submits a {@link Callable} task to be executed if the pool can accept it without blocking or rejecting it
+     *
+     * @param task
+     *         the {@link Callable} task to execute
+     *
+     * @return a {@link TaskFuture} representing pending completion of the task, or {@code null} if the pool is saturated or shut down
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code task} is null
+     * @see TaskPool#trySubmit(Callable)
+     */
+    public static <V> TaskFuture<V> trySubmit(Callable<V> task) {
+        return defaultPool.trySubmit(task);
+    }
+
+    /**
+     * Submits a {@link Runnable} task to be executed in a {@link TaskLane} if the lane can accept it without blocking or rejecting it
+     *
+     * @param lane
+     *         the {@link TaskLane} to run the task in
+     * @param task
+     *         the {@link Runnable} task to execute
+     *
+     * @return a {@link TaskFuture} representing pending completion of the task, or {@code null} if the lane is saturated or the pool is shut down
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code lane} or {@code task} is null
+     * @see TaskPool#trySubmit(TaskLane, Runnable)
+     */
+    public static TaskFuture<?> trySubmit(TaskLane lane, Runnable task) {
+        return defaultPool.trySubmit(lane, task);
+    }
+
+    /**
+     * Submits a {@link Callable} task to be executed in a {@link TaskLane} if the lane can accept it without blocking or rejecting it
+     *
+     * @param lane
+     *         the {@link TaskLane} to run the task in
+     * @param task
+     *         the {@link Callable} task to execute
+     *
+     * @return a {@link TaskFuture} representing pending completion of the task, or {@code null} if the lane is saturated or the pool is shut down
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code lane} or {@code task} is null
+     * @see TaskPool#trySubmit(TaskLane, Callable)
+     */
+    public static <V> TaskFuture<V> trySubmit(TaskLane lane, Callable<V> task) {
+        return defaultPool.trySubmit(lane, task);
+    }
+
+    /**
+     * Submits a batch of {@link Callable} tasks to be executed
+     *
+     * @param tasks
+     *         the {@link Callable} tasks to execute
+     *
+     * @return a {@link BatchFuture} representing pending completion of the tasks
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code tasks} or any of its tasks is null
+     * @throws RejectedExecutionException
+     *         at discretion of <tt>RejectedExecutionHandler</tt>, if the batch cannot be accepted
+     *         for execution because the executor has been shut down.
+     * @see TaskPool#submitAll(Collection)
+     */
+    public static <V> BatchFuture<V> submitAll(Collection<? extends Callable<V>> tasks) throws RejectedExecutionException {
+        return defaultPool.submitAll(tasks);
+    }
+
+    /**
+     * Submits a {@link TaskGraph} to be executed, each of its tasks starting once the tasks it depends on have succeeded
+     *
+     * @param graph
+     *         the {@link TaskGraph} to execute
+     *
+     * @return a {@link TaskFuture} of the results of the tasks by name, which fails with the first failure of a task
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code graph} is null
+     * @throws java.lang.IllegalArgumentException
+     *         if a task of the graph depends on an unknown task or the tasks depend on each other in a cycle
+     * @throws RejectedExecutionException
+     *         if the pool has been shut down
+     * @see TaskPool#submitGraph(TaskGraph)
+     */
+    public static TaskFuture<Map<String, Object>> submitGraph(TaskGraph graph) throws RejectedExecutionException {
+        return defaultPool.submitGraph(graph);
     }
 
     /**
@@ -131,7 +441,7 @@ public final class TaskManager {
      * @param delay
      *         the delay before execution
      *
-     * @return a ScheduledFuture representing pending completion of the task and whose get() method will return null upon completion
+     * @return a ScheduledFuture representing pending completion of the task and whose get() method will return null upon completion; it is a {@link TaskHandle}
      *
      * @throws java.lang.NullPointerException
      *         if {@code task} is null
@@ -153,7 +463,7 @@ public final class TaskManager {
      * @param delay
      *         the delay before execution
      *
-     * @return a ScheduledFuture representing pending completion of the task and whose get() method will return null upon completion
+     * @return a ScheduledFuture representing pending completion of the task and whose get() method will return null upon completion; it is a {@link TaskHandle}
      *
      * @throws java.lang.NullPointerException
      *         if {@code task} is null
@@ -175,7 +485,7 @@ public final class TaskManager {
      * @param delay
      *         the delay before execution
      *
-     * @return a ScheduledFuture representing pending completion of the task and whose get() method will return null upon completion
+     * @return a ScheduledFuture representing pending completion of the task and whose get() method will return null upon completion; it is a {@link TaskHandle}
      *
      * @throws java.lang.NullPointerException
      *         if {@code task} is null
@@ -197,7 +507,7 @@ public final class TaskManager {
      * @param delay
      *         the delay before execution
      *
-     * @return a ScheduledFuture representing pending completion of the task and whose get() method will return null upon completion
+     * @return a ScheduledFuture representing pending completion of the task and whose get() method will return null upon completion; it is a {@link TaskHandle}
      *
      * @throws java.lang.NullPointerException
      *         if {@code task} is null
@@ -219,7 +529,7 @@ public final class TaskManager {
      * @param delay
      *         the delay before execution
      *
-     * @return a ScheduledFuture representing pending completion of the task and whose get() method will return null upon completion
+     * @return a ScheduledFuture representing pending completion of the task and whose get() method will return null upon completion; it is a {@link TaskHandle}
      *
      * @throws java.lang.NullPointerException
      *         if {@code task} is null
@@ -241,7 +551,7 @@ public final class TaskManager {
      * @param delay
      *         the delay before execution
      *
-     * @return a ScheduledFuture representing pending completion of the task and whose get() method will return null upon completion
+     * @return a ScheduledFuture representing pending completion of the task and whose get() method will return null upon completion; it is a {@link TaskHandle}
      *
      * @throws java.lang.NullPointerException
      *         if {@code task} is null
@@ -263,7 +573,7 @@ public final class TaskManager {
      * @param delay
      *         the delay before execution
      *
-     * @return a ScheduledFuture representing pending completion of the task and whose get() method will return null upon completion
+     * @return a ScheduledFuture representing pending completion of the task and whose get() method will return null upon completion; it is a {@link TaskHandle}
      *
      * @throws java.lang.NullPointerException
      *         if {@code task} is null
@@ -285,7 +595,7 @@ public final class TaskManager {
      * @param delay
      *         the delay before execution
      *
-     * @return a ScheduledFuture representing pending completion of the task and whose get() method will return null upon completion
+     * @return a ScheduledFuture representing pending completion of the task and whose get() method will return null upon completion; it is a {@link TaskHandle}
      *
      * @throws java.lang.NullPointerException
      *         if {@code task} is null
@@ -307,7 +617,7 @@ public final class TaskManager {
      * @param delay
      *         the delay before execution
      *
-     * @return a ScheduledFuture representing pending completion of the task and whose get() method will return null upon completion
+     * @return a ScheduledFuture representing pending completion of the task and whose get() method will return null upon completion; it is a {@link TaskHandle}
      *
      * @throws java.lang.NullPointerException
      *         if {@code task} is null
@@ -329,7 +639,7 @@ public final class TaskManager {
      * @param delay
      *         the delay before execution
      *
-     * @return a ScheduledFuture representing pending completion of the task and whose get() method will return null upon completion
+     * @return a ScheduledFuture representing pending completion of the task and whose get() method will return null upon completion; it is a {@link TaskHandle}
      *
      * @throws java.lang.NullPointerException
      *         if {@code task} is null
@@ -353,7 +663,7 @@ public final class TaskManager {
      * @param timeUnit
      *         the {@link TimeUnit} to use
      *
-     * @return a ScheduledFuture representing pending completion of the task and whose get() method will return null upon completion
+     * @return a ScheduledFuture representing pending completion of the task and whose get() method will return null upon completion; it is a {@link TaskHandle}
      *
      * @throws java.lang.NullPointerException
      *         if {@code task} or {@code timeUnit} is null
@@ -364,13 +674,7 @@ public final class TaskManager {
      *         for execution because the executor has been shut down.
      */
     public static ScheduledFuture<?> scheduleDelayedTask(Runnable task, long delay, TimeUnit timeUnit) throws RejectedExecutionException {
-        notNull(task, "Runnable task");
-        notNegativeOrZero(delay, "Delay");
-        notNull(timeUnit, "TimeUnit timeUnit");
-
-        ScheduledFuture<?> sTask = threadPool.schedule(task, delay, timeUnit);
-        tasks.put(new Task(task), sTask);
-        return sTask;
+        return defaultPool.scheduleDelayedTask(task, delay, timeUnit);
     }
 
     /**
@@ -383,7 +687,7 @@ public final class TaskManager {
      * @param timeUnit
      *         the {@link TimeUnit} to use
      *
-     * @return a ScheduledFuture representing pending completion of the task and whose get() method will return null upon completion
+     * @return a ScheduledFuture representing pending completion of the task and whose get() method will return null upon completion; it is a {@link TaskHandle}
      *
      * @throws java.lang.NullPointerException
      *         if {@code task} or {@code timeUnit} is null
@@ -394,13 +698,7 @@ public final class TaskManager {
      *         for execution because the executor has been shut down.
      */
     public static <V> ScheduledFuture<V> scheduleDelayedTask(Callable<V> task, long delay, TimeUnit timeUnit) throws RejectedExecutionException {
-        notNull(task, "Callable task");
-        notNegativeOrZero(delay, "Delay");
-        notNull(timeUnit, "TimeUnit timeUnit");
-
-        ScheduledFuture<V> sTask = threadPool.schedule(task, delay, timeUnit);
-        tasks.put(new Task(task), sTask);
-        return sTask;
+        return defaultPool.scheduleDelayedTask(task, delay, timeUnit);
     }
 
     /**
@@ -413,7 +711,7 @@ public final class TaskManager {
      * @param delay
      *         the delay between additional executions
      *
-     * @return a ScheduledFuture representing pending completion of the task and whose get() method will throw an exception upon cancellation
+     * @return a ScheduledFuture representing pending completion of the task and whose get() method will throw an exception upon cancellation; it is a {@link TaskHandle}
      *
      * @throws java.lang.NullPointerException
      *         if {@code task} is null
@@ -437,7 +735,7 @@ public final class TaskManager {
      * @param delay
      *         the delay between additional executions
      *
-     * @return a ScheduledFuture representing pending completion of the task and whose get() method will throw an exception upon cancellation
+     * @return a ScheduledFuture representing pending completion of the task and whose get() method will throw an exception upon cancellation; it is a {@link TaskHandle}
      *
      * @throws java.lang.NullPointerException
      *         if {@code task} is null
@@ -461,7 +759,7 @@ public final class TaskManager {
      * @param delay
      *         the delay between additional executions
      *
-     * @return a ScheduledFuture representing pending completion of the task and whose get() method will throw an exception upon cancellation
+     * @return a ScheduledFuture representing pending completion of the task and whose get() method will throw an exception upon cancellation; it is a {@link TaskHandle}
      *
      * @throws java.lang.NullPointerException
      *         if {@code task} is null
@@ -485,7 +783,7 @@ public final class TaskManager {
      * @param delay
      *         the delay between additional executions
      *
-     * @return a ScheduledFuture representing pending completion of the task and whose get() method will throw an exception upon cancellation
+     * @return a ScheduledFuture representing pending completion of the task and whose get() method will throw an exception upon cancellation; it is a {@link TaskHandle}
      *
      * @throws java.lang.NullPointerException
      *         if {@code task} is null
@@ -511,7 +809,7 @@ public final class TaskManager {
      * @param timeUnit
      *         the {@link TimeUnit} to use
      *
-     * @return a ScheduledFuture representing pending completion of the task and whose get() method will throw an exception upon cancellation
+     * @return a ScheduledFuture representing pending completion of the task and whose get() method will throw an exception upon cancellation; it is a {@link TaskHandle}
      *
      * @throws java.lang.NullPointerException
      *         if {@code task} is null
@@ -522,12 +820,154 @@ public final class TaskManager {
      *         for execution because the executor has been shut down.
      */
     public static ScheduledFuture<?> scheduleContinuedTask(Runnable task, long initialDelay, long delay, TimeUnit timeUnit) throws RejectedExecutionException {
-        notNull(task, "Runnable task");
-        notNegativeOrZero(initialDelay, "long initialDelay");
+        return defaultPool.scheduleContinuedTask(task, initialDelay, delay, timeUnit);
+    }
+
+    /**
+     * Executes a {@link Runnable} task at a fixed rate, with drift free deadlines and an {@link TaskPool.Overrun} policy for late ticks
+     *
+     * @param task
+     *         the {@link Runnable} task to execute
+     * @param initialDelay
+     *         the delay before the first tick
+     * @param period
+     *         the time between the deadlines of ticks
+     * @param timeUnit
+     *         the {@link TimeUnit} to use
+     * @param overrun
+     *         the {@link TaskPool.Overrun} policy for ticks running late
+     *
+     * @return a RateHandle of the task, measuring the lag of each tick
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code task}, {@code timeUnit} or {@code overrun} is null
+     * @throws java.lang.IllegalArgumentException
+     *         if the {@code initialDelay} is less than zero, or {@code period} is equal to or less than zero
+     * @throws RejectedExecutionException
+     *         if the pool has been shut down
+     * @see TaskPool#scheduleAtRate(Runnable, long, long, TimeUnit, TaskPool.Overrun)
+     */
+    public static RateHandle scheduleAtRate(Runnable task, long initialDelay, long period, TimeUnit timeUnit, TaskPool.Overrun overrun) throws RejectedExecutionException {
+        return defaultPool.scheduleAtRate(task, initialDelay, period, timeUnit, overrun);
+    }
 
-        ScheduledFuture<?> sTask = threadPool.scheduleAtFixedRate(task, initialDelay, delay, timeUnit);
-        tasks.put(new Task(task), sTask);
-        return sTask;
+    /**
+     * Executes a {@link Runnable} task at each fire time of a cron expression read in the default {@link java.util.TimeZone},
+     * such as {@code "0 4 * * *"} for every day at 04:00 or {@code "@hourly"} for every hour on the hour
+     *
+     * @param task
+     *         the {@link Runnable} task to execute
+     * @param expression
+     *         the cron expression, as parsed by {@link CronExpression#parse(String)}
+     *
+     * @return a TaskHandle of the task, whose get() method will throw an exception upon cancellation or if a run failed
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code task} or {@code expression} is null
+     * @throws java.lang.IllegalArgumentException
+     *         if {@code expression} is empty, malformed or never fires
+     * @throws RejectedExecutionException
+     *         if the pool has been shut down
+     * @see TaskPool#scheduleCron(Runnable, String)
+     */
+    public static TaskHandle<?> scheduleCron(Runnable task, String expression) throws RejectedExecutionException {
+        return defaultPool.scheduleCron(task, expression);
+    }
+
+    /**
+     * Executes a {@link Runnable} task at each fire time of a {@link CronExpression}, which may be read in any {@link java.util.TimeZone}
+     *
+     * @param task
+     *         the {@link Runnable} task to execute
+     * @param cron
+     *         the {@link CronExpression} of the fire times
+     *
+     * @return a TaskHandle of the task, whose get() method will throw an exception upon cancellation or if a run failed
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code task} or {@code cron} is null
+     * @throws RejectedExecutionException
+     *         if the pool has been shut down
+     * @see TaskPool#scheduleCron(Runnable, CronExpression)
+     */
+    public static TaskHandle<?> scheduleCron(Runnable task, CronExpression cron) throws RejectedExecutionException {
+        return defaultPool.scheduleCron(task, cron);
+    }
+
+    /**
+     * Executes a {@link Runnable} task once submissions for its key have stopped for a delay,
+     * and no later than four times the delay after the first submission
+     *
+     * @param key
+     *         the key of the logical task, such as the thing it updates
+     * @param task
+     *         the {@link Runnable} task to execute
+     * @param delay
+     *         the quiet time before execution
+     * @param timeUnit
+     *         the {@link TimeUnit} to use
+     *
+     * @return a {@link TaskFuture} of the run, shared by every debounce it collapsed
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code key}, {@code task} or {@code timeUnit} is null
+     * @throws java.lang.IllegalArgumentException
+     *         if the {@code delay} is equal to or less than zero
+     * @throws RejectedExecutionException
+     *         if the pool has been shut down
+     * @see TaskPool#debounce(Object, Runnable, long, TimeUnit)
+     */
+    public static TaskFuture<?> debounce(Object key, Runnable task, long delay, TimeUnit timeUnit) throws RejectedExecutionException {
+        return defaultPool.debounce(key, task, delay, timeUnit);
+    }
+
+    /**
+     * Executes a {@link Runnable} task once submissions for its key have stopped for a delay, or the max delay has passed
+     *
+     * @param key
+     *         the key of the logical task, such as the thing it updates
+     * @param task
+     *         the {@link Runnable} task to execute
+     * @param delay
+     *         the quiet time before execution
+     * @param maxDelay
+     *         the most time between the first debounce and execution
+     * @param timeUnit
+     *         the {@link TimeUnit} to use
+     *
+     * @return a {@link TaskFuture} of the run, shared by every debounce it collapsed
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code key}, {@code task} or {@code timeUnit} is null
+     * @throws java.lang.IllegalArgumentException
+     *         if the {@code delay} is equal to or less than zero, or {@code maxDelay} is less than {@code delay}
+     * @throws RejectedExecutionException
+     *         if the pool has been shut down
+     * @see TaskPool#debounce(Object, Runnable, long, long, TimeUnit)
+     */
+    public static TaskFuture<?> debounce(Object key, Runnable task, long delay, long maxDelay, TimeUnit timeUnit) throws RejectedExecutionException {
+        return defaultPool.debounce(key, task, delay, maxDelay, timeUnit);
+    }
+
+    /**
+     * Executes a {@link Runnable} task immediately, unless a run for its key is still waiting to start
+     *
+     * @param key
+     *         the key of the logical task, such as the thing it updates
+     * @param task
+     *         the {@link Runnable} task to execute
+     *
+     * @return a {@link TaskFuture} of the run, shared by every submission it collapsed
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code key} or {@code task} is null
+     * @throws RejectedExecutionException
+     *         at discretion of <tt>RejectedExecutionHandler</tt>, if task cannot be accepted
+     *         for execution because the executor has been shut down.
+     * @see TaskPool#coalesce(Object, Runnable)
+     */
+    public static TaskFuture<?> coalesce(Object key, Runnable task) throws RejectedExecutionException {
+        return defaultPool.coalesce(key, task);
     }
 
     /**
@@ -539,19 +979,7 @@ public final class TaskManager {
      * @return {@code true} if successfully removed, {@code false} if already stopped or non-existent
      */
     public static boolean removeTask(Runnable task) {
-        boolean check = false;
-        Task wrappedTask = Task.wrap(task);
-        if (tasks.containsKey(wrappedTask)) {
-            check = tasks.get(wrappedTask).cancel(true);
-            tasks.remove(wrappedTask);
-        }
-        if (!check) {
-            check = threadPool.remove(task);
-        }
-        if (check) {
-            threadPool.purge();
-        }
-        return check;
+        return defaultPool.removeTask(task);
     }
 
     /**
@@ -563,51 +991,65 @@ public final class TaskManager {
      * @return {@code true} if successfully removed, {@code false} if already stopped or non-existent
      */
     public static boolean removeTask(Callable<?> task) {
-        boolean check = false;
-        Task wrappedTask = Task.wrap(task);
-        if (tasks.containsKey(wrappedTask)) {
-            check = tasks.get(wrappedTask).cancel(true);
-            tasks.remove(wrappedTask);
-        }
-        if (check) {
-            threadPool.purge();
-        }
-        return check;
-    }
-
-    /**
-     * Internal Task cleanup
-     *
-     * @author Jason (darkdiplomat)
-     */
-    private static final class TaskCleaner implements Runnable {
-
-        @Override
-        public final void run() { //Run to clean up any memory leaks we may cause by holding dead tasks
-            if (tasks.isEmpty()) {
-                return; // skip cleaning if there are no tasks
-            }
-            Iterator<Task> taskItr = tasks.keySet().iterator();
-            while (taskItr.hasNext()) {
-                Task task = taskItr.next(); //Get the task
-                if (tasks.get(task).isDone()) { // Check task for completion
-                    try {
-                        tasks.get(task).get(); // Test for execution exceptions
-                    }
-                    catch (CancellationException cex) {
-                        // Don't care if it was cancelled
-                    }
-                    catch (InterruptedException e) {
-                        // The task was probably canceled so skip this
-                    }
-                    catch (ExecutionException eex) {
-                        //This is important if an exception was caused in execution, print out the exception immediately
-                        task.printError(eex.getCause()); // Call the printError message for the proper Task name rather than the wrapper's name
-                    }
-                    taskItr.remove();
-                }
-            }
-        }
+        return defaultPool.removeTask(task);
+    }
+
+    /**
+     * Removes a scheduled task from the pool by its {@link TaskHandle}
+     *
+     * @param handle
+     *         the {@link TaskHandle} of the task to be removed
+     *
+     * @return {@code true} if successfully removed, {@code false} if already stopped
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code handle} is null
+     */
+    public static boolean removeTask(TaskHandle<?> handle) {
+        return defaultPool.removeTask(handle);
+    }
+
+    /**
+     * Shuts the default pool down gracefully, such as when the application stops, waiting up to a timeout for its work to finish<br>
+     * The static methods reject tasks once the default pool is shut down.
+     *
+     * @param timeout
+     *         the longest time to wait for the tasks to finish
+     * @param timeUnit
+     *         the {@link TimeUnit} of the timeout
+     * @param policy
+     *         the {@link TaskPool.ShutdownPolicy} for the tasks that have not started
+     *
+     * @return a {@link ShutdownReport} of the tasks dropped and whether the pool terminated in time
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code timeUnit} or {@code policy} is null
+     * @throws java.lang.IllegalArgumentException
+     *         if {@code timeout} is less than zero
+     * @see TaskPool#shutdown(long, TimeUnit, TaskPool.ShutdownPolicy)
+     */
+    public static ShutdownReport shutdown(long timeout, TimeUnit timeUnit, TaskPool.ShutdownPolicy policy) {
+        return defaultPool.shutdown(timeout, timeUnit, policy);
+    }
+
+    /**
+     * Shuts the default pool down at once, dropping every task that has not started and interrupting the tasks running
+     *
+     * @return a {@link ShutdownReport} of the tasks dropped
+     *
+     * @see TaskPool#shutdownNow()
+     */
+    public static ShutdownReport shutdownNow() {
+        return defaultPool.shutdownNow();
+    }
+
+    /**
+     * Gets the default {@link TaskPool} used by the static methods
+     *
+     * @return the default TaskPool
+     */
+    public static TaskPool getDefaultPool() {
+        return defaultPool;
     }
 
     /**
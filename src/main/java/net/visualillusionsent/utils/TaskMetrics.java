@@ -0,0 +1,471 @@
+/*
+ * This file is part of VIUtils.
+ *
+ * Copyright © 2012-2015 Visual Illusions Entertainment
+ *
+ * VIUtils is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this library.
+ * If not, see http://www.gnu.org/licenses/lgpl.html.
+ */
+package net.visualillusionsent.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static net.visualillusionsent.utils.Verify.notNull;
+
+/**
+ * Task Metrics
+ * <p/>
+ * Execution statistics of the tasks run by a {@link TaskPool}, kept per task class.<br>
+ * For each class the number of executions and failures are counted, and the time spent waiting in the queue
+ * and running are recorded in {@link Histogram}s. The tasks currently running are also kept along with their start times.
+ * <p/>
+ * Metrics are only collected by pools built with {@link TaskPool.Builder#metrics(boolean)}, so pools without them pay nothing.
+ * The metrics of a pool are also registered with the platform MBeanServer as
+ * {@code net.visualillusionsent.utils:type=TaskPool,name=<pool name>}.
+ *
+ * @author Jason (darkdiplomat)
+ * @version 1.0
+ * @since 1.4.3
+ */
+public final class TaskMetrics implements TaskMetricsMBean {
+
+    /* 1.0 @ VIUtils 1.4.3 */
+    private static final float classVersion = 1.0F;
+    private final ConcurrentHashMap<Class<?>, ClassStats> stats = new ConcurrentHashMap<Class<?>, ClassStats>();
+    private final Set<RunningTask> running = Collections.newSetFromMap(new ConcurrentHashMap<RunningTask, Boolean>());
+    private final AtomicLong stuck = new AtomicLong();
+
+    TaskMetrics() {
+    }
+
+    /** Records the start of a task, which was due to run at {@code dueNanos} */
+    final RunningTask started(Class<?> taskClass, long dueNanos) {
+        RunningTask task = new RunningTask(taskClass, System.nanoTime(), dueNanos);
+        running.add(task);
+        return task;
+    }
+
+    /** Records the end of a task */
+    final void finished(RunningTask task, boolean failed) {
+        running.remove(task);
+        ClassStats classStats = stats.get(task.taskClass);
+        if (classStats == null) {
+            ClassStats created = new ClassStats(task.taskClass);
+            classStats = stats.putIfAbsent(task.taskClass, created);
+            if (classStats == null) {
+                classStats = created;
+            }
+        }
+        classStats.executions.incrementAndGet();
+        if (failed) {
+            classStats.failures.incrementAndGet();
+        }
+        classStats.waitTimes.record(task.startNanos - task.dueNanos);
+        classStats.runTimes.record(System.nanoTime() - task.startNanos);
+    }
+
+    /** Flags the running tasks that have run for at least the threshold, returning those not flagged before */
+    final List<RunningTask> findStuck(long thresholdNanos) {
+        List<RunningTask> found = new ArrayList<RunningTask>(0);
+        long now = System.nanoTime();
+        for (RunningTask task : running) {
+            if (!task.stuck && now - task.startNanos >= thresholdNanos) {
+                task.stuck = true;
+                stuck.incrementAndGet();
+                found.add(task);
+            }
+        }
+        return found;
+    }
+
+    /** Sums the wait times of all task classes, as the number recorded and their total in nanoseconds */
+    final long[] getWaitTotals() {
+        long count = 0;
+        long total = 0;
+        for (ClassStats classStats : stats.values()) {
+            count += classStats.waitTimes.count.get();
+            total += classStats.waitTimes.total.get();
+        }
+        return new long[]{count, total};
+    }
+
+    /**
+     * Gets the statistics of each task class that has run
+     *
+     * @return list of statistics per task class
+     */
+    public final List<ClassStats> getClassStats() {
+        return new ArrayList<ClassStats>(stats.values());
+    }
+
+    /**
+     * Gets the statistics of a task class
+     *
+     * @param taskClass
+     *         the class of the task
+     *
+     * @return the statistics or {@code null} if no task of the class has run
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code taskClass} is null
+     */
+    public final ClassStats getClassStats(Class<?> taskClass) {
+        notNull(taskClass, "Class taskClass");
+        return stats.get(taskClass);
+    }
+
+    /**
+     * Gets the tasks currently running
+     *
+     * @return list of the running tasks
+     */
+    public final List<RunningTask> getRunningTasks() {
+        return new ArrayList<RunningTask>(running);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final long getExecutionCount() {
+        long count = 0;
+        for (ClassStats classStats : stats.values()) {
+            count += classStats.getExecutionCount();
+        }
+        return count;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final long getFailureCount() {
+        long count = 0;
+        for (ClassStats classStats : stats.values()) {
+            count += classStats.getFailureCount();
+        }
+        return count;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final int getRunningCount() {
+        return running.size();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final long getStuckCount() {
+        return stuck.get();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final String[] getTaskClassSummaries() {
+        List<ClassStats> all = getClassStats();
+        String[] summaries = new String[all.size()];
+        for (int index = 0; index < summaries.length; index++) {
+            summaries[index] = all.get(index).toString();
+        }
+        return summaries;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final String[] getRunningTaskSummaries() {
+        List<RunningTask> all = getRunningTasks();
+        String[] summaries = new String[all.size()];
+        for (int index = 0; index < summaries.length; index++) {
+            summaries[index] = all.get(index).toString();
+        }
+        return summaries;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void reset() {
+        stats.clear();
+    }
+
+    /**
+     * Returns a string representation of the {@code TaskMetrics} as {@code TaskMetrics[Classes=%d, Executions=%d, Failures=%d, Running=%d]}
+     *
+     * @return string representation of the {@code TaskMetrics}
+     */
+    @Override
+    public final String toString() {
+        return String.format("TaskMetrics[Classes=%d, Executions=%d, Failures=%d, Running=%d]", stats.size(), getExecutionCount(), getFailureCount(), getRunningCount());
+    }
+
+    /**
+     * Gets this class's version number
+     *
+     * @return the class version
+     */
+    public static float getClassVersion() {
+        return classVersion;
+    }
+
+    /** Statistics of the tasks of one class */
+    public static final class ClassStats {
+        private final Class<?> taskClass;
+        private final AtomicLong executions = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+        private final Histogram waitTimes = new Histogram();
+        private final Histogram runTimes = new Histogram();
+
+        ClassStats(Class<?> taskClass) {
+            this.taskClass = taskClass;
+        }
+
+        /**
+         * Gets the class of the tasks
+         *
+         * @return the task class
+         */
+        public final Class<?> getTaskClass() {
+            return taskClass;
+        }
+
+        /**
+         * Gets the number of times tasks of the class have run
+         *
+         * @return the execution count
+         */
+        public final long getExecutionCount() {
+            return executions.get();
+        }
+
+        /**
+         * Gets the number of times tasks of the class have thrown an exception
+         *
+         * @return the failure count
+         */
+        public final long getFailureCount() {
+            return failures.get();
+        }
+
+        /**
+         * Gets the times between when the tasks were due to run and when they started
+         *
+         * @return the histogram of queue wait times
+         */
+        public final Histogram getWaitTimes() {
+            return waitTimes;
+        }
+
+        /**
+         * Gets the times the tasks took to run
+         *
+         * @return the histogram of run times
+         */
+        public final Histogram getRunTimes() {
+            return runTimes;
+        }
+
+        /**
+         * Returns a string representation of the {@code ClassStats} as {@code ClassStats[Class=%s, Executions=%d, Failures=%d, Wait=%s, Run=%s]}
+         *
+         * @return string representation of the {@code ClassStats}
+         */
+        @Override
+        public final String toString() {
+            return String.format("ClassStats[Class=%s, Executions=%d, Failures=%d, Wait=%s, Run=%s]", taskClass.getName(), getExecutionCount(), getFailureCount(), waitTimes, runTimes);
+        }
+    }
+
+    /** A task that is currently running */
+    public static final class RunningTask {
+        private final Class<?> taskClass;
+        private final Thread thread;
+        private final long startMillis;
+        private final long startNanos;
+        private final long dueNanos;
+        /** Whether the watchdog of the pool has logged the task as stuck */
+        private volatile boolean stuck;
+
+        RunningTask(Class<?> taskClass, long startNanos, long dueNanos) {
+            this.taskClass = taskClass;
+            this.thread = Thread.currentThread();
+            this.startMillis = System.currentTimeMillis();
+            this.startNanos = startNanos;
+            this.dueNanos = dueNanos;
+        }
+
+        /**
+         * Gets the class of the task
+         *
+         * @return the task class
+         */
+        public final Class<?> getTaskClass() {
+            return taskClass;
+        }
+
+        /**
+         * Gets the thread running the task
+         *
+         * @return the running thread
+         */
+        public final Thread getThread() {
+            return thread;
+        }
+
+        /**
+         * Gets the time the task started, in milliseconds since the epoch
+         *
+         * @return the start time
+         */
+        public final long getStartTime() {
+            return startMillis;
+        }
+
+        /**
+         * Checks if the task has run longer than the watchdog threshold of its pool
+         *
+         * @return {@code true} if stuck; {@code false} otherwise
+         */
+        public final boolean isStuck() {
+            return stuck;
+        }
+
+        /**
+         * Gets how long the task has been running
+         *
+         * @param unit
+         *         the {@link TimeUnit} to get the time in
+         *
+         * @return the running time
+         */
+        public final long getRunningTime(TimeUnit unit) {
+            return unit.convert(System.nanoTime() - startNanos, NANOSECONDS);
+        }
+
+        /**
+         * Returns a string representation of the {@code RunningTask} as {@code RunningTask[Class=%s, Thread=%s, Started=%d, RunningMillis=%d]}
+         *
+         * @return string representation of the {@code RunningTask}
+         */
+        @Override
+        public final String toString() {
+            return String.format("RunningTask[Class=%s, Thread=%s, Started=%d, RunningMillis=%d]", taskClass.getName(), thread.getName(), startMillis, getRunningTime(MILLISECONDS));
+        }
+    }
+
+    /**
+     * A lock free histogram of times in nanoseconds
+     * <p/>
+     * Times are counted in buckets by the power of two of their nanoseconds,
+     * so recording is a few atomic increments and percentiles are accurate to within a factor of two.
+     */
+    public static final class Histogram {
+        private final AtomicLongArray buckets = new AtomicLongArray(64);
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong total = new AtomicLong();
+        private final AtomicLong max = new AtomicLong();
+
+        Histogram() {
+        }
+
+        final void record(long nanos) {
+            if (nanos < 0) {
+                nanos = 0; // Tasks started before they were due, such as timing wheel ticks
+            }
+            buckets.incrementAndGet(64 - Long.numberOfLeadingZeros(nanos) - (nanos == 0 ? 0 : 1));
+            count.incrementAndGet();
+            total.addAndGet(nanos);
+            long current;
+            while (nanos > (current = max.get()) && !max.compareAndSet(current, nanos)) {
+                // Retry until the max is at least this time
+            }
+        }
+
+        /**
+         * Gets the number of times recorded
+         *
+         * @return the count
+         */
+        public final long getCount() {
+            return count.get();
+        }
+
+        /**
+         * Gets the mean of the times recorded
+         *
+         * @param unit
+         *         the {@link TimeUnit} to get the time in
+         *
+         * @return the mean time
+         */
+        public final long getMean(TimeUnit unit) {
+            long recorded = count.get();
+            return recorded == 0 ? 0 : unit.convert(total.get() / recorded, NANOSECONDS);
+        }
+
+        /**
+         * Gets the longest time recorded
+         *
+         * @param unit
+         *         the {@link TimeUnit} to get the time in
+         *
+         * @return the max time
+         */
+        public final long getMax(TimeUnit unit) {
+            return unit.convert(max.get(), NANOSECONDS);
+        }
+
+        /**
+         * Gets the upper bound of the time under which a percentage of the recorded times fall
+         *
+         * @param percentile
+         *         the percentile, from 0 to 100
+         * @param unit
+         *         the {@link TimeUnit} to get the time in
+         *
+         * @return the percentile time
+         *
+         * @throws java.lang.IllegalArgumentException
+         *         if {@code percentile} is less than zero or greater than 100
+         */
+        public final long getPercentile(double percentile, TimeUnit unit) {
+            if (percentile < 0 || percentile > 100) {
+                throw new IllegalArgumentException(Verify.parse("num.percentile.range", String.valueOf(percentile)));
+            }
+            long recorded = count.get();
+            long target = (long)Math.ceil(recorded * percentile / 100);
+            long seen = 0;
+            for (int index = 0; index < 64; index++) {
+                seen += buckets.get(index);
+                if (seen >= target && seen > 0) {
+                    long bound = index >= 62 ? Long.MAX_VALUE : (1L << (index + 1)) - 1;
+                    return unit.convert(Math.min(bound, max.get()), NANOSECONDS);
+                }
+            }
+            return 0;
+        }
+
+        /**
+         * Returns a string representation of the {@code Histogram} as {@code Histogram[Count=%d, MeanMicros=%d, P99Micros=%d, MaxMicros=%d]}
+         *
+         * @return string representation of the {@code Histogram}
+         */
+        @Override
+        public final String toString() {
+            return String.format("Histogram[Count=%d, MeanMicros=%d, P99Micros=%d, MaxMicros=%d]", getCount(), getMean(TimeUnit.MICROSECONDS), getPercentile(99, TimeUnit.MICROSECONDS), getMax(TimeUnit.MICROSECONDS));
+        }
+    }
+}
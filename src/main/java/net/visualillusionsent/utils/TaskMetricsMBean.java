@@ -0,0 +1,73 @@
+/*
+ * This file is part of VIUtils.
+ *
+ * Copyright © 2012-2015 Visual Illusions Entertainment
+ *
+ * VIUtils is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this library.
+ * If not, see http://www.gnu.org/licenses/lgpl.html.
+ */
+package net.visualillusionsent.utils;
+
+/**
+ * Management interface of {@link TaskMetrics} for JMX
+ *
+ * @author Jason (darkdiplomat)
+ * @version 1.0
+ * @since 1.4.3
+ */
+public interface TaskMetricsMBean {
+
+    /**
+     * Gets the number of tasks that have run
+     *
+     * @return the execution count
+     */
+    long getExecutionCount();
+
+    /**
+     * Gets the number of tasks that have thrown an exception
+     *
+     * @return the failure count
+     */
+    long getFailureCount();
+
+    /**
+     * Gets the number of tasks currently running
+     *
+     * @return the running count
+     */
+    int getRunningCount();
+
+    /**
+     * Gets the number of tasks found running longer than the watchdog threshold of the pool
+     *
+     * @return the stuck count, always {@code 0} for pools without a watchdog
+     */
+    long getStuckCount();
+
+    /**
+     * Gets a summary line of the statistics of each task class
+     *
+     * @return the task class summaries
+     */
+    String[] getTaskClassSummaries();
+
+    /**
+     * Gets a summary line of each running task, including its start time
+     *
+     * @return the running task summaries
+     */
+    String[] getRunningTaskSummaries();
+
+    /** Clears the statistics of all task classes */
+    void reset();
+}
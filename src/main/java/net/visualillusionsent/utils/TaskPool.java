@@ -0,0 +1,2979 @@
+/*
+ * This file is part of VIUtils.
+ *
+ * Copyright © 2012-2015 Visual Illusions Entertainment
+ *
+ * VIUtils is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this library.
+ * If not, see http://www.gnu.org/licenses/lgpl.html.
+ */
+package net.visualillusionsent.utils;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.RunnableScheduledFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static net.visualillusionsent.utils.Verify.notNegative;
+import static net.visualillusionsent.utils.Verify.notNegativeOrZero;
+import static net.visualillusionsent.utils.Verify.notNull;
+import static net.visualillusionsent.utils.Verify.notOutOfRange;
+
+/**
+ * Task Pool
+ * <p/>
+ * A named Thread Pool for executing immediate, delayed and continuous tasks.<br>
+ * Pools are created with a {@link Builder}, so each subsystem may size its own pool for the work it does,
+ * such as a small pool for blocking I/O and a pool matching the processor count for CPU bound work.
+ * The static methods of {@link TaskManager} use a default pool of 8 threads.
+ * <p/>
+ * Delayed and continued tasks are tracked until they complete. Each tracked task removes itself from tracking
+ * and reports any exception it threw at the moment it completes or is cancelled, so no periodic scan of the tasks is needed.
+ * Scheduling returns a {@link TaskHandle}, which cancels its own scheduling directly. Cancelled tasks are left in the queue of
+ * the scheduler until they are due rather than purging the queue; {@link #purge()} removes them on demand.
+ * <p/>
+ * Pools expecting very large numbers of pending delayed tasks may hold them in a hashed timing wheel,
+ * set with {@link Builder#timingWheel(long, TimeUnit, int)}, which schedules and cancels in constant time
+ * at the cost of running tasks on tick boundaries.
+ * <p/>
+ * Pools built with {@link Builder#workStealing(int)} run immediate tasks on a work stealing ForkJoinPool when the runtime has one,
+ * rather than through the delay queue of the scheduler, and delayed tasks are handed off to it when they are due.
+ * On runtimes without a ForkJoinPool a plain ThreadPoolExecutor is used instead.
+ * <p/>
+ * Pools built with {@link Builder#metrics(boolean)} keep {@link TaskMetrics} of the tasks they run,
+ * and pools built with {@link Builder#watchdog(long, TimeUnit)} log the stacks of tasks that run too long.
+ * Tasks submitted with a timeout are interrupted once they run past it. Pools built with
+ * {@link Builder#autoscale(int, int, long, long, TimeUnit)} size the executor of their immediate tasks by how long tasks wait in its queue.
+ * <p/>
+ * Immediate tasks may be submitted to a {@link TaskLane}. Each lane set up with {@link Builder#lane(TaskLane, int, int)}
+ * has its own threads, queue and thread priority, so blocking I/O cannot hold up latency sensitive or CPU bound tasks.
+ * A lane set up with {@link Builder#virtualLane(TaskLane, int)} runs each task on a virtual thread where the runtime has them,
+ * with a limit on how many run at once.
+ * <p/>
+ * Pools built with {@link Builder#boundedQueue(int, Backpressure)} bound the queues of their immediate tasks and lanes,
+ * applying a {@link Backpressure} policy once a queue is full. {@code trySubmit} never applies the policy,
+ * instead returning {@code null} so callers can tell the pool is saturated.
+ * <p/>
+ * {@link #shutdown(long, TimeUnit, ShutdownPolicy)} shuts a pool down gracefully, running or dropping the tasks that have not started
+ * by a {@link ShutdownPolicy} and reporting what was dropped once the pool terminates or the timeout passes.
+ * The futures of dropped tasks are cancelled, so nothing is left waiting on a task that will never run.
+ *
+ * @author Jason (darkdiplomat)
+ * @version 1.0
+ * @since 1.4.3
+ */
+public final class TaskPool {
+
+    /* 1.0 @ VIUtils 1.4.3 */
+    private static final float classVersion = 1.0F;
+    /** The name of the pool */
+    private final String name;
+    /** The ThreadPool object */
+    private final PoolExecutor threadPool;
+    /** The Map of Tasks to their latest scheduling, for removal by task */
+    private final ConcurrentHashMap<Task, TrackedFuture<?>> tasks;
+    /** The pending runs of debounced and coalesced keys */
+    private final ConcurrentHashMap<Object, KeyedRun> debounced = new ConcurrentHashMap<Object, KeyedRun>();
+    private final ConcurrentHashMap<Object, KeyedRun> coalesced = new ConcurrentHashMap<Object, KeyedRun>();
+    /** The tasks scheduled at a fixed rate or by cron that are still running */
+    private final Set<TaskHandle<?>> recurring = Collections.newSetFromMap(new ConcurrentHashMap<TaskHandle<?>, Boolean>());
+    /** The submissions held back by a {@link RateLimiter} that have not started */
+    private final Set<TaskPromise<?>> deferred = Collections.newSetFromMap(new ConcurrentHashMap<TaskPromise<?>, Boolean>());
+    /** The number of tasks being tracked */
+    private final AtomicInteger tracked = new AtomicInteger();
+    /** The source of handle ids */
+    private final AtomicLong handleIds = new AtomicLong();
+    /** The TimingWheel for delayed tasks, null if delayed tasks use the ThreadPool */
+    private final TimingWheel timingWheel;
+    /** The executor of immediate tasks, the ThreadPool itself unless work stealing or bounded */
+    private final ExecutorService immediate;
+    /** The handler of full bounded queues, null if the queues are unbounded */
+    private final BackpressureHandler backpressure;
+    /** The number of threads running immediate tasks, which is the most drainers a batch needs */
+    private final int parallelism;
+    /** The executors of the lanes that were set up */
+    private final EnumMap<TaskLane, ExecutorService> lanes = new EnumMap<TaskLane, ExecutorService>(TaskLane.class);
+    /** The metrics of the tasks, null if not kept */
+    private final TaskMetrics metrics;
+    /** The thread watching for stuck tasks, null if not watched */
+    private final Thread watchdog;
+    /** The autoscaler of the immediate tasks' executor and its sampling thread, null if not autoscaled */
+    private final TaskAutoscaler autoscaler;
+    private final Thread autoscaling;
+    /** The JMX names of the metrics and the autoscaler, null if not registered */
+    private ObjectName metricsName;
+    private ObjectName autoscalerName;
+
+    private TaskPool(Builder builder) {
+        this.name = builder.name;
+        ThreadFactory factory = builder.threadFactory != null ? builder.threadFactory : new PoolThreadFactory(name, builder.daemon, Thread.NORM_PRIORITY, null);
+        threadPool = new PoolExecutor(builder.coreSize, factory, builder.rejectionHandler); // Set the max number of core idle threads
+        threadPool.setKeepAliveTime(builder.keepAlive, builder.keepAliveUnit); // How long to keep idle threads alive
+        threadPool.allowCoreThreadTimeOut(builder.coreTimeOut); // Allow the core threads to time out
+        threadPool.setContinueExistingPeriodicTasksAfterShutdownPolicy(false); //Don't execute anything after shutdown
+        threadPool.setExecuteExistingDelayedTasksAfterShutdownPolicy(true); // Keeps the queued immediate tasks, which Java 8 drops along with the delayed ones; shutting down takes the delayed ones off itself
+        tasks = new ConcurrentHashMap<Task, TrackedFuture<?>>(); // Create the map for Task tracking
+        parallelism = builder.parallelism > 0 ? builder.parallelism : builder.coreSize;
+        backpressure = builder.capacity > 0 ? new BackpressureHandler(builder.backpressure, builder.blockTimeoutNanos) : null;
+        immediate = builder.parallelism > 0 || backpressure != null ? newImmediateExecutor(builder) : threadPool;
+        for (Map.Entry<TaskLane, Integer> lane : builder.virtualLanes.entrySet()) {
+            VirtualLane virtualLane = VirtualLane.create(name.concat("-").concat(lane.getKey().name().toLowerCase()).concat("-"), lane.getValue());
+            if (virtualLane != null) { // Otherwise the lane falls back to its platform threads, if it has any
+                lanes.put(lane.getKey(), virtualLane);
+            }
+        }
+        for (Map.Entry<TaskLane, int[]> lane : builder.lanes.entrySet()) {
+            TaskLane key = lane.getKey();
+            if (lanes.containsKey(key)) {
+                continue; // Running on virtual threads
+            }
+            ThreadFactory laneFactory = new PoolThreadFactory(name.concat("-").concat(key.name().toLowerCase()), builder.daemon, lane.getValue()[1], builder.threadFactory);
+            lanes.put(key, newExecutor(builder, lane.getValue()[0], laneFactory));
+        }
+        timingWheel = builder.wheelTick > 0 ? new TimingWheel(builder.wheelTick, builder.wheelTickUnit, builder.wheelSize, isWorkStealing() ? immediate : threadPool, new PoolThreadFactory(name.concat("-wheel"), true, Thread.NORM_PRIORITY, null)) : null;
+        metrics = builder.metrics || builder.watchdogNanos > 0 || builder.maxSize > 0 ? new TaskMetrics() : null; // The watchdog and autoscaler read the metrics
+        if (metrics != null) {
+            try {
+                metricsName = new ObjectName("net.visualillusionsent.utils:type=TaskPool,name=".concat(ObjectName.quote(name)));
+                ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, metricsName);
+            }
+            catch (Exception ex) { // Metrics still work without JMX, such as for pools sharing a name
+                UtilsLogger.warning("Failed to register TaskMetrics for TaskPool: ".concat(name), ex);
+                metricsName = null;
+            }
+        }
+        if (builder.watchdogNanos > 0) {
+            watchdog = new PoolThreadFactory(name.concat("-watchdog"), true, Thread.NORM_PRIORITY, null).newThread(new Watchdog(builder.watchdogNanos));
+            watchdog.start();
+        }
+        else {
+            watchdog = null;
+        }
+        ExecutorService scaled = immediate instanceof StealingExecutor ? ((StealingExecutor)immediate).getPool() : immediate;
+        autoscaler = builder.maxSize > 0 ? TaskAutoscaler.create(scaled, metrics, builder.minSize, builder.maxSize, builder.targetWaitNanos, builder.sampleNanos) : null;
+        if (autoscaler != null) {
+            try {
+                autoscalerName = new ObjectName("net.visualillusionsent.utils:type=TaskPool,name=".concat(ObjectName.quote(name)).concat(",component=Autoscaler"));
+                ManagementFactory.getPlatformMBeanServer().registerMBean(autoscaler, autoscalerName);
+            }
+            catch (Exception ex) {
+                UtilsLogger.warning("Failed to register TaskAutoscaler for TaskPool: ".concat(name), ex);
+                autoscalerName = null;
+            }
+            autoscaling = new PoolThreadFactory(name.concat("-autoscaler"), true, Thread.NORM_PRIORITY, null).newThread(autoscaler.sampler());
+            autoscaling.start();
+        }
+        else {
+            if (builder.maxSize > 0) { // Keeps the size it was built with
+                UtilsLogger.warning("TaskPool: ".concat(name).concat(" can't resize its executor on this runtime, so it won't be autoscaled"));
+            }
+            autoscaling = null;
+        }
+    }
+
+    private ExecutorService newImmediateExecutor(Builder builder) {
+        // A ForkJoinPool can't bound its queues or run on threads of a custom factory, so those pools always use a ThreadPoolExecutor
+        if (backpressure == null && builder.threadFactory == null) {
+            try { // ForkJoinPool is Java 7+, so it is looked up to keep Java 6 support
+                Class<?> forkJoinPool = Class.forName("java.util.concurrent.ForkJoinPool");
+                Class<?> factoryClass = Class.forName("java.util.concurrent.ForkJoinPool$ForkJoinWorkerThreadFactory");
+                Object factory = Proxy.newProxyInstance(factoryClass.getClassLoader(), new Class<?>[]{ factoryClass },
+                        new WorkerThreadFactory(forkJoinPool.getField("defaultForkJoinWorkerThreadFactory").get(null), factoryClass.getMethod("newThread", forkJoinPool),
+                                builder.name.concat("-worker"), builder.daemon));
+                // Async mode gives FIFO order for tasks that are never joined
+                return new StealingExecutor((ExecutorService)forkJoinPool.getConstructor(int.class, factoryClass, Thread.UncaughtExceptionHandler.class, boolean.class).newInstance(builder.parallelism, factory, null, true));
+            }
+            catch (Exception ex) {
+                // Fall back to a ThreadPoolExecutor
+            }
+        }
+        ThreadFactory factory = builder.threadFactory != null ? builder.threadFactory : new PoolThreadFactory(builder.name.concat("-worker"), builder.daemon, Thread.NORM_PRIORITY, null);
+        return newExecutor(builder, parallelism, factory);
+    }
+
+    private ThreadPoolExecutor newExecutor(Builder builder, int threads, ThreadFactory factory) {
+        BlockingQueue<Runnable> queue = backpressure != null ? new ArrayBlockingQueue<Runnable>(builder.capacity) : new LinkedBlockingQueue<Runnable>();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, builder.keepAlive, builder.keepAliveUnit, queue, factory, backpressure != null ? backpressure : builder.rejectionHandler);
+        executor.allowCoreThreadTimeOut(builder.coreTimeOut);
+        return executor;
+    }
+
+    /**
+     * Creates a new {@link Builder} for a {@code TaskPool}
+     *
+     * @param name
+     *         the name of the pool, used to name its threads
+     *
+     * @return a new Builder
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code name} is null
+     */
+    public static Builder builder(String name) {
+        return new Builder(name);
+    }
+
+    /**
+     * Executes a {@link Runnable} task immediately
+     *
+     * @param task
+     *         the {@link Runnable} task to execute
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code task} is null
+     * @throws RejectedExecutionException
+     *         at discretion of <tt>RejectedExecutionHandler</tt>, if task cannot be accepted
+     *         for execution because the executor has been shut down.
+     */
+    public final void executeTask(Runnable task) throws RejectedExecutionException {
+        notNull(task, "Runnable task");
+        immediate.execute(metered(task));
+    }
+
+    /**
+     * Submits a {@link Runnable} task to be executed. Execution may not happen immediately depending on the queued tasks
+     *
+     * @param task
+     *         the {@link Runnable} task to execute
+     *
+     * @return a {@link TaskFuture} representing pending completion of the task
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code task} is null
+     * @throws RejectedExecutionException
+     *         at discretion of <tt>RejectedExecutionHandler</tt>, if task cannot be accepted
+     *         for execution because the executor has been shut down.
+     */
+    public final TaskFuture<?> submitTask(Runnable task) throws RejectedExecutionException {
+        notNull(task, "Runnable task");
+        return submit(immediate, new TaskPromise<Object>(metered(task), null));
+    }
+
+    /**
+     * Submits a {@link Callable} task to be executed. Execution may not happen immediately depending on the queued tasks
+     *
+     * @param task
+     *         the {@link Callable} task to execute
+     *
+     * @return a {@link TaskFuture} representing pending completion of the task
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code task} is null
+     * @throws RejectedExecutionException
+     *         at discretion of <tt>RejectedExecutionHandler</tt>, if task cannot be accepted
+     *         for execution because the executor has been shut down.
+     */
+    public final <V> TaskFuture<V> submitTask(Callable<V> task) throws RejectedExecutionException {
+        notNull(task, "Callable task");
+        return submit(immediate, new TaskPromise<V>(metered(task)));
+    }
+
+    /**
+     * Executes a {@link Runnable} task immediately in a {@link TaskLane}
+     *
+     * @param lane
+     *         the {@link TaskLane} to run the task in
+     * @param task
+     *         the {@link Runnable} task to execute
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code lane} or {@code task} is null
+     * @throws RejectedExecutionException
+     *         at discretion of <tt>RejectedExecutionHandler</tt>, if task cannot be accepted
+     *         for execution because the executor has been shut down.
+     */
+    public final void executeTask(TaskLane lane, Runnable task) throws RejectedExecutionException {
+        notNull(task, "Runnable task");
+        executorOf(lane).execute(metered(task));
+    }
+
+    /**
+     * Submits a {@link Runnable} task to be executed in a {@link TaskLane}
+     *
+     * @param lane
+     *         the {@link TaskLane} to run the task in
+     * @param task
+     *         the {@link Runnable} task to execute
+     *
+     * @return a {@link TaskFuture} representing pending completion of the task
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code lane} or {@code task} is null
+     * @throws RejectedExecutionException
+     *         at discretion of <tt>RejectedExecutionHandler</tt>, if task cannot be accepted
+     *         for execution because the executor has been shut down.
+     */
+    public final TaskFuture<?> submitTask(TaskLane lane, Runnable task) throws RejectedExecutionException {
+        notNull(task, "Runnable task");
+        return submit(executorOf(lane), new TaskPromise<Object>(metered(task), null));
+    }
+
+    /**
+     * Submits a {@link Callable} task to be executed in a {@link TaskLane}
+     *
+     * @param lane
+     *         the {@link TaskLane} to run the task in
+     * @param task
+     *         the {@link Callable} task to execute
+     *
+     * @return a {@link TaskFuture} representing pending completion of the task
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code lane} or {@code task} is null
+     * @throws RejectedExecutionException
+     *         at discretion of <tt>RejectedExecutionHandler</tt>, if task cannot be accepted
+     *         for execution because the executor has been shut down.
+     */
+    public final <V> TaskFuture<V> submitTask(TaskLane lane, Callable<V> task) throws RejectedExecutionException {
+        notNull(task, "Callable task");
+        return submit(executorOf(lane), new TaskPromise<V>(metered(task)));
+    }
+
+    /**
+     * Submits a {@link Runnable} task to be executed with a timeout on its execution<br>
+     * The timeout starts when the task starts running, not while it waits in the queue. A task still running once it passes
+     * is interrupted and its future fails with a {@link TimeoutException}, so a task hung on I/O gives its thread back
+     * as soon as it answers the interrupt.
+     * Timeouts are timed by the scheduler, so they fire late if every thread of the scheduler is busy.
+     *
+     * @param task
+     *         the {@link Runnable} task to execute
+     * @param timeout
+     *         the longest time the task may run
+     * @param timeUnit
+     *         the {@link TimeUnit} of the timeout
+     *
+     * @return a {@link TaskFuture} representing pending completion of the task
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code task} or {@code timeUnit} is null
+     * @throws java.lang.IllegalArgumentException
+     *         if {@code timeout} is equal to or less than zero
+     * @throws RejectedExecutionException
+     *         at discretion of <tt>RejectedExecutionHandler</tt>, if task cannot be accepted
+     *         for execution because the executor has been shut down.
+     */
+    public final TaskFuture<?> submitTask(Runnable task, long timeout, TimeUnit timeUnit) throws RejectedExecutionException {
+        notNull(task, "Runnable task");
+        return submit(immediate, new TimedSubmission<Object>(metered(task), null, timeoutNanos(timeout, timeUnit)));
+    }
+
+    /**
+     * Submits a {@link Callable} task to be executed with a timeout on its execution
+     *
+     * @param task
+     *         the {@link Callable} task to execute
+     * @param timeout
+     *         the longest time the task may run
+     * @param timeUnit
+     *         the {@link TimeUnit} of the timeout
+     *
+     * @return a {@link TaskFuture} representing pending completion of the task
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code task} or {@code timeUnit} is null
+     * @throws java.lang.IllegalArgumentException
+     *         if {@code timeout} is equal to or less than zero
+     * @throws RejectedExecutionException
+     *         at discretion of <tt>RejectedExecutionHandler</tt>, if task cannot be accepted
+     *         for execution because the executor has been shut down.
+     * @see #submitTask(Runnable, long, TimeUnit)
+     */
+    public final <V> TaskFuture<V> submitTask(Callable<V> task, long timeout, TimeUnit timeUnit) throws RejectedExecutionException {
+        notNull(task, "Callable task");
+        return submit(immediate, new TimedSubmission<V>(metered(task), timeoutNanos(timeout, timeUnit)));
+    }
+
+    /**
+     * Submits a {@link Runnable} task to be executed in a {@link TaskLane} with a timeout on its execution
+     *
+     * @param lane
+     *         the {@link TaskLane} to run the task in
+     * @param task
+     *         the {@link Runnable} task to execute
+     * @param timeout
+     *         the longest time the task may run
+     * @param timeUnit
+     *         the {@link TimeUnit} of the timeout
+     *
+     * @return a {@link TaskFuture} representing pending completion of the task
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code lane}, {@code task} or {@code timeUnit} is null
+     * @throws java.lang.IllegalArgumentException
+     *         if {@code timeout} is equal to or less than zero
+     * @throws RejectedExecutionException
+     *         at discretion of <tt>RejectedExecutionHandler</tt>, if task cannot be accepted
+     *         for execution because the executor has been shut down.
+     * @see #submitTask(Runnable, long, TimeUnit)
+     */
+    public final TaskFuture<?> submitTask(TaskLane lane, Runnable task, long timeout, TimeUnit timeUnit) throws RejectedExecutionException {
+        notNull(task, "Runnable task");
+        return submit(executorOf(lane), new TimedSubmission<Object>(metered(task), null, timeoutNanos(timeout, timeUnit)));
+    }
+
+    /**
+     * Submits a {@link Callable} task to be executed in a {@link TaskLane} with a timeout on its execution
+     *
+     * @param lane
+     *         the {@link TaskLane} to run the task in
+     * @param task
+     *         the {@link Callable} task to execute
+     * @param timeout
+     *         the longest time the task may run
+     * @param timeUnit
+     *         the {@link TimeUnit} of the timeout
+     *
+     * @return a {@link TaskFuture} representing pending completion of the task
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code lane}, {@code task} or {@code timeUnit} is null
+     * @throws java.lang.IllegalArgumentException
+     *         if {@code timeout} is equal to or less than zero
+     * @throws RejectedExecutionException
+     *         at discretion of <tt>RejectedExecutionHandler</tt>, if task cannot be accepted
+     *         for execution because the executor has been shut down.
+     * @see #submitTask(Runnable, long, TimeUnit)
+     */
+    public final <V> TaskFuture<V> submitTask(TaskLane lane, Callable<V> task, long timeout, TimeUnit timeUnit) throws RejectedExecutionException {
+        notNull(task, "Callable task");
+        return submit(executorOf(lane), new TimedSubmission<V>(metered(task), timeoutNanos(timeout, timeUnit)));
+    }
+
+    private static long timeoutNanos(long timeout, TimeUnit timeUnit) {
+        notNegativeOrZero(timeout, "long timeout");
+        notNull(timeUnit, "TimeUnit timeUnit");
+        return timeUnit.toNanos(timeout);
+    }
+
+    /**
+     * Submits a {@link Runnable} task to be executed once a {@link RateLimiter} hands out a permit for it<br>
+     * Tasks over the rate are deferred through the scheduler until their permit is due, rather than holding a thread.
+     * Like delayed tasks, deferred tasks are dropped if the pool shuts down first.
+     *
+     * @param limiter
+     *         the {@link RateLimiter} gating the task
+     * @param task
+     *         the {@link Runnable} task to execute
+     *
+     * @return a {@link TaskFuture} representing pending completion of the task
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code limiter} or {@code task} is null
+     * @throws RejectedExecutionException
+     *         at discretion of <tt>RejectedExecutionHandler</tt>, if task cannot be accepted
+     *         for execution because the executor has been shut down.
+     */
+    public final TaskFuture<?> submitTask(RateLimiter limiter, Runnable task) throws RejectedExecutionException {
+        notNull(limiter, "RateLimiter limiter");
+        notNull(task, "Runnable task");
+        long wait = limiter.reserveNanos();
+        return submitAfter(wait, new TaskPromise<Object>(metered(task, wait), null));
+    }
+
+    /**
+     * Submits a {@link Callable} task to be executed once a {@link RateLimiter} hands out a permit for it<br>
+     * Tasks over the rate are deferred through the scheduler until their permit is due, rather than holding a thread.
+     * Like delayed tasks, deferred tasks are dropped if the pool shuts down first.
+     *
+     * @param limiter
+     *         the {@link RateLimiter} gating the task
+     * @param task
+     *         the {@link Callable} task to execute
+     *
+     * @return a {@link TaskFuture} representing pending completion of the task
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code limiter} or {@code task} is null
+     * @throws RejectedExecutionException
+     *         at discretion of <tt>RejectedExecutionHandler</tt>, if task cannot be accepted
+     *         for execution because the executor has been shut down.
+     */
+    @SuppressWarnings("unchecked")
+    public final <V> TaskFuture<V> submitTask(RateLimiter limiter, Callable<V> task) throws RejectedExecutionException {
+        notNull(limiter, "RateLimiter limiter");
+        notNull(task, "Callable task");
+        long wait = limiter.reserveNanos();
+        return submitAfter(wait, new TaskPromise<V>(metered(task, wait)));
+    }
+
+    private <V> TaskFuture<V> submitAfter(long waitNanos, final TaskPromise<V> promise) {
+        if (waitNanos == 0) {
+            return submit(immediate, promise);
+        }
+        deferred.add(promise); // So a shutdown can run or drop it ahead of its permit
+        promise.whenComplete(new TaskFuture.Completion<V>() {
+            public void completed(V result, Throwable failure) {
+                deferred.remove(promise);
+            }
+        });
+        try {
+            if (immediate == threadPool) {
+                threadPool.schedule(promise, waitNanos, NANOSECONDS);
+            }
+            else {
+                threadPool.schedule(new Runnable() {
+                    public void run() {
+                        try {
+                            immediate.execute(promise);
+                        }
+                        catch (RejectedExecutionException rex) {
+                            promise.cancel(false);
+                        }
+                    }
+                }, waitNanos, NANOSECONDS);
+            }
+        }
+        catch (RejectedExecutionException rex) {
+            promise.cancel(false); // Leaves the deferred promises
+            throw rex;
+        }
+        return promise;
+    }
+
+    private <V> TaskFuture<V> submit(ExecutorService executor, TaskPromise<V> promise) {
+        executor.execute(promise);
+        return promise;
+    }
+
+    private ExecutorService executorOf(TaskLane lane) {
+        notNull(lane, "TaskLane lane");
+        ExecutorService executor = lanes.get(lane);
+        return executor != null ? executor : immediate;
+    }
+
+    /**
+     * Submits a {@link Runnable} task to be executed if the pool can accept it without applying its {@link Backpressure} policy
+     *
+     * @param task
+     *         the {@link Runnable} task to execute
+     *
+     * @return a {@link TaskFuture} representing pending completion of the task, or {@code null} if the queue is full or the pool is shut down
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code task} is null
+     */
+    public final TaskFuture<?> trySubmit(Runnable task) {
+        notNull(task, "Runnable task");
+        return offer(immediate, new TrySubmission<Object>(metered(task), null));
+    }
+
+    /**
+     * Submits a {@link Callable} task to be executed if the pool can accept it without applying its {@link Backpressure} policy
+     *
+     * @param task
+     *         the {@link Callable} task to execute
+     *
+     * @return a {@link TaskFuture} representing pending completion of the task, or {@code null} if the queue is full or the pool is shut down
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code task} is null
+     */
+    public final <V> TaskFuture<V> trySubmit(Callable<V> task) {
+        notNull(task, "Callable task");
+        return offer(immediate, new TrySubmission<V>(metered(task)));
+    }
+
+    /**
+     * Submits a {@link Runnable} task to be executed in a {@link TaskLane} if the lane can accept it without applying the {@link Backpressure} policy
+     *
+     * @param lane
+     *         the {@link TaskLane} to run the task in
+     * @param task
+     *         the {@link Runnable} task to execute
+     *
+     * @return a {@link TaskFuture} representing pending completion of the task, or {@code null} if the queue is full or the pool is shut down
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code lane} or {@code task} is null
+     */
+    public final TaskFuture<?> trySubmit(TaskLane lane, Runnable task) {
+        notNull(task, "Runnable task");
+        return offer(executorOf(lane), new TrySubmission<Object>(metered(task), null));
+    }
+
+    /**
+     * Submits a {@link Callable} task to be executed in a {@link TaskLane} if the lane can accept it without applying the {@link Backpressure} policy
+     *
+     * @param lane
+     *         the {@link TaskLane} to run the task in
+     * @param task
+     *         the {@link Callable} task to execute
+     *
+     * @return a {@link TaskFuture} representing pending completion of the task, or {@code null} if the queue is full or the pool is shut down
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code lane} or {@code task} is null
+     */
+    public final <V> TaskFuture<V> trySubmit(TaskLane lane, Callable<V> task) {
+        notNull(task, "Callable task");
+        return offer(executorOf(lane), new TrySubmission<V>(metered(task)));
+    }
+
+    /** Wraps a task to be metered if the pool keeps metrics */
+    final Runnable metered(Runnable task) {
+        return metered(task, 0);
+    }
+
+    /** Wraps a task to be metered if the pool keeps metrics, counting {@code waitNanos} it waited before being queued */
+    private Runnable metered(Runnable task, long waitNanos) {
+        return metrics == null ? task : new Task(task).metered(metrics, waitNanos);
+    }
+
+    /** Wraps a task to be metered if the pool keeps metrics */
+    final <V> Callable<V> metered(Callable<V> task) {
+        return metered(task, 0);
+    }
+
+    /** Wraps a task to be metered if the pool keeps metrics, counting {@code waitNanos} it waited before being queued */
+    @SuppressWarnings("unchecked")
+    private <V> Callable<V> metered(Callable<V> task, long waitNanos) {
+        return metrics == null ? task : (Callable<V>)(Callable<?>)new Task(task).metered(metrics, waitNanos);
+    }
+
+    /** Executes an internal task in a lane, or with the immediate tasks if {@code lane} is null, without metering it */
+    final void dispatch(TaskLane lane, Runnable task) {
+        (lane == null ? immediate : executorOf(lane)).execute(task);
+    }
+
+    private <V> TaskFuture<V> offer(ExecutorService executor, TrySubmission<V> submission) {
+        try {
+            executor.execute(submission);
+            return submission;
+        }
+        catch (RejectedExecutionException rex) {
+            return null;
+        }
+    }
+
+    /**
+     * Submits a batch of {@link Callable} tasks to be executed.<br>
+     * The batch is run by at most one drainer per thread, each taking the next task of the batch until none are left,
+     * rather than queueing every task on its own.
+     *
+     * @param tasks
+     *         the {@link Callable} tasks to execute
+     *
+     * @return a {@link BatchFuture} representing pending completion of the tasks
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code tasks} or any of its tasks is null
+     * @throws RejectedExecutionException
+     *         at discretion of <tt>RejectedExecutionHandler</tt>, if the batch cannot be accepted
+     *         for execution because the executor has been shut down.
+     */
+    public final <V> BatchFuture<V> submitAll(Collection<? extends Callable<V>> tasks) throws RejectedExecutionException {
+        notNull(tasks, "Collection tasks");
+
+        Callable<?>[] batch = tasks.toArray(new Callable<?>[tasks.size()]);
+        for (int index = 0; index < batch.length; index++) {
+            notNull(batch[index], "Callable task");
+            batch[index] = metered(batch[index]);
+        }
+        BatchFuture<V> future = new BatchFuture<V>(batch);
+        int drainers = Math.min(batch.length, parallelism);
+        for (int index = 0; index < drainers; index++) {
+            RunnableFuture<?> drainer = future.newDrainer();
+            try {
+                immediate.execute(drainer); // Queued as is, so a dropped drainer is cancelled and the batch still completes
+            }
+            catch (RejectedExecutionException rex) {
+                drainer.cancel(false);
+                if (index == 0) {
+                    throw rex;
+                }
+                break; // The queued drainers still run the whole batch
+            }
+        }
+        return future;
+    }
+
+    /**
+     * Submits a {@link TaskGraph} to be executed, each of its tasks starting once the tasks it depends on have succeeded
+     *
+     * @param graph
+     *         the {@link TaskGraph} to execute
+     *
+     * @return a {@link TaskFuture} of the results of the tasks by name, which fails with the first failure of a task
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code graph} is null
+     * @throws java.lang.IllegalArgumentException
+     *         if a task of the graph depends on an unknown task or the tasks depend on each other in a cycle
+     * @throws RejectedExecutionException
+     *         if the pool has been shut down
+     */
+    public final TaskFuture<Map<String, Object>> submitGraph(TaskGraph graph) throws RejectedExecutionException {
+        notNull(graph, "TaskGraph graph");
+        return graph.submit(this, null);
+    }
+
+    /**
+     * Submits a {@link TaskGraph} to be executed in a {@link TaskLane}, each of its tasks starting once the tasks it depends on have succeeded
+     *
+     * @param lane
+     *         the {@link TaskLane} to run the tasks in
+     * @param graph
+     *         the {@link TaskGraph} to execute
+     *
+     * @return a {@link TaskFuture} of the results of the tasks by name, which fails with the first failure of a task
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code lane} or {@code graph} is null
+     * @throws java.lang.IllegalArgumentException
+     *         if a task of the graph depends on an unknown task or the tasks depend on each other in a cycle
+     * @throws RejectedExecutionException
+     *         if the pool has been shut down
+     */
+    public final TaskFuture<Map<String, Object>> submitGraph(TaskLane lane, TaskGraph graph) throws RejectedExecutionException {
+        notNull(lane, "TaskLane lane");
+        notNull(graph, "TaskGraph graph");
+        return graph.submit(this, lane);
+    }
+
+    /**
+     * Executes a {@link Runnable} task after a delay in the specified {@link TimeUnit}
+     *
+     * @param task
+     *         the {@link Runnable} task to execute
+     * @param delay
+     *         the delay before execution
+     * @param timeUnit
+     *         the {@link TimeUnit} to use
+     *
+     * @return a TaskHandle representing pending completion of the task and whose get() method will return null upon completion
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code task} or {@code timeUnit} is null
+     * @throws java.lang.IllegalArgumentException
+     *         if the {@code delay} is equal to or less than zero
+     * @throws RejectedExecutionException
+     *         at discretion of <tt>RejectedExecutionHandler</tt>, if task cannot be accepted
+     *         for execution because the executor has been shut down.
+     */
+    public final TaskHandle<?> scheduleDelayedTask(Runnable task, long delay, TimeUnit timeUnit) throws RejectedExecutionException {
+        notNull(task, "Runnable task");
+        notNegativeOrZero(delay, "Delay");
+        notNull(timeUnit, "TimeUnit timeUnit");
+
+        Task wrapped = newTracked(task, timeUnit.toNanos(delay));
+        if (timingWheel != null) {
+            return scheduleOnWheel(wrapped, delay, timeUnit);
+        }
+        return (TaskHandle<?>)threadPool.schedule((Runnable)wrapped, delay, timeUnit);
+    }
+
+    /**
+     * Executes a {@link Callable} task after a delay in the specified {@link TimeUnit}
+     *
+     * @param task
+     *         the {@link Callable} task to execute
+     * @param delay
+     *         the delay before execution
+     * @param timeUnit
+     *         the {@link TimeUnit} to use
+     *
+     * @return a TaskHandle representing pending completion of the task and whose get() method will return null upon completion
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code task} or {@code timeUnit} is null
+     * @throws java.lang.IllegalArgumentException
+     *         if the {@code delay} is equal to or less than zero
+     * @throws RejectedExecutionException
+     *         at discretion of <tt>RejectedExecutionHandler</tt>, if task cannot be accepted
+     *         for execution because the executor has been shut down.
+     */
+    @SuppressWarnings("unchecked")
+    public final <V> TaskHandle<V> scheduleDelayedTask(Callable<V> task, long delay, TimeUnit timeUnit) throws RejectedExecutionException {
+        notNull(task, "Callable task");
+        notNegativeOrZero(delay, "Delay");
+        notNull(timeUnit, "TimeUnit timeUnit");
+
+        Task wrapped = newTracked(task, timeUnit.toNanos(delay));
+        if (timingWheel != null) {
+            return (TaskHandle<V>)scheduleOnWheel(wrapped, delay, timeUnit);
+        }
+        return (TaskHandle<V>)threadPool.schedule((Callable<Object>)wrapped, delay, timeUnit);
+    }
+
+    private Task newTracked(Runnable task, long delayNanos) {
+        Task wrapped = new Task(task).tracked();
+        return metrics == null ? wrapped : wrapped.metered(metrics, delayNanos);
+    }
+
+    private Task newTracked(Callable<?> task, long delayNanos) {
+        Task wrapped = new Task(task).tracked();
+        return metrics == null ? wrapped : wrapped.metered(metrics, delayNanos);
+    }
+
+    private TaskHandle<Object> scheduleOnWheel(Task task, long delay, TimeUnit timeUnit) {
+        TimingWheel.Timeout<Object> timeout = timingWheel.newTimeout(task, delay, timeUnit);
+        TrackedFuture<Object> tracked = new TrackedFuture<Object>(task, timeout, false); // The wheel dispatches to an executor itself
+        try {
+            timingWheel.start(timeout, tracked);
+        }
+        catch (RejectedExecutionException rex) {
+            tracked.cancel(false);
+            throw rex;
+        }
+        return tracked;
+    }
+
+    /**
+     * Executes a {@link Runnable} task continually on a fixed delay in the specified TimeUnit
+     *
+     * @param task
+     *         the {@link Runnable} task to execute
+     * @param initialDelay
+     *         the delay before initial execution
+     * @param delay
+     *         the delay between additional executions
+     * @param timeUnit
+     *         the {@link TimeUnit} to use
+     *
+     * @return a TaskHandle representing pending completion of the task and whose get() method will throw an exception upon cancellation
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code task} is null
+     * @throws java.lang.IllegalArgumentException
+     *         if the {@code delay} is equal to or less than zero
+     * @throws RejectedExecutionException
+     *         at discretion of <tt>RejectedExecutionHandler</tt>, if task cannot be accepted
+     *         for execution because the executor has been shut down.
+     */
+    public final TaskHandle<?> scheduleContinuedTask(Runnable task, long initialDelay, long delay, TimeUnit timeUnit) throws RejectedExecutionException {
+        notNull(task, "Runnable task");
+        notNegativeOrZero(initialDelay, "long initialDelay");
+
+        return (TaskHandle<?>)threadPool.scheduleAtFixedRate(newTracked(task, timeUnit.toNanos(initialDelay)), initialDelay, delay, timeUnit);
+    }
+
+    /**
+     * Executes a {@link Runnable} task at a fixed rate, with each tick due a whole number of periods after the first<br>
+     * Deadlines are kept in {@link System#nanoTime()} and never drift with how late ticks start or how long they run.
+     * Ticks never overlap; when a tick runs past the deadline of the next, the {@link Overrun} policy decides what follows.
+     * The returned {@link RateHandle} measures the lag of each tick.
+     *
+     * @param task
+     *         the {@link Runnable} task to execute
+     * @param initialDelay
+     *         the delay before the first tick
+     * @param period
+     *         the time between the deadlines of ticks
+     * @param timeUnit
+     *         the {@link TimeUnit} to use
+     * @param overrun
+     *         the {@link Overrun} policy for ticks running late
+     *
+     * @return a RateHandle of the task, whose get() method will throw an exception upon cancellation or if a tick failed
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code task}, {@code timeUnit} or {@code overrun} is null
+     * @throws java.lang.IllegalArgumentException
+     *         if the {@code initialDelay} is less than zero, or {@code period} is equal to or less than zero
+     * @throws RejectedExecutionException
+     *         if the pool has been shut down
+     */
+    public final RateHandle scheduleAtRate(Runnable task, long initialDelay, long period, TimeUnit timeUnit, Overrun overrun) throws RejectedExecutionException {
+        notNull(task, "Runnable task");
+        notNegative(initialDelay, "long initialDelay");
+        notNegativeOrZero(period, "long period");
+        notNull(timeUnit, "TimeUnit timeUnit");
+        notNull(overrun, "Overrun overrun");
+        FixedRate rate = new FixedRate(task, System.nanoTime() + timeUnit.toNanos(initialDelay), timeUnit.toNanos(period), overrun);
+        rate.schedule();
+        return rate;
+    }
+
+    /**
+     * Executes a {@link Runnable} task at each fire time of a cron expression read in the default {@link java.util.TimeZone}
+     *
+     * @param task
+     *         the {@link Runnable} task to execute
+     * @param expression
+     *         the cron expression, as parsed by {@link CronExpression#parse(String)}
+     *
+     * @return a TaskHandle of the task, whose get() method will throw an exception upon cancellation or if a run failed
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code task} or {@code expression} is null
+     * @throws java.lang.IllegalArgumentException
+     *         if {@code expression} is empty, malformed or never fires
+     * @throws RejectedExecutionException
+     *         if the pool has been shut down
+     * @see #scheduleCron(Runnable, CronExpression)
+     */
+    public final TaskHandle<?> scheduleCron(Runnable task, String expression) throws RejectedExecutionException {
+        notNull(task, "Runnable task");
+        return scheduleCron(task, CronExpression.parse(expression));
+    }
+
+    /**
+     * Executes a {@link Runnable} task at each fire time of a {@link CronExpression}<br>
+     * The task reschedules itself on the scheduler for the next fire time, found from the fire time it ran for,
+     * so runs never drift. Fire times missed while a run overran are skipped, and runs never overlap.
+     * A run woken early because the system clock was set back waits for its fire time again.
+     *
+     * @param task
+     *         the {@link Runnable} task to execute
+     * @param cron
+     *         the {@link CronExpression} of the fire times
+     *
+     * @return a TaskHandle of the task, whose get() method will throw an exception upon cancellation or if a run failed
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code task} or {@code cron} is null
+     * @throws RejectedExecutionException
+     *         if the pool has been shut down
+     */
+    public final TaskHandle<?> scheduleCron(Runnable task, CronExpression cron) throws RejectedExecutionException {
+        notNull(task, "Runnable task");
+        notNull(cron, "CronExpression cron");
+        CronSchedule schedule = new CronSchedule(task, cron);
+        try {
+            schedule.schedule();
+        }
+        catch (RejectedExecutionException rex) {
+            schedule.cancel(false);
+            throw rex;
+        }
+        return schedule;
+    }
+
+    /**
+     * Executes a {@link Runnable} task once submissions for its key have stopped for a delay.<br>
+     * Each debounce of a key with a run pending replaces the task to run and restarts the delay,
+     * but the run is never put off more than four times the delay after the first debounce.
+     *
+     * @param key
+     *         the key of the logical task, such as the thing it updates
+     * @param task
+     *         the {@link Runnable} task to execute
+     * @param delay
+     *         the quiet time before execution
+     * @param timeUnit
+     *         the {@link TimeUnit} to use
+     *
+     * @return a {@link TaskFuture} of the run, shared by every debounce it collapsed
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code key}, {@code task} or {@code timeUnit} is null
+     * @throws java.lang.IllegalArgumentException
+     *         if the {@code delay} is equal to or less than zero
+     * @throws RejectedExecutionException
+     *         if the pool has been shut down
+     * @see #debounce(Object, Runnable, long, long, TimeUnit)
+     */
+    public final TaskFuture<?> debounce(Object key, Runnable task, long delay, TimeUnit timeUnit) throws RejectedExecutionException {
+        notNegativeOrZero(delay, "long delay");
+        return debounce(key, task, delay, delay * 4, timeUnit);
+    }
+
+    /**
+     * Executes a {@link Runnable} task once submissions for its key have stopped for a delay, or the max delay has passed.<br>
+     * Each debounce of a key with a run pending replaces the task to run and restarts the delay, so a burst of submissions
+     * runs only the latest task, once. A steady stream of submissions still runs no later than {@code maxDelay}
+     * after the first of them.
+     *
+     * @param key
+     *         the key of the logical task, such as the thing it updates
+     * @param task
+     *         the {@link Runnable} task to execute
+     * @param delay
+     *         the quiet time before execution
+     * @param maxDelay
+     *         the most time between the first debounce and execution
+     * @param timeUnit
+     *         the {@link TimeUnit} to use
+     *
+     * @return a {@link TaskFuture} of the run, shared by every debounce it collapsed
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code key}, {@code task} or {@code timeUnit} is null
+     * @throws java.lang.IllegalArgumentException
+     *         if the {@code delay} is equal to or less than zero, or {@code maxDelay} is less than {@code delay}
+     * @throws RejectedExecutionException
+     *         if the pool has been shut down
+     */
+    public final TaskFuture<?> debounce(Object key, Runnable task, long delay, long maxDelay, TimeUnit timeUnit) throws RejectedExecutionException {
+        notNull(key, "Object key");
+        notNull(task, "Runnable task");
+        notNegativeOrZero(delay, "long delay");
+        notOutOfRange(delay, maxDelay, "maxDelay is less than delay");
+        notNull(timeUnit, "TimeUnit timeUnit");
+        return collapse(debounced, key, task, timeUnit.toNanos(delay), timeUnit.toNanos(maxDelay));
+    }
+
+    /**
+     * Executes a {@link Runnable} task immediately, unless a run for its key is still waiting to start.<br>
+     * Submissions for a key collapse into the waiting run, which runs the latest task. Once the run starts,
+     * the next submission queues a new run, so every submission is followed by a run that starts after it.
+     *
+     * @param key
+     *         the key of the logical task, such as the thing it updates
+     * @param task
+     *         the {@link Runnable} task to execute
+     *
+     * @return a {@link TaskFuture} of the run, shared by every submission it collapsed
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code key} or {@code task} is null
+     * @throws RejectedExecutionException
+     *         at discretion of <tt>RejectedExecutionHandler</tt>, if task cannot be accepted
+     *         for execution because the executor has been shut down.
+     */
+    public final TaskFuture<?> coalesce(Object key, Runnable task) throws RejectedExecutionException {
+        notNull(key, "Object key");
+        notNull(task, "Runnable task");
+        return collapse(coalesced, key, task, 0, 0);
+    }
+
+    private TaskFuture<?> collapse(ConcurrentHashMap<Object, KeyedRun> runs, Object key, Runnable task, long delayNanos, long maxDelayNanos) {
+        while (true) {
+            KeyedRun run = runs.get(key);
+            if (run == null) {
+                run = new KeyedRun(runs, key, task, delayNanos, maxDelayNanos);
+                if (runs.putIfAbsent(key, run) != null) {
+                    continue; // Lost the race to another submission
+                }
+                try {
+                    if (delayNanos > 0) {
+                        threadPool.schedule(run, delayNanos, NANOSECONDS);
+                    }
+                    else {
+                        immediate.execute(run.stoppable(run));
+                    }
+                }
+                catch (RejectedExecutionException rex) {
+                    run.cancel();
+                    throw rex;
+                }
+                return run.promise;
+            }
+            if (run.replace(task)) {
+                return run.promise;
+            }
+        }
+    }
+
+    /**
+     * Removes a {@link Runnable} task from the pool
+     *
+     * @param task
+     *         the {@link Runnable} task to be removed
+     *
+     * @return {@code true} if successfully removed, {@code false} if already stopped or non-existent
+     */
+    public final boolean removeTask(Runnable task) {
+        TrackedFuture<?> latest = tasks.get(Task.wrap(task));
+        return latest != null && latest.cancel(true); // Removes itself from tracking
+    }
+
+    /**
+     * Removes a {@link Callable} task from the pool
+     *
+     * @param task
+     *         the {@link Callable} task to be removed
+     *
+     * @return {@code true} if successfully removed, {@code false} if already stopped or non-existent
+     */
+    public final boolean removeTask(Callable<?> task) {
+        TrackedFuture<?> latest = tasks.get(Task.wrap(task));
+        return latest != null && latest.cancel(true); // Removes itself from tracking
+    }
+
+    /**
+     * Removes a scheduled task from the pool by its {@link TaskHandle}
+     *
+     * @param handle
+     *         the {@link TaskHandle} of the task to be removed
+     *
+     * @return {@code true} if successfully removed, {@code false} if already stopped
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code handle} is null
+     */
+    public final boolean removeTask(TaskHandle<?> handle) {
+        notNull(handle, "TaskHandle handle");
+        return handle.cancel(true);
+    }
+
+    /**
+     * Removes cancelled tasks from the queue of the scheduler, which otherwise stay queued until they are due.<br>
+     * This scans the whole queue, so it is best called rarely, such as after cancelling many long delayed tasks.
+     */
+    public final void purge() {
+        threadPool.purge();
+    }
+
+    /**
+     * Stops the pool from accepting new tasks. Tasks already executing are allowed to finish while delayed and continued tasks are dropped.
+     */
+    public final void shutdown() {
+        if (timingWheel != null) {
+            for (Runnable dispatch : timingWheel.stop()) {
+                ((TrackedFuture<?>)dispatch).cancel(false);
+            }
+        }
+        threadPool.shutdown();
+        dropDelayed();
+        for (KeyedRun run : debounced.values()) {
+            run.cancel(); // Their timers were dropped with the other delayed tasks
+        }
+        for (TaskHandle<?> handle : recurring) {
+            handle.cancel(false);
+        }
+        for (TaskPromise<?> promise : deferred) {
+            promise.cancel(false);
+        }
+        if (immediate != threadPool) {
+            immediate.shutdown();
+        }
+        for (ExecutorService lane : lanes.values()) {
+            lane.shutdown();
+        }
+        stopMonitors();
+        unregisterMetrics();
+    }
+
+    /**
+     * Shuts the pool down gracefully, waiting up to a timeout for its work to finish<br>
+     * The pool stops accepting tasks at once, and its continued, fixed rate and cron tasks stop.
+     * The {@link ShutdownPolicy} decides what happens to the one shot tasks that have not started, and tasks still running
+     * once the timeout passes are interrupted, dropping whatever is still queued.<br>
+     * The futures of the dropped tasks are cancelled before the {@link ShutdownReport} is returned.
+     *
+     * @param timeout
+     *         the longest time to wait for the tasks to finish
+     * @param timeUnit
+     *         the {@link TimeUnit} of the timeout
+     * @param policy
+     *         the {@link ShutdownPolicy} for the tasks that have not started
+     *
+     * @return a {@link ShutdownReport} of the tasks dropped and whether the pool terminated in time
+     *
+     * @throws java.lang.NullPointerException
+     *         if {@code timeUnit} or {@code policy} is null
+     * @throws java.lang.IllegalArgumentException
+     *         if {@code timeout} is less than zero
+     */
+    public final ShutdownReport shutdown(long timeout, TimeUnit timeUnit, ShutdownPolicy policy) {
+        notNegative(timeout, "long timeout");
+        notNull(timeUnit, "TimeUnit timeUnit");
+        notNull(policy, "ShutdownPolicy policy");
+        return close(policy, timeUnit.toNanos(timeout), false);
+    }
+
+    /**
+     * Shuts the pool down at once, dropping every task that has not started and interrupting the tasks running<br>
+     * The futures of the dropped tasks are cancelled before the {@link ShutdownReport} is returned.
+     *
+     * @return a {@link ShutdownReport} of the tasks dropped
+     */
+    public final ShutdownReport shutdownNow() {
+        return close(ShutdownPolicy.DROP, 0, true);
+    }
+
+    private ShutdownReport close(ShutdownPolicy policy, long timeoutNanos, boolean now) {
+        long start = System.nanoTime();
+        List<Runnable> pending = new ArrayList<Runnable>(); // One shot tasks taken off their timers, ready to run now
+        if (timingWheel != null) {
+            for (Runnable dispatch : timingWheel.stop()) {
+                pending.add(((TrackedFuture<?>)dispatch).early());
+            }
+        }
+        // Stop taking delayed and lane tasks before gathering them, so none submitted meanwhile are missed.
+        // The delayed tasks stay queued until taken below, and immediate tasks keep queueing until the pending tasks are handed over
+        threadPool.shutdown();
+        for (ExecutorService lane : lanes.values()) {
+            lane.shutdown();
+        }
+        for (Runnable queued : threadPool.getQueue().toArray(new Runnable[0])) {
+            if (queued instanceof TrackedFuture && !((TrackedFuture<?>)queued).isPeriodic() && threadPool.remove(queued)) {
+                pending.add(((TrackedFuture<?>)queued).early());
+            }
+        }
+        for (TaskPromise<?> promise : deferred) {
+            if (deferred.remove(promise)) {
+                pending.add(promise);
+            }
+        }
+        for (KeyedRun run : debounced.values()) {
+            Runnable claimed = run.claim();
+            if (claimed != null) {
+                pending.add(claimed);
+            }
+        }
+        dropDelayed(); // The timers left, such as those of the tasks taken above
+        for (TaskHandle<?> handle : recurring) {
+            handle.cancel(false);
+        }
+        List<ExecutorService> executors = executors();
+        List<Runnable> dropped = new ArrayList<Runnable>();
+        if (policy == ShutdownPolicy.DRAIN && !pending.isEmpty()) {
+            ExecutorService drain = immediate;
+            if (immediate == threadPool) { // The scheduler is shut down, so they get threads of their own
+                drain = new ThreadPoolExecutor(parallelism, parallelism, 0, SECONDS, new LinkedBlockingQueue<Runnable>(), threadPool.getThreadFactory());
+                executors.add(drain);
+            }
+            for (Runnable task : pending) {
+                try {
+                    drain.execute(task);
+                }
+                catch (RejectedExecutionException rex) {
+                    dropped.add(task);
+                }
+            }
+        }
+        else {
+            dropped.addAll(pending);
+        }
+        for (ExecutorService executor : executors) {
+            executor.shutdown();
+        }
+        if (policy == ShutdownPolicy.DROP) {
+            for (ExecutorService executor : executors) {
+                if (executor instanceof ThreadPoolExecutor) { // Including the scheduler, which only gives up its due tasks
+                    ((ThreadPoolExecutor)executor).getQueue().drainTo(dropped);
+                }
+                else if (executor instanceof StealingExecutor) {
+                    ((StealingExecutor)executor).drainTo(dropped);
+                }
+                else if (executor instanceof VirtualLane) {
+                    ((VirtualLane)executor).drainTo(dropped);
+                }
+            }
+        }
+        boolean forced = now;
+        if (!now) {
+            try {
+                forced = !awaitTermination(executors, start + timeoutNanos);
+            }
+            catch (InterruptedException iex) {
+                Thread.currentThread().interrupt();
+                forced = true;
+            }
+        }
+        if (forced) {
+            for (ExecutorService executor : executors) {
+                dropped.addAll(executor.shutdownNow());
+            }
+        }
+        for (Runnable task : dropped) {
+            if (task instanceof Future) { // Completes their futures, and with them the batches and graphs waiting on them
+                ((Future<?>)task).cancel(false);
+            }
+        }
+        stopMonitors();
+        unregisterMetrics();
+        return new ShutdownReport(dropped, isTerminated(), forced, System.nanoTime() - start);
+    }
+
+    /**
+     * Takes the delayed one shot tasks and timers off the shut down scheduler, leaving its queued immediate tasks to run.<br>
+     * Not left to the shutdown policy of the scheduler, which drops the immediate tasks along with the delayed ones on Java 8.
+     */
+    private void dropDelayed() {
+        for (Runnable queued : threadPool.getQueue().toArray(new Runnable[0])) {
+            RunnableScheduledFuture<?> future = (RunnableScheduledFuture<?>)queued;
+            if (!future.isPeriodic() && future.getDelay(NANOSECONDS) > 0 && threadPool.remove(future)) {
+                future.cancel(false);
+            }
+        }
+    }
+
+    private static boolean awaitTermination(List<ExecutorService> executors, long deadline) throws InterruptedException {
+        for (ExecutorService executor : executors) {
+            if (!executor.awaitTermination(deadline - System.nanoTime(), NANOSECONDS)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Gets the executors of the pool in the order they are shut down */
+    private List<ExecutorService> executors() {
+        List<ExecutorService> executors = new ArrayList<ExecutorService>(lanes.size() + 2);
+        executors.add(threadPool);
+        if (immediate != threadPool) {
+            executors.add(immediate);
+        }
+        executors.addAll(lanes.values());
+        return executors;
+    }
+
+    private void stopMonitors() {
+        if (watchdog != null) {
+            watchdog.interrupt();
+        }
+        if (autoscaling != null) {
+            autoscaling.interrupt();
+        }
+    }
+
+    private void unregisterMetrics() {
+        if (metricsName != null) {
+            unregister(metricsName);
+            metricsName = null;
+        }
+        if (autoscalerName != null) {
+            unregister(autoscalerName);
+            autoscalerName = null;
+        }
+    }
+
+    private static void unregister(ObjectName objectName) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        }
+        catch (Exception ex) {
+            // Already unregistered
+        }
+    }
+
+    /**
+     * Checks if the pool has been shut down
+     *
+     * @return {@code true} if shut down; {@code false} otherwise
+     */
+    public final boolean isShutdown() {
+        return threadPool.isShutdown();
+    }
+
+    /**
+     * Checks if the pool has shut down and every task it accepted has finished
+     *
+     * @return {@code true} if terminated; {@code false} otherwise
+     */
+    public final boolean isTerminated() {
+        for (ExecutorService executor : executors()) {
+            if (!executor.isTerminated()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets the name of the pool
+     *
+     * @return the pool name
+     */
+    public final String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the number of core threads of the pool
+     *
+     * @return the core size
+     */
+    public final int getCoreSize() {
+        return threadPool.getCorePoolSize();
+    }
+
+    /**
+     * Gets the approximate number of threads executing tasks
+     *
+     * @return the active thread count
+     */
+    public final int getActiveCount() {
+        int active = threadPool.getActiveCount();
+        if (immediate instanceof ThreadPoolExecutor && immediate != threadPool) {
+            active += ((ThreadPoolExecutor)immediate).getActiveCount();
+        }
+        for (TaskLane lane : lanes.keySet()) {
+            active += getLaneActiveCount(lane);
+        }
+        return active;
+    }
+
+    /**
+     * Gets the number of tasks rejected because a bounded queue was full, including those refused by {@code trySubmit}
+     *
+     * @return the rejected count, always {@code 0} for unbounded pools
+     */
+    public final long getRejectedCount() {
+        return backpressure == null ? 0 : backpressure.rejected.get();
+    }
+
+    /**
+     * Gets the number of queued tasks dropped by the {@link Backpressure#DROP_OLDEST} policy
+     *
+     * @return the dropped count
+     */
+    public final long getDroppedCount() {
+        return backpressure == null ? 0 : backpressure.dropped.get();
+    }
+
+    /**
+     * Gets the number of tasks run by the submitting thread under the {@link Backpressure#CALLER_RUNS} policy
+     *
+     * @return the caller run count
+     */
+    public final long getCallerRunCount() {
+        return backpressure == null ? 0 : backpressure.callerRuns.get();
+    }
+
+    /**
+     * Gets the number of submissions that blocked on a full queue under the {@link Backpressure#BLOCK} policy
+     *
+     * @return the blocked count
+     */
+    public final long getBlockedCount() {
+        return backpressure == null ? 0 : backpressure.blocked.get();
+    }
+
+    /**
+     * Checks if a {@link TaskLane} was set up with its own threads in the pool
+     *
+     * @param lane
+     *         the {@link TaskLane} to check
+     *
+     * @return {@code true} if the lane has its own threads; {@code false} if its tasks run with the other immediate tasks
+     */
+    public final boolean hasLane(TaskLane lane) {
+        return lanes.containsKey(lane);
+    }
+
+    /**
+     * Gets the number of tasks waiting in the queue of a {@link TaskLane}
+     *
+     * @param lane
+     *         the {@link TaskLane} to check
+     *
+     * @return the queue depth of the lane, or {@code 0} if the lane was not set up<br>
+     * For a virtual lane, this is the number of tasks waiting for the concurrency limit
+     */
+    public final int getLaneQueueSize(TaskLane lane) {
+        ExecutorService executor = lanes.get(lane);
+        if (executor instanceof VirtualLane) {
+            return ((VirtualLane)executor).getWaitingCount();
+        }
+        return executor == null ? 0 : ((ThreadPoolExecutor)executor).getQueue().size();
+    }
+
+    /**
+     * Gets the approximate number of threads executing tasks of a {@link TaskLane}
+     *
+     * @param lane
+     *         the {@link TaskLane} to check
+     *
+     * @return the active thread count of the lane, or {@code 0} if the lane was not set up<br>
+     * For a virtual lane, this is the number of tasks running
+     */
+    public final int getLaneActiveCount(TaskLane lane) {
+        ExecutorService executor = lanes.get(lane);
+        if (executor instanceof VirtualLane) {
+            return ((VirtualLane)executor).getRunningCount();
+        }
+        return executor == null ? 0 : ((ThreadPoolExecutor)executor).getActiveCount();
+    }
+
+    /**
+     * Checks if a {@link TaskLane} runs its tasks on virtual threads
+     *
+     * @param lane
+     *         the {@link TaskLane} to check
+     *
+     * @return {@code true} if the lane runs on virtual threads; {@code false} if it runs on platform threads or was not set up
+     *
+     * @see Builder#virtualLane(TaskLane, int)
+     */
+    public final boolean isVirtualLane(TaskLane lane) {
+        return lanes.get(lane) instanceof VirtualLane;
+    }
+
+    /**
+     * Gets the metrics of the tasks run by the pool
+     *
+     * @return the TaskMetrics or {@code null} if the pool does not keep metrics
+     */
+    public final TaskMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Gets the autoscaler sizing the executor of the pool's immediate tasks
+     *
+     * @return the TaskAutoscaler or {@code null} if the pool is not autoscaled
+     *
+     * @see Builder#autoscale(int, int, long, long, TimeUnit)
+     */
+    public final TaskAutoscaler getAutoscaler() {
+        return autoscaler;
+    }
+
+    /**
+     * Checks if immediate tasks run on a work stealing executor
+     *
+     * @return {@code true} if work stealing; {@code false} if immediate tasks use the scheduler's ThreadPool or a bounded queue
+     */
+    public final boolean isWorkStealing() {
+        return immediate != threadPool && backpressure == null;
+    }
+
+    /**
+     * Gets the approximate number of tasks waiting in the queue, including delayed and continued tasks
+     *
+     * @return the queue size
+     */
+    public final int getQueueSize() {
+        return threadPool.getQueue().size();
+    }
+
+    /**
+     * Returns a string representation of the {@code TaskPool} as {@code TaskPool[Name=%s, CoreSize=%d, Active=%d, Queued=%d]}
+     *
+     * @return string representation of the {@code TaskPool}
+     */
+    @Override
+    public final String toString() {
+        return String.format("TaskPool[Name=%s, CoreSize=%d, Active=%d, Queued=%d]", name, getCoreSize(), getActiveCount(), getQueueSize());
+    }
+
+    /**
+     * Gets this class's version number
+     *
+     * @return the class version
+     */
+    public static float getClassVersion() {
+        return classVersion;
+    }
+
+    /**
+     * Gets the number of delayed and continued tasks being tracked
+     *
+     * @return the tracked task count
+     */
+    public final int getTrackedCount() {
+        return tracked.get();
+    }
+
+    /**
+     * What a graceful shutdown does with the tasks that have not started<br>
+     * Continued, fixed rate and cron tasks are stopped under every policy.
+     */
+    public enum ShutdownPolicy {
+        /** Runs delayed tasks, debounced runs and rate limited submissions now, and finishes the queued tasks */
+        DRAIN, //
+        /** Finishes the queued tasks, dropping delayed tasks, debounced runs and rate limited submissions */
+        FINISH_QUEUED, //
+        /** Drops every task that has not started, letting only the running tasks finish */
+        DROP
+    }
+
+    /** What a pool does with a task when a bounded queue is full */
+    public enum Backpressure {
+        /** Waits for room in the queue up to the block timeout, then rejects the task */
+        BLOCK, //
+        /** Runs the task in the submitting thread */
+        CALLER_RUNS, //
+        /** Drops and cancels the oldest queued task to make room */
+        DROP_OLDEST, //
+        /** Rejects the task with a RejectedExecutionException */
+        REJECT, //
+    }
+
+    /** What a task scheduled at a fixed rate does after a tick runs past the deadline of the next */
+    public enum Overrun {
+        /** Runs the missed ticks back to back until caught up with the original deadlines */
+        CATCH_UP, //
+        /** Skips the missed ticks and runs the next tick at the next deadline still ahead */
+        SKIP, //
+        /** Runs the next tick a period after the late tick finished, shifting all later deadlines */
+        DELAY, //
+    }
+
+    /** Applies the {@link Backpressure} policy of the pool and counts what it did */
+    private final class BackpressureHandler implements RejectedExecutionHandler {
+        private final Backpressure policy;
+        private final long blockTimeoutNanos;
+        private final AtomicLong rejected = new AtomicLong();
+        private final AtomicLong dropped = new AtomicLong();
+        private final AtomicLong callerRuns = new AtomicLong();
+        private final AtomicLong blocked = new AtomicLong();
+
+        BackpressureHandler(Backpressure policy, long blockTimeoutNanos) {
+            this.policy = policy;
+            this.blockTimeoutNanos = blockTimeoutNanos;
+        }
+
+        @Override
+        public final void rejectedExecution(Runnable runnable, ThreadPoolExecutor executor) {
+            if (executor.isShutdown()) {
+                throw new RejectedExecutionException("TaskPool " + name + " has been shut down");
+            }
+            if (runnable instanceof TrySubmission) {
+                rejected.incrementAndGet();
+                throw new RejectedExecutionException("TaskPool " + name + " is saturated");
+            }
+            switch (policy) {
+                case BLOCK:
+                    blocked.incrementAndGet();
+                    try {
+                        if (executor.getQueue().offer(runnable, blockTimeoutNanos, NANOSECONDS)) {
+                            return;
+                        }
+                    }
+                    catch (InterruptedException iex) {
+                        Thread.currentThread().interrupt();
+                    }
+                    break;
+                case CALLER_RUNS:
+                    callerRuns.incrementAndGet();
+                    runnable.run();
+                    return;
+                case DROP_OLDEST:
+                    Runnable oldest = executor.getQueue().poll();
+                    if (oldest != null) {
+                        dropped.incrementAndGet();
+                        if (oldest instanceof Future) {
+                            ((Future<?>)oldest).cancel(false); // Don't leave its submitter waiting forever
+                        }
+                    }
+                    executor.execute(runnable);
+                    return;
+                default:
+                    break;
+            }
+            rejected.incrementAndGet();
+            throw new RejectedExecutionException("TaskPool " + name + " queue is full");
+        }
+    }
+
+    /** A task submitted with {@code trySubmit}, which is refused rather than handled by the {@link Backpressure} policy */
+    private static final class TrySubmission<V> extends TaskPromise<V> {
+
+        TrySubmission(Callable<V> callable) {
+            super(callable);
+        }
+
+        TrySubmission(Runnable runnable, V result) {
+            super(runnable, result);
+        }
+    }
+
+    /** A task that fails with a {@link TimeoutException} and is interrupted once it runs longer than its timeout */
+    private final class TimedSubmission<V> extends TaskPromise<V> {
+        private final long timeoutNanos;
+        /** The thread running the task, only interrupted while it still is */
+        private Thread runner;
+        private boolean interrupted;
+
+        TimedSubmission(Callable<V> callable, long timeoutNanos) {
+            super(callable);
+            this.timeoutNanos = timeoutNanos;
+        }
+
+        TimedSubmission(Runnable runnable, V result, long timeoutNanos) {
+            super(runnable, result);
+            this.timeoutNanos = timeoutNanos;
+        }
+
+        @Override
+        public final void run() {
+            if (isDone()) {
+                return;
+            }
+            synchronized (this) {
+                runner = Thread.currentThread();
+            }
+            ScheduledFuture<?> timer = null;
+            try {
+                timer = threadPool.schedule(new Runnable() {
+                    public void run() {
+                        expire();
+                    }
+                }, timeoutNanos, NANOSECONDS);
+            }
+            catch (RejectedExecutionException rex) {
+                // Shutting down, so the task runs without its timeout
+            }
+            try {
+                super.run();
+            }
+            finally {
+                synchronized (this) {
+                    runner = null;
+                    if (interrupted) {
+                        Thread.interrupted(); // Don't leave the interrupt to the next task of the thread
+                    }
+                }
+                if (timer != null) {
+                    timer.cancel(false);
+                }
+            }
+        }
+
+        private void expire() {
+            setException(new TimeoutException("Task ran longer than its timeout of " + NANOSECONDS.toMillis(timeoutNanos) + "ms")); // No effect if already complete
+            synchronized (this) {
+                if (runner != null) {
+                    interrupted = true;
+                    runner.interrupt();
+                }
+            }
+        }
+    }
+
+    /** Executor decorating the scheduled {@link Task}s with {@link TrackedFuture}s, and the immediate tasks with futures of their own with {@link ImmediateFuture}s */
+    private final class PoolExecutor extends ScheduledThreadPoolExecutor {
+
+        PoolExecutor(int coreSize, ThreadFactory factory, RejectedExecutionHandler handler) {
+            super(coreSize, factory, handler);
+        }
+
+        @Override
+        protected final <V> RunnableScheduledFuture<V> decorateTask(Runnable runnable, RunnableScheduledFuture<V> future) {
+            if (runnable instanceof Task && ((Task)runnable).isTracked()) {
+                return new TrackedFuture<V>((Task)runnable, future, isWorkStealing());
+            }
+            return runnable instanceof Future && future.getDelay(NANOSECONDS) <= 0 ? new ImmediateFuture<V>(future, (Future<?>)runnable) : future;
+        }
+
+        @Override
+        protected final <V> RunnableScheduledFuture<V> decorateTask(Callable<V> callable, RunnableScheduledFuture<V> future) {
+            return callable instanceof Task && ((Task)callable).isTracked() ? new TrackedFuture<V>((Task)callable, future, isWorkStealing()) : future;
+        }
+    }
+
+    /** Gets the future the scheduler made for a task it decorated, so decorated tasks keep their order in its queue */
+    private static Delayed scheduled(Delayed delayed) {
+        if (delayed instanceof TrackedFuture) {
+            return ((TrackedFuture<?>)delayed).future;
+        }
+        return delayed instanceof ImmediateFuture ? ((ImmediateFuture<?>)delayed).future : delayed;
+    }
+
+    /** Future of an immediate task queued on the scheduler, which cancels the future of the task too so dropping the task completes it */
+    private static final class ImmediateFuture<V> implements RunnableScheduledFuture<V> {
+        private final RunnableScheduledFuture<V> future;
+        private final Future<?> task;
+
+        ImmediateFuture(RunnableScheduledFuture<V> future, Future<?> task) {
+            this.future = future;
+            this.task = task;
+        }
+
+        @Override
+        public final void run() {
+            future.run();
+        }
+
+        @Override
+        public final boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = future.cancel(mayInterruptIfRunning);
+            if (cancelled) {
+                task.cancel(false);
+            }
+            return cancelled;
+        }
+
+        @Override
+        public final boolean isPeriodic() {
+            return false;
+        }
+
+        @Override
+        public final long getDelay(TimeUnit unit) {
+            return future.getDelay(unit);
+        }
+
+        @Override
+        public final int compareTo(Delayed other) {
+            return future.compareTo(scheduled(other));
+        }
+
+        @Override
+        public final boolean isCancelled() {
+            return future.isCancelled();
+        }
+
+        @Override
+        public final boolean isDone() {
+            return future.isDone();
+        }
+
+        @Override
+        public final V get() throws InterruptedException, ExecutionException {
+            return future.get();
+        }
+
+        @Override
+        public final V get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+            return future.get(timeout, unit);
+        }
+    }
+
+    /**
+     * Future of a tracked {@link Task}, which removes itself from tracking and reports its errors once it completes
+     *
+     * @author Jason (darkdiplomat)
+     */
+    private final class TrackedFuture<V> implements RunnableScheduledFuture<V>, TaskHandle<V> {
+        private final long id = handleIds.incrementAndGet();
+        private final Task task;
+        private final RunnableScheduledFuture<V> future;
+        private final AtomicBoolean completed = new AtomicBoolean();
+        /** Completed along with the task, to run its continuations */
+        private final TaskPromise<V> promise = new TaskPromise<V>();
+        /** Whether the scheduler thread should hand a due one shot task to the immediate executor */
+        private boolean handOff;
+
+        TrackedFuture(Task task, RunnableScheduledFuture<V> future, boolean handOff) {
+            this.task = task;
+            this.future = future;
+            this.handOff = handOff && !future.isPeriodic(); // Continued tasks keep their rate on the scheduler
+            tracked.incrementAndGet(); // Tracked before being queued, so completion always follows
+            tasks.put(task, this);
+        }
+
+        @Override
+        public final void run() {
+            if (handOff) {
+                handOff = false;
+                try {
+                    immediate.execute(this);
+                }
+                catch (RejectedExecutionException rex) {
+                    cancel(false);
+                }
+                return;
+            }
+            if (future.isPeriodic() && task.isMetered()) {
+                task.setDue(System.nanoTime() + future.getDelay(NANOSECONDS)); // When this run was due
+            }
+            future.run();
+            if (future.isDone()) { // One shot tasks are always done, continued tasks only once they failed
+                complete();
+            }
+        }
+
+        @Override
+        public final boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = future.cancel(mayInterruptIfRunning);
+            if (cancelled) {
+                complete();
+            }
+            return cancelled;
+        }
+
+        private void complete() {
+            if (!completed.compareAndSet(false, true)) {
+                return;
+            }
+            tracked.decrementAndGet();
+            tasks.remove(task, this); // Only if not scheduled again since
+            promise.settle(future);
+            if (future.isCancelled()) {
+                return; // Don't care if it was cancelled
+            }
+            try {
+                future.get(); // Test for execution exceptions
+            }
+            catch (InterruptedException iex) {
+                Thread.currentThread().interrupt();
+            }
+            catch (ExecutionException eex) {
+                //This is important if an exception was caused in execution, print out the exception immediately
+                task.printError(eex.getCause()); // Call the printError message for the proper Task name rather than the wrapper's name
+            }
+        }
+
+        /** Gets a task running this one shot task now rather than when it is due, which completes the handle with its result or cancels it if cancelled */
+        final RunnableFuture<Object> early() {
+            return new FutureTask<Object>(new Runnable() {
+                @SuppressWarnings("unchecked")
+                public void run() {
+                    if (!completed.compareAndSet(false, true)) {
+                        return; // Cancelled or already run
+                    }
+                    future.cancel(false); // Replaced by this run
+                    tracked.decrementAndGet();
+                    tasks.remove(task, TrackedFuture.this);
+                    try {
+                        promise.complete((V)task.call());
+                    }
+                    catch (Throwable thrown) {
+                        promise.fail(thrown);
+                        task.printError(thrown);
+                    }
+                }
+            }, null) {
+                @Override
+                protected void done() {
+                    if (isCancelled()) {
+                        TrackedFuture.this.cancel(false);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public final long getId() {
+            return id;
+        }
+
+        @Override
+        public final <R> TaskFuture<R> thenApply(Function<? super V, ? extends R> function) {
+            return promise.thenApply(function);
+        }
+
+        @Override
+        public final <R> TaskFuture<R> thenCompose(Function<? super V, ? extends TaskFuture<R>> function) {
+            return promise.thenCompose(function);
+        }
+
+        @Override
+        public final TaskFuture<V> whenComplete(Completion<? super V> completion) {
+            return promise.whenComplete(completion);
+        }
+
+        @Override
+        public final boolean isPeriodic() {
+            return future.isPeriodic();
+        }
+
+        @Override
+        public final long getDelay(TimeUnit unit) {
+            return future.getDelay(unit);
+        }
+
+        @Override
+        public final int compareTo(Delayed other) {
+            return future.compareTo(scheduled(other));
+        }
+
+        @Override
+        public final boolean isCancelled() {
+            return promise.isCancelled();
+        }
+
+        @Override
+        public final boolean isDone() {
+            return promise.isDone();
+        }
+
+        @Override
+        public final V get() throws InterruptedException, ExecutionException {
+            return promise.get(); // Settled by the scheduling, or by an early run on shutdown
+        }
+
+        @Override
+        public final V get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+            return promise.get(timeout, unit);
+        }
+
+        /**
+         * Returns a string representation of the {@code TaskHandle} as {@code TaskHandle[Id=%d, Pool=%s, Done=%b]}
+         *
+         * @return string representation of the {@code TaskHandle}
+         */
+        @Override
+        public final String toString() {
+            return String.format("TaskHandle[Id=%d, Pool=%s, Done=%b]", id, name, isDone());
+        }
+    }
+
+    /** A task scheduled at a fixed rate, which schedules each tick itself at a nanoTime deadline */
+    private final class FixedRate implements RateHandle, Runnable {
+        private final long id = handleIds.incrementAndGet();
+        private final Task task;
+        private final long periodNanos;
+        private final Overrun overrun;
+        private final TaskPromise<Object> promise = new TaskPromise<Object>();
+        private volatile long deadline;
+        private volatile ScheduledFuture<?> current;
+        private volatile long ticks;
+        private volatile long overruns;
+        private volatile long skipped;
+        private volatile long lastLag;
+        private volatile long maxLag;
+        private volatile long totalLag;
+
+        FixedRate(Runnable task, long firstDeadline, long periodNanos, Overrun overrun) {
+            this.task = metrics == null ? new Task(task) : new Task(task).metered(metrics, 0);
+            this.deadline = firstDeadline;
+            this.periodNanos = periodNanos;
+            this.overrun = overrun;
+            tracked.incrementAndGet();
+            recurring.add(this);
+            promise.whenComplete(new Completion<Object>() {
+                public void completed(Object result, Throwable failure) {
+                    tracked.decrementAndGet();
+                    recurring.remove(FixedRate.this);
+                }
+            });
+        }
+
+        final void schedule() {
+            current = threadPool.schedule(this, deadline - System.nanoTime(), NANOSECONDS);
+            if (promise.isDone()) {
+                current.cancel(false); // Cancelled while scheduling
+            }
+        }
+
+        @Override
+        public final void run() {
+            if (promise.isDone()) {
+                return;
+            }
+            long start = System.nanoTime();
+            long lag = Math.max(start - deadline, 0);
+            lastLag = lag;
+            maxLag = Math.max(maxLag, lag);
+            totalLag += lag;
+            ticks++;
+            if (task.isMetered()) {
+                task.setDue(deadline);
+            }
+            try {
+                task.run();
+            }
+            catch (Throwable thrown) {
+                task.printError(thrown);
+                promise.fail(thrown); // Stops the ticks, as with scheduleContinuedTask
+                return;
+            }
+            long now = System.nanoTime();
+            long next = deadline + periodNanos;
+            if (next - now < 0) {
+                overruns++;
+                if (overrun == Overrun.SKIP) {
+                    long missed = (now - next) / periodNanos + 1;
+                    skipped += missed;
+                    next += missed * periodNanos;
+                }
+                else if (overrun == Overrun.DELAY) {
+                    next = now + periodNanos;
+                }
+            }
+            deadline = next;
+            try {
+                schedule();
+            }
+            catch (RejectedExecutionException rex) {
+                promise.cancel(false); // Shut down
+            }
+        }
+
+        @Override
+        public final long getTickCount() {
+            return ticks;
+        }
+
+        @Override
+        public final long getOverrunCount() {
+            return overruns;
+        }
+
+        @Override
+        public final long getSkippedCount() {
+            return skipped;
+        }
+
+        @Override
+        public final long getLastLag(TimeUnit unit) {
+            return unit.convert(lastLag, NANOSECONDS);
+        }
+
+        @Override
+        public final long getMaxLag(TimeUnit unit) {
+            return unit.convert(maxLag, NANOSECONDS);
+        }
+
+        @Override
+        public final long getAverageLag(TimeUnit unit) {
+            long count = ticks;
+            return count == 0 ? 0 : unit.convert(totalLag / count, NANOSECONDS);
+        }
+
+        @Override
+        public final long getId() {
+            return id;
+        }
+
+        @Override
+        public final long getDelay(TimeUnit unit) {
+            return unit.convert(deadline - System.nanoTime(), NANOSECONDS);
+        }
+
+        @Override
+        public final int compareTo(Delayed other) {
+            long diff = getDelay(NANOSECONDS) - other.getDelay(NANOSECONDS);
+            return diff < 0 ? -1 : diff > 0 ? 1 : 0;
+        }
+
+        @Override
+        public final boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = promise.cancel(false);
+            ScheduledFuture<?> scheduled = current;
+            if (scheduled != null) {
+                scheduled.cancel(mayInterruptIfRunning);
+            }
+            return cancelled;
+        }
+
+        @Override
+        public final boolean isCancelled() {
+            return promise.isCancelled();
+        }
+
+        @Override
+        public final boolean isDone() {
+            return promise.isDone();
+        }
+
+        @Override
+        public final Object get() throws InterruptedException, ExecutionException {
+            return promise.get();
+        }
+
+        @Override
+        public final Object get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+            return promise.get(timeout, unit);
+        }
+
+        @Override
+        public final <R> TaskFuture<R> thenApply(Function<? super Object, ? extends R> function) {
+            return promise.thenApply(function);
+        }
+
+        @Override
+        public final <R> TaskFuture<R> thenCompose(Function<? super Object, ? extends TaskFuture<R>> function) {
+            return promise.thenCompose(function);
+        }
+
+        @Override
+        public final TaskFuture<Object> whenComplete(Completion<? super Object> completion) {
+            return promise.whenComplete(completion);
+        }
+
+        /**
+         * Returns a string representation of the {@code RateHandle} as {@code RateHandle[Id=%d, Pool=%s, Ticks=%d, Done=%b]}
+         *
+         * @return string representation of the {@code RateHandle}
+         */
+        @Override
+        public final String toString() {
+            return String.format("RateHandle[Id=%d, Pool=%s, Ticks=%d, Done=%b]", id, name, ticks, isDone());
+        }
+    }
+
+    /** A task scheduled by cron, which schedules each run itself at its next fire time */
+    private final class CronSchedule implements TaskHandle<Object>, Runnable {
+        private final long id = handleIds.incrementAndGet();
+        private final Task task;
+        private final CronExpression cron;
+        private final TaskPromise<Object> promise = new TaskPromise<Object>();
+        /** The next fire time, in milliseconds since the epoch */
+        private volatile long fireTime;
+        private volatile ScheduledFuture<?> current;
+
+        CronSchedule(Runnable task, CronExpression cron) {
+            this.task = metrics == null ? new Task(task) : new Task(task).metered(metrics, 0);
+            this.cron = cron;
+            this.fireTime = cron.getNextFireTime(System.currentTimeMillis());
+            tracked.incrementAndGet();
+            recurring.add(this);
+            promise.whenComplete(new Completion<Object>() {
+                public void completed(Object result, Throwable failure) {
+                    tracked.decrementAndGet();
+                    recurring.remove(CronSchedule.this);
+                }
+            });
+        }
+
+        final void schedule() {
+            current = threadPool.schedule(this, Math.max(fireTime - System.currentTimeMillis(), 0), MILLISECONDS);
+            if (promise.isDone()) {
+                current.cancel(false); // Cancelled while scheduling
+            }
+        }
+
+        @Override
+        public final void run() {
+            if (promise.isDone()) {
+                return;
+            }
+            long now = System.currentTimeMillis();
+            if (fireTime - now > 1) { // The scheduler counts elapsed time, so the clock was set back since scheduling
+                reschedule();
+                return;
+            }
+            if (task.isMetered()) {
+                task.setDue(System.nanoTime() - MILLISECONDS.toNanos(Math.max(now - fireTime, 0)));
+            }
+            try {
+                task.run();
+            }
+            catch (Throwable thrown) {
+                task.printError(thrown);
+                promise.fail(thrown); // Stops the runs, as with scheduleContinuedTask
+                return;
+            }
+            fireTime = cron.getNextFireTime(Math.max(fireTime, System.currentTimeMillis())); // Skips fire times missed while running
+            reschedule();
+        }
+
+        private void reschedule() {
+            try {
+                schedule();
+            }
+            catch (RejectedExecutionException rex) {
+                promise.cancel(false); // Shut down
+            }
+        }
+
+        @Override
+        public final long getId() {
+            return id;
+        }
+
+        @Override
+        public final long getDelay(TimeUnit unit) {
+            return unit.convert(fireTime - System.currentTimeMillis(), MILLISECONDS);
+        }
+
+        @Override
+        public final int compareTo(Delayed other) {
+            long diff = getDelay(NANOSECONDS) - other.getDelay(NANOSECONDS);
+            return diff < 0 ? -1 : diff > 0 ? 1 : 0;
+        }
+
+        @Override
+        public final boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = promise.cancel(false);
+            ScheduledFuture<?> scheduled = current;
+            if (scheduled != null) {
+                scheduled.cancel(mayInterruptIfRunning);
+            }
+            return cancelled;
+        }
+
+        @Override
+        public final boolean isCancelled() {
+            return promise.isCancelled();
+        }
+
+        @Override
+        public final boolean isDone() {
+            return promise.isDone();
+        }
+
+        @Override
+        public final Object get() throws InterruptedException, ExecutionException {
+            return promise.get();
+        }
+
+        @Override
+        public final Object get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+            return promise.get(timeout, unit);
+        }
+
+        @Override
+        public final <R> TaskFuture<R> thenApply(Function<? super Object, ? extends R> function) {
+            return promise.thenApply(function);
+        }
+
+        @Override
+        public final <R> TaskFuture<R> thenCompose(Function<? super Object, ? extends TaskFuture<R>> function) {
+            return promise.thenCompose(function);
+        }
+
+        @Override
+        public final TaskFuture<Object> whenComplete(Completion<? super Object> completion) {
+            return promise.whenComplete(completion);
+        }
+
+        /**
+         * Returns a string representation of the {@code TaskHandle} as {@code TaskHandle[Id=%d, Pool=%s, Cron=%s, Done=%b]}
+         *
+         * @return string representation of the {@code TaskHandle}
+         */
+        @Override
+        public final String toString() {
+            return String.format("TaskHandle[Id=%d, Pool=%s, Cron=%s, Done=%b]", id, name, cron.getExpression(), isDone());
+        }
+    }
+
+    /** The pending run of a debounced or coalesced key, which runs the latest task submitted for the key */
+    private final class KeyedRun implements Runnable {
+        private final ConcurrentHashMap<Object, KeyedRun> runs;
+        private final Object key;
+        private final long delayNanos;
+        private final long latestNanos;
+        private final TaskPromise<Object> promise = new TaskPromise<Object>();
+        private Runnable task;
+        private long dueNanos;
+        private boolean claimed;
+
+        KeyedRun(ConcurrentHashMap<Object, KeyedRun> runs, Object key, Runnable task, long delayNanos, long maxDelayNanos) {
+            this.runs = runs;
+            this.key = key;
+            this.task = task;
+            this.delayNanos = delayNanos;
+            long now = System.nanoTime();
+            this.dueNanos = now + delayNanos;
+            this.latestNanos = now + maxDelayNanos;
+        }
+
+        /** Replaces the task to run, unless the run has already started */
+        synchronized boolean replace(Runnable task) {
+            if (claimed) {
+                return false;
+            }
+            this.task = task;
+            dueNanos = System.nanoTime() + delayNanos; // Restarts the quiet time of a debounce
+            return true;
+        }
+
+        /** Claims the run ahead of its timer, returning a task that runs the latest task, or null if already claimed */
+        final Runnable claim() {
+            Runnable latest;
+            synchronized (this) {
+                if (claimed) {
+                    return null;
+                }
+                claimed = true;
+                latest = task;
+            }
+            runs.remove(key, this);
+            final Runnable runnable = metered(latest);
+            return stoppable(new Runnable() {
+                public void run() {
+                    complete(runnable);
+                }
+            });
+        }
+
+        /** Wraps a step of the run in a future that stops the run if it is cancelled instead, such as when a shutdown drops it */
+        final RunnableFuture<Object> stoppable(Runnable step) {
+            return new FutureTask<Object>(step, null) {
+                @Override
+                protected void done() {
+                    if (isCancelled()) {
+                        KeyedRun.this.cancel();
+                    }
+                }
+            };
+        }
+
+        /** Stops the run, so the next submission for the key starts a new one */
+        final void cancel() {
+            synchronized (this) {
+                claimed = true;
+            }
+            runs.remove(key, this);
+            promise.cancel(false);
+        }
+
+        @Override
+        public final void run() {
+            Runnable latest;
+            synchronized (this) {
+                if (claimed) {
+                    return;
+                }
+                latest = task;
+                long wait = delayNanos > 0 ? Math.min(dueNanos, latestNanos) - System.nanoTime() : 0;
+                if (wait > 0) { // Debounced again since the timer was set
+                    try {
+                        threadPool.schedule(this, wait, NANOSECONDS);
+                        return;
+                    }
+                    catch (RejectedExecutionException rex) {
+                        latest = null;
+                    }
+                }
+                claimed = true;
+            }
+            runs.remove(key, this);
+            if (latest == null) {
+                promise.cancel(false);
+                return;
+            }
+            final Runnable runnable = metered(latest);
+            if (delayNanos > 0 && immediate != threadPool) { // Don't hold up the scheduler thread
+                try {
+                    immediate.execute(stoppable(new Runnable() {
+                        public void run() {
+                            complete(runnable);
+                        }
+                    }));
+                }
+                catch (RejectedExecutionException rex) {
+                    promise.cancel(false);
+                }
+            }
+            else {
+                complete(runnable);
+            }
+        }
+
+        private void complete(Runnable runnable) {
+            try {
+                runnable.run();
+                promise.complete(null);
+            }
+            catch (Throwable thrown) {
+                promise.fail(thrown);
+            }
+        }
+    }
+
+    /** Logs the stacks of tasks running longer than a threshold, checking the running tasks a few times per threshold */
+    private final class Watchdog implements Runnable {
+        private final long thresholdNanos;
+
+        Watchdog(long thresholdNanos) {
+            this.thresholdNanos = thresholdNanos;
+        }
+
+        @Override
+        public final void run() {
+            long period = Math.max(thresholdNanos / 4, MILLISECONDS.toNanos(10));
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    NANOSECONDS.sleep(period);
+                }
+                catch (InterruptedException iex) {
+                    return; // The pool was shut down
+                }
+                for (TaskMetrics.RunningTask task : metrics.findStuck(thresholdNanos)) {
+                    Thread thread = task.getThread();
+                    Throwable stack = new Throwable("Stack of " + thread.getName()); // Logged for its trace, nothing was thrown
+                    stack.setStackTrace(thread.getStackTrace());
+                    UtilsLogger.warning(String.format("TaskPool %s: Task %s has run for %dms, longer than the %dms threshold", name, task.getTaskClass().getName(), task.getRunningTime(MILLISECONDS), NANOSECONDS.toMillis(thresholdNanos)), stack);
+                }
+            }
+        }
+    }
+
+    /** Names the threads of a pool as {@code name-#}, or sets the priority of the threads of a custom factory */
+    private static final class PoolThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+        private final String name;
+        private final boolean daemon;
+        private final int priority;
+        private final ThreadFactory custom;
+
+        PoolThreadFactory(String name, boolean daemon, int priority, ThreadFactory custom) {
+            this.name = name;
+            this.daemon = daemon;
+            this.priority = priority;
+            this.custom = custom;
+        }
+
+        @Override
+        public final Thread newThread(Runnable runnable) {
+            Thread thread;
+            if (custom != null) {
+                thread = custom.newThread(runnable);
+            }
+            else {
+                thread = new Thread(runnable, name.concat("-").concat(String.valueOf(count.incrementAndGet())));
+                thread.setDaemon(daemon);
+            }
+            thread.setPriority(priority);
+            return thread;
+        }
+    }
+
+    /**
+     * Names the threads of a ForkJoinPool and sets whether they are daemons, which the default factory always makes them<br>
+     * Implements ForkJoinPool.ForkJoinWorkerThreadFactory through a {@link Proxy}, as it is Java 7+.
+     */
+    private static final class WorkerThreadFactory implements InvocationHandler {
+        private final AtomicInteger count = new AtomicInteger();
+        private final Object defaultFactory;
+        private final Method newThread;
+        private final String name;
+        private final boolean daemon;
+
+        WorkerThreadFactory(Object defaultFactory, Method newThread, String name, boolean daemon) {
+            this.defaultFactory = defaultFactory;
+            this.newThread = newThread;
+            this.name = name;
+            this.daemon = daemon;
+        }
+
+        @Override
+        public final Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (!method.equals(newThread)) { // equals, hashCode and toString of the proxy
+                return method.invoke(this, args);
+            }
+            Thread thread;
+            try {
+                thread = (Thread)newThread.invoke(defaultFactory, args);
+            }
+            catch (InvocationTargetException itex) {
+                throw itex.getCause();
+            }
+            if (thread != null) { // Not started yet, so may still change
+                thread.setDaemon(daemon);
+                thread.setName(name.concat("-").concat(String.valueOf(count.incrementAndGet())));
+            }
+            return thread;
+        }
+    }
+
+    /**
+     * Builder of {@link TaskPool}s
+     * <p/>
+     * By default a pool has as many core threads as there are processors, keeps idle threads alive for 5 seconds,
+     * allows its core threads to time out, uses non-daemon threads named after the pool and aborts tasks it cannot accept.
+     *
+     * @author Jason (darkdiplomat)
+     */
+    public static final class Builder {
+        private final String name;
+        private int coreSize = Runtime.getRuntime().availableProcessors();
+        private long keepAlive = 5;
+        private TimeUnit keepAliveUnit = SECONDS;
+        private boolean coreTimeOut = true;
+        private boolean daemon;
+        private ThreadFactory threadFactory;
+        private RejectedExecutionHandler rejectionHandler = new ThreadPoolExecutor.AbortPolicy();
+        private long wheelTick;
+        private TimeUnit wheelTickUnit;
+        private int wheelSize;
+        private int parallelism;
+        private boolean metrics;
+        private final EnumMap<TaskLane, int[]> lanes = new EnumMap<TaskLane, int[]>(TaskLane.class);
+        private final EnumMap<TaskLane, Integer> virtualLanes = new EnumMap<TaskLane, Integer>(TaskLane.class);
+        private int capacity;
+        private Backpressure backpressure;
+        private long blockTimeoutNanos = SECONDS.toNanos(5);
+        private long watchdogNanos;
+        private int minSize;
+        private int maxSize;
+        private long targetWaitNanos;
+        private long sampleNanos;
+
+        private Builder(String name) {
+            notNull(name, "String name");
+            this.name = name;
+        }
+
+        /**
+         * Sets the number of core threads
+         *
+         * @param coreSize
+         *         the number of core threads
+         *
+         * @return this Builder
+         *
+         * @throws java.lang.IllegalArgumentException
+         *         if {@code coreSize} is equal to or less than zero
+         */
+        public final Builder coreSize(int coreSize) {
+            notNegativeOrZero(coreSize, "int coreSize");
+            this.coreSize = coreSize;
+            return this;
+        }
+
+        /**
+         * Sets how long idle threads are kept alive
+         *
+         * @param keepAlive
+         *         the time to keep idle threads alive
+         * @param timeUnit
+         *         the {@link TimeUnit} to use
+         *
+         * @return this Builder
+         *
+         * @throws java.lang.NullPointerException
+         *         if {@code timeUnit} is null
+         * @throws java.lang.IllegalArgumentException
+         *         if {@code keepAlive} is less than zero
+         */
+        public final Builder keepAlive(long keepAlive, TimeUnit timeUnit) {
+            notNegative(keepAlive, "long keepAlive");
+            notNull(timeUnit, "TimeUnit timeUnit");
+            this.keepAlive = keepAlive;
+            this.keepAliveUnit = timeUnit;
+            return this;
+        }
+
+        /**
+         * Sets whether core threads time out when idle
+         *
+         * @param coreTimeOut
+         *         {@code true} to let core threads time out; {@code false} to keep them alive
+         *
+         * @return this Builder
+         */
+        public final Builder coreThreadTimeOut(boolean coreTimeOut) {
+            this.coreTimeOut = coreTimeOut;
+            return this;
+        }
+
+        /**
+         * Sets whether the threads of the pool are daemon threads. Ignored if a {@link ThreadFactory} is set.
+         *
+         * @param daemon
+         *         {@code true} for daemon threads; {@code false} otherwise
+         *
+         * @return this Builder
+         */
+        public final Builder daemon(boolean daemon) {
+            this.daemon = daemon;
+            return this;
+        }
+
+        /**
+         * Sets the {@link ThreadFactory} used to create the threads of the pool
+         *
+         * @param threadFactory
+         *         the ThreadFactory to use
+         *
+         * @return this Builder
+         *
+         * @throws java.lang.NullPointerException
+         *         if {@code threadFactory} is null
+         */
+        public final Builder threadFactory(ThreadFactory threadFactory) {
+            notNull(threadFactory, "ThreadFactory threadFactory");
+            this.threadFactory = threadFactory;
+            return this;
+        }
+
+        /**
+         * Sets the {@link RejectedExecutionHandler} used for tasks the pool cannot accept
+         *
+         * @param rejectionHandler
+         *         the RejectedExecutionHandler to use
+         *
+         * @return this Builder
+         *
+         * @throws java.lang.NullPointerException
+         *         if {@code rejectionHandler} is null
+         */
+        public final Builder rejectionHandler(RejectedExecutionHandler rejectionHandler) {
+            notNull(rejectionHandler, "RejectedExecutionHandler rejectionHandler");
+            this.rejectionHandler = rejectionHandler;
+            return this;
+        }
+
+        /**
+         * Runs immediate tasks on a work stealing executor, to which delayed tasks are also handed off when due<br>
+         * This is a ForkJoinPool when the runtime has one, whose threads follow the {@link #daemon(boolean)} setting of this Builder.
+         * Pools with a {@link #threadFactory(ThreadFactory)} or a {@link #boundedQueue(int, Backpressure)}, and runtimes without a ForkJoinPool,
+         * use a ThreadPoolExecutor with the thread settings of this Builder instead.
+         *
+         * @param parallelism
+         *         the number of threads running immediate tasks
+         *
+         * @return this Builder
+         *
+         * @throws java.lang.IllegalArgumentException
+         *         if {@code parallelism} is equal to or less than zero
+         */
+        public final Builder workStealing(int parallelism) {
+            notNegativeOrZero(parallelism, "int parallelism");
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        /**
+         * Bounds the queues of immediate tasks and of each lane, applying a {@link Backpressure} policy when a queue is full<br>
+         * Immediate tasks of bounded pools always run on a ThreadPoolExecutor, even if {@link #workStealing(int)} is set,
+         * as a work stealing pool cannot bound its queues. Delayed and continued tasks are not bounded.
+         *
+         * @param capacity
+         *         the most tasks each queue holds
+         * @param backpressure
+         *         the {@link Backpressure} policy to apply when a queue is full
+         *
+         * @return this Builder
+         *
+         * @throws java.lang.NullPointerException
+         *         if {@code backpressure} is null
+         * @throws java.lang.IllegalArgumentException
+         *         if {@code capacity} is equal to or less than zero
+         */
+        public final Builder boundedQueue(int capacity, Backpressure backpressure) {
+            notNegativeOrZero(capacity, "int capacity");
+            notNull(backpressure, "Backpressure backpressure");
+            this.capacity = capacity;
+            this.backpressure = backpressure;
+            return this;
+        }
+
+        /**
+         * Sets how long a submission waits for room in a full queue under the {@link Backpressure#BLOCK} policy, 5 seconds by default
+         *
+         * @param timeout
+         *         the time to wait
+         * @param timeUnit
+         *         the {@link TimeUnit} to use
+         *
+         * @return this Builder
+         *
+         * @throws java.lang.NullPointerException
+         *         if {@code timeUnit} is null
+         * @throws java.lang.IllegalArgumentException
+         *         if {@code timeout} is less than zero
+         */
+        public final Builder blockTimeout(long timeout, TimeUnit timeUnit) {
+            notNegative(timeout, "long timeout");
+            notNull(timeUnit, "TimeUnit timeUnit");
+            this.blockTimeoutNanos = timeUnit.toNanos(timeout);
+            return this;
+        }
+
+        /**
+         * Sets up a {@link TaskLane} with its own threads at the lane's default priority
+         *
+         * @param lane
+         *         the {@link TaskLane} to set up
+         * @param concurrency
+         *         the number of threads running tasks of the lane
+         *
+         * @return this Builder
+         *
+         * @throws java.lang.NullPointerException
+         *         if {@code lane} is null
+         * @throws java.lang.IllegalArgumentException
+         *         if {@code concurrency} is equal to or less than zero
+         * @see #lane(TaskLane, int, int)
+         */
+        public final Builder lane(TaskLane lane, int concurrency) {
+            notNull(lane, "TaskLane lane");
+            return lane(lane, concurrency, lane.getDefaultPriority());
+        }
+
+        /**
+         * Sets up a {@link TaskLane} with its own threads, so its tasks queue separately from the other immediate tasks
+         *
+         * @param lane
+         *         the {@link TaskLane} to set up
+         * @param concurrency
+         *         the number of threads running tasks of the lane
+         * @param priority
+         *         the priority of the threads of the lane
+         *
+         * @return this Builder
+         *
+         * @throws java.lang.NullPointerException
+         *         if {@code lane} is null
+         * @throws java.lang.IllegalArgumentException
+         *         if {@code concurrency} is equal to or less than zero, or {@code priority} is not a valid thread priority
+         */
+        public final Builder lane(TaskLane lane, int concurrency, int priority) {
+            notNull(lane, "TaskLane lane");
+            notNegativeOrZero(concurrency, "int concurrency");
+            if (priority < Thread.MIN_PRIORITY || priority > Thread.MAX_PRIORITY) {
+                throw new IllegalArgumentException(Verify.parse("thread.priority.range", String.valueOf(priority)));
+            }
+            lanes.put(lane, new int[]{ concurrency, priority });
+            return this;
+        }
+
+        /**
+         * Runs a {@link TaskLane} on virtual threads when the runtime has them, which suits tasks that block on I/O<br>
+         * Each task gets its own virtual thread, and no more than {@code concurrency} of them run at once;
+         * the rest wait parked until one finishes. On runtimes without virtual threads the lane falls back
+         * to the platform threads set up with {@link #lane(TaskLane, int)}, or to the pool's other immediate threads
+         * if it has none. Virtual lanes are not bounded by {@link #boundedQueue(int, Backpressure)}.
+         *
+         * @param lane
+         *         the {@link TaskLane} to run on virtual threads
+         * @param concurrency
+         *         the most tasks of the lane running at once
+         *
+         * @return this Builder
+         *
+         * @throws java.lang.NullPointerException
+         *         if {@code lane} is null
+         * @throws java.lang.IllegalArgumentException
+         *         if {@code concurrency} is equal to or less than zero
+         */
+        public final Builder virtualLane(TaskLane lane, int concurrency) {
+            notNull(lane, "TaskLane lane");
+            notNegativeOrZero(concurrency, "int concurrency");
+            virtualLanes.put(lane, concurrency);
+            return this;
+        }
+
+        /**
+         * Sets whether the pool keeps {@link TaskMetrics} of the tasks it runs, which are also registered with JMX
+         *
+         * @param metrics
+         *         {@code true} to keep metrics; {@code false} otherwise
+         *
+         * @return this Builder
+         */
+        public final Builder metrics(boolean metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+
+        /**
+         * Watches for stuck tasks, logging the stack of any task that runs longer than a threshold once<br>
+         * The watchdog is a daemon thread checking the running tasks of the pool's {@link TaskMetrics} a few times per threshold,
+         * so it turns metrics on. Stuck tasks are counted by {@link TaskMetrics#getStuckCount()}.
+         *
+         * @param threshold
+         *         how long a task may run before it is logged as stuck
+         * @param timeUnit
+         *         the {@link TimeUnit} of the threshold
+         *
+         * @return this Builder
+         *
+         * @throws java.lang.NullPointerException
+         *         if {@code timeUnit} is null
+         * @throws java.lang.IllegalArgumentException
+         *         if {@code threshold} is equal to or less than zero
+         */
+        public final Builder watchdog(long threshold, TimeUnit timeUnit) {
+            notNegativeOrZero(threshold, "long threshold");
+            notNull(timeUnit, "TimeUnit timeUnit");
+            this.watchdogNanos = timeUnit.toNanos(threshold);
+            return this;
+        }
+
+        /**
+         * Sizes the executor of the immediate tasks between bounds by how long tasks wait in its queue<br>
+         * A {@link TaskAutoscaler} samples the pool's {@link TaskMetrics} on a daemon thread, so it turns metrics on.
+         * The executor starts at its core size, or the nearest bound. A work stealing pool is only autoscaled on runtimes
+         * where a ForkJoinPool can change its parallelism, and keeps its size otherwise.
+         *
+         * @param minSize
+         *         the fewest threads to run immediate tasks on
+         * @param maxSize
+         *         the most threads to run immediate tasks on
+         * @param targetWait
+         *         how long tasks may wait in the queue before the executor grows
+         * @param sampleInterval
+         *         how often to sample the wait and decide on the size
+         * @param timeUnit
+         *         the {@link TimeUnit} of the target wait and the sample interval
+         *
+         * @return this Builder
+         *
+         * @throws java.lang.NullPointerException
+         *         if {@code timeUnit} is null
+         * @throws java.lang.IllegalArgumentException
+         *         if {@code minSize}, {@code targetWait} or {@code sampleInterval} is equal to or less than zero, or {@code maxSize} is less than {@code minSize}
+         */
+        public final Builder autoscale(int minSize, int maxSize, long targetWait, long sampleInterval, TimeUnit timeUnit) {
+            notNegativeOrZero(minSize, "int minSize");
+            notNegativeOrZero(targetWait, "long targetWait");
+            notNegativeOrZero(sampleInterval, "long sampleInterval");
+            notNull(timeUnit, "TimeUnit timeUnit");
+            if (maxSize < minSize) {
+                throw new IllegalArgumentException("int maxSize may not be less than int minSize");
+            }
+            this.minSize = minSize;
+            this.maxSize = maxSize;
+            this.targetWaitNanos = timeUnit.toNanos(targetWait);
+            this.sampleNanos = timeUnit.toNanos(sampleInterval);
+            return this;
+        }
+
+        /**
+         * Holds delayed tasks in a hashed timing wheel of 512 ticks instead of the ThreadPool's queue
+         *
+         * @param tick
+         *         the duration of one tick of the wheel
+         * @param timeUnit
+         *         the {@link TimeUnit} to use
+         *
+         * @return this Builder
+         *
+         * @throws java.lang.NullPointerException
+         *         if {@code timeUnit} is null
+         * @throws java.lang.IllegalArgumentException
+         *         if {@code tick} is equal to or less than zero
+         * @see #timingWheel(long, TimeUnit, int)
+         */
+        public final Builder timingWheel(long tick, TimeUnit timeUnit) {
+            return timingWheel(tick, timeUnit, 512);
+        }
+
+        /**
+         * Holds delayed tasks in a hashed timing wheel instead of the ThreadPool's queue<br>
+         * Scheduling and cancelling a delayed task take constant time, and tasks run on the first tick at or after their delay.
+         * Continued tasks still use the ThreadPool.
+         *
+         * @param tick
+         *         the duration of one tick of the wheel
+         * @param timeUnit
+         *         the {@link TimeUnit} to use
+         * @param wheelSize
+         *         the number of ticks in one turn of the wheel, rounded up to a power of two
+         *
+         * @return this Builder
+         *
+         * @throws java.lang.NullPointerException
+         *         if {@code timeUnit} is null
+         * @throws java.lang.IllegalArgumentException
+         *         if {@code tick} or {@code wheelSize} is equal to or less than zero
+         */
+        public final Builder timingWheel(long tick, TimeUnit timeUnit, int wheelSize) {
+            notNegativeOrZero(tick, "long tick");
+            notNull(timeUnit, "TimeUnit timeUnit");
+            notNegativeOrZero(wheelSize, "int wheelSize");
+            Verify.notOutOfRange(wheelSize, 1 << 30, "wheelSize must not be greater than 2^30");
+            this.wheelTick = tick;
+            this.wheelTickUnit = timeUnit;
+            this.wheelSize = wheelSize;
+            return this;
+        }
+
+        /**
+         * Creates the {@link TaskPool}
+         *
+         * @return the new TaskPool
+         */
+        public final TaskPool build() {
+            return new TaskPool(this);
+        }
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * This file is part of VIUtils.
+ *
+ * Copyright © 2012-2015 Visual Illusions Entertainment
+ *
+ * VIUtils is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this library.
+ * If not, see http://www.gnu.org/licenses/lgpl.html.
+ */
+package net.visualillusionsent.utils;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+import static net.visualillusionsent.utils.Verify.notNull;
+
+/**
+ * Task Promise
+ * <p/>
+ * A {@link FutureTask} that runs {@link TaskFuture.Completion}s when it completes.<br>
+ * Promises made without a task are completed with {@link #complete(Object)}, {@link #fail(Throwable)}
+ * or {@link #settle(Future)}, which is how continuations and futures that are not FutureTasks complete.
+ * Completions are queued lock free and each is polled off the queue exactly once,
+ * either by {@link #done()} or by the thread adding it after the promise completed.
+ *
+ * @author Jason (darkdiplomat)
+ */
+class TaskPromise<V> extends FutureTask<V> implements TaskFuture<V> {
+
+    /** The task of promises completed by hand, which is never run */
+    private static final Runnable UNSET = new Runnable() {
+        public void run() {
+        }
+    };
+    private final ConcurrentLinkedQueue<Completion<? super V>> completions = new ConcurrentLinkedQueue<Completion<? super V>>();
+
+    /** Creates a promise completed by hand */
+    TaskPromise() {
+        super(UNSET, null);
+    }
+
+    TaskPromise(Callable<V> callable) {
+        super(callable);
+    }
+
+    TaskPromise(Runnable runnable, V result) {
+        super(runnable, result);
+    }
+
+    /** Completes the promise with a result, unless already complete */
+    final void complete(V result) {
+        set(result);
+    }
+
+    /** Completes the promise with an exception, unless already complete */
+    final void fail(Throwable failure) {
+        if (failure instanceof CancellationException) {
+            cancel(false);
+        }
+        else {
+            setException(failure);
+        }
+    }
+
+    /** Completes the promise the same way a completed {@link Future} did */
+    final void settle(Future<? extends V> future) {
+        if (future.isCancelled()) {
+            cancel(false);
+            return;
+        }
+        try {
+            set(future.get());
+        }
+        catch (ExecutionException eex) {
+            setException(eex.getCause());
+        }
+        catch (InterruptedException iex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    protected final void done() {
+        fire();
+    }
+
+    private void fire() {
+        Completion<? super V> completion;
+        while ((completion = completions.poll()) != null) {
+            V result = null;
+            Throwable failure = null;
+            if (isCancelled()) {
+                failure = new CancellationException();
+            }
+            else {
+                try {
+                    result = get(); // Already done, so doesn't block
+                }
+                catch (ExecutionException eex) {
+                    failure = eex.getCause();
+                }
+                catch (InterruptedException iex) {
+                    Thread.currentThread().interrupt();
+                    failure = iex;
+                }
+            }
+            try {
+                completion.completed(result, failure);
+            }
+            catch (Exception ex) {
+                // Completions queued by the promise handle their own exceptions
+            }
+        }
+    }
+
+    private void onComplete(Completion<? super V> completion) {
+        completions.add(completion);
+        if (isDone()) {
+            fire(); // Completed before the completion was queued
+        }
+    }
+
+    @Override
+    public final <R> TaskFuture<R> thenApply(final Function<? super V, ? extends R> function) {
+        notNull(function, "Function function");
+        final TaskPromise<R> next = new TaskPromise<R>();
+        onComplete(new Completion<V>() {
+            public void completed(V result, Throwable failure) {
+                if (failure != null) {
+                    next.fail(failure);
+                    return;
+                }
+                try {
+                    next.complete(function.apply(result));
+                }
+                catch (Throwable thrown) {
+                    next.fail(thrown);
+                }
+            }
+        });
+        return next;
+    }
+
+    @Override
+    public final <R> TaskFuture<R> thenCompose(final Function<? super V, ? extends TaskFuture<R>> function) {
+        notNull(function, "Function function");
+        final TaskPromise<R> next = new TaskPromise<R>();
+        onComplete(new Completion<V>() {
+            public void completed(V result, Throwable failure) {
+                if (failure != null) {
+                    next.fail(failure);
+                    return;
+                }
+                try {
+                    TaskFuture<R> step = function.apply(result);
+                    if (step == null) {
+                        throw new NullPointerException("Function returned a null TaskFuture");
+                    }
+                    step.whenComplete(new Completion<R>() {
+                        public void completed(R stepResult, Throwable stepFailure) {
+                            if (stepFailure != null) {
+                                next.fail(stepFailure);
+                            }
+                            else {
+                                next.complete(stepResult);
+                            }
+                        }
+                    });
+                }
+                catch (Throwable thrown) {
+                    next.fail(thrown);
+                }
+            }
+        });
+        return next;
+    }
+
+    @Override
+    public final TaskFuture<V> whenComplete(final Completion<? super V> completion) {
+        notNull(completion, "Completion completion");
+        final TaskPromise<V> next = new TaskPromise<V>();
+        onComplete(new Completion<V>() {
+            public void completed(V result, Throwable failure) {
+                try {
+                    completion.completed(result, failure);
+                }
+                catch (Throwable thrown) {
+                    if (failure == null) {
+                        next.fail(thrown);
+                        return;
+                    }
+                }
+                if (failure != null) {
+                    next.fail(failure);
+                }
+                else {
+                    next.complete(result);
+                }
+            }
+        });
+        return next;
+    }
+}
@@ -0,0 +1,292 @@
+/*
+ * This file is part of VIUtils.
+ *
+ * Copyright © 2012-2015 Visual Illusions Entertainment
+ *
+ * VIUtils is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this library.
+ * If not, see http://www.gnu.org/licenses/lgpl.html.
+ */
+package net.visualillusionsent.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RunnableScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Hashed Timing Wheel
+ * <p/>
+ * Holds delayed tasks in a ring of buckets, one bucket per tick, instead of a heap.<br>
+ * Scheduling and cancelling only add to lock free queues, which the wheel thread drains once per tick,
+ * so both are O(1) no matter how many tasks are pending. Delays longer than one turn of the wheel
+ * are kept in their bucket with a count of the remaining turns.<br>
+ * Tasks fire on the first tick at or after their deadline, so they may run up to one tick late.
+ * Due tasks are handed to the dispatching {@link Executor} to run.
+ *
+ * @author Jason (darkdiplomat)
+ */
+final class TimingWheel {
+
+    /** The most timeouts moved into the wheel per tick, so a burst cannot stall expiry */
+    private static final int MAX_TRANSFER = 100000;
+    private final Executor dispatcher;
+    private final Thread worker;
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final ConcurrentLinkedQueue<Timeout<?>> pending = new ConcurrentLinkedQueue<Timeout<?>>();
+    private final ConcurrentLinkedQueue<Timeout<?>> cancelled = new ConcurrentLinkedQueue<Timeout<?>>();
+    /** The dispatch tasks of the timeouts left when the wheel stopped */
+    private final ConcurrentLinkedQueue<Runnable> unfired = new ConcurrentLinkedQueue<Runnable>();
+    private volatile long startTime;
+    private volatile int state; // 0 = new, 1 = started, 2 = stopped
+    private long tick;
+
+    TimingWheel(long tickDuration, TimeUnit unit, int wheelSize, Executor dispatcher, ThreadFactory factory) {
+        this.tickNanos = Math.max(unit.toNanos(tickDuration), 1);
+        int size = 1;
+        while (size < wheelSize) {
+            size <<= 1; // Round up to a power of two so the bucket is a mask of the tick
+        }
+        this.wheel = new Bucket[size];
+        for (int index = 0; index < size; index++) {
+            wheel[index] = new Bucket();
+        }
+        this.mask = size - 1;
+        this.dispatcher = dispatcher;
+        this.worker = factory.newThread(new Worker());
+    }
+
+    /** Creates a timeout for a task, which is not scheduled until {@link #start(Timeout, Runnable)} */
+    final <V> Timeout<V> newTimeout(Callable<V> callable, long delay, TimeUnit unit) {
+        return new Timeout<V>(callable, System.nanoTime() + unit.toNanos(delay));
+    }
+
+    /** Schedules a timeout to run the dispatch task once its deadline passes */
+    final void start(Timeout<?> timeout, Runnable dispatch) {
+        if (state == 0) {
+            synchronized (this) {
+                if (state == 0) {
+                    startTime = System.nanoTime();
+                    state = 1;
+                    worker.start();
+                }
+            }
+        }
+        if (state == 2) {
+            throw new RejectedExecutionException("TimingWheel has been stopped");
+        }
+        timeout.dispatch = dispatch;
+        pending.offer(timeout);
+    }
+
+    /**
+     * Stops the wheel, waiting for its thread to finish the tick it may be on.<br>
+     * Timeouts that have not fired are neither run nor cancelled, but returned as their dispatch tasks for the caller to handle.
+     */
+    final List<Runnable> stop() {
+        synchronized (this) {
+            boolean started = state == 1;
+            state = 2;
+            if (!started) {
+                return new ArrayList<Runnable>(unfired);
+            }
+        }
+        worker.interrupt();
+        try {
+            worker.join();
+        }
+        catch (InterruptedException iex) {
+            Thread.currentThread().interrupt(); // Return what the wheel has given up so far
+        }
+        return new ArrayList<Runnable>(unfired);
+    }
+
+    /** Gets the number of timeouts waiting to be moved into the wheel */
+    final int getPendingCount() {
+        return pending.size();
+    }
+
+    private final class Worker implements Runnable {
+
+        @Override
+        public final void run() {
+            while (state == 1) {
+                long deadline = startTime + (tick + 1) * tickNanos;
+                long sleep;
+                while ((sleep = deadline - System.nanoTime()) > 0 && state == 1) {
+                    LockSupport.parkNanos(sleep);
+                }
+                if (state != 1) {
+                    break;
+                }
+                removeCancelled();
+                transferPending();
+                wheel[(int)(tick & mask)].expire(System.nanoTime());
+                tick++;
+            }
+            for (Bucket bucket : wheel) {
+                bucket.clear();
+            }
+            Timeout<?> timeout;
+            while ((timeout = pending.poll()) != null) {
+                if (!timeout.isCancelled()) {
+                    unfired.add(timeout.dispatch);
+                }
+            }
+            cancelled.clear();
+        }
+
+        private void removeCancelled() {
+            Timeout<?> timeout;
+            while ((timeout = cancelled.poll()) != null) {
+                if (timeout.bucket != null) {
+                    timeout.bucket.remove(timeout);
+                }
+            }
+        }
+
+        private void transferPending() {
+            Timeout<?> timeout;
+            for (int count = 0; count < MAX_TRANSFER && (timeout = pending.poll()) != null; count++) {
+                if (timeout.isCancelled()) {
+                    continue;
+                }
+                long ticks = (timeout.deadline - startTime) / tickNanos;
+                timeout.rounds = (ticks - tick) / wheel.length;
+                wheel[(int)(Math.max(ticks, tick) & mask)].add(timeout); // Deadlines already passed go in the current bucket
+            }
+        }
+    }
+
+    /** The timeouts hashed to one tick of the wheel, only touched by the wheel thread */
+    private final class Bucket {
+        private Timeout<?> head;
+        private Timeout<?> tail;
+
+        final void add(Timeout<?> timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            }
+            else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        final void remove(Timeout<?> timeout) {
+            Timeout<?> next = timeout.next;
+            if (timeout.prev != null) {
+                timeout.prev.next = next;
+            }
+            if (next != null) {
+                next.prev = timeout.prev;
+            }
+            if (timeout == head) {
+                head = next;
+            }
+            if (timeout == tail) {
+                tail = timeout.prev;
+            }
+            timeout.prev = timeout.next = null;
+            timeout.bucket = null;
+        }
+
+        final void expire(long now) {
+            Timeout<?> timeout = head;
+            while (timeout != null) {
+                Timeout<?> next = timeout.next;
+                if (timeout.rounds <= 0 && timeout.deadline <= now) {
+                    remove(timeout);
+                    try {
+                        dispatcher.execute(timeout.dispatch);
+                    }
+                    catch (RejectedExecutionException rex) {
+                        timeout.cancel(false);
+                    }
+                }
+                else if (timeout.rounds > 0) {
+                    timeout.rounds--;
+                }
+                timeout = next;
+            }
+        }
+
+        final void clear() {
+            Timeout<?> timeout = head;
+            while (timeout != null) {
+                Timeout<?> next = timeout.next;
+                remove(timeout);
+                if (!timeout.isCancelled()) {
+                    unfired.add(timeout.dispatch);
+                }
+                timeout = next;
+            }
+        }
+    }
+
+    /**
+     * A delayed task held by the wheel
+     *
+     * @author Jason (darkdiplomat)
+     */
+    final class Timeout<V> extends FutureTask<V> implements RunnableScheduledFuture<V> {
+        private final long deadline;
+        private Runnable dispatch = this;
+        private long rounds;
+        private Bucket bucket;
+        private Timeout<?> prev;
+        private Timeout<?> next;
+
+        Timeout(Callable<V> callable, long deadline) {
+            super(callable);
+            this.deadline = deadline;
+        }
+
+        @Override
+        public final boolean cancel(boolean mayInterruptIfRunning) {
+            boolean result = super.cancel(mayInterruptIfRunning);
+            if (result && state == 1) {
+                cancelled.offer(this); // Unlinked by the wheel thread on its next tick
+            }
+            return result;
+        }
+
+        @Override
+        public final boolean isPeriodic() {
+            return false;
+        }
+
+        @Override
+        public final long getDelay(TimeUnit unit) {
+            return unit.convert(deadline - System.nanoTime(), NANOSECONDS);
+        }
+
+        @Override
+        public final int compareTo(Delayed other) {
+            long diff = getDelay(NANOSECONDS) - other.getDelay(NANOSECONDS);
+            return diff < 0 ? -1 : diff > 0 ? 1 : 0;
+        }
+    }
+}
@@ -39,12 +39,12 @@ import static net.visualillusionsent.utils.Verify.notNull;
  * An Unmodifiable Properties File implementation
  *
  * @author Jason (darkdiplomat)
- * @version 1.3
+ * @version 1.4
  * @since 1.1.0
  */
 public final class UnmodifiablePropertiesFile extends AbstractPropertiesFile {
-    /* 1.3 @ VIUtils 1.4.1 */
-    private static final float classVersion = 1.3F;
+    /* 1.4 @ VIUtils 1.4.3 */
+    private static final float classVersion = 1.4F;
 
     /**
      * {@inheritDoc}
@@ -212,6 +212,7 @@ public final class UnmodifiablePropertiesFile extends AbstractPropertiesFile {
                 throw new PropertiesFileException("file.err.ioe", filePath);
             }
         }
+        this.modCount++;
     }
 
     /**
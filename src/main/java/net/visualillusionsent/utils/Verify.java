@@ -53,9 +53,12 @@ public final class Verify {
         temp.put("prop.nan", "Property for KEY: '%s' was not a number or is out of range.");
         temp.put("str.num.range", "String Index: '%s' is out of range.");
         temp.put("str.nan", "String Index: '%s' was not a number or is out of range");
+        temp.put("map.pos.range", "Map Position: '%s' is out of range.");
         temp.put("entry.missing", "JarFile does not contain Entry: '%s'");
         temp.put("num.zeroOrLess", "%s cannot be negative or zero");
         temp.put("num.negative", "%s cannot be negative");
+        temp.put("num.percentile.range", "Percentile: '%s' is not within 0 to 100.");
+        temp.put("thread.priority.range", "Thread Priority: '%s' is not within 1 to 10.");
         temp.put("sum.fail", "The underlining Java Runtime Environment does not appear to support the %s Algorithm");
         errors = Collections.unmodifiableMap(temp);
     }
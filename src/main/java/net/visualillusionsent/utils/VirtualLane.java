@@ -0,0 +1,173 @@
+/*
+ * This file is part of VIUtils.
+ *
+ * Copyright © 2012-2015 Visual Illusions Entertainment
+ *
+ * VIUtils is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this library.
+ * If not, see http://www.gnu.org/licenses/lgpl.html.
+ */
+package net.visualillusionsent.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Virtual Thread Lane
+ * <p/>
+ * Runs each task of a {@link TaskLane} on its own virtual thread, with a {@link Semaphore} limiting how many run at once.<br>
+ * Tasks over the limit wait parked on their virtual thread, which costs next to nothing, rather than in a queue.
+ * Virtual threads are Java 21+, so they are looked up reflectively and {@link #create(String, int)} returns {@code null}
+ * on older runtimes, leaving the pool to fall back to its platform threads.<br>
+ * The waiting tasks are kept so a shutdown can take them back, as the executor of the virtual threads only returns tasks never started.
+ *
+ * @author Jason (darkdiplomat)
+ */
+final class VirtualLane extends AbstractExecutorService {
+
+    private final ExecutorService virtual;
+    private final Semaphore limiter;
+    private final Set<Waiting> waiting = Collections.newSetFromMap(new ConcurrentHashMap<Waiting, Boolean>());
+    private final AtomicInteger running = new AtomicInteger();
+
+    private VirtualLane(ExecutorService virtual, int concurrency) {
+        this.virtual = virtual;
+        this.limiter = new Semaphore(concurrency, true); // Fair, so tasks start in the order they were submitted
+    }
+
+    /** Creates a lane of virtual threads named from the prefix, or returns {@code null} if the runtime has no virtual threads */
+    static VirtualLane create(String namePrefix, int concurrency) {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 1L);
+            ThreadFactory factory = (ThreadFactory)builderClass.getMethod("factory").invoke(builder);
+            ExecutorService virtual = (ExecutorService)Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class).invoke(null, factory);
+            return new VirtualLane(virtual, concurrency);
+        }
+        catch (Exception ex) {
+            return null;
+        }
+    }
+
+    /** Gets the number of tasks waiting for the limiter */
+    final int getWaitingCount() {
+        return waiting.size();
+    }
+
+    /** Gets the number of tasks running */
+    final int getRunningCount() {
+        return running.get();
+    }
+
+    /** Takes the tasks waiting for the limiter, which are then skipped once they get it */
+    final void drainTo(List<Runnable> tasks) {
+        for (Waiting task : waiting) {
+            if (waiting.remove(task)) {
+                tasks.add(task.task);
+            }
+        }
+    }
+
+    @Override
+    public final void execute(Runnable task) {
+        if (task == null) {
+            throw new NullPointerException();
+        }
+        if (virtual.isShutdown()) {
+            throw new RejectedExecutionException("Lane has been shut down");
+        }
+        Waiting wrapped = new Waiting(task);
+        waiting.add(wrapped);
+        try {
+            virtual.execute(wrapped);
+        }
+        catch (RejectedExecutionException rex) {
+            waiting.remove(wrapped);
+            throw rex;
+        }
+    }
+
+    @Override
+    public final void shutdown() {
+        virtual.shutdown();
+    }
+
+    @Override
+    public final List<Runnable> shutdownNow() {
+        virtual.shutdown(); // Stops taking tasks before the waiting ones are taken
+        List<Runnable> dropped = new ArrayList<Runnable>();
+        drainTo(dropped);
+        dropped.addAll(virtual.shutdownNow());
+        return dropped;
+    }
+
+    @Override
+    public final boolean isShutdown() {
+        return virtual.isShutdown();
+    }
+
+    @Override
+    public final boolean isTerminated() {
+        return virtual.isTerminated();
+    }
+
+    @Override
+    public final boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return virtual.awaitTermination(timeout, unit);
+    }
+
+    /** A task on its virtual thread, run once it gets the limiter unless a shutdown claimed it first */
+    private final class Waiting implements Runnable {
+        private final Runnable task;
+
+        Waiting(Runnable task) {
+            this.task = task;
+        }
+
+        @Override
+        public final void run() {
+            try {
+                limiter.acquire();
+            }
+            catch (InterruptedException iex) { // Shut down now, which claims the waiting tasks first
+                if (waiting.remove(this) && task instanceof Future) {
+                    ((Future<?>)task).cancel(false);
+                }
+                return;
+            }
+            if (!waiting.remove(this)) {
+                limiter.release();
+                return; // Dropped by a shutdown
+            }
+            running.incrementAndGet();
+            try {
+                task.run();
+            }
+            finally {
+                running.decrementAndGet();
+                limiter.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package net.visualillusionsent.utils.testing;
+
+import net.visualillusionsent.utils.CronExpression;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.TimeZone;
+
+public class CronExpressionTest {
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+    private static final TimeZone NEW_YORK = TimeZone.getTimeZone("America/New_York");
+
+    @Test
+    public void dailyTest() {
+        CronExpression cron = CronExpression.parse("0 4 * * *", UTC);
+        Assert.assertEquals(time(UTC, 2024, 3, 11, 4, 0), cron.getNextFireTime(time(UTC, 2024, 3, 10, 5, 0)));
+        Assert.assertEquals(time(UTC, 2024, 3, 11, 4, 0), cron.getNextFireTime(time(UTC, 2024, 3, 11, 3, 59)));
+        Assert.assertEquals(time(UTC, 2024, 3, 12, 4, 0), cron.getNextFireTime(time(UTC, 2024, 3, 11, 4, 0))); // Never the time searched from
+    }
+
+    @Test
+    public void macroTest() {
+        Assert.assertEquals(time(UTC, 2024, 3, 10, 11, 0), CronExpression.parse("@hourly", UTC).getNextFireTime(time(UTC, 2024, 3, 10, 10, 30)));
+        Assert.assertEquals(time(UTC, 2025, 1, 1, 0, 0), CronExpression.parse("@yearly", UTC).getNextFireTime(time(UTC, 2024, 3, 10, 10, 30)));
+    }
+
+    @Test
+    public void rangeStepAndNameTest() {
+        CronExpression cron = CronExpression.parse("*/15 9-17 * * MON-FRI", UTC);
+        Assert.assertEquals(time(UTC, 2024, 3, 11, 9, 0), cron.getNextFireTime(time(UTC, 2024, 3, 8, 17, 50))); // Friday evening to Monday
+        Assert.assertEquals(time(UTC, 2024, 3, 11, 9, 15), cron.getNextFireTime(time(UTC, 2024, 3, 11, 9, 0)));
+        Assert.assertEquals(CronExpression.parse("0 0 * * SUN", UTC).getNextFireTime(0), CronExpression.parse("0 0 * * 7", UTC).getNextFireTime(0));
+    }
+
+    @Test
+    public void dayFieldsTest() {
+        Assert.assertEquals(time(UTC, 2028, 2, 29, 0, 0), CronExpression.parse("0 0 29 2 *", UTC).getNextFireTime(time(UTC, 2024, 3, 1, 0, 0)));
+        // Both day fields restricted, so either fires: Friday the 6th comes before the 13th
+        Assert.assertEquals(time(UTC, 2024, 9, 6, 0, 0), CronExpression.parse("0 0 13 * FRI", UTC).getNextFireTime(time(UTC, 2024, 9, 1, 0, 0)));
+    }
+
+    @Test
+    public void daylightSavingTest() {
+        // 02:30 doesn't exist on the day clocks go forward, so it fires at 03:30
+        CronExpression skipped = CronExpression.parse("30 2 * * *", NEW_YORK);
+        Assert.assertEquals(time(NEW_YORK, 2024, 3, 10, 3, 30), skipped.getNextFireTime(time(NEW_YORK, 2024, 3, 10, 0, 0)));
+        // 01:30 happens twice on the day clocks go back, but fires once
+        CronExpression repeated = CronExpression.parse("30 1 * * *", NEW_YORK);
+        long first = repeated.getNextFireTime(time(NEW_YORK, 2024, 11, 3, 0, 0));
+        Assert.assertTrue(first < time(NEW_YORK, 2024, 11, 3, 3, 0));
+        Assert.assertEquals(time(NEW_YORK, 2024, 11, 4, 1, 30), repeated.getNextFireTime(first));
+    }
+
+    @Test
+    public void invalidTest() {
+        String[] invalid = {"61 * * * *", "* * *", "0 0 31 2 *", "5-1 * * * *", "0 0 * * FOO", "@sometimes"};
+        for (String expression : invalid) {
+            try {
+                CronExpression.parse(expression, UTC);
+                Assert.fail("Parsed " + expression);
+            }
+            catch (IllegalArgumentException iaex) {
+                // Expected
+            }
+        }
+    }
+
+    private static long time(TimeZone zone, int year, int month, int day, int hour, int minute) {
+        Calendar calendar = new GregorianCalendar(zone);
+        calendar.clear();
+        calendar.set(year, month - 1, day, hour, minute);
+        return calendar.getTimeInMillis();
+    }
+}
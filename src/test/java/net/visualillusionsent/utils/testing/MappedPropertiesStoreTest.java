@@ -0,0 +1,175 @@
+package net.visualillusionsent.utils.testing;
+
+import net.visualillusionsent.utils.MappedPropertiesStore;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+public class MappedPropertiesStoreTest {
+
+    private static File tempFile() throws IOException {
+        File file = File.createTempFile("viutils", ".store");
+        Assert.assertTrue(file.delete());
+        file.deleteOnExit();
+        return file;
+    }
+
+    @Test
+    public void storeTest() throws IOException {
+        File file = tempFile();
+        MappedPropertiesStore store = new MappedPropertiesStore(file.getPath());
+        store.setInt("int", 42);
+        store.setLong("long", 123456789123456789L);
+        store.setBoolean("bool", true);
+        store.setString("string", "value");
+        store.setIntArray("ints", new int[]{ 1, 2, 3 });
+        store.setString("string", "replaced");
+        store.removeKey("bool");
+        Assert.assertEquals(42, store.getInt("int"));
+        Assert.assertEquals(7, store.getInt("missing", 7));
+        store.save();
+        store.close();
+
+        MappedPropertiesStore reopened = new MappedPropertiesStore(file.getPath());
+        Assert.assertEquals(5, reopened.size());
+        Assert.assertEquals(42, reopened.getInt("int"));
+        Assert.assertEquals(123456789123456789L, reopened.getLong("long"));
+        Assert.assertEquals("replaced", reopened.getString("string"));
+        Assert.assertArrayEquals(new int[]{ 1, 2, 3 }, reopened.getIntArray("ints"));
+        Assert.assertFalse(reopened.containsKey("bool"));
+        Assert.assertEquals(7, reopened.getInt("missing"));
+        reopened.close();
+    }
+
+    @Test
+    public void compactTest() throws IOException {
+        File file = tempFile();
+        MappedPropertiesStore store = new MappedPropertiesStore(file.getPath());
+        for (int index = 0; index < 1000; index++) {
+            store.setInt("key." + (index % 10), index);
+        }
+        int before = store.getLogLength();
+        store.compact();
+        Assert.assertEquals(10, store.size());
+        Assert.assertEquals(999, store.getInt("key.9"));
+        Assert.assertTrue(store.getLogLength() < before);
+        store.close();
+
+        MappedPropertiesStore reopened = new MappedPropertiesStore(file.getPath());
+        Assert.assertEquals(10, reopened.size());
+        Assert.assertEquals(990, reopened.getInt("key.0"));
+        reopened.close();
+    }
+
+    @Test
+    public void compactBackoffTest() throws Exception {
+        File file = tempFile();
+        File compacted = new File(file.getPath().concat(".compact"));
+        final AtomicInteger failures = new AtomicInteger();
+        Handler counter = new Handler() {
+            public void publish(LogRecord record) {
+                if (record.getMessage().startsWith("Failed to compact store")) {
+                    failures.incrementAndGet();
+                }
+            }
+
+            public void flush() {
+            }
+
+            public void close() {
+            }
+        };
+        Logger.getLogger("VIUtils").addHandler(counter);
+        try {
+            MappedPropertiesStore store = new MappedPropertiesStore(file.getPath());
+            Assert.assertTrue(compacted.mkdir()); // Compactions fail, as the compacted log cannot be written
+            char[] value = new char[1024];
+            Arrays.fill(value, 'x');
+            String filler = new String(value);
+            for (int index = 0; index < 3000; index++) { // About 3MB, with all but the last record dead
+                store.setString("key", filler + index);
+            }
+            long deadline = System.currentTimeMillis() + 10000;
+            while (failures.get() == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            store.close();
+            Assert.assertTrue(failures.get() > 0);
+            Assert.assertTrue(failures.get() <= 2); // Past 1MB and then 2MB dead, not once per write
+            store = new MappedPropertiesStore(file.getPath());
+            Assert.assertEquals(filler + 2999, store.getString("key"));
+            store.close();
+        }
+        finally {
+            Logger.getLogger("VIUtils").removeHandler(counter);
+            compacted.delete();
+        }
+    }
+
+    @Test
+    public void recoveryTest() throws IOException {
+        File file = tempFile();
+        MappedPropertiesStore store = new MappedPropertiesStore(file.getPath());
+        store.setString("kept", "value");
+        int end = store.getLogLength();
+        store.close();
+
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        raf.seek(end);
+        raf.writeInt(20); // A torn record with no valid checksum
+        raf.writeInt(12345);
+        raf.write(new byte[]{ 1, 0, 0, 0, 3, 'b', 'a', 'd' });
+        raf.close();
+
+        MappedPropertiesStore recovered = new MappedPropertiesStore(file.getPath());
+        Assert.assertEquals(1, recovered.size());
+        Assert.assertEquals(end, recovered.getLogLength());
+        recovered.setString("after", "crash");
+        Assert.assertEquals("value", recovered.getString("kept"));
+        Assert.assertEquals("crash", recovered.getString("after"));
+        recovered.close();
+    }
+
+    @Test
+    public void compactRecoveryTest() throws IOException {
+        File file = tempFile();
+        File compacted = new File(file.getPath().concat(".compact"));
+        compacted.deleteOnExit();
+        byte[] key = "recovered".getBytes("UTF-8");
+        byte[] value = "yes".getBytes("UTF-8");
+        ByteBuffer body = ByteBuffer.allocate(1 + 4 + key.length + 4 + value.length);
+        body.put((byte) 1).putInt(key.length).put(key).putInt(value.length).put(value);
+        CRC32 crc = new CRC32();
+        crc.update(body.array());
+        RandomAccessFile raf = new RandomAccessFile(compacted, "rw");
+        raf.writeInt(0x56495053);
+        raf.writeInt(1);
+        raf.writeInt(body.capacity());
+        raf.writeInt((int) crc.getValue());
+        raf.write(body.array());
+        raf.close();
+
+        MappedPropertiesStore store = new MappedPropertiesStore(file.getPath()); // Crashed after deleting the store, before the move
+        Assert.assertEquals("yes", store.getString("recovered"));
+        Assert.assertFalse(compacted.exists());
+        store.close();
+
+        raf = new RandomAccessFile(compacted, "rw");
+        raf.writeInt(0); // Crashed while compacting, before the magic number was written
+        raf.close();
+        store = new MappedPropertiesStore(file.getPath());
+        Assert.assertEquals("yes", store.getString("recovered")); // The store still holds the live log
+        Assert.assertFalse(compacted.exists());
+        store.close();
+    }
+}
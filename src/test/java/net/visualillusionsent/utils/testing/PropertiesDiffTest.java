@@ -0,0 +1,109 @@
+package net.visualillusionsent.utils.testing;
+
+import net.visualillusionsent.utils.MappedPropertiesStore;
+import net.visualillusionsent.utils.PropertiesDiff;
+import net.visualillusionsent.utils.PropertiesFile;
+import net.visualillusionsent.utils.PropertiesMerge;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class PropertiesDiffTest {
+
+    private static PropertiesFile temp() throws IOException {
+        File file = File.createTempFile("viutils", ".cfg");
+        file.deleteOnExit();
+        return new PropertiesFile(file);
+    }
+
+    @Test
+    public void diffTest() throws IOException {
+        PropertiesFile from = temp();
+        from.setString("same", "value");
+        from.setString("changed", "old");
+        from.setString("removed", "gone");
+        from.setString("commented", "value");
+        PropertiesFile to = temp();
+        to.setString("same", "value");
+        to.setString("changed", "new");
+        to.setString("commented", "value", "A comment");
+        to.setString("added", "here");
+
+        PropertiesDiff diff = PropertiesDiff.compare(from, to);
+        Assert.assertEquals(4, diff.getChanges().size());
+        Assert.assertEquals("added", diff.getAdded().get(0).getKey());
+        Assert.assertEquals("removed", diff.getRemoved().get(0).getKey());
+        Assert.assertEquals(2, diff.getModified().size());
+        Assert.assertTrue(diff.getModified().get(0).isValueChanged());
+        Assert.assertFalse(diff.getModified().get(1).isValueChanged());
+        Assert.assertTrue(diff.getModified().get(1).isCommentChanged());
+        Assert.assertTrue(PropertiesDiff.compare(to, to).isEmpty());
+    }
+
+    @Test
+    public void mergeTest() throws IOException {
+        PropertiesFile base = temp();
+        base.setString("a", "1");
+        base.setString("b", "1");
+        base.setString("c", "1");
+        PropertiesFile theirs = temp();
+        theirs.setString("a", "2");
+        theirs.setString("b", "2");
+        theirs.setString("c", "1");
+        theirs.setString("d", "2");
+        PropertiesFile ours = temp();
+        ours.setString("a", "1");
+        ours.setString("b", "3");
+
+        List<PropertiesMerge.Conflict> conflicts = PropertiesMerge.merge(base, theirs, ours);
+        Assert.assertEquals(1, conflicts.size());
+        Assert.assertEquals("b", conflicts.get(0).getKey());
+        Assert.assertEquals("2", ours.getString("a"));
+        Assert.assertEquals("3", ours.getString("b"));
+        Assert.assertFalse(ours.containsKey("c"));
+        Assert.assertEquals("2", ours.getString("d"));
+    }
+
+    @Test
+    public void commentlessMergeTest() throws IOException {
+        PropertiesFile base = temp();
+        base.addHeaderLines("Header");
+        base.setString("a", "1", "About a");
+        base.setString("b", "1", "About b");
+        PropertiesFile ours = temp();
+        ours.addHeaderLines("Header");
+        ours.setString("a", "1", "About a");
+        ours.setString("b", "1", "About b");
+        File file = File.createTempFile("viutils", ".store");
+        Assert.assertTrue(file.delete());
+        MappedPropertiesStore theirs = new MappedPropertiesStore(file.getPath());
+        try {
+            theirs.setString("a", "2");
+            theirs.setString("b", "1");
+
+            PropertiesDiff diff = PropertiesDiff.compare(base, theirs);
+            Assert.assertEquals(1, diff.getChanges().size()); // Only the value of a, not the comments the store can't keep
+            Assert.assertFalse(diff.getChanges().get(0).isCommentChanged());
+            Assert.assertFalse(diff.isHeaderChanged());
+            Assert.assertFalse(diff.isFooterChanged());
+
+            List<String> commentsOfA = new ArrayList<String>(ours.getCommentsAsList("a"));
+            List<String> commentsOfB = new ArrayList<String>(ours.getCommentsAsList("b"));
+            List<String> header = ours.getHeaderLines();
+            Assert.assertTrue(PropertiesMerge.merge(base, theirs, ours).isEmpty());
+            Assert.assertEquals("2", ours.getString("a"));
+            Assert.assertEquals(commentsOfA, ours.getCommentsAsList("a"));
+            Assert.assertEquals(commentsOfB, ours.getCommentsAsList("b"));
+            Assert.assertEquals(header, ours.getHeaderLines());
+            Assert.assertFalse(header.isEmpty());
+        }
+        finally {
+            theirs.close();
+            file.delete();
+        }
+    }
+}
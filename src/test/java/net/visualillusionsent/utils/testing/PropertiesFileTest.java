@@ -1,6 +1,8 @@
 package net.visualillusionsent.utils.testing;
 
 import net.visualillusionsent.utils.PropertiesFile;
+import net.visualillusionsent.utils.PrimitivePropertyMap;
+import net.visualillusionsent.utils.PropertyHandle;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -50,4 +52,48 @@ public class PropertiesFileTest {
     public void fileNameTest() {
         Assert.assertEquals("test.cfg", cfg.getFileName());
     }
+
+    @Test
+    public void propertyHandleTest() {
+        PropertiesFile local = new PropertiesFile("src/test/resources/test.cfg");
+        PropertyHandle.IntHandle handle = local.intHandle("integer_test", 10);
+        Assert.assertEquals(0, handle.getInt());
+        Assert.assertTrue(handle.isCurrent());
+        local.setInt("integer_test", 5);
+        Assert.assertFalse(handle.isCurrent());
+        Assert.assertEquals(5, handle.getInt());
+        local.reload();
+        Assert.assertEquals(0, handle.getInt());
+
+        PropertyHandle.BooleanHandle missing = local.booleanHandle("handle_missing_test", true);
+        Assert.assertTrue(missing.getBoolean());
+        Assert.assertTrue(local.containsKey("handle_missing_test"));
+        local.removeKey("handle_missing_test");
+        Assert.assertTrue(missing.getBoolean()); // Reads the default without setting it again
+        Assert.assertFalse(local.containsKey("handle_missing_test"));
+        Assert.assertTrue(missing.isCurrent());
+    }
+
+    @Test
+    public void prefixReadTest() {
+        PropertiesFile local = new PropertiesFile("src/test/resources/test.cfg");
+        local.setString("bulk.hex", "31");
+        local.setDouble("bulk.double", 1.5D);
+        PrimitivePropertyMap.LongMap longs = local.getLongsWithPrefix("long_test");
+        Assert.assertEquals(1, longs.size());
+        Assert.assertEquals(123456789123456789L, longs.get("long_test"));
+        PrimitivePropertyMap.DoubleMap doubles = local.getDoublesWithPrefix("bulk.", true);
+        Assert.assertEquals(31D, doubles.get("hex", 0D), 0D);
+        Assert.assertEquals(1.5D, doubles.get("double"), 0D);
+        Assert.assertEquals("hex", doubles.keyAt(0));
+        local.removeKey("bulk.double");
+        local.setString("bulk.hex", "0x1F");
+        local.setString("bulk.octal", "010");
+        longs = local.getLongsWithPrefix("bulk.", true);
+        Assert.assertEquals(31L, longs.get("hex"));
+        Assert.assertEquals(8L, longs.get("octal"));
+        Assert.assertTrue(local.getBooleansWithPrefix("missing.").isEmpty());
+        local.setBoolean("flag.on", true);
+        Assert.assertTrue(local.getBooleansWithPrefix("flag.", true).get("on"));
+    }
 }
@@ -0,0 +1,47 @@
+package net.visualillusionsent.utils.testing;
+
+import net.visualillusionsent.utils.ShardedPropertiesFile;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+public class ShardedPropertiesFileTest {
+
+    @Test
+    public void shardTest() throws IOException {
+        File dir = File.createTempFile("viutils", "shards");
+        Assert.assertTrue(dir.delete());
+        try {
+            ShardedPropertiesFile store = new ShardedPropertiesFile(dir.getPath(), 4);
+            Assert.assertEquals(4, store.getShardCount());
+            for (int index = 0; index < 100; index++) {
+                store.setInt("player." + index, index);
+            }
+            store.setBoolean("flag", true);
+            store.save();
+            Assert.assertEquals(0, store.getChangedShardCount());
+
+            store.setInt("player.42", 4242);
+            Assert.assertEquals(1, store.getChangedShardCount());
+            store.save();
+
+            ShardedPropertiesFile reopened = new ShardedPropertiesFile(dir.getPath());
+            Assert.assertEquals(4, reopened.getShardCount());
+            Assert.assertEquals(4242, reopened.getInt("player.42"));
+            Assert.assertEquals(7, reopened.getInt("player.7"));
+            Assert.assertTrue(reopened.getBoolean("flag"));
+            Assert.assertEquals(101, reopened.getPropertiesMap().size());
+        }
+        finally {
+            File[] files = dir.listFiles();
+            if (files != null) {
+                for (File file : files) {
+                    file.delete();
+                }
+            }
+            dir.delete();
+        }
+    }
+}
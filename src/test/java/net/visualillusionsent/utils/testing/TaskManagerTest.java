@@ -1,9 +1,37 @@
 package net.visualillusionsent.utils.testing;
 
+import net.visualillusionsent.utils.BatchFuture;
+import net.visualillusionsent.utils.KeyedSerialExecutor;
+import net.visualillusionsent.utils.RateHandle;
+import net.visualillusionsent.utils.RateLimiter;
+import net.visualillusionsent.utils.ShutdownReport;
+import net.visualillusionsent.utils.TaskAutoscaler;
+import net.visualillusionsent.utils.TaskFuture;
+import net.visualillusionsent.utils.TaskGraph;
+import net.visualillusionsent.utils.TaskHandle;
+import net.visualillusionsent.utils.TaskLane;
 import net.visualillusionsent.utils.TaskManager;
+import net.visualillusionsent.utils.TaskMetrics;
+import net.visualillusionsent.utils.TaskPool;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
 /**
  * Copyright (C) 2015 Visual Illusions Entertainment
  * All Rights Reserved.
@@ -24,6 +52,890 @@ public class TaskManagerTest {
         Assert.assertTrue(TaskManager.removeTask(taskTest));
     }
 
+    @Test
+    public void testTaskPool() throws Exception {
+        TaskPool pool = TaskPool.builder("TestPool").coreSize(2).keepAlive(1, TimeUnit.SECONDS).daemon(true).build();
+        Assert.assertEquals("TestPool", pool.getName());
+        Assert.assertEquals(2, pool.getCoreSize());
+        String thread = pool.submitTask(new Callable<String>() {
+            public String call() {
+                return Thread.currentThread().getName();
+            }
+        }).get();
+        Assert.assertTrue(thread.startsWith("TestPool-"));
+        pool.shutdown();
+        Assert.assertTrue(pool.isShutdown());
+        Assert.assertEquals(8, TaskManager.getDefaultPool().getCoreSize());
+    }
+
+    @Test
+    public void testTrackingReleased() throws Exception {
+        TaskPool pool = TaskPool.builder("TrackPool").coreSize(1).daemon(true).build();
+        Assert.assertEquals("done", pool.scheduleDelayedTask(new Callable<String>() {
+            public String call() {
+                return "done";
+            }
+        }, 1, TimeUnit.MILLISECONDS).get());
+        pool.scheduleDelayedTask(new Callable<String>() {
+            public String call() {
+                throw new IllegalStateException("Expected failure");
+            }
+        }, 1, TimeUnit.MILLISECONDS);
+        pool.scheduleDelayedTask(new TaskTest(), 1, TimeUnit.HOURS).cancel(false);
+        awaitUntracked(pool);
+        pool.shutdown();
+    }
+
+    @Test
+    public void testTimingWheel() throws Exception {
+        TaskPool pool = TaskPool.builder("WheelPool").coreSize(2).daemon(true).timingWheel(1, TimeUnit.MILLISECONDS, 16).build();
+        long start = System.nanoTime();
+        String result = pool.scheduleDelayedTask(new Callable<String>() {
+            public String call() {
+                return "wheel";
+            }
+        }, 40, TimeUnit.MILLISECONDS).get(2, TimeUnit.SECONDS); // Longer than one turn of the wheel
+        Assert.assertEquals("wheel", result);
+        Assert.assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(40));
+        TaskTest cancelled = new TaskTest();
+        pool.scheduleDelayedTask(cancelled, 1, TimeUnit.HOURS);
+        Assert.assertTrue(pool.removeTask(cancelled));
+        awaitUntracked(pool);
+        pool.shutdown();
+    }
+
+    @Test
+    public void testWorkStealing() throws Exception {
+        TaskPool pool = TaskPool.builder("StealPool").coreSize(1).daemon(true).workStealing(2).build();
+        Assert.assertTrue(pool.isWorkStealing());
+        final String scheduler = pool.scheduleDelayedTask(new Callable<String>() {
+            public String call() {
+                return Thread.currentThread().getName();
+            }
+        }, 1, TimeUnit.MILLISECONDS).get(2, TimeUnit.SECONDS);
+        Assert.assertTrue(scheduler.startsWith("StealPool-worker-")); // Handed off from the scheduler thread
+        Assert.assertEquals(Integer.valueOf(42), pool.submitTask(new Callable<Integer>() {
+            public Integer call() {
+                return 42;
+            }
+        }).get(2, TimeUnit.SECONDS));
+        pool.shutdown();
+
+        TaskPool userPool = TaskPool.builder("UserStealPool").coreSize(1).workStealing(2).build();
+        Assert.assertFalse(userPool.submitTask(new Callable<Boolean>() {
+            public Boolean call() {
+                return Thread.currentThread().isDaemon();
+            }
+        }).get(2, TimeUnit.SECONDS)); // Keeps the JVM alive like the pool's other threads
+        userPool.shutdown();
+    }
+
+    @Test
+    public void testMetrics() throws Exception {
+        TaskPool pool = TaskPool.builder("MetricPool").coreSize(1).daemon(true).metrics(true).build();
+        Assert.assertNull(TaskManager.getDefaultPool().getMetrics());
+        TaskMetrics metrics = pool.getMetrics();
+        pool.submitTask(new TaskTest()).get();
+        pool.scheduleDelayedTask(new TaskTest(), 1, TimeUnit.MILLISECONDS).get();
+        try {
+            pool.submitTask(new Callable<String>() {
+                public String call() {
+                    throw new IllegalStateException("Expected failure");
+                }
+            }).get();
+            Assert.fail();
+        }
+        catch (ExecutionException eex) {
+            // Expected
+        }
+        long wait = System.currentTimeMillis() + 1000;
+        while (metrics.getExecutionCount() < 3 && System.currentTimeMillis() < wait) {
+            Thread.sleep(1);
+        }
+        TaskMetrics.ClassStats stats = metrics.getClassStats(TaskTest.class);
+        Assert.assertEquals(2, stats.getExecutionCount());
+        Assert.assertEquals(2, stats.getRunTimes().getCount());
+        Assert.assertEquals(1, metrics.getFailureCount());
+        Assert.assertTrue(stats.getRunTimes().getPercentile(100, TimeUnit.NANOSECONDS) >= stats.getRunTimes().getMean(TimeUnit.NANOSECONDS));
+        Assert.assertEquals(0, metrics.getRunningCount());
+        pool.shutdown();
+    }
+
+    @Test
+    public void testHandles() {
+        TaskPool pool = TaskPool.builder("HandlePool").coreSize(1).daemon(true).build();
+        TaskTest task = new TaskTest();
+        TaskHandle<?> first = pool.scheduleDelayedTask(task, 1, TimeUnit.HOURS);
+        TaskHandle<?> second = pool.scheduleDelayedTask(task, 1, TimeUnit.HOURS);
+        Assert.assertNotEquals(first.getId(), second.getId());
+        Assert.assertEquals(2, pool.getTrackedCount());
+        Assert.assertTrue(pool.removeTask(first));
+        Assert.assertFalse(second.isCancelled());
+        Assert.assertEquals(1, pool.getTrackedCount());
+        Assert.assertTrue(pool.removeTask(task)); // The latest scheduling
+        Assert.assertTrue(second.isCancelled());
+        Assert.assertFalse(pool.removeTask(first));
+        Assert.assertEquals(0, pool.getTrackedCount());
+        pool.shutdown();
+    }
+
+    @Test
+    public void testSubmitAll() throws Exception {
+        List<Callable<Integer>> tasks = new ArrayList<Callable<Integer>>();
+        for (int index = 0; index < 100; index++) {
+            final int value = index;
+            tasks.add(new Callable<Integer>() {
+                public Integer call() {
+                    if (value == 50) {
+                        throw new IllegalStateException("Expected failure");
+                    }
+                    return value;
+                }
+            });
+        }
+        BatchFuture<Integer> batch = TaskManager.submitAll(tasks);
+        Assert.assertNotNull(batch.getAny());
+        try {
+            batch.get(2, TimeUnit.SECONDS);
+            Assert.fail();
+        }
+        catch (ExecutionException eex) {
+            Assert.assertTrue(eex.getCause() instanceof IllegalStateException);
+        }
+        Assert.assertEquals(100, batch.getCompletedCount());
+        Assert.assertEquals(99, batch.getCompletedResults().size());
+        Assert.assertEquals(Integer.valueOf(51), batch.getCompletedResults().get(50));
+        Assert.assertEquals(1, batch.getFailures().size());
+        Assert.assertTrue(TaskManager.submitAll(new ArrayList<Callable<Integer>>()).get().isEmpty());
+
+        TaskPool pool = TaskPool.builder("DroppedBatchPool").daemon(true).workStealing(1).boundedQueue(1, TaskPool.Backpressure.DROP_OLDEST).build();
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch running = new CountDownLatch(1);
+        Callable<Integer> blocking = new Callable<Integer>() {
+            public Integer call() throws InterruptedException {
+                running.countDown();
+                release.await();
+                return 1;
+            }
+        };
+        BatchFuture<Integer> held = pool.submitAll(Collections.singletonList(blocking)); // Holds the only worker
+        Assert.assertTrue(running.await(2, TimeUnit.SECONDS));
+        BatchFuture<Integer> dropped = pool.submitAll(Collections.singletonList(blocking));
+        pool.executeTask(new TaskTest()); // Drops the queued drainer of the second batch
+        try {
+            dropped.get(2, TimeUnit.SECONDS);
+            Assert.fail("The batch should have failed");
+        }
+        catch (ExecutionException eex) {
+            Assert.assertTrue(eex.getCause() instanceof CancellationException);
+        }
+        Assert.assertTrue(held.cancel(false));
+        Assert.assertTrue(held.isDone()); // While its task still runs
+        Assert.assertTrue(held.isCancelled());
+        release.countDown();
+        pool.shutdown();
+    }
+
+    @Test
+    public void testLanes() throws Exception {
+        TaskPool pool = TaskPool.builder("LanePool").coreSize(1).daemon(true).lane(TaskLane.BLOCKING_IO, 1).lane(TaskLane.LATENCY, 1).build();
+        Assert.assertFalse(pool.hasLane(TaskLane.CPU));
+        final CountDownLatch release = new CountDownLatch(1);
+        Runnable blocking = new Runnable() {
+            public void run() {
+                try {
+                    release.await();
+                }
+                catch (InterruptedException iex) {
+                    // Finish
+                }
+            }
+        };
+        pool.executeTask(TaskLane.BLOCKING_IO, blocking);
+        pool.executeTask(TaskLane.BLOCKING_IO, blocking);
+        String thread = pool.submitTask(TaskLane.LATENCY, new Callable<String>() {
+            public String call() {
+                return Thread.currentThread().getName() + ":" + Thread.currentThread().getPriority();
+            }
+        }).get(2, TimeUnit.SECONDS); // Not held up by the blocked lane
+        Assert.assertEquals("LanePool-latency-1:" + TaskLane.LATENCY.getDefaultPriority(), thread);
+        Assert.assertEquals(1, pool.getLaneQueueSize(TaskLane.BLOCKING_IO));
+        release.countDown();
+        pool.shutdown();
+    }
+
+    @Test
+    public void testBackpressure() throws Exception {
+        TaskPool pool = TaskPool.builder("BoundedPool").daemon(true).workStealing(1).boundedQueue(1, TaskPool.Backpressure.DROP_OLDEST).build();
+        Assert.assertFalse(pool.isWorkStealing());
+        final CountDownLatch release = new CountDownLatch(1);
+        Runnable blocking = new Runnable() {
+            public void run() {
+                try {
+                    release.await();
+                }
+                catch (InterruptedException iex) {
+                    // Finish
+                }
+            }
+        };
+        pool.executeTask(blocking); // Holds the only worker
+        Future<?> oldest = pool.submitTask(new TaskTest());
+        Assert.assertNull(pool.trySubmit(new TaskTest())); // Queue is full
+        Assert.assertEquals(1, pool.getRejectedCount());
+        Future<?> newest = pool.submitTask(new TaskTest());
+        Assert.assertTrue(oldest.isCancelled());
+        Assert.assertEquals(1, pool.getDroppedCount());
+        release.countDown();
+        newest.get(2, TimeUnit.SECONDS);
+        Assert.assertNotNull(pool.trySubmit(new TaskTest()));
+        pool.shutdown();
+        Assert.assertNull(pool.trySubmit(new TaskTest()));
+
+        TaskPool callerRuns = TaskPool.builder("CallerRunsPool").coreSize(1).daemon(true).boundedQueue(1, TaskPool.Backpressure.CALLER_RUNS).build();
+        final CountDownLatch held = new CountDownLatch(1);
+        callerRuns.executeTask(new Runnable() {
+            public void run() {
+                try {
+                    held.await();
+                }
+                catch (InterruptedException iex) {
+                    // Finish
+                }
+            }
+        });
+        callerRuns.executeTask(new TaskTest());
+        String thread = callerRuns.submitTask(new Callable<String>() {
+            public String call() {
+                return Thread.currentThread().getName();
+            }
+        }).get(2, TimeUnit.SECONDS);
+        Assert.assertEquals(Thread.currentThread().getName(), thread);
+        Assert.assertEquals(1, callerRuns.getCallerRunCount());
+        held.countDown();
+        callerRuns.shutdown();
+    }
+
+    @Test
+    public void testVirtualLane() throws Exception {
+        TaskPool pool = TaskPool.builder("VirtualPool").coreSize(1).daemon(true).lane(TaskLane.BLOCKING_IO, 1).virtualLane(TaskLane.BLOCKING_IO, 2).build();
+        Assert.assertTrue(pool.hasLane(TaskLane.BLOCKING_IO));
+        final int limit = pool.isVirtualLane(TaskLane.BLOCKING_IO) ? 2 : 1; // Falls back to the platform lane before Java 21
+        final CountDownLatch release = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<Future<?>>();
+        for (int index = 0; index < 4; index++) {
+            futures.add(pool.submitTask(TaskLane.BLOCKING_IO, new Runnable() {
+                public void run() {
+                    try {
+                        release.await();
+                    }
+                    catch (InterruptedException iex) {
+                        // Finish
+                    }
+                }
+            }));
+        }
+        long deadline = System.currentTimeMillis() + 1000;
+        while (pool.getLaneActiveCount(TaskLane.BLOCKING_IO) < limit && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        Assert.assertEquals(limit, pool.getLaneActiveCount(TaskLane.BLOCKING_IO));
+        Assert.assertEquals(4 - limit, pool.getLaneQueueSize(TaskLane.BLOCKING_IO));
+        release.countDown();
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        TaskPool fallback = TaskPool.builder("FallbackPool").coreSize(1).daemon(true).virtualLane(TaskLane.CPU, 1).build();
+        Assert.assertEquals(fallback.isVirtualLane(TaskLane.CPU), fallback.hasLane(TaskLane.CPU));
+        Assert.assertEquals("done", fallback.submitTask(TaskLane.CPU, new Callable<String>() {
+            public String call() {
+                return "done";
+            }
+        }).get(2, TimeUnit.SECONDS));
+        fallback.shutdown();
+    }
+
+    @Test
+    public void testTaskFuture() throws Exception {
+        final TaskPool pool = TaskPool.builder("FuturePool").coreSize(2).daemon(true).build();
+        TaskFuture<Integer> length = pool.submitTask(new Callable<String>() {
+            public String call() {
+                return "VIUtils";
+            }
+        }).thenApply(new TaskFuture.Function<String, Integer>() {
+            public Integer apply(String value) {
+                return value.length();
+            }
+        });
+        TaskFuture<String> composed = length.thenCompose(new TaskFuture.Function<Integer, TaskFuture<String>>() {
+            public TaskFuture<String> apply(final Integer value) {
+                return pool.submitTask(new Callable<String>() {
+                    public String call() {
+                        return "Length " + value;
+                    }
+                });
+            }
+        });
+        Assert.assertEquals("Length 7", composed.get(2, TimeUnit.SECONDS));
+
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        TaskFuture<Object> failed = pool.submitTask(new Callable<Object>() {
+            public Object call() {
+                throw new IllegalStateException("Failed");
+            }
+        }).whenComplete(new TaskFuture.Completion<Object>() {
+            public void completed(Object result, Throwable thrown) {
+                failure.set(thrown);
+            }
+        });
+        try {
+            failed.get(2, TimeUnit.SECONDS);
+            Assert.fail("Expected the failure to carry over");
+        }
+        catch (ExecutionException eex) {
+            Assert.assertTrue(eex.getCause() instanceof IllegalStateException);
+        }
+        Assert.assertTrue(failure.get() instanceof IllegalStateException);
+
+        TaskHandle<String> handle = pool.scheduleDelayedTask(new Callable<String>() {
+            public String call() {
+                return "Delayed";
+            }
+        }, 10, TimeUnit.MILLISECONDS);
+        Assert.assertEquals("Delayed!", handle.thenApply(new TaskFuture.Function<String, String>() {
+            public String apply(String value) {
+                return value + "!";
+            }
+        }).get(2, TimeUnit.SECONDS));
+
+        TaskHandle<?> cancelled = pool.scheduleDelayedTask(new TaskTest(), 1, TimeUnit.MINUTES);
+        TaskFuture<?> after = cancelled.whenComplete(new TaskFuture.Completion<Object>() {
+            public void completed(Object result, Throwable thrown) {
+            }
+        });
+        cancelled.cancel(false);
+        Assert.assertTrue(after.isCancelled());
+        pool.shutdown();
+    }
+
+    @Test
+    public void testDebounceAndCoalesce() throws Exception {
+        TaskPool pool = TaskPool.builder("CollapsePool").coreSize(1).daemon(true).build();
+        final AtomicInteger runs = new AtomicInteger();
+        final AtomicReference<String> last = new AtomicReference<String>();
+        TaskFuture<?> first = null;
+        for (int index = 0; index < 5; index++) {
+            final String value = "save-" + index;
+            TaskFuture<?> future = pool.debounce("player", new Runnable() {
+                public void run() {
+                    runs.incrementAndGet();
+                    last.set(value);
+                }
+            }, 50, TimeUnit.MILLISECONDS);
+            if (first == null) {
+                first = future;
+            }
+            Assert.assertSame(first, future); // Collapsed into the pending run
+        }
+        first.get(2, TimeUnit.SECONDS);
+        Assert.assertEquals(1, runs.get());
+        Assert.assertEquals("save-4", last.get());
+
+        // A steady stream still runs by the max delay
+        long start = System.nanoTime();
+        TaskFuture<?> stream = pool.debounce("stream", new TaskTest(), 40, 100, TimeUnit.MILLISECONDS);
+        while (!stream.isDone() && System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2)) {
+            pool.debounce("stream", new TaskTest(), 40, 100, TimeUnit.MILLISECONDS);
+            Thread.sleep(10);
+        }
+        Assert.assertTrue(stream.isDone());
+        Assert.assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+
+        final CountDownLatch release = new CountDownLatch(1);
+        pool.executeTask(new Runnable() {
+            public void run() {
+                try {
+                    release.await();
+                }
+                catch (InterruptedException iex) {
+                    // Finish
+                }
+            }
+        }); // Holds the only thread, so the coalesced runs wait
+        runs.set(0);
+        TaskFuture<?> coalesced = pool.coalesce("board", new Runnable() {
+            public void run() {
+                runs.incrementAndGet();
+            }
+        });
+        Assert.assertSame(coalesced, pool.coalesce("board", new Runnable() {
+            public void run() {
+                runs.incrementAndGet();
+            }
+        }));
+        release.countDown();
+        coalesced.get(2, TimeUnit.SECONDS);
+        Assert.assertEquals(1, runs.get());
+        pool.shutdown();
+    }
+
+    @Test
+    public void testKeyedSerialExecutor() throws Exception {
+        TaskPool pool = TaskPool.builder("SerialPool").coreSize(4).daemon(true).workStealing(4).build();
+        KeyedSerialExecutor serial = new KeyedSerialExecutor(pool);
+        final int keys = 8;
+        final int perKey = 500;
+        final List<List<Integer>> seen = new ArrayList<List<Integer>>();
+        final AtomicInteger overlaps = new AtomicInteger();
+        final AtomicInteger[] running = new AtomicInteger[keys];
+        for (int key = 0; key < keys; key++) {
+            seen.add(new ArrayList<Integer>()); // Unsynchronized, as each key runs one task at a time
+            running[key] = new AtomicInteger();
+        }
+        TaskFuture<?> last = null;
+        for (int index = 0; index < perKey; index++) {
+            for (int key = 0; key < keys; key++) {
+                final int k = key;
+                final int value = index;
+                last = serial.submit(key, new Runnable() {
+                    public void run() {
+                        if (running[k].incrementAndGet() > 1) {
+                            overlaps.incrementAndGet();
+                        }
+                        seen.get(k).add(value);
+                        running[k].decrementAndGet();
+                    }
+                });
+            }
+        }
+        last.get(5, TimeUnit.SECONDS);
+        long deadline = System.currentTimeMillis() + 2000;
+        while (serial.getKeyCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        Assert.assertEquals(0, serial.getKeyCount()); // Idle keys are released
+        Assert.assertEquals(0, overlaps.get());
+        for (int key = 0; key < keys; key++) {
+            List<Integer> values = seen.get(key);
+            Assert.assertEquals(perKey, values.size());
+            for (int index = 0; index < perKey; index++) {
+                Assert.assertEquals(index, values.get(index).intValue());
+            }
+        }
+        Assert.assertEquals("done", serial.submit("again", new Callable<String>() {
+            public String call() {
+                return "done";
+            }
+        }).get(2, TimeUnit.SECONDS));
+        pool.shutdown();
+    }
+
+    @Test
+    public void testScheduleAtRate() throws Exception {
+        TaskPool pool = TaskPool.builder("RatePool").coreSize(2).daemon(true).build();
+        final AtomicInteger ticks = new AtomicInteger();
+        RateHandle steady = pool.scheduleAtRate(new Runnable() {
+            public void run() {
+                ticks.incrementAndGet();
+            }
+        }, 0, 10, TimeUnit.MILLISECONDS, TaskPool.Overrun.CATCH_UP);
+        Thread.sleep(205);
+        steady.cancel(false);
+        Assert.assertTrue(steady.isCancelled());
+        int ran = ticks.get();
+        Assert.assertTrue("Drifted to " + ran + " ticks", ran >= 18 && ran <= 22);
+        Assert.assertEquals(ran, steady.getTickCount());
+        Assert.assertTrue(steady.getMaxLag(TimeUnit.MILLISECONDS) < 50);
+
+        final AtomicInteger slowTicks = new AtomicInteger();
+        Runnable slow = new Runnable() {
+            public void run() {
+                if (slowTicks.incrementAndGet() == 1) {
+                    try {
+                        Thread.sleep(55); // Overruns at least the next five deadlines
+                    }
+                    catch (InterruptedException iex) {
+                        // Finish
+                    }
+                }
+            }
+        };
+        RateHandle skipping = pool.scheduleAtRate(slow, 0, 10, TimeUnit.MILLISECONDS, TaskPool.Overrun.SKIP);
+        long deadline = System.currentTimeMillis() + 2000;
+        while (skipping.getTickCount() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        skipping.cancel(false);
+        Assert.assertEquals(1, skipping.getOverrunCount());
+        long skippedTicks = skipping.getSkippedCount(); // Six if the first tick started late
+        Assert.assertTrue("Skipped " + skippedTicks + " ticks", skippedTicks == 5 || skippedTicks == 6);
+
+        RateHandle failing = pool.scheduleAtRate(new Runnable() {
+            public void run() {
+                throw new IllegalStateException("Tick failed");
+            }
+        }, 0, 10, TimeUnit.MILLISECONDS, TaskPool.Overrun.DELAY);
+        try {
+            failing.get(2, TimeUnit.SECONDS);
+            Assert.fail("Expected the failure to stop the ticks");
+        }
+        catch (ExecutionException eex) {
+            Assert.assertTrue(eex.getCause() instanceof IllegalStateException);
+        }
+        Assert.assertEquals(1, failing.getTickCount());
+        awaitUntracked(pool);
+        pool.shutdown();
+    }
+
+    @Test
+    public void testRateLimiter() throws Exception {
+        RateLimiter bucket = RateLimiter.tokenBucket(10, 1, TimeUnit.SECONDS, 3);
+        Assert.assertTrue(bucket.tryAcquire());
+        Assert.assertTrue(bucket.tryAcquire());
+        Assert.assertTrue(bucket.tryAcquire());
+        Assert.assertFalse(bucket.tryAcquire()); // Burst used up
+        Assert.assertTrue(bucket.getWait(TimeUnit.MILLISECONDS) > 0);
+
+        RateLimiter leaky = RateLimiter.leakyBucket(20, 1, TimeUnit.SECONDS);
+        Assert.assertTrue(leaky.tryAcquire());
+        Assert.assertFalse(leaky.tryAcquire()); // Evenly spaced
+        Assert.assertEquals(50, leaky.getInterval(TimeUnit.MILLISECONDS));
+
+        TaskPool pool = TaskPool.builder("LimitedPool").coreSize(1).daemon(true).build();
+        RateLimiter limiter = RateLimiter.leakyBucket(50, 1, TimeUnit.SECONDS);
+        long start = System.nanoTime();
+        List<TaskFuture<Long>> futures = new ArrayList<TaskFuture<Long>>();
+        for (int index = 0; index < 5; index++) {
+            futures.add(pool.submitTask(limiter, new Callable<Long>() {
+                public Long call() {
+                    return System.nanoTime();
+                }
+            }));
+        }
+        for (int index = 0; index < 5; index++) {
+            long ran = TimeUnit.NANOSECONDS.toMillis(futures.get(index).get(2, TimeUnit.SECONDS) - start);
+            Assert.assertTrue("Task " + index + " ran after " + ran + "ms", ran >= index * 20 - 2);
+        }
+        pool.shutdown();
+    }
+
+    @Test
+    public void testGracefulShutdown() throws Exception {
+        TaskPool pool = TaskPool.builder("DrainPool").coreSize(2).daemon(true).build();
+        TaskHandle<String> delayed = pool.scheduleDelayedTask(new Callable<String>() {
+            public String call() {
+                return "early";
+            }
+        }, 1, TimeUnit.HOURS);
+        final AtomicInteger debounced = new AtomicInteger();
+        TaskFuture<?> debounce = pool.debounce("key", new Runnable() {
+            public void run() {
+                debounced.incrementAndGet();
+            }
+        }, 1, TimeUnit.HOURS);
+        ShutdownReport report = pool.shutdown(2, TimeUnit.SECONDS, TaskPool.ShutdownPolicy.DRAIN);
+        Assert.assertEquals("early", delayed.get(1, TimeUnit.SECONDS));
+        debounce.get(1, TimeUnit.SECONDS);
+        Assert.assertEquals(1, debounced.get());
+        Assert.assertEquals(0, report.getDroppedCount());
+        Assert.assertTrue(report.isTerminated());
+        Assert.assertFalse(report.isForced());
+        Assert.assertEquals(0, pool.getTrackedCount());
+
+        TaskPool wheel = TaskPool.builder("FinishPool").coreSize(1).daemon(true).timingWheel(10, TimeUnit.MILLISECONDS).build();
+        TaskHandle<String> pending = wheel.scheduleDelayedTask(new Callable<String>() {
+            public String call() {
+                return "later";
+            }
+        }, 1, TimeUnit.HOURS);
+        Thread.sleep(30); // Let the wheel take the timeout
+        report = wheel.shutdown(2, TimeUnit.SECONDS, TaskPool.ShutdownPolicy.FINISH_QUEUED);
+        Assert.assertEquals(1, report.getDroppedCount());
+        Assert.assertTrue(pending.isCancelled()); // Dropped tasks are cancelled
+        report.getDropped().get(0).run();
+        Assert.assertTrue(pending.isCancelled());
+
+        TaskPool single = TaskPool.builder("DropPool").coreSize(1).daemon(true).build();
+        final CountDownLatch started = new CountDownLatch(1);
+        final AtomicInteger ran = new AtomicInteger();
+        single.executeTask(new Runnable() {
+            public void run() {
+                started.countDown();
+                try {
+                    Thread.sleep(100);
+                }
+                catch (InterruptedException iex) {
+                    return;
+                }
+                ran.incrementAndGet();
+            }
+        });
+        Assert.assertTrue(started.await(1, TimeUnit.SECONDS));
+        for (int index = 0; index < 3; index++) {
+            single.executeTask(new Runnable() {
+                public void run() {
+                    ran.incrementAndGet();
+                }
+            });
+        }
+        report = single.shutdown(2, TimeUnit.SECONDS, TaskPool.ShutdownPolicy.DROP);
+        Assert.assertEquals(3, report.getDroppedCount());
+        Assert.assertEquals(1, ran.get()); // The running task finished
+        Assert.assertTrue(report.isTerminated());
+        Assert.assertTrue(single.isTerminated());
+
+        TaskPool finish = TaskPool.builder("FinishQueuedPool").coreSize(1).daemon(true).build();
+        final AtomicInteger finished = new AtomicInteger();
+        for (int index = 0; index < 4; index++) {
+            finish.executeTask(new Runnable() {
+                public void run() {
+                    try {
+                        Thread.sleep(10);
+                    }
+                    catch (InterruptedException iex) {
+                        return;
+                    }
+                    finished.incrementAndGet();
+                }
+            });
+        }
+        report = finish.shutdown(2, TimeUnit.SECONDS, TaskPool.ShutdownPolicy.FINISH_QUEUED);
+        Assert.assertEquals(0, report.getDroppedCount());
+        Assert.assertEquals(4, finished.get()); // Queued immediate tasks are kept on every runtime
+
+        TaskPool stuck = TaskPool.builder("StuckPool").coreSize(1).daemon(true).build();
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        final CountDownLatch running = new CountDownLatch(1);
+        stuck.executeTask(new Runnable() {
+            public void run() {
+                running.countDown();
+                try {
+                    Thread.sleep(10000);
+                }
+                catch (InterruptedException iex) {
+                    interrupted.countDown();
+                }
+            }
+        });
+        Assert.assertTrue(running.await(1, TimeUnit.SECONDS));
+        report = stuck.shutdown(50, TimeUnit.MILLISECONDS, TaskPool.ShutdownPolicy.FINISH_QUEUED);
+        Assert.assertTrue(report.isForced());
+        Assert.assertTrue(interrupted.await(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testTimeoutAndWatchdog() throws Exception {
+        TaskPool pool = TaskPool.builder("WatchedPool").coreSize(2).daemon(true).watchdog(50, TimeUnit.MILLISECONDS).build();
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        TaskFuture<?> hung = pool.submitTask(new Runnable() {
+            public void run() {
+                try {
+                    Thread.sleep(10000);
+                }
+                catch (InterruptedException iex) {
+                    interrupted.countDown();
+                }
+            }
+        }, 100, TimeUnit.MILLISECONDS);
+        try {
+            hung.get(2, TimeUnit.SECONDS);
+            Assert.fail("Task should have timed out");
+        }
+        catch (ExecutionException eex) {
+            Assert.assertTrue(eex.getCause() instanceof TimeoutException);
+        }
+        Assert.assertTrue(interrupted.await(1, TimeUnit.SECONDS));
+        Assert.assertEquals(1, pool.getMetrics().getStuckCount()); // Ran past the 50ms threshold before its 100ms timeout
+
+        TaskFuture<String> quick = pool.submitTask(new Callable<String>() {
+            public String call() {
+                return "done";
+            }
+        }, 1, TimeUnit.SECONDS);
+        Assert.assertEquals("done", quick.get(1, TimeUnit.SECONDS));
+        Assert.assertFalse(Thread.currentThread().isInterrupted());
+        pool.shutdown();
+    }
+
+    @Test
+    public void testScheduleCron() throws Exception {
+        TaskPool pool = TaskPool.builder("CronPool").coreSize(1).daemon(true).build();
+        TaskHandle<?> handle = pool.scheduleCron(new Runnable() {
+            public void run() {
+            }
+        }, "* * * * *");
+        long delay = handle.getDelay(TimeUnit.MILLISECONDS);
+        Assert.assertTrue("Delay of " + delay + "ms", delay > -1000 && delay <= 60000); // Next whole minute, which may just have passed
+        Assert.assertEquals(1, pool.getTrackedCount());
+        Assert.assertTrue(handle.cancel(false));
+        Assert.assertEquals(0, pool.getTrackedCount());
+        pool.shutdown();
+    }
+
+    @Test
+    public void testAutoscale() throws Exception {
+        TaskPool pool = TaskPool.builder("ScaledPool").coreSize(1).daemon(true).autoscale(1, 4, 5, 50, TimeUnit.MILLISECONDS).build();
+        TaskAutoscaler autoscaler = pool.getAutoscaler();
+        Assert.assertNotNull(autoscaler);
+        Assert.assertEquals(1, autoscaler.getSize());
+        final CountDownLatch done = new CountDownLatch(60);
+        for (int index = 0; index < 60; index++) {
+            pool.executeTask(new Runnable() {
+                public void run() {
+                    try {
+                        Thread.sleep(20);
+                    }
+                    catch (InterruptedException iex) {
+                        // Finish early
+                    }
+                    done.countDown();
+                }
+            });
+        }
+        Assert.assertTrue(done.await(5, TimeUnit.SECONDS));
+        Assert.assertTrue(autoscaler.getGrowCount() > 0); // Tasks waited well past the 5ms target
+        long deadline = System.currentTimeMillis() + 3000;
+        while (autoscaler.getShrinkCount() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        Assert.assertTrue(autoscaler.getShrinkCount() > 0); // Idle for several samples
+        Assert.assertTrue(autoscaler.getSize() >= 1 && autoscaler.getSize() <= 4);
+        pool.shutdown();
+    }
+
+    @Test
+    public void testTaskGraph() throws Exception {
+        TaskPool pool = TaskPool.builder("GraphPool").coreSize(2).daemon(true).build();
+        final CountDownLatch bothScanning = new CountDownLatch(2);
+        Callable<String> scan = new Callable<String>() {
+            public String call() throws Exception {
+                bothScanning.countDown();
+                return bothScanning.await(2, TimeUnit.SECONDS) ? "scanned" : "alone"; // Only both running at once can pass
+            }
+        };
+        TaskGraph graph = new TaskGraph()
+                .addTask("index", new Callable<Integer>() {
+                    public Integer call() {
+                        return 3;
+                    }
+                }, "jars", "plugins") // Added before its dependencies
+                .addTask("config", new Callable<String>() {
+                    public String call() {
+                        return "loaded";
+                    }
+                })
+                .addTask("jars", scan, "config")
+                .addTask("plugins", scan, "config");
+        Map<String, Object> results = pool.submitGraph(graph).get(5, TimeUnit.SECONDS);
+        Assert.assertEquals(Arrays.asList("index", "config", "jars", "plugins"), new ArrayList<String>(results.keySet()));
+        Assert.assertEquals("loaded", results.get("config"));
+        Assert.assertEquals("scanned", results.get("jars"));
+        Assert.assertEquals("scanned", results.get("plugins"));
+        Assert.assertEquals(3, results.get("index"));
+
+        final AtomicInteger ran = new AtomicInteger();
+        Runnable count = new Runnable() {
+            public void run() {
+                ran.incrementAndGet();
+            }
+        };
+        TaskGraph failing = new TaskGraph()
+                .addTask("broken", new Callable<Object>() {
+                    public Object call() {
+                        throw new IllegalStateException("broken");
+                    }
+                })
+                .addTask("dependent", count, "broken")
+                .addTask("transitive", count, "dependent")
+                .addTask("independent", count);
+        try {
+            pool.submitGraph(failing).get(5, TimeUnit.SECONDS);
+            Assert.fail("Graph should have failed");
+        }
+        catch (ExecutionException eex) {
+            Assert.assertTrue(eex.getCause() instanceof IllegalStateException);
+        }
+        Assert.assertEquals(1, ran.get()); // Only the independent task ran
+
+        try {
+            pool.submitGraph(new TaskGraph().addTask("a", count, "b").addTask("b", count, "a"));
+            Assert.fail("Cycle should have been rejected");
+        }
+        catch (IllegalArgumentException iaex) {
+            // Expected
+        }
+        try {
+            pool.submitGraph(new TaskGraph().addTask("a", count, "missing"));
+            Assert.fail("Unknown dependency should have been rejected");
+        }
+        catch (IllegalArgumentException iaex) {
+            // Expected
+        }
+        Assert.assertTrue(pool.submitGraph(new TaskGraph()).get(1, TimeUnit.SECONDS).isEmpty());
+        pool.shutdown();
+    }
+
+    @Test
+    public void testDroppedTasksCancelled() throws Exception {
+        TaskPool[] pools = { TaskPool.builder("CancelPool").coreSize(1).daemon(true).build(),
+                TaskPool.builder("CancelStealPool").coreSize(1).workStealing(1).daemon(true).build() };
+        for (TaskPool pool : pools) {
+            final CountDownLatch release = new CountDownLatch(1);
+            final CountDownLatch started = new CountDownLatch(1);
+            pool.executeTask(new Runnable() {
+                public void run() {
+                    started.countDown();
+                    try {
+                        release.await();
+                    }
+                    catch (InterruptedException iex) {
+                        // Shut down now
+                    }
+                }
+            });
+            Assert.assertTrue(started.await(1, TimeUnit.SECONDS));
+            TaskFuture<?> queued = pool.submitTask(new Runnable() {
+                public void run() {
+                }
+            });
+            final CountDownLatch completed = new CountDownLatch(1);
+            queued.whenComplete(new TaskFuture.Completion<Object>() {
+                public void completed(Object result, Throwable failure) {
+                    completed.countDown();
+                }
+            });
+            TaskFuture<?> debounced = pool.debounce("key", new Runnable() {
+                public void run() {
+                }
+            }, 1, TimeUnit.HOURS);
+            ShutdownReport report = pool.shutdownNow();
+            Assert.assertEquals(pool.getName(), 2, report.getDroppedCount());
+            Assert.assertTrue(pool.getName(), queued.isCancelled());
+            Assert.assertTrue(pool.getName(), completed.await(1, TimeUnit.SECONDS));
+            Assert.assertTrue(pool.getName(), debounced.isCancelled());
+            try {
+                pool.submitTask(new Runnable() {
+                    public void run() {
+                    }
+                });
+                Assert.fail(pool.getName() + " should have stopped accepting tasks");
+            }
+            catch (RejectedExecutionException rex) {
+                // Expected
+            }
+        }
+    }
+
+    private static void awaitUntracked(TaskPool pool) throws InterruptedException {
+        long wait = System.currentTimeMillis() + 1000; // Tracking is released just after the result is set
+        while (pool.getTrackedCount() > 0 && System.currentTimeMillis() < wait) {
+            Thread.sleep(1);
+        }
+        Assert.assertEquals(0, pool.getTrackedCount());
+    }
+
     private class TaskTest implements Runnable {
 
         public void run() {
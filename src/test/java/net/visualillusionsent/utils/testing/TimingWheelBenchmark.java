@@ -0,0 +1,47 @@
+package net.visualillusionsent.utils.testing;
+
+import net.visualillusionsent.utils.TaskPool;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares scheduling and cancelling delayed tasks on the ThreadPool queue against the timing wheel.
+ * Run with {@code main} on the test classpath, such as {@code java -cp target/classes:target/test-classes net.visualillusionsent.utils.testing.TimingWheelBenchmark}.
+ * It has no {@code @Test} methods and its name does not end in Test, so it is not part of the unit tests.
+ *
+ * @author Jason Jones (darkdiplomat)
+ */
+public class TimingWheelBenchmark {
+
+    private static final int TASKS = 200000;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        TaskPool queuePool = TaskPool.builder("QueueBench").coreSize(8).daemon(true).build();
+        TaskPool wheelPool = TaskPool.builder("WheelBench").coreSize(8).daemon(true).timingWheel(10, TimeUnit.MILLISECONDS).build();
+        for (int round = 0; round < ROUNDS; round++) {
+            System.out.println(String.format("Round %d: queue %s, wheel %s", round + 1, run(queuePool), run(wheelPool)));
+        }
+        queuePool.shutdown();
+        wheelPool.shutdown();
+    }
+
+    private static String run(TaskPool pool) {
+        ScheduledFuture<?>[] futures = new ScheduledFuture<?>[TASKS];
+        Runnable task = new Runnable() {
+            public void run() {
+            }
+        };
+        long start = System.nanoTime();
+        for (int index = 0; index < TASKS; index++) {
+            futures[index] = pool.scheduleDelayedTask(task, 30 + index % 600, TimeUnit.SECONDS); // Cooldown style delays
+        }
+        long scheduled = System.nanoTime();
+        for (int index = 0; index < TASKS; index++) {
+            futures[index].cancel(false);
+        }
+        long cancelled = System.nanoTime();
+        return String.format("schedule %.1f ns/op, cancel %.1f ns/op", (scheduled - start) / (double)TASKS, (cancelled - scheduled) / (double)TASKS);
+    }
+}